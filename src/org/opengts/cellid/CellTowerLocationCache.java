@@ -0,0 +1,996 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Shared CellTower (MCC/MNC/LAC/CID) to MobileLocation cache
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Lookups are keyed on the MobileLocationProvider name and the serving cell
+//    MCC/MNC/LAC/CID.  Neighbor cell information is passed to the
+//    MobileLocationProvider on a cache miss, but does not affect the cache key.
+//  - Three tiers are checked in order:
+//      1) Memory tier: LRU map of recently resolved cells.  Cells which the
+//         MobileLocationProvider reported as having no known location are
+//         cached as "unknown" (negative caching) with a separate, shorter,
+//         time-to-live.  Provider failures (null result) are not cached.
+//      2) Seed tier: read-only, memory-mapped, sorted binary index built from
+//         an offline cell database dump (ie. OpenCellID "cell_towers.csv").
+//         Built with "main" using "-import=<csvFile> -seed=<indexFile>".
+//      3) MobileLocationProvider (remote service).
+//  - Memory tier entries are appended to a journal file (if configured) by a
+//    background thread about once per second, and the journal is replayed on startup so that resolved cells survive a restart.  The
+//    journal is compacted on startup when it contains mostly stale entries.
+//  - Properties:
+//      CellTowerLocationCache.enable=true
+//      CellTowerLocationCache.maximumSize=20000
+//      CellTowerLocationCache.ttlSeconds=2592000
+//      CellTowerLocationCache.negativeTtlSeconds=86400
+//      CellTowerLocationCache.journalFile=cellcache/journal.csv
+//      CellTowerLocationCache.seedFile=cellcache/cell_towers.idx
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.cellid;
+
+import java.io.*;
+import java.util.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.opengts.util.*;
+
+import org.opengts.db.DBConfig;
+
+/**
+*** Shared CellTower (MCC/MNC/LAC/CID) to MobileLocation cache
+**/
+
+public class CellTowerLocationCache
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int    DEFAULT_MAXIMUM_SIZE        = 20000;
+    public  static final long   DEFAULT_TTL_SEC             = DateTime.DaySeconds(30);
+    public  static final long   DEFAULT_NEGATIVE_TTL_SEC    = DateTime.DaySeconds(1);
+
+    private static final int    SEED_MAGIC                  = 0x4F474354; // "OGCT"
+    private static final int    SEED_VERSION                = 1;
+    private static final int    SEED_HEADER_SIZE            = 16;
+    private static final int    SEED_RECORD_SIZE            = 20; // key(8), lat(4), lon(4), acc(4)
+
+    private static final long   JOURNAL_INTERVAL_MS         = 1000L;
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the cache key for the specified CellTower
+    *** @param ct  The CellTower
+    *** @return The cache key, or -1 if the CellTower does not specify a
+    ***     cacheable MCC/MNC/LAC/CID
+    **/
+    public static long getKey(CellTower ct)
+    {
+        if (ct == null) {
+            return -1L;
+        }
+        return CellTowerLocationCache.getKey(
+            ct.getMobileCountryCode(), ct.getMobileNetworkCode(),
+            ct.getLocationAreaCode(), ct.getCellTowerID());
+    }
+
+    /**
+    *** Gets the cache key for the specified MCC/MNC/LAC/CID
+    *** @return The cache key, or -1 if any value is out of range
+    **/
+    public static long getKey(int mcc, int mnc, int lac, int cid)
+    {
+        // -- mcc:10, mnc:10, lac:16, cid:28
+        if ((mcc < 0) || (mcc > 0x3FF)    ||
+            (mnc < 0) || (mnc > 0x3FF)    ||
+            (lac < 0) || (lac > 0xFFFF)   ||
+            (cid < 0) || (cid > 0xFFFFFFF)  ) {
+            return -1L;
+        }
+        return ((long)mcc << 54) | ((long)mnc << 44) | ((long)lac << 28) | (long)cid;
+    }
+
+    /**
+    *** Returns the "mcc,mnc,lac,cid" String representation of the specified key
+    **/
+    private static String _keyString(long key)
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append((key >>> 54) & 0x3FFL).append(",");
+        sb.append((key >>> 44) & 0x3FFL).append(",");
+        sb.append((key >>> 28) & 0xFFFFL).append(",");
+        sb.append(key & 0xFFFFFFFL);
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Memory tier key (MobileLocationProvider name and cell key)
+    **/
+    private static class CellKey
+    {
+        private String  provider    = null;
+        private long    cell        = 0L;
+        public CellKey(String provider, long cell) {
+            this.provider = StringTools.trim(provider);
+            this.cell     = cell;
+        }
+        public boolean equals(Object other) {
+            if (other instanceof CellKey) {
+                CellKey ck = (CellKey)other;
+                return (this.cell == ck.cell) && this.provider.equals(ck.provider);
+            }
+            return false;
+        }
+        public int hashCode() {
+            return (int)(this.cell ^ (this.cell >>> 32)) ^ this.provider.hashCode();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Memory tier entry
+    **/
+    private static class Entry
+    {
+        private double  latitude    = 0.0;
+        private double  longitude   = 0.0;
+        private double  accuracyM   = 0.0;
+        private long    timestamp   = 0L;   // seconds
+        private long    expireMS    = 0L;
+        public Entry(double lat, double lon, double acc, long ts, long ttlSec) {
+            this.latitude  = lat;
+            this.longitude = lon;
+            this.accuracyM = acc;
+            this.timestamp = ts;
+            this.expireMS  = (ts + ttlSec) * 1000L;
+        }
+        public boolean isNegative() {
+            return !GeoPoint.isValid(this.latitude, this.longitude);
+        }
+        public boolean isExpired(long nowMS) {
+            return (nowMS >= this.expireMS);
+        }
+        public MobileLocation getMobileLocation() {
+            // -- a new instance is returned, since MobileLocation is mutable
+            if (this.isNegative()) {
+                return new MobileLocation(GeoPoint.INVALID_GEOPOINT, 0.0);
+            } else {
+                return new MobileLocation(this.latitude, this.longitude, this.accuracyM);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static CellTowerLocationCache   cacheInstance   = null;
+    private static boolean                  cacheInit       = false;
+
+    /**
+    *** Gets the shared CellTowerLocationCache instance
+    *** @return The CellTowerLocationCache, or null if disabled
+    **/
+    public static CellTowerLocationCache getInstance()
+    {
+        if (!CellTowerLocationCache.cacheInit) {
+            synchronized (CellTowerLocationCache.class) {
+                if (!CellTowerLocationCache.cacheInit) {
+                    if (RTConfig.getBoolean(DBConfig.PROP_CellTowerLocationCache_enable,true)) {
+                        CellTowerLocationCache.cacheInstance = new CellTowerLocationCache(
+                            RTConfig.getInt( DBConfig.PROP_CellTowerLocationCache_maximumSize       , DEFAULT_MAXIMUM_SIZE),
+                            RTConfig.getLong(DBConfig.PROP_CellTowerLocationCache_ttlSeconds        , DEFAULT_TTL_SEC),
+                            RTConfig.getLong(DBConfig.PROP_CellTowerLocationCache_negativeTtlSeconds, DEFAULT_NEGATIVE_TTL_SEC),
+                            _resolveFile(RTConfig.getString(DBConfig.PROP_CellTowerLocationCache_journalFile,null)),
+                            _resolveFile(RTConfig.getString(DBConfig.PROP_CellTowerLocationCache_seedFile,null)));
+                        CellTowerLocationCache.cacheInstance._registerMetrics();
+                    }
+                    CellTowerLocationCache.cacheInit = true;
+                }
+            }
+        }
+        return CellTowerLocationCache.cacheInstance;
+    }
+
+    /**
+    *** Resolves the specified file path (relative paths are relative to the
+    *** loaded config file directory)
+    **/
+    private static File _resolveFile(String path)
+    {
+        if (StringTools.isBlank(path)) {
+            return null;
+        }
+        File f = new File(path.trim());
+        if (!f.isAbsolute()) {
+            File cfgDir = RTConfig.getLoadedConfigDir();
+            if (cfgDir != null) {
+                f = new File(cfgDir, f.getPath());
+            }
+        }
+        return f;
+    }
+
+    /**
+    *** Returns the cached location of the specified CellTower, without calling
+    *** the MobileLocationProvider.
+    *** @param mlp The MobileLocationProvider for which the location was cached
+    *** @param ct  The serving CellTower
+    *** @return The cached MobileLocation, or null if not cached (or if the cache is
+    ***     disabled, or the MobileLocationProvider is null/disabled).  The returned
+    ***     MobileLocation is invalid (see "isValid()") if the CellTower is cached as
+    ***     having no known location.
+    **/
+    public static MobileLocation getCachedLocation(MobileLocationProvider mlp, CellTower ct)
+    {
+        CellTowerLocationCache ctlc = CellTowerLocationCache.getInstance();
+        return (ctlc != null)? ctlc.get(mlp, ct) : null;
+    }
+
+    /**
+    *** Returns the location of the specified CellTower, from the cache if available,
+    *** otherwise from the specified MobileLocationProvider (the result is then cached).
+    *** @param mlp     The MobileLocationProvider called on a cache miss
+    *** @param servCT  The serving CellTower
+    *** @param nborCT  The neighbor CellTowers (passed to the MobileLocationProvider only)
+    *** @return The MobileLocation, or null if no location could be determined
+    **/
+    public static MobileLocation getMobileLocation(MobileLocationProvider mlp, CellTower servCT, CellTower nborCT[])
+    {
+        CellTowerLocationCache ctlc = CellTowerLocationCache.getInstance();
+        if (ctlc == null) {
+            return (mlp != null)? mlp.getMobileLocation(servCT, nborCT) : null;
+        } else {
+            return ctlc.getLocation(mlp, servCT, nborCT);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private int                 maxSize         = DEFAULT_MAXIMUM_SIZE;
+    private long                ttlSec          = DEFAULT_TTL_SEC;
+    private long                negTtlSec       = DEFAULT_NEGATIVE_TTL_SEC;
+
+    private Map<CellKey,Entry>  memCache        = null;
+
+    private File                journalFile     = null;
+    private Writer              journalWriter   = null;
+    private ConcurrentLinkedQueue<String> journalQueue = new ConcurrentLinkedQueue<String>();
+
+    private File                seedFile        = null;
+    private ByteBuffer          seedBuffer      = null;
+    private int                 seedCount       = 0;
+
+    private AtomicLong          hitCount        = new AtomicLong(0L);
+    private AtomicLong          negHitCount     = new AtomicLong(0L);
+    private AtomicLong          seedHitCount    = new AtomicLong(0L);
+    private AtomicLong          missCount       = new AtomicLong(0L);
+    private AtomicLong          expireCount     = new AtomicLong(0L);
+    private AtomicLong          evictCount      = new AtomicLong(0L);
+    private AtomicLong          providerCount   = new AtomicLong(0L);
+    private AtomicLong          providerFailed  = new AtomicLong(0L);
+
+    /**
+    *** Constructor
+    *** @param maxSize      The maximum number of cells in the memory tier
+    *** @param ttlSec       The time-to-live of a located cell (seconds)
+    *** @param negTtlSec    The time-to-live of a cell with no known location (seconds)
+    *** @param journalFile  The journal file (null for no persistence)
+    *** @param seedFile     The seed index file (null for no seed tier)
+    **/
+    public CellTowerLocationCache(int maxSize, long ttlSec, long negTtlSec, File journalFile, File seedFile)
+    {
+        this.maxSize     = (maxSize > 0)? maxSize : DEFAULT_MAXIMUM_SIZE;
+        this.ttlSec      = (ttlSec > 0L)? ttlSec : DEFAULT_TTL_SEC;
+        this.negTtlSec   = (negTtlSec >= 0L)? negTtlSec : DEFAULT_NEGATIVE_TTL_SEC;
+        this.journalFile = journalFile;
+        this.seedFile    = seedFile;
+        final int MAX_SIZE = this.maxSize;
+        this.memCache = new LinkedHashMap<CellKey,Entry>(Math.min(MAX_SIZE,1024), 0.75F, true) {
+            protected boolean removeEldestEntry(Map.Entry<CellKey,Entry> eldest) {
+                if (this.size() > MAX_SIZE) {
+                    CellTowerLocationCache.this.evictCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this._openSeedIndex();
+        this._replayJournal();
+        this._startJournalWriter();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns the cached location of the specified CellTower
+    *** @param mlp The MobileLocationProvider for which the location was cached
+    *** @param ct  The serving CellTower
+    *** @return The cached MobileLocation, or null if not cached (or if the
+    ***     MobileLocationProvider is null/disabled).  The returned MobileLocation
+    ***     is invalid if the CellTower has no known location.
+    **/
+    public MobileLocation get(MobileLocationProvider mlp, CellTower ct)
+    {
+        if ((mlp == null) || !mlp.isEnabled()) {
+            return null;
+        }
+        long key = CellTowerLocationCache.getKey(ct);
+        if (key < 0L) {
+            return null;
+        }
+
+        /* memory tier */
+        long    nowMS = System.currentTimeMillis();
+        CellKey ck    = new CellKey(mlp.getName(), key);
+        synchronized (this.memCache) {
+            Entry e = this.memCache.get(ck);
+            if (e != null) {
+                if (!e.isExpired(nowMS)) {
+                    if (e.isNegative()) {
+                        this.negHitCount.incrementAndGet();
+                    } else {
+                        this.hitCount.incrementAndGet();
+                    }
+                    return e.getMobileLocation();
+                }
+                this.memCache.remove(ck);
+                this.expireCount.incrementAndGet();
+            }
+        }
+
+        /* seed tier */
+        MobileLocation ml = this._getSeedLocation(key);
+        if (ml != null) {
+            this.seedHitCount.incrementAndGet();
+            return ml;
+        }
+
+        /* not cached */
+        this.missCount.incrementAndGet();
+        return null;
+
+    }
+
+    /**
+    *** Adds the location of the specified CellTower to the cache
+    *** @param mlp The MobileLocationProvider which returned the location
+    *** @param ct  The serving CellTower
+    *** @param ml  The MobileLocation (invalid if the CellTower has no known location,
+    ***     null if the location could not be determined, in which case nothing is cached)
+    **/
+    public void put(MobileLocationProvider mlp, CellTower ct, MobileLocation ml)
+    {
+        if ((mlp == null) || (ml == null)) {
+            return;
+        }
+        long key = CellTowerLocationCache.getKey(ct);
+        if (key < 0L) {
+            return;
+        }
+        long nowSec = System.currentTimeMillis() / 1000L;
+        Entry e;
+        if (ml.isValid()) {
+            GeoPoint gp = ml.getGeoPoint();
+            e = new Entry(gp.getLatitude(), gp.getLongitude(), ml.getAccuracy(), nowSec, this.ttlSec);
+        } else
+        if (this.negTtlSec > 0L) {
+            e = new Entry(0.0, 0.0, 0.0, nowSec, this.negTtlSec);
+        } else {
+            return; // negative caching disabled
+        }
+        CellKey ck = new CellKey(mlp.getName(), key);
+        synchronized (this.memCache) {
+            this.memCache.put(ck, e);
+        }
+        this._appendJournal(ck, e);
+    }
+
+    /**
+    *** Returns the location of the specified CellTower, from the cache if available,
+    *** otherwise from the specified MobileLocationProvider (the result is then cached).
+    *** @param mlp     The MobileLocationProvider called on a cache miss
+    *** @param servCT  The serving CellTower
+    *** @param nborCT  The neighbor CellTowers (passed to the MobileLocationProvider only)
+    *** @return The MobileLocation, or null if no location could be determined
+    **/
+    public MobileLocation getLocation(MobileLocationProvider mlp, CellTower servCT, CellTower nborCT[])
+    {
+
+        /* MobileLocationProvider */
+        if ((mlp == null) || !mlp.isEnabled()) {
+            return null;
+        }
+
+        /* cached? */
+        MobileLocation ml = this.get(mlp, servCT);
+        if (ml != null) {
+            return ml.isValid()? ml : null;
+        }
+
+        /* request location */
+        this.providerCount.incrementAndGet();
+        ml = mlp.getMobileLocation(servCT, nborCT);
+        if (ml == null) {
+            // -- request failed, do not cache
+            this.providerFailed.incrementAndGet();
+            return null;
+        } else
+        if (!ml.isValid()) {
+            // -- provider reported no known location
+            this.providerFailed.incrementAndGet();
+            this.put(mlp, servCT, ml);
+            return null;
+        } else {
+            this.put(mlp, servCT, ml);
+            return ml;
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Opens the seed index file (if specified)
+    **/
+    private void _openSeedIndex()
+    {
+        if ((this.seedFile == null) || !this.seedFile.isFile()) {
+            if (this.seedFile != null) {
+                Print.logWarn("CellTower seed index not found: " + this.seedFile);
+            }
+            return;
+        }
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(this.seedFile, "r");
+            FileChannel fc = raf.getChannel();
+            ByteBuffer bb = fc.map(FileChannel.MapMode.READ_ONLY, 0L, fc.size());
+            bb.order(ByteOrder.BIG_ENDIAN);
+            if ((bb.capacity() < SEED_HEADER_SIZE) || (bb.getInt(0) != SEED_MAGIC) || (bb.getInt(4) != SEED_VERSION)) {
+                Print.logError("Invalid CellTower seed index: " + this.seedFile);
+                return;
+            }
+            int count = bb.getInt(8);
+            if (bb.capacity() < (SEED_HEADER_SIZE + ((long)count * SEED_RECORD_SIZE))) {
+                Print.logError("Truncated CellTower seed index: " + this.seedFile);
+                return;
+            }
+            this.seedBuffer = bb;
+            this.seedCount  = count;
+            Print.logInfo("Loaded CellTower seed index: " + this.seedFile + " [" + count + " cells]");
+        } catch (IOException ioe) {
+            Print.logException("Unable to open CellTower seed index: " + this.seedFile, ioe);
+        } finally {
+            if (raf != null) { try { raf.close(); } catch (Throwable th) {/*ignore*/} }
+        }
+    }
+
+    /**
+    *** Returns the seeded location for the specified key, or null if not found
+    **/
+    private MobileLocation _getSeedLocation(long key)
+    {
+        ByteBuffer bb = this.seedBuffer;
+        if (bb == null) {
+            return null;
+        }
+        int lo = 0, hi = this.seedCount - 1;
+        while (lo <= hi) {
+            int  mid = (lo + hi) >>> 1;
+            int  ofs = SEED_HEADER_SIZE + (mid * SEED_RECORD_SIZE);
+            long k   = bb.getLong(ofs);
+            if (k < key) {
+                lo = mid + 1;
+            } else
+            if (k > key) {
+                hi = mid - 1;
+            } else {
+                double lat = (double)bb.getInt(ofs +  8) / 1000000.0;
+                double lon = (double)bb.getInt(ofs + 12) / 1000000.0;
+                double acc = (double)bb.getInt(ofs + 16);
+                return new MobileLocation(lat, lon, acc);
+            }
+        }
+        return null;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Replays the journal file into the memory tier (compacting if necessary),
+    *** and opens the journal for append.
+    **/
+    private void _replayJournal()
+    {
+        if (this.journalFile == null) {
+            return;
+        }
+
+        /* replay */
+        long nowMS = System.currentTimeMillis();
+        int  lines = 0;
+        if (this.journalFile.isFile()) {
+            BufferedReader br = null;
+            try {
+                br = new BufferedReader(new InputStreamReader(new FileInputStream(this.journalFile), StringTools.CharEncoding_UTF_8));
+                for (;;) {
+                    String line = br.readLine();
+                    if (line == null) { break; }
+                    // mcc,mnc,lac,cid,timestamp,lat,lon,acc,provider
+                    String f[] = StringTools.split(line, ',');
+                    if ((f.length < 9) || StringTools.isBlank(f[8])) { continue; }
+                    lines++;
+                    long key = CellTowerLocationCache.getKey(
+                        StringTools.parseInt(f[0],-1), StringTools.parseInt(f[1],-1),
+                        StringTools.parseInt(f[2],-1), StringTools.parseInt(f[3],-1));
+                    if (key < 0L) { continue; }
+                    long   ts  = StringTools.parseLong(f[4], 0L);
+                    boolean neg = StringTools.isBlank(f[5]);
+                    Entry  e   = new Entry(
+                        StringTools.parseDouble(f[5],0.0), StringTools.parseDouble(f[6],0.0),
+                        StringTools.parseDouble(f[7],0.0), ts, (neg? this.negTtlSec : this.ttlSec));
+                    CellKey ck = new CellKey(f[8], key);
+                    if (!e.isExpired(nowMS)) {
+                        this.memCache.put(ck, e); // later entries replace earlier
+                    } else {
+                        this.memCache.remove(ck);
+                    }
+                }
+            } catch (IOException ioe) {
+                Print.logException("Unable to read CellTower cache journal: " + this.journalFile, ioe);
+            } finally {
+                if (br != null) { try { br.close(); } catch (Throwable th) {/*ignore*/} }
+            }
+            Print.logInfo("Loaded CellTower cache journal: " + this.journalFile + " [" + this.memCache.size() + " cells]");
+        }
+
+        /* compact (rewrite current entries) if mostly stale */
+        boolean compact = (lines > (2 * Math.max(this.memCache.size(),1000)));
+        try {
+            File dir = this.journalFile.getParentFile();
+            if ((dir != null) && !dir.isDirectory()) {
+                dir.mkdirs();
+            }
+            if (compact) {
+                File tmp = new File(this.journalFile.getPath() + ".tmp");
+                Writer w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp,false), StringTools.CharEncoding_UTF_8));
+                try {
+                    for (Map.Entry<CellKey,Entry> me : this.memCache.entrySet()) {
+                        w.write(_journalLine(me.getKey(), me.getValue()));
+                    }
+                } finally {
+                    w.close();
+                }
+                if (!tmp.renameTo(this.journalFile)) {
+                    this.journalFile.delete();
+                    tmp.renameTo(this.journalFile);
+                }
+                Print.logInfo("Compacted CellTower cache journal: " + lines + " ==> " + this.memCache.size());
+            }
+            this.journalWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(this.journalFile,true), StringTools.CharEncoding_UTF_8));
+        } catch (IOException ioe) {
+            Print.logException("Unable to open CellTower cache journal: " + this.journalFile, ioe);
+            this.journalWriter = null;
+        }
+
+    }
+
+    /**
+    *** Returns the journal line for the specified entry
+    **/
+    private static String _journalLine(CellKey ck, Entry e)
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append(_keyString(ck.cell)).append(",");
+        sb.append(e.timestamp).append(",");
+        if (!e.isNegative()) {
+            sb.append(StringTools.format(e.latitude ,"0.000000")).append(",");
+            sb.append(StringTools.format(e.longitude,"0.000000")).append(",");
+            sb.append(Math.round(e.accuracyM));
+        } else {
+            sb.append(",,");
+        }
+        sb.append(",").append(ck.provider);
+        sb.append("\n");
+        return sb.toString();
+    }
+
+    /**
+    *** Queues the specified entry for the journal
+    **/
+    private void _appendJournal(CellKey ck, Entry e)
+    {
+        if (this.journalWriter == null) {
+            return;
+        }
+        this.journalQueue.add(_journalLine(ck, e));
+    }
+
+    /**
+    *** Writes the queued journal entries, and flushes the journal
+    **/
+    private void _writeJournal()
+    {
+        synchronized (this.journalQueue) { // single writer
+            if (this.journalQueue.isEmpty()) {
+                return;
+            }
+            try {
+                for (;;) {
+                    String line = this.journalQueue.poll();
+                    if (line == null) { break; }
+                    this.journalWriter.write(line);
+                }
+                this.journalWriter.flush();
+            } catch (IOException ioe) {
+                Print.logError("Unable to write CellTower cache journal: " + ioe);
+            }
+        }
+    }
+
+    /**
+    *** Starts the background thread which writes queued entries to the journal
+    **/
+    private void _startJournalWriter()
+    {
+        if (this.journalWriter == null) {
+            return;
+        }
+        Thread writer = new Thread(new Runnable() {
+            public void run() {
+                for (;;) {
+                    try { Thread.sleep(JOURNAL_INTERVAL_MS); } catch (InterruptedException ie) { break; }
+                    CellTowerLocationCache.this._writeJournal();
+                }
+            }
+        }, "CellTowerLocationCache.journal");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread("CellTowerLocationCache.shutdown") {
+            public void run() {
+                CellTowerLocationCache.this._writeJournal();
+            }
+        });
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of cells in the memory tier
+    *** @return The number of cells in the memory tier
+    **/
+    public int getSize()
+    {
+        synchronized (this.memCache) {
+            return this.memCache.size();
+        }
+    }
+
+    /**
+    *** Gets the number of cells in the seed tier
+    *** @return The number of cells in the seed tier
+    **/
+    public int getSeedSize()
+    {
+        return this.seedCount;
+    }
+
+    /**
+    *** Gets the number of memory tier hits for located cells
+    **/
+    public long getHitCount()
+    {
+        return this.hitCount.get();
+    }
+
+    /**
+    *** Gets the number of memory tier hits for cells with no known location
+    **/
+    public long getNegativeHitCount()
+    {
+        return this.negHitCount.get();
+    }
+
+    /**
+    *** Gets the number of seed tier hits
+    **/
+    public long getSeedHitCount()
+    {
+        return this.seedHitCount.get();
+    }
+
+    /**
+    *** Gets the number of lookups not found in any cache tier
+    **/
+    public long getMissCount()
+    {
+        return this.missCount.get();
+    }
+
+    /**
+    *** Gets the number of MobileLocationProvider requests
+    **/
+    public long getProviderCount()
+    {
+        return this.providerCount.get();
+    }
+
+    /**
+    *** Gets the number of MobileLocationProvider requests which did not return a location
+    **/
+    public long getProviderFailedCount()
+    {
+        return this.providerFailed.get();
+    }
+
+    /**
+    *** Registers the counters of this instance with Metrics
+    **/
+    private void _registerMetrics()
+    {
+        final CellTowerLocationCache C = this;
+        Metrics.registerCounter("gts_celltower_cache_lookups_total{result=\"hit\"}", "CellTowerLocationCache lookups by result", new Metrics.Gauge() {
+            public double getValue() { return C.getHitCount(); }
+        });
+        Metrics.registerCounter("gts_celltower_cache_lookups_total{result=\"negative\"}", "CellTowerLocationCache lookups by result", new Metrics.Gauge() {
+            public double getValue() { return C.getNegativeHitCount(); }
+        });
+        Metrics.registerCounter("gts_celltower_cache_lookups_total{result=\"seed\"}", "CellTowerLocationCache lookups by result", new Metrics.Gauge() {
+            public double getValue() { return C.getSeedHitCount(); }
+        });
+        Metrics.registerCounter("gts_celltower_cache_lookups_total{result=\"miss\"}", "CellTowerLocationCache lookups by result", new Metrics.Gauge() {
+            public double getValue() { return C.getMissCount(); }
+        });
+        Metrics.registerCounter("gts_celltower_provider_requests_total", "MobileLocationProvider requests", new Metrics.Gauge() {
+            public double getValue() { return C.getProviderCount(); }
+        });
+        Metrics.registerCounter("gts_celltower_provider_failed_total", "MobileLocationProvider requests which did not return a location", new Metrics.Gauge() {
+            public double getValue() { return C.getProviderFailedCount(); }
+        });
+    }
+
+    /**
+    *** Gets the cache hit ratio (all tiers, including negative hits)
+    *** @return The hit ratio (0.0 to 1.0)
+    **/
+    public double getHitRatio()
+    {
+        long hits  = this.getHitCount() + this.getNegativeHitCount() + this.getSeedHitCount();
+        long total = hits + this.getMissCount();
+        return (total > 0L)? ((double)hits / (double)total) : 0.0;
+    }
+
+    /**
+    *** Returns a String representation of the cache statistics
+    *** @return A String representation of the cache statistics
+    **/
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("CellTowerLocationCache: ");
+        sb.append("size=").append(this.getSize()).append("/").append(this.maxSize);
+        sb.append(", seed=").append(this.getSeedSize());
+        sb.append(", hits=").append(this.getHitCount());
+        sb.append(", negHits=").append(this.getNegativeHitCount());
+        sb.append(", seedHits=").append(this.getSeedHitCount());
+        sb.append(", misses=").append(this.getMissCount());
+        sb.append(", expired=").append(this.expireCount.get());
+        sb.append(", evicted=").append(this.evictCount.get());
+        sb.append(", provider=").append(this.getProviderCount());
+        sb.append(", providerFailed=").append(this.getProviderFailedCount());
+        sb.append(", hitRatio=").append(StringTools.format(this.getHitRatio()*100.0,"0.0")).append("%");
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Builds a seed index from a cell database dump.  Recognized formats are the
+    *** OpenCellID "cell_towers.csv" (radio,mcc,net,area,cell,unit,lon,lat,range,...),
+    *** or "mcc,mnc,lac,cid,lat,lon[,accuracy]".
+    *** @param csvFile    The cell database dump
+    *** @param seedFile   The seed index file to create
+    *** @param mccFilter  The MCC values to include (null/empty for all)
+    *** @return The number of cells indexed
+    **/
+    public static int buildSeedIndex(File csvFile, File seedFile, Set<Integer> mccFilter)
+        throws IOException
+    {
+
+        /* read records */
+        int    count = 0;
+        long   key[] = new long[1024];
+        int    rec[] = new int[1024 * 3];
+        BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(csvFile), StringTools.CharEncoding_UTF_8));
+        try {
+            boolean openCellID = false;
+            for (;;) {
+                String line = br.readLine();
+                if (line == null) { break; }
+                if (line.startsWith("radio,")) { openCellID = true; continue; } // header
+                if (line.startsWith("#") || line.startsWith("mcc,")) { continue; }
+                String f[] = StringTools.split(line, ',');
+                int mcc, mnc, lac, cid;
+                double lat, lon, acc;
+                if (openCellID || ((f.length >= 9) && !StringTools.isNumeric(f[0]))) {
+                    mcc = StringTools.parseInt(f[1],-1);
+                    mnc = StringTools.parseInt(f[2],-1);
+                    lac = StringTools.parseInt(f[3],-1);
+                    cid = StringTools.parseInt(f[4],-1);
+                    lon = StringTools.parseDouble(f[6],0.0);
+                    lat = StringTools.parseDouble(f[7],0.0);
+                    acc = StringTools.parseDouble(f[8],0.0);
+                } else
+                if (f.length >= 6) {
+                    mcc = StringTools.parseInt(f[0],-1);
+                    mnc = StringTools.parseInt(f[1],-1);
+                    lac = StringTools.parseInt(f[2],-1);
+                    cid = StringTools.parseInt(f[3],-1);
+                    lat = StringTools.parseDouble(f[4],0.0);
+                    lon = StringTools.parseDouble(f[5],0.0);
+                    acc = (f.length > 6)? StringTools.parseDouble(f[6],0.0) : 0.0;
+                } else {
+                    continue;
+                }
+                if ((mccFilter != null) && !mccFilter.isEmpty() && !mccFilter.contains(new Integer(mcc))) {
+                    continue;
+                }
+                long k = CellTowerLocationCache.getKey(mcc, mnc, lac, cid);
+                if ((k < 0L) || !GeoPoint.isValid(lat,lon)) {
+                    continue;
+                }
+                if (count >= key.length) {
+                    key = Arrays.copyOf(key, key.length * 2);
+                    rec = Arrays.copyOf(rec, rec.length * 2);
+                }
+                key[count]         = k;
+                rec[count * 3    ] = (int)Math.round(lat * 1000000.0);
+                rec[count * 3 + 1] = (int)Math.round(lon * 1000000.0);
+                rec[count * 3 + 2] = (int)Math.min(Math.round(acc), (long)Integer.MAX_VALUE);
+                count++;
+            }
+        } finally {
+            br.close();
+        }
+
+        /* sort by key (ties retain the last record read) */
+        Integer ndx[] = new Integer[count];
+        for (int i = 0; i < count; i++) { ndx[i] = new Integer(i); }
+        final long K[] = key;
+        Arrays.sort(ndx, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                int c = (K[a.intValue()] < K[b.intValue()])? -1 : (K[a.intValue()] > K[b.intValue()])? 1 : 0;
+                return (c != 0)? c : a.compareTo(b);
+            }
+        });
+
+        /* write index */
+        File tmp = new File(seedFile.getPath() + ".tmp");
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 65536));
+        int written = 0;
+        try {
+            // -- count unique keys
+            int unique = 0;
+            for (int i = 0; i < count; i++) {
+                if (((i + 1) >= count) || (key[ndx[i].intValue()] != key[ndx[i + 1].intValue()])) { unique++; }
+            }
+            dos.writeInt(SEED_MAGIC);
+            dos.writeInt(SEED_VERSION);
+            dos.writeInt(unique);
+            dos.writeInt(0); // reserved
+            for (int i = 0; i < count; i++) {
+                int n = ndx[i].intValue();
+                if (((i + 1) < count) && (key[n] == key[ndx[i + 1].intValue()])) {
+                    continue; // a later record has the same key
+                }
+                dos.writeLong(key[n]);
+                dos.writeInt(rec[n * 3    ]);
+                dos.writeInt(rec[n * 3 + 1]);
+                dos.writeInt(rec[n * 3 + 2]);
+                written++;
+            }
+        } finally {
+            dos.close();
+        }
+        if (!tmp.renameTo(seedFile)) {
+            seedFile.delete();
+            if (!tmp.renameTo(seedFile)) {
+                throw new IOException("Unable to rename seed index: " + tmp);
+            }
+        }
+        return written;
+
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static final String ARG_IMPORT[]    = new String[] { "import" , "csv"          };
+    private static final String ARG_SEED[]      = new String[] { "seed"   , "seedFile"     };
+    private static final String ARG_MCC[]       = new String[] { "mcc"                     };
+    private static final String ARG_LOOKUP[]    = new String[] { "lookup"                  };
+
+    /**
+    *** Main entry point for building a seed index, and debugging/testing
+    **/
+    public static void main(String argv[])
+    {
+        RTConfig.setCommandLineArgs(argv);
+        Print.setAllOutputToStdout(true);
+        File seedFile = RTConfig.getFile(ARG_SEED, null);
+        if (seedFile == null) {
+            Print.sysPrintln("Usage:");
+            Print.sysPrintln("  java ... " + CellTowerLocationCache.class.getName() + " -seed=<idxFile> -import=<csvFile> [-mcc=<mcc>,...]");
+            Print.sysPrintln("  java ... " + CellTowerLocationCache.class.getName() + " -seed=<idxFile> -lookup=<mcc>,<mnc>,<lac>,<cid>");
+            System.exit(1);
+        }
+
+        /* import */
+        File csvFile = RTConfig.getFile(ARG_IMPORT, null);
+        if (csvFile != null) {
+            Set<Integer> mccFilter = new HashSet<Integer>();
+            for (String m : StringTools.split(RTConfig.getString(ARG_MCC,""),',')) {
+                if (StringTools.isInt(m,true)) { mccFilter.add(new Integer(StringTools.parseInt(m,0))); }
+            }
+            try {
+                long startMS = System.currentTimeMillis();
+                int count = CellTowerLocationCache.buildSeedIndex(csvFile, seedFile, mccFilter);
+                Print.sysPrintln("Indexed " + count + " cells: " + seedFile + " [" + (System.currentTimeMillis() - startMS) + " ms]");
+                System.exit(0);
+            } catch (IOException ioe) {
+                Print.logException("Unable to build seed index", ioe);
+                System.exit(99);
+            }
+        }
+
+        /* lookup */
+        String v[] = StringTools.split(RTConfig.getString(ARG_LOOKUP,""),',');
+        if (v.length < 4) {
+            Print.sysPrintln("Invalid lookup specified");
+            System.exit(1);
+        }
+        CellTower ct = new CellTower();
+        ct.setMobileCountryCode(StringTools.parseInt(v[0],-1));
+        ct.setMobileNetworkCode(StringTools.parseInt(v[1],-1));
+        ct.setLocationAreaCode( StringTools.parseInt(v[2],-1));
+        ct.setCellTowerID(      StringTools.parseInt(v[3],-1));
+        CellTowerLocationCache ctlc = new CellTowerLocationCache(100, DEFAULT_TTL_SEC, DEFAULT_NEGATIVE_TTL_SEC, null, seedFile);
+        long startNS = System.nanoTime();
+        MobileLocation ml = ctlc._getSeedLocation(CellTowerLocationCache.getKey(ct));
+        long deltaUS = (System.nanoTime() - startNS) / 1000L;
+        Print.sysPrintln("Location = " + ml + " [" + deltaUS + " us]");
+        Print.sysPrintln(ctlc.toString());
+
+    }
+
+}
@@ -47,7 +47,9 @@ public interface MobileLocationProvider
     *** @param servCT  The serving Cell Tower information
     *** @param nborCT  Neightbor Cell Tower information
     *** @return The Mobile location of the Cell Tower, or null if no
-    ***     location could be determined.
+    ***     location could be determined.  A MobileLocation with an invalid
+    ***     GeoPoint indicates that the service reported that the Cell Tower
+    ***     has no known location (this result may be cached).
     **/
     public MobileLocation getMobileLocation(CellTower servCT, CellTower nborCT[]);
 
@@ -22,6 +22,11 @@
 // ----------------------------------------------------------------------------
 package org.opengts.cellid;
 
+import java.util.*;
+import java.util.concurrent.*;
+import java.io.*;
+import java.net.*;
+
 import org.opengts.util.*;
 
 import org.opengts.dbtools.*;
@@ -176,6 +181,68 @@ public abstract class MobileLocationProviderAdapter
     **/
     public abstract MobileLocation getMobileLocation(CellTower servCT, CellTower nborCT[]);
 
+    /**
+    *** Asynchronously returns the location of Cell Tower indicated by the attributes
+    *** specified in the CellTower instance.  The request is run on the shared
+    *** HTTPClient ThreadPool.
+    *** @param servCT  The serving Cell Tower information
+    *** @param nborCT  Neightbor Cell Tower information
+    *** @return The Future Mobile location (result may be null)
+    **/
+    public Future<MobileLocation> getMobileLocationAsync(final CellTower servCT, final CellTower nborCT[])
+    {
+        return HTTPClient.getInstance().submit(new Callable<MobileLocation>() {
+            public MobileLocation call() {
+                return MobileLocationProviderAdapter.this.getMobileLocation(servCT, nborCT);
+            }
+        });
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Sends a POST request using the shared (keep-alive, per-host limited) HTTPClient
+    *** @param url        The request URL
+    *** @param contentType The POST data content type (may be null)
+    *** @param postData   The POST data
+    *** @param timeoutMS  The connect/read timeout in milliseconds
+    *** @return The response body
+    **/
+    protected static byte[] readPage_POST(String url, String contentType, byte postData[], int timeoutMS)
+        throws IOException
+    {
+        Properties headers = new Properties();
+        if (!StringTools.isBlank(contentType)) {
+            headers.setProperty(HTMLTools.HEADER_CONTENT_TYPE, contentType);
+        }
+        return HTTPClient.getInstance().readPage_POST(new URL(url), headers, postData, timeoutMS, -1);
+    }
+
+    /**
+    *** Sends a GET request using the shared (keep-alive, per-host limited) HTTPClient
+    *** @param url        The request URL
+    *** @param timeoutMS  The connect/read timeout in milliseconds
+    *** @return The response body
+    **/
+    protected static byte[] readPage_GET(String url, int timeoutMS)
+        throws IOException
+    {
+        return HTTPClient.getInstance().readPage_GET(new URL(url), null, timeoutMS, -1);
+    }
+
+    /**
+    *** Sends a GET request using the shared (keep-alive, per-host limited) HTTPClient,
+    *** and parses the response as an XML document
+    *** @param url        The request URL
+    *** @param timeoutMS  The connect/read timeout in milliseconds
+    *** @return The XML document
+    **/
+    protected static org.w3c.dom.Document readXML_GET(String url, int timeoutMS)
+        throws IOException
+    {
+        return HTTPClient.getInstance().readXML_GET(new URL(url), null, timeoutMS);
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
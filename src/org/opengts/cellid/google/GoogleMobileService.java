@@ -174,10 +174,10 @@ public class GoogleMobileService
         if ((mcc > 0) || (mnc > 0)) {
             try {
                 byte req[] = GoogleMobileService.encodeRequest(mcc, mnc, cid, lac);
-                byte rsp[] = HTMLTools.readPage_POST(
-                    new URL(MOBILE_SERVICE_URI), 
+                byte rsp[] = MobileLocationProviderAdapter.readPage_POST(
+                    MOBILE_SERVICE_URI, 
                     HTMLTools.MIME_BINARY(), req, 
-                    (int)timeout, -1);
+                    (int)timeout);
                 GeoPoint gp = GoogleMobileService.decodeLocation(rsp);
                 return new MobileLocation(gp);
             } catch (Throwable th) {
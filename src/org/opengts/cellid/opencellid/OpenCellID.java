@@ -85,19 +85,7 @@ public class OpenCellID
         //   </rsp>
         try {
             //Print.logInfo("HTTP User-Agent: " + HTMLTools.getHttpUserAgent());
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            DocumentBuilder db = dbf.newDocumentBuilder();
-            InputStream input = HTMLTools.inputStream_GET(url, null, (int)timeoutMS);
-            InputStreamReader reader = new InputStreamReader(input, StringTools.CharEncoding_UTF_8);
-            InputSource inSrc = new InputSource(reader);
-            inSrc.setEncoding(StringTools.CharEncoding_UTF_8);
-            return db.parse(inSrc);
-        } catch (ParserConfigurationException pce) {
-            Print.logError("Parse error: " + pce);
-            return null;
-        } catch (SAXException se) {
-            Print.logError("Parse error: " + se);
-            return null;
+            return MobileLocationProviderAdapter.readXML_GET(url, (int)timeoutMS);
         } catch (UnknownHostException uhe) {
             Print.logError("Unable to resolve host: " + uhe);
             return null;
@@ -162,13 +150,15 @@ public class OpenCellID
         //   <rsp stat="ok">
         //      <cell nbSamples="57" mnc="99" lac="0" lat="50.5715642160311" lon="25.2897075399231" cellId="29513" mcc="250" range="6000"/>
         //   </rsp>
-        double latitude  = 999.0;
-        double longitude = 999.0;
-        double range     = 0.0;
+        double  latitude  = 999.0;
+        double  longitude = 999.0;
+        double  range     = 0.0;
+        boolean statusOK  = false;
         Element rsp = xmlDoc.getDocumentElement();
         if (rsp.getTagName().equalsIgnoreCase(TAG_rsp)) {
             String stat = StringTools.blankDefault(XMLTools.getAttribute(rsp,ATTR_stat,"",false),"ok");
             if (stat.equalsIgnoreCase("ok")) {
+                statusOK = true;
                 NodeList nodeList = rsp.getChildNodes();
                 for (int a = 0; a < nodeList.getLength(); a++) {
                     Node node = nodeList.item(a);
@@ -195,6 +185,10 @@ public class OpenCellID
         /* valid GeoPoint? */
         if (GeoPoint.isValid(latitude,longitude)) {
             return new MobileLocation(latitude,longitude,range);
+        } else
+        if (statusOK) {
+            // -- successful response, but the cell has no known location
+            return new MobileLocation(GeoPoint.INVALID_GEOPOINT, 0.0);
         } else {
             return null;
         }
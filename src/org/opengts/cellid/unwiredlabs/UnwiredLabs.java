@@ -188,10 +188,10 @@ public class UnwiredLabs
             String reqS = jsonReq.toString(true);
             Print.logDebug("CellTower loc URL: " + url);
             Print.logDebug("CellTower loc JSON: \n" + reqS);
-            byte rspB[] = HTMLTools.readPage_POST(
-                new URL(url), 
+            byte rspB[] = MobileLocationProviderAdapter.readPage_POST(
+                url, 
                 HTMLTools.MIME_JSON(), reqS.getBytes(), 
-                (int)timeoutMS, -1);
+                (int)timeoutMS);
             if (ListTools.isEmpty(rspB)) {
                 // -- invalid response
                 return null;
@@ -212,6 +212,10 @@ public class UnwiredLabs
         int    balance = jsonResp.getIntForName(   TAG_balance,-1);
         String message = jsonResp.getStringForName(TAG_message,"");
         if (!status.equalsIgnoreCase("ok")) {
+            if (StringTools.indexOfIgnoreCase(message,"No matches found") >= 0) {
+                // -- the cell has no known location
+                return new MobileLocation(GeoPoint.INVALID_GEOPOINT, 0.0);
+            }
             // -- invalid status
             Print.logError("Invalid status: " + status + " [balance " + balance + "] " + message);
             return null;
@@ -231,7 +235,8 @@ public class UnwiredLabs
             }
             return ML;
         } else {
-            return null;
+            // -- "ok" status, but the cell has no known location
+            return new MobileLocation(GeoPoint.INVALID_GEOPOINT, 0.0);
         }
 
     }
@@ -1967,6 +1967,13 @@ public class BasicPrivateLabel
             return AccessLevel.NONE;
         }
 
+        /* cached (session cached User only) */
+        String cacheKey = this.getName() + "|" + aclName;
+        AccessLevel cacheAcl = user.getCachedAccessLevel(cacheKey);
+        if (cacheAcl != null) {
+            return cacheAcl;
+        }
+
         /* normal user */
         AccessLevel acl = UserAcl.getAccessLevel(user, aclName, null);
         if (acl == null) {
@@ -1982,6 +1989,7 @@ public class BasicPrivateLabel
         }
 
         /* return ACL */
+        user.setCachedAccessLevel(cacheKey, acl);
         return acl;
 
     }
@@ -89,6 +89,11 @@ public abstract class CommandPacketHandler
     public static final String  INTERNCMD_SESSIONS      = "%SESSIONS%";
     public static final String  INTERNCMD_SESSIONID     = "%SESSIONID%";
     public static final String  INTERNCMD_MEMORY        = "%MEMORY%";
+    public static final String  INTERNCMD_METRICS       = "%METRICS%";
+    public static final String  INTERNCMD_SQLPROFILE    = "%SQLPROFILE%";
+
+    /* HTTP GET path for Metrics (Prometheus text format) */
+    public static final String  HTTP_METRICS_PATH       = "/metrics";
     
     public static final String  MEM_MemoryMaximumMb     = "MemoryMaximumMb";
     public static final String  MEM_MemoryTotalMb       = "MemoryTotalMb";
@@ -145,6 +150,11 @@ public abstract class CommandPacketHandler
     private InetAddress     inetAddress         = null;
     private String          ipAddress           = null;
 
+    /* HTTP GET request path (non-null while reading the HTTP request headers) */
+    private String          httpRequestPath     = null;
+    private int             httpLastTerm        = 0;     // terminator of the previous line
+    private boolean         httpLastEmpty       = false; // previous line was empty
+
     /* packet handler constructor */
     public CommandPacketHandler() 
     {
@@ -226,12 +236,94 @@ public abstract class CommandPacketHandler
     /* workhorse of the packet handler */
     public byte[] getHandlePacket(byte pktBytes[]) 
     {
-        if (!ListTools.isEmpty(pktBytes)) {
-            String cmd = StringTools.toStringValue(pktBytes);
+
+        /* separate line terminator (see "DCServerConfig.startCommandHandler") */
+        int len  = (pktBytes != null)? pktBytes.length : 0;
+        int term = 0;
+        if ((len > 0) && ((pktBytes[len - 1] == '\r') || (pktBytes[len - 1] == '\n'))) {
+            term = pktBytes[len - 1];
+            len--;
+        }
+
+        /* HTTP request headers */
+        if (this.httpRequestPath != null) {
+            // -- '\r' and '\n' are separate terminators, so a "\r\n" line ending
+            // -  produces an additional empty line, which is not the end of the headers
+            boolean lastCR = (this.httpLastTerm == '\r');
+            boolean lastEmpty = this.httpLastEmpty;
+            this.httpLastTerm  = term;
+            this.httpLastEmpty = (len == 0);
+            if (len > 0) {
+                // -- header line (ignored)
+                return null;
+            } else
+            if (term == '\r') {
+                // -- start of the blank "\r\n" line, respond after the '\n'
+                return null;
+            } else
+            if ((term == '\n') && lastCR && !lastEmpty) {
+                // -- '\n' of a "\r\n" header line
+                return null;
+            }
+            // -- end of headers (all request bytes have been read)
+            this.setTerminateSession();
+            return this.getHttpResponse(this.httpRequestPath);
+        }
+
+        /* command */
+        if (len > 0) {
+            String cmd = StringTools.toStringValue(pktBytes, 0, len);
+            if (cmd.startsWith("GET ")) {
+                // -- HTTP GET (ie. "GET /metrics HTTP/1.1")
+                String req[] = StringTools.split(cmd.trim(),' ');
+                this.httpRequestPath = (req.length > 1)? req[1] : "/";
+                this.httpLastTerm    = term;
+                this.httpLastEmpty   = false;
+                if (req.length < 3) {
+                    // -- HTTP/0.9 request has no headers
+                    this.setTerminateSession();
+                    return this.getHttpResponse(this.httpRequestPath);
+                }
+                return null;
+            }
             this.setTerminateSession();
             return this.parseCommand(cmd);
         }
         return null;
+
+    }
+
+    /**
+    *** Returns the HTTP response for the specified request path.  Currently only
+    *** the Metrics path (HTTP_METRICS_PATH) is supported.
+    *** @param path  The HTTP request path
+    *** @return The HTTP response bytes
+    **/
+    protected byte[] getHttpResponse(String path)
+    {
+        int p = path.indexOf('?');
+        String file = (p >= 0)? path.substring(0,p) : path;
+        String status, body;
+        if (file.equals(HTTP_METRICS_PATH)) {
+            status = "200 OK";
+            body   = Metrics.toPrometheusString();
+        } else {
+            Print.logWarn("Invalid HTTP request path: " + path);
+            status = "404 Not Found";
+            body   = "Not Found\n";
+        }
+        byte bodyBytes[] = StringTools.getBytes(body);
+        StringBuffer hdr = new StringBuffer();
+        hdr.append("HTTP/1.0 ").append(status).append("\r\n");
+        hdr.append("Content-Type: ").append(Metrics.CONTENT_TYPE).append("\r\n");
+        hdr.append("Content-Length: ").append(bodyBytes.length).append("\r\n");
+        hdr.append("Connection: close\r\n");
+        hdr.append("\r\n");
+        byte hdrBytes[] = StringTools.getBytes(hdr);
+        byte resp[] = new byte[hdrBytes.length + bodyBytes.length];
+        System.arraycopy(hdrBytes , 0, resp, 0              , hdrBytes.length);
+        System.arraycopy(bodyBytes, 0, resp, hdrBytes.length, bodyBytes.length);
+        return resp;
     }
 
     // ------------------------------------------------------------------------
@@ -377,6 +469,15 @@ public abstract class CommandPacketHandler
             cmdName = StringTools.trim(cmdName);
             String dcsName = this.getServerName();
             DCServerConfig dcs = DCServerFactory.getServerConfig(dcsName);
+            /* metrics (Prometheus text format) */
+            if (INTERNCMD_METRICS.equalsIgnoreCase(cmdName)) {
+                return StringTools.getBytes(Metrics.toPrometheusString());
+            }
+            /* SQL profile report: arg0=sortBy, arg1=topCount */
+            if (INTERNCMD_SQLPROFILE.equalsIgnoreCase(cmdName)) {
+                int topN = StringTools.parseInt(cmdArg1, SQLProfiler.DEFAULT_TOP_COUNT);
+                return StringTools.getBytes(SQLProfiler.writeReport(null, cmdArg0, topN));
+            }
             /* invalid command */
             Print.logError("Invalid Internal Command: Type=" + cmdType + ", Name=" + cmdName);
             return RESULT(rtCmd, DCServerFactory.ResultCode.INVALID_COMMAND);
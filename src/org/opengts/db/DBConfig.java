@@ -573,6 +573,79 @@ public class DBConfig
     **/
     public static final String PROP_Device_EventDataInsertionListener   = "Device.EventDataInsertionListener";
 
+    /**
+    *** Runtime Configuration Property<br>
+    *** Number of recently inserted events cached per Device for previous-event lookups
+    *** during event insertion (0 to disable, defaults to disabled in web-applications)<br>
+    *** Type: Integer
+    **/
+    public static final String PROP_Device_stateCache_eventCount        = "Device.stateCache.eventCount";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Maximum number of Devices held in the Device state cache<br>
+    *** Type: Integer
+    **/
+    public static final String PROP_Device_stateCache_deviceCount       = "Device.stateCache.deviceCount";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Number of recently inserted event keys held per Device for in-memory duplicate
+    *** (retransmitted) event suppression (0 to disable, defaults to disabled in web-applications)<br>
+    *** Type: Integer
+    **/
+    public static final String PROP_Device_dedupWindow_size             = "Device.dedupWindow.size";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Maximum number of Devices held in the duplicate event window<br>
+    *** Type: Integer
+    **/
+    public static final String PROP_Device_dedupWindow_deviceCount      = "Device.dedupWindow.deviceCount";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** The interval (milliseconds) at which coalesced Device "last*" state updates are
+    *** written to the Device table in a single batch (0 to disable write-behind and
+    *** update the Device record immediately, which is the default)<br>
+    *** Type: Long
+    **/
+    public static final String PROP_Device_writeBehind_intervalMS       = "Device.writeBehind.intervalMS";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** The maximum number of Device updates per JDBC batch on each write-behind flush<br>
+    *** Type: Integer
+    **/
+    public static final String PROP_Device_writeBehind_batchSize        = "Device.writeBehind.batchSize";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** True to flush pending write-behind Device updates from a JVM shutdown hook
+    *** (defaults to true)<br>
+    *** Type: Boolean
+    **/
+    public static final String PROP_Device_writeBehind_flushOnShutdown  = "Device.writeBehind.flushOnShutdown";
+
+    // ----------------------
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** True to update the DeviceDailySummary rollup table as each EventData record is
+    *** inserted (defaults to false)<br>
+    *** Type: Boolean
+    **/
+    public static final String PROP_DeviceDailySummary_updateOnInsert   = "DeviceDailySummary.updateOnInsert";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** True to allow reports to use the DeviceDailySummary rollup records for whole days
+    *** within the report date range (defaults to false).  The rollup table should first
+    *** be rebuilt for the historical date range before enabling this property.<br>
+    *** Type: Boolean
+    **/
+    public static final String PROP_DeviceDailySummary_useInReports     = "DeviceDailySummary.useInReports";
+
     // ----------------------
 
     /**
@@ -826,6 +899,30 @@ public class DBConfig
     **/
     public static final String PROP_track_FaviconLink                   = "track.FaviconLink";
 
+    /**
+    *** Runtime Configuration Property<br>
+    *** The interval (seconds) at which the session cached Account/User records are
+    *** revalidated against their "lastUpdateTime" (0 to disable session caching).<br>
+    *** Type: Long
+    **/
+    public static final String PROP_track_sessionCache_revalidateSec    = "track.sessionCache.revalidateSec";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** The maximum age (seconds) of the session cached Account/User records, after
+    *** which they are reloaded.<br>
+    *** Type: Long
+    **/
+    public static final String PROP_track_sessionCache_maxAgeSec        = "track.sessionCache.maxAgeSec";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** The interval (seconds) at which the per-host PrivateLabel/Resource properties 
+    *** cache is revalidated against the Resource table "lastUpdateTime" (0 to disable).<br>
+    *** Type: Long
+    **/
+    public static final String PROP_track_hostCache_revalidateSec       = "track.hostCache.revalidateSec";
+
     // ----------------------
 
     /**
@@ -898,6 +995,133 @@ public class DBConfig
     **/
     public static final String PROP_SubdivisionProvider_class           = "SubdivisionProvider.class";
 
+    /**
+    *** Runtime Configuration Property<br>
+    *** The optional authorization key passed to the SubdivisionProvider.<br>
+    *** Type: String
+    **/
+    public static final String PROP_SubdivisionProvider_key             = "SubdivisionProvider.key";
+
+    /**
+    *** Runtime Configuration Property prefix<br>
+    *** All properties starting with this prefix are passed (without the prefix) to the
+    *** SubdivisionProvider constructor (ie. "SubdivisionProvider.boundaryFile" is passed
+    *** as "boundaryFile").
+    **/
+    public static final String PROP_SubdivisionProvider_                = "SubdivisionProvider.";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** The GeoJSON state/province boundary file used by the offline "BoundarySubdivisionProvider"
+    *** (relative paths are relative to the loaded config file directory).<br>
+    *** Type: String
+    **/
+    public static final String PROP_SubdivisionProvider_boundaryFile    = "SubdivisionProvider.boundaryFile";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** The grid cell size (degrees) used to index the boundary polygons (defaults to 1.0).<br>
+    *** Type: Double
+    **/
+    public static final String PROP_SubdivisionProvider_cellSizeDeg     = "SubdivisionProvider.cellSizeDeg";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Comma separated list of GeoJSON feature property names containing the state/province
+    *** code or name (ie. "postal,name").<br>
+    *** Type: String
+    **/
+    public static final String PROP_SubdivisionProvider_codeProperty    = "SubdivisionProvider.codeProperty";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** The country code assumed for GeoJSON features which do not specify a country.<br>
+    *** Type: String
+    **/
+    public static final String PROP_SubdivisionProvider_defaultCountry  = "SubdivisionProvider.defaultCountry";
+
+    // ----------------------
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** True to enable the shared CellTower location cache (defaults to true).<br>
+    *** Type: Boolean
+    **/
+    public static final String PROP_CellTowerLocationCache_enable               = "CellTowerLocationCache.enable";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** The maximum number of cells retained in the CellTower location memory cache.<br>
+    *** Type: Integer
+    **/
+    public static final String PROP_CellTowerLocationCache_maximumSize          = "CellTowerLocationCache.maximumSize";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** The number of seconds a located cell is retained in the CellTower location cache.<br>
+    *** Type: Long
+    **/
+    public static final String PROP_CellTowerLocationCache_ttlSeconds           = "CellTowerLocationCache.ttlSeconds";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** The number of seconds a cell with no known location is retained in the CellTower
+    *** location cache (0 to disable negative caching).<br>
+    *** Type: Long
+    **/
+    public static final String PROP_CellTowerLocationCache_negativeTtlSeconds   = "CellTowerLocationCache.negativeTtlSeconds";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** The journal file used to persist the CellTower location cache across restarts
+    *** (relative paths are relative to the loaded config file directory).<br>
+    *** Type: String
+    **/
+    public static final String PROP_CellTowerLocationCache_journalFile          = "CellTowerLocationCache.journalFile";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** The seed index file built from an offline cell database dump (see
+    *** "CellTowerLocationCache -import=...").<br>
+    *** Type: String
+    **/
+    public static final String PROP_CellTowerLocationCache_seedFile             = "CellTowerLocationCache.seedFile";
+
+    // ----------------------
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** The interval (milliseconds) at which EventData records inserted by other processes
+    *** are read and published to the EventBus, for accounts which have live-feed
+    *** subscribers (0 to disable).<br>
+    *** Type: Long
+    **/
+    public static final String PROP_EventBus_tailIntervalMS                     = "EventBus.tailIntervalMS";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** The maximum number of EventData records read per device on each EventBus tail pass.<br>
+    *** Type: Integer
+    **/
+    public static final String PROP_EventBus_tailLimit                          = "EventBus.tailLimit";
+
+    // ----------------------
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** The maximum number of compiled rule selectors retained by RuleFactoryAdapter.<br>
+    *** Type: Integer
+    **/
+    public static final String PROP_RuleFactory_selectorCacheSize               = "RuleFactory.selectorCacheSize";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** The number of seconds an Account rule group (rules grouped by status code) is
+    *** retained by RuleFactoryAdapter before it is rebuilt.<br>
+    *** Type: Long
+    **/
+    public static final String PROP_RuleFactory_ruleGroupRefreshSec             = "RuleFactory.ruleGroupRefreshSec";
+
     // ----------------------
 
     /**
@@ -1026,6 +1250,11 @@ public class DBConfig
         new RTKey.Entry(PROP_Device_invalidSpeed_maximumKPH         , 0.0                           , "Future Date Maximm Seconds"),
         new RTKey.Entry(PROP_Device_maximumOdometerKM               , 1000000.0                     , "Maximum Odometer value"),
         new RTKey.Entry(PROP_Device_maximumRuntimeHours             , 24.0 * 365.0 * 30.0           , "Maximum Runtime hours value"),
+        new RTKey.Entry(PROP_Device_dedupWindow_size                , 64                            , "Device duplicate event window size"),
+        new RTKey.Entry(PROP_Device_dedupWindow_deviceCount         , 5000                          , "Device duplicate event window device count"),
+        new RTKey.Entry(PROP_Device_writeBehind_intervalMS          , 0L                            , "Device write-behind interval milliseconds"),
+        new RTKey.Entry(PROP_Device_writeBehind_batchSize           , 200                           , "Device write-behind batch size"),
+        new RTKey.Entry(PROP_Device_writeBehind_flushOnShutdown     , true                          , "Device write-behind flush on shutdown"),
         new RTKey.Entry(PROP_EventData_lockTableOnRead              , true                          , "Prevent 'write' while reading"),
         new RTKey.Entry(PROP_EventData_allowInnoDBCountWithWhere    , true                          , "Allow 'count(*)' with WHERE"),
         new RTKey.Entry(PROP_EventData_keyedAccountDeviceTime       , false                         , "Create AltKey Account/Device/Timestamp"),
@@ -1046,10 +1275,28 @@ public class DBConfig
         new RTKey.Entry(PROP_track_requireCookies                   , true                          , "'Track' Require Enabled Cookies"),
         new RTKey.Entry(PROP_track_js_directory                     , "./js"                        , "'Track' JavaScript Directory"),
         new RTKey.Entry(PROP_track_offlineFile                      , null                          , "'Track' Offline File"),
+        new RTKey.Entry(PROP_track_sessionCache_revalidateSec       , 10L                           , "'Track' session cache revalidate seconds"),
+        new RTKey.Entry(PROP_track_sessionCache_maxAgeSec           , 300L                          , "'Track' session cache maximum age seconds"),
+        new RTKey.Entry(PROP_track_hostCache_revalidateSec          , 60L                           , "'Track' host cache revalidate seconds"),
         new RTKey.Entry(PROP_track_enableService                    , false                         , "'Track' Enable 'Service'"),
         new RTKey.Entry(PROP_track_service_customCommandHandler     , null                          , "'Service' custom command handler"),
         new RTKey.Entry(PROP_track_service_authKey                  , ""/*"auth"*/                  , "'Service' Authorization obfuscation key"),
         new RTKey.Entry(PROP_SubdivisionProvider_class              , null                          , "SubdivisionProvider class"),
+        new RTKey.Entry(PROP_SubdivisionProvider_key                , null                          , "SubdivisionProvider key"),
+        new RTKey.Entry(PROP_SubdivisionProvider_boundaryFile       , null                          , "SubdivisionProvider boundary file"),
+        new RTKey.Entry(PROP_SubdivisionProvider_cellSizeDeg        , 1.0                           , "SubdivisionProvider grid cell size"),
+        new RTKey.Entry(PROP_SubdivisionProvider_codeProperty       , null                          , "SubdivisionProvider code property names"),
+        new RTKey.Entry(PROP_SubdivisionProvider_defaultCountry     , null                          , "SubdivisionProvider default country"),
+        new RTKey.Entry(PROP_CellTowerLocationCache_enable          , true                          , "CellTower location cache enabled"),
+        new RTKey.Entry(PROP_CellTowerLocationCache_maximumSize     , 20000                         , "CellTower location cache maximum size"),
+        new RTKey.Entry(PROP_CellTowerLocationCache_ttlSeconds      , 2592000L                      , "CellTower location cache TTL seconds"),
+        new RTKey.Entry(PROP_CellTowerLocationCache_negativeTtlSeconds, 86400L                      , "CellTower location cache negative TTL seconds"),
+        new RTKey.Entry(PROP_CellTowerLocationCache_journalFile     , null                          , "CellTower location cache journal file"),
+        new RTKey.Entry(PROP_CellTowerLocationCache_seedFile        , null                          , "CellTower location cache seed index file"),
+        new RTKey.Entry(PROP_EventBus_tailIntervalMS                , 2000L                         , "EventBus tail interval milliseconds"),
+        new RTKey.Entry(PROP_EventBus_tailLimit                     , 100                           , "EventBus tail limit per device"),
+        new RTKey.Entry(PROP_RuleFactory_selectorCacheSize          , 1000                          , "RuleFactory compiled selector cache size"),
+        new RTKey.Entry(PROP_RuleFactory_ruleGroupRefreshSec        , 60L                           , "RuleFactory rule group refresh seconds"),
         new RTKey.Entry(PROP_EventFunctionMapFactory_class          , null                          , "EventFunctionMapFactory subclass"),
         new RTKey.Entry(PROP_EventIdentifierMapFactory_class        , null                          , "EventIdentifierMapFactory subclass"),
         new RTKey.Entry(PROP_Transport_queryEnabled                 , false                         , "Enable DB Transport query"),
@@ -1326,6 +1573,7 @@ public class DBConfig
                 PACKAGE_TABLES_       + "DeviceList"   ,
                 PACKAGE_TABLES_       + "Driver"       ,
                 PACKAGE_TABLES_       + "EventData"    ,
+                PACKAGE_TABLES_       + "DeviceDailySummary",
                 PACKAGE_TABLES_       + "Geozone"      ,
                 PACKAGE_TABLES_       + "Resource"     ,
                 PACKAGE_TABLES_       + "Role"         ,
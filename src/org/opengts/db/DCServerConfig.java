@@ -1838,6 +1838,7 @@ public class DCServerConfig
         sst.setTextPackets(true);
         sst.setBackspaceChar(null); // no backspaces allowed
         sst.setLineTerminatorChar(new int[] { '\r', '\n' });
+        sst.setIncludePacketLineTerminator(true); // HTTP "\r\n" detection (removed by handler)
         sst.setIgnoreChar(null);
         sst.setMaximumPacketLength(1024);       // safety net
         sst.setMinimumPacketLength(1);
@@ -2315,6 +2315,32 @@ public class DCServerFactory
         }
     }
 
+    /**
+    *** Calculates/returns the next odometer value 
+    **/
+    public static double calculateOdometerKM(DeviceStateCache.EventState prevEvent, GeoPoint toPoint)
+    {
+        if ((prevEvent != null) && prevEvent.isValidGeoPoint() && GeoPoint.isValid(toPoint)) {
+            double deltaKM = toPoint.kilometersToPoint(prevEvent.getGeoPoint());
+            return prevEvent.getOdometerKM() + deltaKM;
+        } else {
+            return 0.0;
+        }
+    }
+
+    /**
+    *** Calculates/returns the next odometer value, based on the valid GPS event
+    *** previous to the specified fixtime
+    *** @param device   The Device record handle
+    *** @param fixtime  The current event fixtime
+    *** @param toPoint  The current event location
+    *** @return The next odometer value, or 0.0 if there is no previous valid event
+    **/
+    public static double calculateOdometerKM(Device device, long fixtime, GeoPoint toPoint)
+    {
+        return DCServerFactory.calculateOdometerKM(DCServerFactory.getPreviousEventState(device,fixtime), toPoint);
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
@@ -2454,6 +2480,28 @@ public class DCServerFactory
         }
     }
 
+    /**
+    *** Returns the key fields of the valid GPS EventData record previous to the 
+    *** specified fixtime.  The DeviceStateCache is checked first, and the EventData
+    *** table is queried only if the previous event is not cached.
+    *** @param device  The Device record handle
+    *** @param fixtime The current event fixtime
+    *** @return The previous event state, or null if there is no previous event
+    **/
+    public static DeviceStateCache.EventState getPreviousEventState(Device device, long fixtime)
+    {
+        if (device != null) {
+            DeviceStateCache.EventState es = DeviceStateCache.getLastEvent(device, null, fixtime - 1L, true/*validGPS*/);
+            if (es == null) {
+                EventData ev = DCServerFactory.getPreviousEventData(device, fixtime);
+                es = (ev != null)? new DeviceStateCache.EventState(ev) : null;
+            }
+            return es;
+        } else {
+            return null;
+        }
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
@@ -0,0 +1,408 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Per-Device in-memory cache of the most recently inserted events
+// ----------------------------------------------------------------------------
+// Notes:
+//  - This cache is maintained by "Device._insertEventData" and is intended to
+//    be used within a DCS process to avoid querying the EventData table for the
+//    previous event (ie. odometer/distance calculation, ignition state, etc).
+//  - Each Device state holds the key fields of the last N inserted events, and
+//    a "complete-after" timestamp.  All events for the Device with a timestamp
+//    greater than the "complete-after" timestamp are known to be in the cache.
+//    A lookup is only answered from the cache if the matching event is newer
+//    than the "complete-after" timestamp, otherwise the lookup is considered a
+//    "miss" and the caller must query the EventData table.
+//  - If the Device record "lastEventTimestamp" is found to be newer than any
+//    event in the cache (ie. events were inserted by another process), the
+//    Device state is discarded.
+//  - Disabled by default when running as a Servlet (events are not inserted
+//    by the web-application process).
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.db;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+
+import org.opengts.db.tables.*;
+
+/**
+*** Per-Device in-memory cache of the most recently inserted events
+**/
+
+public class DeviceStateCache
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int    DEFAULT_EVENT_COUNT     = 8;
+    public  static final int    DEFAULT_DEVICE_COUNT    = 5000;
+
+    /* number of events cached per device (0 to disable) */
+    private static final RTConfigSnapshot.IntSetting EventCount_setting =
+        RTConfigSnapshot.registerSetting(new RTConfigSnapshot.IntSetting(DBConfig.PROP_Device_stateCache_eventCount, DEFAULT_EVENT_COUNT) {
+            public int getDefault() {
+                // -- disabled by default in web-applications
+                return RTConfig.isWebApp()? 0 : super.getDefault();
+            }
+        });
+
+    /**
+    *** Returns true if the Device state cache is enabled
+    *** @return True if the Device state cache is enabled
+    **/
+    public static boolean IsEnabled()
+    {
+        return (EventCount_setting.get() > 0);
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** EventState class (immutable key fields of an inserted EventData record)
+    **/
+    public static class EventState
+    {
+        private long    timestamp   = 0L;
+        private int     statusCode  = StatusCodes.STATUS_NONE;
+        private double  latitude    = 0.0;
+        private double  longitude   = 0.0;
+        private boolean validCell   = false;
+        private long    gpsAge      = 0L;
+        private double  speedKPH    = 0.0;
+        private double  heading     = 0.0;
+        private double  odometerKM  = 0.0;
+        public EventState(EventData ev) {
+            this.timestamp  = ev.getTimestamp();
+            this.statusCode = ev.getStatusCode();
+            this.latitude   = ev.getLatitude();
+            this.longitude  = ev.getLongitude();
+            this.validCell  = GeoPoint.isValid(ev.getCellLatitude(), ev.getCellLongitude());
+            this.gpsAge     = ev.getGpsAge();
+            this.speedKPH   = ev.getSpeedKPH();
+            this.heading    = ev.getHeading();
+            this.odometerKM = ev.getOdometerKM();
+        }
+        public long getTimestamp() {
+            return this.timestamp;
+        }
+        public int getStatusCode() {
+            return this.statusCode;
+        }
+        public double getLatitude() {
+            return this.latitude;
+        }
+        public double getLongitude() {
+            return this.longitude;
+        }
+        public boolean isValidGeoPoint() {
+            return GeoPoint.isValid(this.latitude, this.longitude);
+        }
+        public GeoPoint getGeoPoint() {
+            return this.isValidGeoPoint()? new GeoPoint(this.latitude, this.longitude) : GeoPoint.INVALID_GEOPOINT;
+        }
+        public long getGpsAge() {
+            return this.gpsAge;
+        }
+        public double getSpeedKPH() {
+            return this.speedKPH;
+        }
+        public double getHeading() {
+            return this.heading;
+        }
+        public double getOdometerKM() {
+            return this.odometerKM;
+        }
+        public boolean isMatch(int statusCodes[], boolean validGPS) {
+            if (validGPS && !this.isValidGeoPoint() && !this.validCell) {
+                // -- same criteria as "EventData.getWhereClause(...)"
+                return false;
+            }
+            if (statusCodes != null) {
+                for (int i = 0; i < statusCodes.length; i++) {
+                    if (statusCodes[i] == this.statusCode) {
+                        return true;
+                    }
+                }
+                return (statusCodes.length == 0);
+            }
+            return true;
+        }
+        public String toString() {
+            StringBuffer sb = new StringBuffer();
+            sb.append(this.timestamp).append(" ");
+            sb.append(StatusCodes.GetHex(this.statusCode)).append(" ");
+            sb.append(this.latitude).append("/").append(this.longitude);
+            return sb.toString();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** DeviceState class (recent events for a single Device)
+    **/
+    private static class DeviceState
+    {
+        private EventState  events[]        = null; // ascending by timestamp
+        private int         count           = 0;
+        private long        completeAfter   = 0L;
+        public DeviceState(int size, long completeAfter) {
+            this.events        = new EventState[(size > 0)? size : 1];
+            this.count         = 0;
+            this.completeAfter = completeAfter;
+        }
+        public synchronized void reset(long completeAfter) {
+            Arrays.fill(this.events, null);
+            this.count         = 0;
+            this.completeAfter = completeAfter;
+        }
+        public synchronized long getLatestTimestamp() {
+            return (this.count > 0)? Math.max(this.events[this.count - 1].getTimestamp(),this.completeAfter) : this.completeAfter;
+        }
+        public synchronized void add(EventState es) {
+            long ts = es.getTimestamp();
+            if (ts <= this.completeAfter) {
+                // -- older than the cached range, not cached
+                return;
+            }
+            if (this.count >= this.events.length) {
+                // -- drop oldest, cache is now complete after the dropped event
+                this.completeAfter = this.events[0].getTimestamp();
+                System.arraycopy(this.events, 1, this.events, 0, this.count - 1);
+                this.count--;
+                this.events[this.count] = null;
+                if (ts <= this.completeAfter) {
+                    return;
+                }
+            }
+            // -- insert sorted (usually appended to the end)
+            int p = this.count;
+            while ((p > 0) && (this.events[p - 1].getTimestamp() > ts)) {
+                this.events[p] = this.events[p - 1];
+                p--;
+            }
+            this.events[p] = es;
+            this.count++;
+        }
+        public synchronized EventState getLast(int statusCodes[], long endTime, boolean validGPS) {
+            for (int i = this.count - 1; i >= 0; i--) {
+                EventState es = this.events[i];
+                long ts = es.getTimestamp();
+                if (ts <= this.completeAfter) {
+                    break; // miss
+                } else
+                if ((endTime >= 0L) && (ts > endTime)) {
+                    continue;
+                } else
+                if (es.isMatch(statusCodes, validGPS)) {
+                    return es;
+                }
+            }
+            return null;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static MemCache<String,DeviceState> DeviceStateMap = null;
+
+    private static final AtomicLong CacheHitCount   = new AtomicLong(0L);
+    private static final AtomicLong CacheMissCount  = new AtomicLong(0L);
+
+    static {
+        Metrics.registerCounter("gts_device_state_cache_lookups_total{result=\"hit\"}",
+            "DeviceStateCache lookups by result", new Metrics.Gauge() {
+            public double getValue() { return CacheHitCount.get(); }
+        });
+        Metrics.registerCounter("gts_device_state_cache_lookups_total{result=\"miss\"}",
+            "DeviceStateCache lookups by result", new Metrics.Gauge() {
+            public double getValue() { return CacheMissCount.get(); }
+        });
+    }
+
+    /**
+    *** Gets the DeviceState cache map
+    **/
+    private static MemCache<String,DeviceState> _getDeviceStateMap()
+    {
+        if (DeviceStateMap == null) {
+            synchronized (DeviceStateCache.class) {
+                if (DeviceStateMap == null) {
+                    int maxDev = RTConfig.getInt(DBConfig.PROP_Device_stateCache_deviceCount, DEFAULT_DEVICE_COUNT);
+                    DeviceStateMap = new MemCache<String,DeviceState>(maxDev);
+                }
+            }
+        }
+        return DeviceStateMap;
+    }
+
+    /**
+    *** Gets the cache key for the specified Device
+    **/
+    private static String _getKey(Device dev)
+    {
+        return DeviceStateCache._getKey(dev.getAccountID(), dev.getDeviceID());
+    }
+
+    /**
+    *** Gets the cache key for the specified Account/Device IDs
+    **/
+    private static String _getKey(String acctID, String devID)
+    {
+        return acctID + "/" + devID;
+    }
+
+    /**
+    *** Gets the DeviceState for the specified Device
+    *** @param dev     The Device
+    *** @param create  True to create the DeviceState if it does not already exist
+    *** @return The DeviceState, or null if not found and 'create' is false
+    **/
+    private static DeviceState _getDeviceState(Device dev, boolean create)
+    {
+        MemCache<String,DeviceState> stateMap = DeviceStateCache._getDeviceStateMap();
+        String key = DeviceStateCache._getKey(dev);
+        long lastEvTS = dev.getLastEventTimestamp();
+        DeviceState ds;
+        synchronized (stateMap) {
+            ds = stateMap.getValue(key, null);
+            if ((ds == null) && create) {
+                ds = new DeviceState(EventCount_setting.get(), lastEvTS);
+                stateMap.addValue(key, ds);
+                return ds;
+            }
+        }
+        if ((ds != null) && (lastEvTS > ds.getLatestTimestamp())) {
+            // -- events were inserted elsewhere, discard the cached events
+            ds.reset(lastEvTS);
+        }
+        return ds;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Records the specified (successfully inserted) EventData record in the
+    *** Device state cache.
+    *** @param dev  The Device
+    *** @param ev   The inserted EventData record
+    **/
+    public static void recordEvent(Device dev, EventData ev)
+    {
+        if ((dev != null) && (ev != null) && DeviceStateCache.IsEnabled()) {
+            DeviceState ds = DeviceStateCache._getDeviceState(dev, true);
+            ds.add(new EventState(ev));
+        }
+    }
+
+    /**
+    *** Gets the last cached event for the specified Device matching the specified criteria.
+    *** Returns null if the event could not be determined from the cache, in which case
+    *** the EventData table must be queried.
+    *** @param dev          The Device
+    *** @param statusCodes  The status codes to match (null to match all status codes)
+    *** @param endTime      The maximum event timestamp (inclusive), or -1 for no limit
+    *** @param validGPS     True to only match events with a valid GPS location
+    *** @return The matching EventState, or null if not found in the cache
+    **/
+    public static EventState getLastEvent(Device dev, int statusCodes[], long endTime, boolean validGPS)
+    {
+        if ((dev == null) || !DeviceStateCache.IsEnabled()) {
+            return null;
+        }
+        DeviceState ds = DeviceStateCache._getDeviceState(dev, false);
+        EventState  es = (ds != null)? ds.getLast(statusCodes, endTime, validGPS) : null;
+        if (es != null) {
+            CacheHitCount.incrementAndGet();
+        } else {
+            CacheMissCount.incrementAndGet();
+        }
+        return es;
+    }
+
+    /**
+    *** Discards the cached events for the specified Device (ie. after EventData
+    *** records have been deleted or modified outside of the insertion path)
+    *** @param dev  The Device
+    **/
+    public static void invalidate(Device dev)
+    {
+        if ((dev != null) && (DeviceStateMap != null)) {
+            DeviceState ds = DeviceStateCache._getDeviceState(dev, false);
+            if (ds != null) {
+                ds.reset(Math.max(dev.getLastEventTimestamp(),ds.getLatestTimestamp()));
+            }
+        }
+    }
+
+    /**
+    *** Discards the cached events for the specified Device (ie. after EventData
+    *** records have been deleted or modified outside of the insertion path)
+    *** @param acctID  The Account ID
+    *** @param devID   The Device ID
+    **/
+    public static void invalidate(String acctID, String devID)
+    {
+        MemCache<String,DeviceState> stateMap = DeviceStateMap;
+        if (stateMap != null) {
+            String key = DeviceStateCache._getKey(acctID, devID);
+            DeviceState ds;
+            synchronized (stateMap) {
+                ds = stateMap.getValue(key, null);
+            }
+            if (ds != null) {
+                // -- all prior events are answered from the EventData table
+                ds.reset(ds.getLatestTimestamp());
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of lookups answered from the cache
+    *** @return The number of cache hits
+    **/
+    public static long GetCacheHitCount()
+    {
+        return CacheHitCount.get();
+    }
+
+    /**
+    *** Gets the number of lookups which required an EventData table query
+    *** @return The number of cache misses
+    **/
+    public static long GetCacheMissCount()
+    {
+        return CacheMissCount.get();
+    }
+
+    // ------------------------------------------------------------------------
+
+}
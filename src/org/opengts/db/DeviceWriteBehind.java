@@ -0,0 +1,538 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Write-behind coalescing of Device "last*" state updates
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Enabled when "Device.writeBehind.intervalMS" is greater than zero.  The
+//    changed Device field values are merged in memory per device (the most
+//    recent value of each field wins), and written to the Device table in JDBC
+//    batches across devices every "Device.writeBehind.intervalMS" milliseconds,
+//    when a DCS session ends, and (optionally) from a JVM shutdown hook.
+//  - Devices loaded by ID/unique-ID within this process have the pending values
+//    applied, so readers in the same process see the in-memory state.
+//  - A direct Device "update(...)" discards the pending values of the updated
+//    fields, since the database then holds the more recent values.  If a batch
+//    containing these fields is in flight, the directly written values are
+//    retained with the in-flight entry: they take precedence over the in-flight
+//    values when applied to loaded devices, are never replaced by a failed
+//    in-flight value, and are re-queued when the batch completes (the batch may
+//    have been committed after the direct update).
+//  - Failed batches are retained and retried on the next flush, with any newer
+//    pending values taking precedence.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.db;
+
+import java.lang.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.sql.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+
+import org.opengts.db.tables.*;
+
+/**
+*** Write-behind coalescing of Device "last*" state updates
+**/
+
+public class DeviceWriteBehind
+    implements Runnable
+{
+
+    // ------------------------------------------------------------------------
+
+    private static          DeviceWriteBehind   writeBehind         = null;
+    private static volatile boolean             writeBehindInit     = false;
+
+    /**
+    *** Gets the DeviceWriteBehind instance (returns null if write-behind is disabled)
+    *** @return The DeviceWriteBehind instance, or null if disabled
+    **/
+    public static DeviceWriteBehind getInstance()
+    {
+        if (!writeBehindInit) {
+            synchronized (DeviceWriteBehind.class) {
+                if (!writeBehindInit) {
+                    long intervalMS = RTConfig.getLong(DBConfig.PROP_Device_writeBehind_intervalMS, 0L);
+                    if (intervalMS > 0L) {
+                        DeviceWriteBehind W = new DeviceWriteBehind(intervalMS);
+                        W.start();
+                        W._registerMetrics();
+                        writeBehind = W;
+                    }
+                    writeBehindInit = true;
+                }
+            }
+        }
+        return writeBehind;
+    }
+
+    /**
+    *** Returns true if Device write-behind is enabled
+    *** @return True if Device write-behind is enabled
+    **/
+    public static boolean isEnabled()
+    {
+        return (DeviceWriteBehind.getInstance() != null);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* map key */
+    private static String _key(String acctID, String devID)
+    {
+        return acctID + "/" + devID;
+    }
+
+    /**
+    *** Pending Device field values
+    **/
+    private static class Pending
+    {
+        private String                      accountID   = null;
+        private String                      deviceID    = null;
+        private LinkedHashMap<String,Object> values     = new LinkedHashMap<String,Object>();
+        private LinkedHashMap<String,Object> direct     = null; // in-flight only: directly written values
+        public Pending(String acctID, String devID) {
+            this.accountID = acctID;
+            this.deviceID  = devID;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private long                        intervalMS      = 0L;
+    private int                         batchSize       = 200;
+    private Thread                      thread          = null;
+
+    private Object                      pendingLock     = new Object();
+    private HashMap<String,Pending>     pending         = new HashMap<String,Pending>();
+    private HashMap<String,Pending>     inFlight        = new HashMap<String,Pending>();
+
+    private Object                      flushLock       = new Object();
+
+    private AtomicLong                  enqueuedCount   = new AtomicLong(0L);
+    private AtomicLong                  coalescedCount  = new AtomicLong(0L);
+    private AtomicLong                  flushedRows     = new AtomicLong(0L);
+    private AtomicLong                  batchCount      = new AtomicLong(0L);
+    private AtomicLong                  errorCount      = new AtomicLong(0L);
+
+    /**
+    *** Constructor
+    **/
+    private DeviceWriteBehind(long intervalMS)
+    {
+        super();
+        this.intervalMS = intervalMS;
+        this.batchSize  = Math.max(RTConfig.getInt(DBConfig.PROP_Device_writeBehind_batchSize, 200), 1);
+    }
+
+    /**
+    *** Starts the flush thread, and registers the shutdown hook
+    **/
+    private void start()
+    {
+        this.thread = new Thread(this, "DeviceWriteBehind");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        if (RTConfig.getBoolean(DBConfig.PROP_Device_writeBehind_flushOnShutdown, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread("DeviceWriteBehind.shutdown") {
+                public void run() {
+                    int cnt = DeviceWriteBehind.this.flush();
+                    Print.logInfo("DeviceWriteBehind shutdown flush: " + cnt + " device(s)");
+                }
+            });
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Merges the current values of the specified Device fields into the pending
+    *** updates for the Device
+    *** @param dev   The Device
+    *** @param flds  The names of the fields to update
+    **/
+    public void enqueue(Device dev, Set<String> flds)
+    {
+        if ((dev == null) || ListTools.isEmpty(flds)) {
+            return;
+        }
+
+        /* snapshot field values (on the caller thread) */
+        LinkedHashMap<String,Object> snap = new LinkedHashMap<String,Object>();
+        for (String fn : flds) {
+            if (dev.hasField(fn)) {
+                snap.put(fn, dev.getFieldValue(fn));
+            }
+        }
+        if (snap.isEmpty()) {
+            return;
+        }
+
+        /* merge */
+        String acctID = dev.getAccountID();
+        String devID  = dev.getDeviceID();
+        String key    = _key(acctID, devID);
+        synchronized (this.pendingLock) {
+            Pending p = this.pending.get(key);
+            if (p == null) {
+                p = new Pending(acctID, devID);
+                this.pending.put(key, p);
+            } else {
+                this.coalescedCount.incrementAndGet();
+            }
+            p.values.putAll(snap);
+        }
+        this.enqueuedCount.incrementAndGet();
+
+    }
+
+    /**
+    *** Discards the pending values of the specified fields (the database holds more
+    *** recent values for these fields)
+    *** @param dev     The Device which has just been updated
+    *** @param flds    The updated field names (null for all fields)
+    **/
+    public void discard(Device dev, Set<String> flds)
+    {
+        if (dev == null) {
+            return;
+        }
+        String key = _key(dev.getAccountID(), dev.getDeviceID());
+        synchronized (this.pendingLock) {
+            /* in-flight: retain the directly written values */
+            Pending f = this.inFlight.get(key);
+            if (f != null) {
+                for (String fn : ((flds != null)? flds : f.values.keySet())) {
+                    if (f.values.containsKey(fn) && dev.hasField(fn)) {
+                        if (f.direct == null) { f.direct = new LinkedHashMap<String,Object>(); }
+                        f.direct.put(fn, dev.getFieldValue(fn));
+                    }
+                }
+            }
+            /* pending */
+            Pending p = this.pending.get(key);
+            if (p != null) {
+                if (flds == null) {
+                    p.values.clear();
+                } else {
+                    p.values.keySet().removeAll(flds);
+                }
+                if (p.values.isEmpty()) {
+                    this.pending.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+    *** Applies the pending (and in-flight) field values to the specified Device
+    *** @param dev         The Device (just loaded from the database)
+    *** @param fieldNames  The loaded field names (null if all fields were loaded)
+    **/
+    public void applyPending(Device dev, String... fieldNames)
+    {
+        if (dev == null) {
+            return;
+        }
+        String key = _key(dev.getAccountID(), dev.getDeviceID());
+        LinkedHashMap<String,Object> vals = null;
+        synchronized (this.pendingLock) {
+            Pending f = this.inFlight.get(key);
+            Pending p = this.pending.get(key);
+            if ((f == null) && (p == null)) {
+                return;
+            }
+            vals = new LinkedHashMap<String,Object>();
+            if (f != null) { 
+                vals.putAll(f.values); 
+                if (f.direct != null) { vals.putAll(f.direct); } // more recent than in-flight values
+            }
+            if (p != null) { vals.putAll(p.values); }
+        }
+        Set<String> loaded = ListTools.isEmpty(fieldNames)? null : ListTools.toSet(fieldNames, null);
+        for (Map.Entry<String,Object> e : vals.entrySet()) {
+            String fn = e.getKey();
+            if ((loaded == null) || loaded.contains(fn)) {
+                dev.setFieldValue(fn, e.getValue());
+            }
+        }
+        // -- the applied values are not changes to this loaded instance
+        dev.clearChanged();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Flushes the pending updates for all devices
+    *** @return The number of devices written
+    **/
+    public int flush()
+    {
+        synchronized (this.flushLock) {
+            List<Pending> list;
+            synchronized (this.pendingLock) {
+                if (this.pending.isEmpty()) {
+                    return 0;
+                }
+                list = new ArrayList<Pending>(this.pending.values());
+                this.inFlight.putAll(this.pending);
+                this.pending.clear();
+            }
+            return this._write(list);
+        }
+    }
+
+    /**
+    *** Flushes the pending updates for the specified device (ie. at the end of a
+    *** DCS session)
+    *** @param acctID  The Account ID
+    *** @param devID   The Device ID
+    *** @return True if pending updates were written
+    **/
+    public boolean flush(String acctID, String devID)
+    {
+        String key = _key(acctID, devID);
+        synchronized (this.flushLock) {
+            Pending p;
+            synchronized (this.pendingLock) {
+                p = this.pending.remove(key);
+                if (p == null) {
+                    return false;
+                }
+                this.inFlight.put(key, p);
+            }
+            return (this._write(Collections.singletonList(p)) > 0);
+        }
+    }
+
+    /**
+    *** Writes the specified pending updates in JDBC batches.  Must be called while
+    *** holding "flushLock", with the specified entries in "inFlight".
+    *** @return The number of devices written
+    **/
+    private int _write(List<Pending> list)
+    {
+        int written = 0;
+        for (int s = 0; s < list.size(); s += this.batchSize) {
+            List<Pending> batch = list.subList(s, Math.min(s + this.batchSize, list.size()));
+
+            /* assemble update statements */
+            List<String>  stmtSQL  = new ArrayList<String>();
+            for (Pending p : batch) {
+                try {
+                    String sql = this._getUpdateSQL(p);
+                    if (sql != null) {
+                        stmtSQL.add(sql);
+                    }
+                } catch (DBException dbe) {
+                    // -- not retried
+                    this.errorCount.incrementAndGet();
+                    Print.logError("DeviceWriteBehind '"+p.accountID+"/"+p.deviceID+"': " + dbe);
+                }
+            }
+
+            /* execute batch */
+            boolean ok = false;
+            if (!stmtSQL.isEmpty()) {
+                DBConnection dbc = null;
+                try {
+                    dbc = DBConnection.getDBConnection_write();
+                    dbc.executeUpdateBatch(stmtSQL);
+                    this.batchCount.incrementAndGet();
+                    this.flushedRows.addAndGet(stmtSQL.size());
+                    written += stmtSQL.size();
+                    ok = true;
+                } catch (SQLException sqe) {
+                    this.errorCount.incrementAndGet();
+                    Print.logError("DeviceWriteBehind batch update failed: " + sqe);
+                } catch (DBException dbe) {
+                    this.errorCount.incrementAndGet();
+                    Print.logError("DeviceWriteBehind batch update failed: " + dbe);
+                } finally {
+                    DBConnection.release(dbc);
+                }
+            } else {
+                ok = true;
+            }
+
+            /* release in-flight entries, retain failed updates for the next flush */
+            synchronized (this.pendingLock) {
+                for (Pending p : batch) {
+                    String key = _key(p.accountID, p.deviceID);
+                    this.inFlight.remove(key);
+                    // -- failed: re-queue the in-flight values, except those written directly
+                    // -  succeeded: re-queue the directly written values (the batch may have
+                    // -  been committed after the direct update, replacing them)
+                    Map<String,Object> requeue = new LinkedHashMap<String,Object>();
+                    if (!ok) {
+                        requeue.putAll(p.values);
+                        if (p.direct != null) { requeue.keySet().removeAll(p.direct.keySet()); }
+                    } else
+                    if (p.direct != null) {
+                        requeue.putAll(p.direct);
+                    }
+                    p.direct = null;
+                    if (requeue.isEmpty()) {
+                        continue;
+                    }
+                    Pending n = this.pending.get(key);
+                    if (n == null) {
+                        n = new Pending(p.accountID, p.deviceID);
+                        this.pending.put(key, n);
+                    }
+                    // -- newer pending values take precedence
+                    for (Map.Entry<String,Object> e : requeue.entrySet()) {
+                        if (!n.values.containsKey(e.getKey())) {
+                            n.values.put(e.getKey(), e.getValue());
+                        }
+                    }
+                }
+            }
+
+        }
+        return written;
+    }
+
+    /**
+    *** Assembles the SQL update statement for the specified pending updates
+    **/
+    private String _getUpdateSQL(Pending p)
+        throws DBException
+    {
+        if (p.values.isEmpty()) {
+            return null;
+        }
+        Device dev = new Device.Key(p.accountID, p.deviceID).getDBRecord();
+        for (Map.Entry<String,Object> e : p.values.entrySet()) {
+            dev.setFieldValue(e.getKey(), e.getValue());
+        }
+        return DBProvider.getUpdateSQL(dev, p.values.keySet());
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Flush loop
+    **/
+    public void run()
+    {
+        Print.logInfo("DeviceWriteBehind started: interval=" + this.intervalMS + "ms, batch=" + this.batchSize);
+        for (;;) {
+            try {
+                Thread.sleep(this.intervalMS);
+            } catch (InterruptedException ie) {
+                break;
+            }
+            try {
+                this.flush();
+            } catch (Throwable th) {
+                Print.logException("DeviceWriteBehind flush", th);
+            }
+        }
+        Print.logInfo("DeviceWriteBehind stopped");
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of devices with pending updates
+    **/
+    public int getPendingCount()
+    {
+        synchronized (this.pendingLock) {
+            return this.pending.size();
+        }
+    }
+
+    /**
+    *** Gets the number of Device updates enqueued
+    **/
+    public long getEnqueuedCount()
+    {
+        return this.enqueuedCount.get();
+    }
+
+    /**
+    *** Gets the number of enqueued Device updates merged into an existing pending update
+    **/
+    public long getCoalescedCount()
+    {
+        return this.coalescedCount.get();
+    }
+
+    /**
+    *** Gets the number of Device rows written
+    **/
+    public long getFlushedRowCount()
+    {
+        return this.flushedRows.get();
+    }
+
+    /**
+    *** Gets the number of JDBC batches executed
+    **/
+    public long getBatchCount()
+    {
+        return this.batchCount.get();
+    }
+
+    /**
+    *** Gets the number of failed JDBC batches
+    **/
+    public long getErrorCount()
+    {
+        return this.errorCount.get();
+    }
+
+    /**
+    *** Registers the counters of this instance with Metrics
+    **/
+    private void _registerMetrics()
+    {
+        final DeviceWriteBehind W = this;
+        Metrics.registerGauge("gts_device_writebehind_pending", "Devices with pending write-behind updates", new Metrics.Gauge() {
+            public double getValue() { return W.getPendingCount(); }
+        });
+        Metrics.registerCounter("gts_device_writebehind_enqueued_total", "Device write-behind updates enqueued", new Metrics.Gauge() {
+            public double getValue() { return W.getEnqueuedCount(); }
+        });
+        Metrics.registerCounter("gts_device_writebehind_coalesced_total", "Device write-behind updates merged into a pending update", new Metrics.Gauge() {
+            public double getValue() { return W.getCoalescedCount(); }
+        });
+        Metrics.registerCounter("gts_device_writebehind_rows_total", "Device write-behind rows written", new Metrics.Gauge() {
+            public double getValue() { return W.getFlushedRowCount(); }
+        });
+        Metrics.registerCounter("gts_device_writebehind_batches_total", "Device write-behind JDBC batches executed", new Metrics.Gauge() {
+            public double getValue() { return W.getBatchCount(); }
+        });
+        Metrics.registerCounter("gts_device_writebehind_errors_total", "Device write-behind failed JDBC batches", new Metrics.Gauge() {
+            public double getValue() { return W.getErrorCount(); }
+        });
+    }
+
+}
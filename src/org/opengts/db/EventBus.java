@@ -0,0 +1,382 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  In-process bus for newly inserted device positions
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Events inserted in this process are published by "Device.eventDidInsert".
+//  - Events inserted by other processes (ie. a separate DCS) are published by
+//    the "EventBusTailer", which reads new EventData records by "creationMillis"
+//    for the accounts which currently have subscribers.
+//  - An event is published at most once per device, so both sources may be
+//    active at the same time.  An event is identified by its (creationMillis,
+//    timestamp, statusCode), and is ignored if its creationMillis is before that
+//    of the last published event for the same device, or if the same event has
+//    already been published with the same creationMillis.
+//  - Without the optional "creationMillis" column the tailer is disabled, and
+//    events are published without checking for duplicates.
+//  - Listeners are called on the publishing thread, and must not block.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.db;
+
+import java.lang.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.opengts.util.*;
+
+import org.opengts.db.tables.*;
+
+/**
+*** In-process bus for newly inserted device positions
+**/
+
+public class EventBus
+{
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Immutable device position (does not retain the EventData/Device records)
+    **/
+    public static class Position
+    {
+        private String  accountID       = null;
+        private String  deviceID        = null;
+        private long    timestamp       = 0L;
+        private long    creationMillis  = 0L;
+        private long    creationTime    = 0L;
+        private int     statusCode      = StatusCodes.STATUS_NONE;
+        private double  latitude        = 0.0;
+        private double  longitude       = 0.0;
+        private double  speedKPH        = 0.0;
+        private double  heading         = 0.0;
+        private double  altitude        = 0.0;
+        private String  address         = null;
+        public Position(EventData ev) {
+            this.accountID      = ev.getAccountID();
+            this.deviceID       = ev.getDeviceID();
+            this.timestamp      = ev.getTimestamp();
+            this.creationMillis = ev.getCreationMillis();
+            this.creationTime   = ev.getCreationTime();
+            this.statusCode     = ev.getStatusCode();
+            this.latitude       = ev.getLatitude();
+            this.longitude      = ev.getLongitude();
+            this.speedKPH       = ev.getSpeedKPH();
+            this.heading        = ev.getHeading();
+            this.altitude       = ev.getAltitude();
+            this.address        = ev.getAddress();
+        }
+        public String getAccountID() {
+            return this.accountID;
+        }
+        public String getDeviceID() {
+            return this.deviceID;
+        }
+        public long getTimestamp() {
+            return this.timestamp;
+        }
+        /* creation time (milliseconds), or 0 if the "creationMillis" column is not present */
+        public long getCreationMillis() {
+            return this.creationMillis;
+        }
+        /* creation time (seconds) */
+        public long getCreationTime() {
+            return this.creationTime;
+        }
+        public int getStatusCode() {
+            return this.statusCode;
+        }
+        public double getLatitude() {
+            return this.latitude;
+        }
+        public double getLongitude() {
+            return this.longitude;
+        }
+        public boolean isValidGeoPoint() {
+            return GeoPoint.isValid(this.latitude, this.longitude);
+        }
+        public double getSpeedKPH() {
+            return this.speedKPH;
+        }
+        public double getHeading() {
+            return this.heading;
+        }
+        public double getAltitude() {
+            return this.altitude;
+        }
+        public String getAddress() {
+            return (this.address != null)? this.address : "";
+        }
+        public String toString() {
+            return this.accountID + "/" + this.deviceID + " " + this.timestamp + " " +
+                StatusCodes.GetHex(this.statusCode) + " " + this.latitude + "/" + this.longitude;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Position listener
+    **/
+    public interface Listener
+    {
+        /**
+        *** Called (on the publishing thread) when a new position is available.
+        *** This method must not block.
+        *** @param pos  The new position
+        **/
+        public void positionAvailable(Position pos);
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static volatile EventBus eventBus = null;
+
+    /**
+    *** Gets the process-wide EventBus instance
+    **/
+    public static EventBus getInstance()
+    {
+        if (eventBus == null) {
+            synchronized (EventBus.class) {
+                if (eventBus == null) {
+                    EventBus B = new EventBus();
+                    B._registerMetrics();
+                    eventBus = B;
+                }
+            }
+        }
+        return eventBus;
+    }
+
+    /**
+    *** Publishes the specified inserted event to any subscribers of the event account
+    *** @param ev  The inserted EventData record
+    **/
+    public static void publishEvent(EventData ev)
+    {
+        EventBus bus = eventBus; // do not create
+        if ((bus != null) && (ev != null) && bus.hasSubscribers(ev.getAccountID())) {
+            bus.publish(new Position(ev));
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private ConcurrentHashMap<String,CopyOnWriteArrayList<Listener>> listenerMap =
+        new ConcurrentHashMap<String,CopyOnWriteArrayList<Listener>>();
+
+    /**
+    *** Events published with the latest creationMillis for a device
+    **/
+    private static class LastPublished
+    {
+        private long       creationMillis = 0L;
+        private Set<String> events        = new HashSet<String>(); // "timestamp/statusCode"
+        /* returns true if the event has not already been published (and records it) */
+        public synchronized boolean add(long cm, long timestamp, int statusCode) {
+            String ev = timestamp + "/" + statusCode;
+            if (cm < this.creationMillis) {
+                return false; // older than the last published event
+            } else
+            if (cm > this.creationMillis) {
+                this.creationMillis = cm;
+                this.events.clear();
+            }
+            return this.events.add(ev);
+        }
+    }
+
+    /* last published events per "account/device" */
+    private ConcurrentHashMap<String,LastPublished> lastPublished = new ConcurrentHashMap<String,LastPublished>();
+
+    private AtomicLong publishCount     = new AtomicLong(0L);
+    private AtomicLong duplicateCount   = new AtomicLong(0L);
+
+    /**
+    *** Constructor
+    **/
+    private EventBus()
+    {
+        super();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Subscribes the listener to positions for the specified account
+    *** @param accountID  The account ID
+    *** @param listener   The listener
+    **/
+    public void subscribe(String accountID, Listener listener)
+    {
+        if (StringTools.isBlank(accountID) || (listener == null)) {
+            return;
+        }
+        CopyOnWriteArrayList<Listener> list = this.listenerMap.get(accountID);
+        if (list == null) {
+            CopyOnWriteArrayList<Listener> newList = new CopyOnWriteArrayList<Listener>();
+            list = this.listenerMap.putIfAbsent(accountID, newList);
+            if (list == null) { list = newList; }
+        }
+        list.add(listener);
+        EventBusTailer.startTailing(this, accountID);
+    }
+
+    /**
+    *** Unsubscribes the listener from positions for the specified account
+    *** @param accountID  The account ID
+    *** @param listener   The listener
+    **/
+    public void unsubscribe(String accountID, Listener listener)
+    {
+        if (StringTools.isBlank(accountID) || (listener == null)) {
+            return;
+        }
+        CopyOnWriteArrayList<Listener> list = this.listenerMap.get(accountID);
+        if (list != null) {
+            list.remove(listener);
+            // -- empty lists are left in place (removing them could race with "subscribe")
+        }
+    }
+
+    /**
+    *** Returns true if the specified account has subscribers
+    **/
+    public boolean hasSubscribers(String accountID)
+    {
+        CopyOnWriteArrayList<Listener> list = (accountID != null)? this.listenerMap.get(accountID) : null;
+        return (list != null) && !list.isEmpty();
+    }
+
+    /**
+    *** Gets the account IDs which currently have subscribers
+    **/
+    public Set<String> getSubscribedAccountIDs()
+    {
+        Set<String> acctIDs = new HashSet<String>();
+        for (Map.Entry<String,CopyOnWriteArrayList<Listener>> me : this.listenerMap.entrySet()) {
+            if (!me.getValue().isEmpty()) {
+                acctIDs.add(me.getKey());
+            }
+        }
+        return acctIDs;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Publishes the specified position to the subscribers of the position account
+    *** @param pos  The position
+    *** @return True if the position was published, false if there are no subscribers
+    ***     or the position has already been published
+    **/
+    public boolean publish(Position pos)
+    {
+        if (pos == null) {
+            return false;
+        }
+        String acctID = pos.getAccountID();
+        CopyOnWriteArrayList<Listener> list = this.listenerMap.get(acctID);
+        if ((list == null) || list.isEmpty()) {
+            return false;
+        }
+
+        /* already published? */
+        long cm = pos.getCreationMillis();
+        if (cm > 0L) {
+            // -- "creationMillis" present (otherwise the tailer is disabled)
+            String key = acctID + "/" + pos.getDeviceID();
+            LastPublished last = this.lastPublished.get(key);
+            if (last == null) {
+                LastPublished newLast = new LastPublished();
+                last = this.lastPublished.putIfAbsent(key, newLast);
+                if (last == null) { last = newLast; }
+            }
+            if (!last.add(cm, pos.getTimestamp(), pos.getStatusCode())) {
+                this.duplicateCount.incrementAndGet();
+                return false;
+            }
+        }
+
+        /* notify listeners */
+        this.publishCount.incrementAndGet();
+        for (Listener L : list) {
+            try {
+                L.positionAvailable(pos);
+            } catch (Throwable th) {
+                Print.logException("EventBus listener error", th);
+            }
+        }
+        return true;
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of published positions
+    **/
+    public long getPublishCount()
+    {
+        return this.publishCount.get();
+    }
+
+    /**
+    *** Gets the number of ignored (previously published) positions
+    **/
+    public long getDuplicateCount()
+    {
+        return this.duplicateCount.get();
+    }
+
+    /**
+    *** Registers the counters of this instance with Metrics
+    **/
+    private void _registerMetrics()
+    {
+        final EventBus B = this;
+        Metrics.registerCounter("gts_eventbus_published_total", "EventBus positions published", new Metrics.Gauge() {
+            public double getValue() { return B.getPublishCount(); }
+        });
+        Metrics.registerCounter("gts_eventbus_duplicate_total", "EventBus duplicate positions ignored", new Metrics.Gauge() {
+            public double getValue() { return B.getDuplicateCount(); }
+        });
+    }
+
+    /**
+    *** Returns a String representation of this instance
+    **/
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("EventBus: accounts=").append(this.getSubscribedAccountIDs().size());
+        sb.append(" published=").append(this.getPublishCount());
+        sb.append(" duplicates=").append(this.getDuplicateCount());
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,278 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Publishes EventData records inserted by other processes to the EventBus
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Only accounts with EventBus subscribers are read.  Each account keeps a
+//    "creationMillis" watermark, initialized to the time tailing started.
+//  - If the Device table supports "lastEventCreateMillis", only the devices
+//    which have changed since the watermark are read, otherwise all events for
+//    the account created since the watermark are read in a single query.
+//  - A device which has more new events than the per-read limit keeps its own
+//    watermark (the last event read), so that the remaining events are read
+//    on the next interval, even though other devices advance the account
+//    watermark.
+//  - "stopTailing" is called when the web-app is undeployed (see
+//    "RTConfigContextListener").
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.db;
+
+import java.lang.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+
+import org.opengts.db.tables.*;
+
+/**
+*** Publishes EventData records inserted by other processes to the EventBus
+**/
+
+public class EventBusTailer
+    implements Runnable
+{
+
+    // ------------------------------------------------------------------------
+
+    private static EventBusTailer tailer = null;
+
+    /**
+    *** Starts tailing new EventData records for the specified account (if not
+    *** already tailing, and if tailing is enabled)
+    *** @param bus        The EventBus to which records are published
+    *** @param accountID  The account ID
+    **/
+    public static void startTailing(EventBus bus, String accountID)
+    {
+        EventBusTailer T = EventBusTailer._getTailer(bus);
+        if (T != null) {
+            T.addAccount(accountID);
+        }
+    }
+
+    /**
+    *** Stops the EventBusTailer thread (if running)
+    **/
+    public static void stopTailing()
+    {
+        synchronized (EventBusTailer.class) {
+            if (tailer != null) {
+                tailer.stop();
+                tailer = null;
+            }
+        }
+    }
+
+    /**
+    *** Gets/starts the EventBusTailer (returns null if disabled)
+    **/
+    private static EventBusTailer _getTailer(EventBus bus)
+    {
+        if (tailer == null) {
+            synchronized (EventBusTailer.class) {
+                if (tailer == null) {
+                    long intervalMS = RTConfig.getLong(DBConfig.PROP_EventBus_tailIntervalMS, 2000L);
+                    if (intervalMS <= 0L) {
+                        return null; // disabled
+                    } else
+                    if (!EventData.getFactory().hasField(EventData.FLD_creationMillis)) {
+                        Print.logWarn("EventData '"+EventData.FLD_creationMillis+"' not supported, EventBus tailing disabled");
+                        return null;
+                    }
+                    EventBusTailer T = new EventBusTailer(bus, intervalMS);
+                    T.start();
+                    tailer = T;
+                }
+            }
+        }
+        return tailer;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private EventBus                            eventBus    = null;
+    private long                                intervalMS  = 2000L;
+    private int                                 limit       = 100;
+    private ConcurrentHashMap<String,Long>      watermarks  = new ConcurrentHashMap<String,Long>();
+    private Map<String,Map<String,Long>>        lagging     = new HashMap<String,Map<String,Long>>(); // tailing thread only
+    private volatile Thread                     thread      = null;
+
+    /**
+    *** Constructor
+    **/
+    private EventBusTailer(EventBus bus, long intervalMS)
+    {
+        super();
+        this.eventBus   = bus;
+        this.intervalMS = intervalMS;
+        this.limit      = Math.max(RTConfig.getInt(DBConfig.PROP_EventBus_tailLimit, 100), 1);
+    }
+
+    /**
+    *** Starts the tailing thread
+    **/
+    private void start()
+    {
+        this.thread = new Thread(this, "EventBusTailer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+    *** Stops the tailing thread
+    **/
+    private void stop()
+    {
+        Thread t = this.thread;
+        this.thread = null;
+        if (t != null) {
+            t.interrupt();
+        }
+    }
+
+    /**
+    *** Adds the specified account to the tailed accounts
+    **/
+    private void addAccount(String accountID)
+    {
+        // -- events created before subscription are not published
+        this.watermarks.putIfAbsent(accountID, new Long(System.currentTimeMillis()));
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Tailing loop
+    **/
+    public void run()
+    {
+        Print.logInfo("EventBusTailer started: interval=" + this.intervalMS + "ms");
+        while (this.thread == Thread.currentThread()) {
+
+            /* wait for next interval */
+            try {
+                Thread.sleep(this.intervalMS);
+            } catch (InterruptedException ie) {
+                break;
+            }
+
+            /* tail subscribed accounts */
+            for (String acctID : new ArrayList<String>(this.watermarks.keySet())) {
+                if (!this.eventBus.hasSubscribers(acctID)) {
+                    // -- restart at the current time on the next subscription
+                    this.watermarks.remove(acctID);
+                    this.lagging.remove(acctID);
+                    continue;
+                }
+                try {
+                    long wm = this.watermarks.get(acctID).longValue();
+                    long nwm = this.tailAccount(acctID, wm);
+                    if (nwm > wm) {
+                        this.watermarks.put(acctID, new Long(nwm));
+                    }
+                } catch (DBException dbe) {
+                    Print.logError("EventBusTailer '"+acctID+"': " + dbe);
+                } catch (Throwable th) {
+                    Print.logException("EventBusTailer '"+acctID+"'", th);
+                }
+            }
+
+        }
+        Print.logInfo("EventBusTailer stopped");
+    }
+
+    /**
+    *** Publishes the events for the specified account created after the watermark
+    *** @param acctID  The account ID
+    *** @param wm      The watermark (creationMillis)
+    *** @return The new watermark
+    **/
+    private long tailAccount(String acctID, long wm)
+        throws DBException
+    {
+        long nwm = wm;
+
+        /* devices with unread events older than the account watermark */
+        Map<String,Long> lagDevs = this.lagging.get(acctID);
+        long sinceMS = wm;
+        if (lagDevs != null) {
+            for (Long dwm : lagDevs.values()) {
+                if (dwm.longValue() < sinceMS) { sinceMS = dwm.longValue(); }
+            }
+        }
+
+        /* changed devices */
+        OrderedMap<String,Long> changed = Device.getDevicesChangedSince(acctID, null, sinceMS);
+        if (changed == null) {
+            // -- "lastEventCreateMillis" not supported, read all account events (in creation order)
+            EventData ev[] = EventData.getEventsByCreationMillis(acctID, "*", wm + 1L, -1L, (long)this.limit * 10L);
+            nwm = Math.max(nwm, this.publishEvents(ev));
+        } else {
+            for (String devID : changed.keySet()) {
+                Long dwm = (lagDevs != null)? lagDevs.get(devID) : null;
+                long devWM = (dwm != null)? dwm.longValue() : wm;
+                EventData ev[] = EventData.getEventsByCreationMillis(acctID, devID, devWM + 1L, -1L, (long)this.limit);
+                long lastCM = this.publishEvents(ev);
+                if (ListTools.size(ev) >= this.limit) {
+                    // -- limit reached, continue from the last event read on the next interval
+                    if (lagDevs == null) {
+                        lagDevs = new HashMap<String,Long>();
+                        this.lagging.put(acctID, lagDevs);
+                    }
+                    lagDevs.put(devID, new Long(lastCM));
+                } else {
+                    // -- caught up
+                    if (lagDevs != null) { lagDevs.remove(devID); }
+                    nwm = Math.max(nwm, lastCM);
+                }
+            }
+            if ((lagDevs != null) && lagDevs.isEmpty()) {
+                this.lagging.remove(acctID);
+            }
+        }
+
+        return nwm;
+    }
+
+    /**
+    *** Publishes the specified events (in creation order)
+    *** @return The largest creationMillis of the specified events
+    **/
+    private long publishEvents(EventData ev[])
+    {
+        long maxCM = 0L;
+        if (ev != null) {
+            for (EventData e : ev) {
+                long cm = e.getCreationMillis();
+                if (cm > maxCM) { maxCM = cm; }
+                this.eventBus.publish(new EventBus.Position(e));
+            }
+        }
+        return maxCM;
+    }
+
+}
@@ -0,0 +1,344 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Per-Device in-memory duplicate event suppression window
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Trackers commonly retransmit buffered events after a reconnect.  This
+//    window is consulted at the top of "Device._insertEventData" so that events
+//    which were recently inserted by this process are rejected before any
+//    pre-insertion processing (Geozone checks, reverse-geocoding, rules, etc),
+//    rather than relying on the EventData primary key ("INSERT IGNORE").
+//  - The key is the EventData primary key for the Device (timestamp/statusCode).
+//  - Each Device holds an exact ring of the last N inserted keys, and a small
+//    two-generation bit filter covering (at least) the keys in the ring.  The
+//    filter answers most "not a duplicate" checks without scanning the ring.
+//    A filter "maybe" is always confirmed against the exact ring, so events
+//    are never falsely rejected.
+//  - Events older than the window are not checked here, and are handled by the
+//    database as before.
+//  - Disabled by default when running as a Servlet (events are not normally
+//    inserted by the web-application process).  Servlets which do insert events
+//    (ie. "gprmc") enable it by default with "SetWebAppDefaultEnabled(true)".
+//  - The EventData bulk delete methods invalidate the window for the Device.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.db;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+
+import org.opengts.db.tables.*;
+
+/**
+*** Per-Device in-memory duplicate event suppression window
+**/
+
+public class EventDedupWindow
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int    DEFAULT_WINDOW_SIZE     = 64;
+    public  static final int    DEFAULT_DEVICE_COUNT    = 5000;
+
+    /* enabled by default in this web-application */
+    private static volatile boolean WebAppDefaultEnabled = false;
+
+    /* number of recent event keys held per device (0 to disable) */
+    private static final RTConfigSnapshot.IntSetting WindowSize_setting =
+        RTConfigSnapshot.registerSetting(new RTConfigSnapshot.IntSetting(DBConfig.PROP_Device_dedupWindow_size, DEFAULT_WINDOW_SIZE) {
+            public int getDefault() {
+                // -- disabled by default in web-applications which do not insert events
+                return (RTConfig.isWebApp() && !WebAppDefaultEnabled)? 0 : super.getDefault();
+            }
+        });
+
+    /**
+    *** Sets the duplicate event window enabled by default when running as a 
+    *** Servlet (for web-applications which insert events).  An explicitly 
+    *** configured window size still takes precedence.
+    *** @param enable  True to enable by default in this web-application
+    **/
+    public static void SetWebAppDefaultEnabled(boolean enable)
+    {
+        if (WebAppDefaultEnabled != enable) {
+            WebAppDefaultEnabled = enable;
+            RTConfigSnapshot.invalidate(); // reload default
+        }
+    }
+
+    /**
+    *** Returns true if the duplicate event window is enabled
+    *** @return True if the duplicate event window is enabled
+    **/
+    public static boolean IsEnabled()
+    {
+        return (WindowSize_setting.get() > 0);
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** DedupState class (recently inserted event keys for a single Device)
+    **/
+    private static class DedupState
+    {
+        private long    timestamps[]    = null;
+        private int     statusCodes[]   = null;
+        private int     ringPos         = 0;
+        private int     ringCount       = 0;
+        private long    filter[]        = null; // current generation
+        private long    filterPrev[]    = null; // previous generation
+        private int     filterAdds      = 0;    // keys added to current generation
+        private int     filterMask      = 0;
+        public DedupState(int size) {
+            int sz = (size > 0)? size : 1;
+            this.timestamps  = new long[sz];
+            this.statusCodes = new int[sz];
+            // -- ~16 bits per key, power of 2 (minimum 128 bits)
+            int bits = Integer.highestOneBit(Math.max(sz * 16, 128) - 1) << 1;
+            this.filter      = new long[bits >>> 6];
+            this.filterPrev  = new long[bits >>> 6];
+            this.filterMask  = bits - 1;
+        }
+        private static long _hash(long timestamp, int statusCode) {
+            long h = (timestamp * 0x9E3779B97F4A7C15L) ^ ((long)statusCode * 0xC2B2AE3D27D4EB4FL);
+            return h ^ (h >>> 29);
+        }
+        private static boolean _test(long f[], int b1, int b2) {
+            return ((f[b1 >>> 6] & (1L << b1)) != 0L) && ((f[b2 >>> 6] & (1L << b2)) != 0L);
+        }
+        public synchronized boolean contains(long timestamp, int statusCode) {
+            long h  = _hash(timestamp, statusCode);
+            int  b1 = (int)h & this.filterMask;
+            int  b2 = (int)(h >>> 32) & this.filterMask;
+            if (!_test(this.filter,b1,b2) && !_test(this.filterPrev,b1,b2)) {
+                return false; // definitely not in the ring
+            }
+            for (int i = 0; i < this.ringCount; i++) {
+                if ((this.timestamps[i] == timestamp) && (this.statusCodes[i] == statusCode)) {
+                    return true;
+                }
+            }
+            return false; // filter false-positive
+        }
+        public synchronized void add(long timestamp, int statusCode) {
+            // -- exact ring
+            this.timestamps[this.ringPos]  = timestamp;
+            this.statusCodes[this.ringPos] = statusCode;
+            this.ringPos = (this.ringPos + 1) % this.timestamps.length;
+            if (this.ringCount < this.timestamps.length) { this.ringCount++; }
+            // -- filter (rotated after each ring-length of additions, so that the
+            // -  two generations always cover every key still held in the ring)
+            if (this.filterAdds >= this.timestamps.length) {
+                long f[] = this.filterPrev;
+                Arrays.fill(f, 0L);
+                this.filterPrev = this.filter;
+                this.filter     = f;
+                this.filterAdds = 0;
+            }
+            long h  = _hash(timestamp, statusCode);
+            int  b1 = (int)h & this.filterMask;
+            int  b2 = (int)(h >>> 32) & this.filterMask;
+            this.filter[b1 >>> 6] |= (1L << b1);
+            this.filter[b2 >>> 6] |= (1L << b2);
+            this.filterAdds++;
+        }
+        public synchronized void reset() {
+            this.ringPos    = 0;
+            this.ringCount  = 0;
+            this.filterAdds = 0;
+            Arrays.fill(this.filter, 0L);
+            Arrays.fill(this.filterPrev, 0L);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static MemCache<String,DedupState> DedupStateMap = null;
+
+    private static final AtomicLong CheckCount      = new AtomicLong(0L);
+    private static final AtomicLong DuplicateCount  = new AtomicLong(0L);
+
+    static {
+        Metrics.registerCounter("gts_event_dedup_checked_total",
+            "Events checked against the duplicate event window", new Metrics.Gauge() {
+            public double getValue() { return CheckCount.get(); }
+        });
+        Metrics.registerCounter("gts_event_dedup_duplicate_total",
+            "Events rejected by the duplicate event window", new Metrics.Gauge() {
+            public double getValue() { return DuplicateCount.get(); }
+        });
+    }
+
+    /**
+    *** Gets the DedupState cache map
+    **/
+    private static MemCache<String,DedupState> _getDedupStateMap()
+    {
+        if (DedupStateMap == null) {
+            synchronized (EventDedupWindow.class) {
+                if (DedupStateMap == null) {
+                    int maxDev = RTConfig.getInt(DBConfig.PROP_Device_dedupWindow_deviceCount, DEFAULT_DEVICE_COUNT);
+                    DedupStateMap = new MemCache<String,DedupState>(maxDev);
+                }
+            }
+        }
+        return DedupStateMap;
+    }
+
+    /**
+    *** Gets the cache key for the specified Device
+    **/
+    private static String _getKey(Device dev)
+    {
+        return EventDedupWindow._getKey(dev.getAccountID(), dev.getDeviceID());
+    }
+
+    /**
+    *** Gets the cache key for the specified Account/Device IDs
+    **/
+    private static String _getKey(String acctID, String devID)
+    {
+        return acctID + "/" + devID;
+    }
+
+    /**
+    *** Gets the DedupState for the specified Device
+    *** @param dev     The Device
+    *** @param create  True to create the DedupState if it does not already exist
+    *** @return The DedupState, or null if not found and 'create' is false
+    **/
+    private static DedupState _getDedupState(Device dev, boolean create)
+    {
+        MemCache<String,DedupState> stateMap = EventDedupWindow._getDedupStateMap();
+        String key = EventDedupWindow._getKey(dev);
+        synchronized (stateMap) {
+            DedupState ds = stateMap.getValue(key, null);
+            if ((ds == null) && create) {
+                ds = new DedupState(WindowSize_setting.get());
+                stateMap.addValue(key, ds);
+            }
+            return ds;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns true if the specified EventData record has recently been inserted
+    *** for the specified Device (ie. a retransmitted event).  The duplicate count
+    *** is incremented if a duplicate is found.
+    *** @param dev  The Device
+    *** @param ev   The EventData record about to be inserted
+    *** @return True if the event is a known duplicate
+    **/
+    public static boolean isDuplicate(Device dev, EventData ev)
+    {
+        if ((dev == null) || (ev == null) || !EventDedupWindow.IsEnabled()) {
+            return false;
+        }
+        CheckCount.incrementAndGet();
+        DedupState ds = EventDedupWindow._getDedupState(dev, false);
+        if ((ds != null) && ds.contains(ev.getTimestamp(), ev.getStatusCode())) {
+            DuplicateCount.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+    *** Records the specified (successfully inserted) EventData record in the
+    *** duplicate event window.
+    *** @param dev  The Device
+    *** @param ev   The inserted EventData record
+    **/
+    public static void recordEvent(Device dev, EventData ev)
+    {
+        if ((dev != null) && (ev != null) && EventDedupWindow.IsEnabled()) {
+            DedupState ds = EventDedupWindow._getDedupState(dev, true);
+            ds.add(ev.getTimestamp(), ev.getStatusCode());
+        }
+    }
+
+    /**
+    *** Discards the recent event keys for the specified Device (ie. after EventData
+    *** records have been deleted outside of the insertion path)
+    *** @param dev  The Device
+    **/
+    public static void invalidate(Device dev)
+    {
+        if (dev != null) {
+            EventDedupWindow.invalidate(dev.getAccountID(), dev.getDeviceID());
+        }
+    }
+
+    /**
+    *** Discards the recent event keys for the specified Device (ie. after EventData
+    *** records have been deleted outside of the insertion path)
+    *** @param acctID  The Account ID
+    *** @param devID   The Device ID
+    **/
+    public static void invalidate(String acctID, String devID)
+    {
+        MemCache<String,DedupState> stateMap = DedupStateMap;
+        if (stateMap != null) {
+            String key = EventDedupWindow._getKey(acctID, devID);
+            DedupState ds;
+            synchronized (stateMap) {
+                ds = stateMap.getValue(key, null);
+            }
+            if (ds != null) {
+                ds.reset();
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of events checked against the duplicate window
+    *** @return The number of events checked
+    **/
+    public static long GetCheckCount()
+    {
+        return CheckCount.get();
+    }
+
+    /**
+    *** Gets the number of events rejected as duplicates
+    *** @return The number of duplicate events rejected
+    **/
+    public static long GetDuplicateCount()
+    {
+        return DuplicateCount.get();
+    }
+
+    // ------------------------------------------------------------------------
+
+}
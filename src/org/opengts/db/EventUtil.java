@@ -670,7 +670,7 @@ public class EventUtil
                     float d = ((Float)val).floatValue();
                     String fmt = dbFld.getFormat();
                     if ((fmt != null) && !fmt.equals("")) {
-                        sb.append(StringTools.format(d,fmt));
+                        StringTools.format(d,fmt,sb);
                     } else {
                         sb.append(String.valueOf(d));
                     }
@@ -680,7 +680,7 @@ public class EventUtil
                     double d = ((Double)val).doubleValue();
                     String fmt = dbFld.getFormat();
                     if ((fmt != null) && !fmt.equals("")) {
-                        sb.append(StringTools.format(d,fmt));
+                        StringTools.format(d,fmt,sb);
                     } else {
                         sb.append(String.valueOf(d));
                     }
@@ -759,6 +759,18 @@ public class EventUtil
     public  static final String  JSON_routeColor                = "routeColor";
     public  static final String  JSON_textColor                 = "textColor";
     public  static final String  JSON_id                        = "id";
+    public  static final String  JSON_Reduce                    = "Reduce";
+    public  static final String  JSON_level                     = "level";
+    public  static final String  JSON_zoom                      = "zoom";
+    public  static final String  JSON_total                     = "total";
+    public  static final String  JSON_count                     = "count";
+    public  static final String  JSON_clusters                  = "clusters";
+    public  static final String  JSON_Delta                     = "Delta";
+    public  static final String  JSON_append                    = "append";
+    public  static final String  JSON_limit                     = "limit";
+    public  static final String  JSON_since                     = "since";
+    public  static final String  JSON_watermark                 = "watermark";
+    public  static final String  JSON_Devices                   = "Devices";
 
     public  static final String  ATTR_isFleet                   = "isFleet";
     public  static final String  ATTR_type                      = "type";
@@ -784,6 +796,13 @@ public class EventUtil
     public  static final String  DSTYPE_group                   = "group";
     public  static final String  DSTYPE_poi                     = "poi";
 
+    public  static final String  DSID_cluster                   = "cluster";
+    public  static final String  ACTION_refine                  = "refine";
+
+    public  static final String  DELTA_full                     = "full";
+    public  static final String  DELTA_partial                  = "partial";
+    public  static final String  DELTA_notModified              = "notModified";
+
   //public  static final String  CSV_SEPARATOR                  = "|";
     public  static final char    CSV_SEPARATOR_CHAR             = '|';
 
@@ -988,9 +1007,9 @@ public class EventUtil
         /* fld[ 9] Longitude (6 decimal places) */
         boolean isGPSLocation = edp.isValidGeoPoint();
         GeoPoint bestGP = isGPSLocation? edp.getGeoPoint() : edp.getBestGeoPoint();
-        sb.append(StringTools.format(bestGP.getLatitude() ,"0.000000"));
+        StringTools.format(bestGP.getLatitude() ,"0.000000",sb);
         sb.append(csvSep);
-        sb.append(StringTools.format(bestGP.getLongitude(),"0.000000"));
+        StringTools.format(bestGP.getLongitude(),"0.000000",sb);
         sb.append(csvSep);
 
         /* A fld[10] GPS Age */
@@ -1005,7 +1024,7 @@ public class EventUtil
 
         /* C fld[12] Accuracy (meters) */
         double bestAcc = isGPSLocation? edp.getHorzAccuracy() : edp.getBestAccuracy();
-        sb.append(StringTools.format(bestAcc,"0.0"));
+        StringTools.format(bestAcc,"0.0",sb);
         sb.append(csvSep);
         //Print.logInfo("GeoPoint: " + bgp + " [accuracy " + edp.getBestAccuracy() + " meters]");
 
@@ -1015,19 +1034,19 @@ public class EventUtil
         sb.append(csvSep);
 
         /* E fld[14] SpeedKPH */
-        sb.append(StringTools.format(edp.getSpeedKPH(),"0.0"));
+        StringTools.format(edp.getSpeedKPH(),"0.0",sb);
         sb.append(csvSep);
 
         /* F fld[15] Heading */
-        sb.append(StringTools.format(edp.getHeading(),"0.0"));
+        StringTools.format(edp.getHeading(),"0.0",sb);
         sb.append(csvSep);
 
         /* G fld[16] Altitude (meters) */
-        sb.append(StringTools.format(edp.getAltitude(),"0"));
+        StringTools.format(edp.getAltitude(),"0",sb);
         sb.append(csvSep);
 
         /* H fld[17] Odometer (kilometers) */
-        sb.append(StringTools.format(edp.getOdometerKM(),"0.0"));
+        StringTools.format(edp.getOdometerKM(),"0.0",sb);
         sb.append(csvSep);
 
         /* I fld[18] Stopped state */
@@ -1163,6 +1182,37 @@ public class EventUtil
         DateTime latestTime, double lastBattery, double lastSignal,
         double minProximityM)
         throws IOException
+    {
+        return this.writeMapEvents(
+            dataFmt, indentLevel, pwout,
+            isSoapRequest, isTopLevelTag,
+            privLabel,
+            edp, includeShapes,
+            iconSelector, iconMap,
+            isFleet, fleetRoute, selID,
+            tmz,
+            acct, user,
+            latestTime, lastBattery, lastSignal,
+            minProximityM,
+            null/*MapDataReducer*/, null/*MapDelta*/);
+    }
+
+    /* write encoded map event data to the specified PrintWriter */
+    // -- if specified, the MapDataReducer events replace "edp" (JSON format only)
+    // -- if specified, the MapDelta indicates a "delta" update (JSON format only)
+    public boolean writeMapEvents(
+        int dataFmt, int indentLevel, PrintWriter pwout, 
+        boolean isSoapRequest, boolean isTopLevelTag,
+        BasicPrivateLabel privLabel,
+        EventDataProvider edp[], boolean includeShapes,
+        String iconSelector, OrderedMap<String,PushpinIcon> iconMap, // OrderedSet<String> iconKeys, 
+        boolean isFleet, boolean fleetRoute, String selID,
+        TimeZone tmz, 
+        Account acct, User user,
+        DateTime latestTime, double lastBattery, double lastSignal,
+        double minProximityM,
+        MapDataReducer mdr, MapDelta delta)
+        throws IOException
     {
         if (dataFmt == EventUtil.MAPDATA_XML) {
             Print.logInfo("Writing map events in XML format ...");
@@ -1191,7 +1241,8 @@ public class EventUtil
                 acct, user,
                 latestTime, lastBattery, lastSignal,
                 minProximityM,
-                CSV_SEPARATOR_CHAR);
+                CSV_SEPARATOR_CHAR,
+                mdr, delta);
         }
     }
 
@@ -1878,7 +1929,8 @@ public class EventUtil
             acct, user,
             latestTime, lastBattery, lastSignal,
             minProximityM,
-            CSV_SEPARATOR_CHAR);
+            CSV_SEPARATOR_CHAR,
+            null/*MapDataReducer*/, null/*MapDelta*/);
     }
 
     /* write encoded map event data to the specified PrintWriter */
@@ -1894,7 +1946,8 @@ public class EventUtil
         Account acct, User user,
         DateTime latestTime, double lastBattery, double lastSignal,
         double minProximityM,
-        char csvSep)
+        char csvSep,
+        MapDataReducer mdr, MapDelta delta)
         throws IOException
     {
         JSON._Object JMapData = this.getJMapData_JSON(
@@ -1907,13 +1960,22 @@ public class EventUtil
             latestTime, lastBattery, lastSignal,
             minProximityM,
             null/*actions*/,
-            csvSep);
-        JSON._Object jsonObj = new JSON._Object();
-        jsonObj.addKeyValue(JSON_JMapData, JMapData);
-        String jsonStr = jsonObj.toString(false);
-        //Print.logInfo("Return JMapData request:\n"+jsonStr);
+            csvSep,
+            mdr, delta);
         //response.setContentType(HTMLTools.MIME_JSON()); // HTMLTools.MIME_PLAIN());
-        this.write(pwout, jsonStr);
+        if (pwout != null) {
+            // -- stream directly to output (avoids building the full JSON String)
+            JsonWriter jw = new JsonWriter(pwout, false);
+            jw.beginObject();
+            jw.name(JSON_JMapData).value(JMapData);
+            jw.endObject();
+        } else {
+            JSON._Object jsonObj = new JSON._Object();
+            jsonObj.addKeyValue(JSON_JMapData, JMapData);
+            String jsonStr = jsonObj.toString(false);
+            //Print.logInfo("Return JMapData request:\n"+jsonStr);
+            this.write(pwout, jsonStr);
+        }
         this.flush(pwout);
         return true;
     }
@@ -1930,6 +1992,36 @@ public class EventUtil
         double minProximityM,
         Collection<String> actions,
         char csvSep)
+    {
+        return this.getJMapData_JSON(
+            privLabel,
+            edp, includeShapes,
+            iconSelector, iconMap,
+            isFleet, fleetRoute, selID,
+            tmz,
+            acct, user,
+            latestTime, lastBattery, lastSignal,
+            minProximityM,
+            actions,
+            csvSep,
+            null/*MapDataReducer*/, null/*MapDelta*/);
+    }
+
+    /* Returns a JSON object containing the shapes and events to display on the map */
+    // -- if specified, the MapDataReducer events/clusters replace "edp"
+    // -- if specified, the MapDelta indicates a "delta" update ("edp" contains only changed devices)
+    public JSON._Object getJMapData_JSON(
+        BasicPrivateLabel privLabel,
+        EventDataProvider edp[],  boolean includeShapes,
+        String iconSelector, OrderedMap<String,PushpinIcon> iconMap, // OrderedSet<String>iconKeys, 
+        boolean isFleet, boolean fleetRoute, String selID,
+        TimeZone tmz, 
+        Account acct, User user,
+        DateTime latestTime, double lastBattery, double lastSignal,
+        double minProximityM,
+        Collection<String> actions,
+        char csvSep,
+        MapDataReducer mdr, MapDelta delta)
     {
         // {
         //   "JMapData" : {
@@ -2018,6 +2110,66 @@ public class EventUtil
         /* isFleet */
         jMapDataObj.addKeyValue(ATTR_isFleet, isFleet);
 
+        /* delta update */
+        // "Delta": {
+        //    "type": "partial",
+        //    "since": 1476412345678,
+        //    "watermark": 1476412355678,
+        //    "append": true,
+        //    "limit": 100,
+        //    "Devices": [ "deviceid", ... ]
+        // },
+        if (delta != null) {
+            JSON._Object deltaObj = new JSON._Object();
+            if (delta.isNotModified()) {
+                deltaObj.addKeyValue(JSON_type     , DELTA_notModified);
+            } else
+            if (delta.isPartial()) {
+                deltaObj.addKeyValue(JSON_type     , DELTA_partial);
+            } else {
+                deltaObj.addKeyValue(JSON_type     , DELTA_full);
+            }
+            if (!delta.isFull()) {
+                deltaObj.addKeyValue(JSON_since    , delta.getSince());
+            }
+            deltaObj.addKeyValue(JSON_watermark, delta.getWatermark());
+            if (delta.isPartial() && delta.isAppend()) {
+                deltaObj.addKeyValue(JSON_append   , true);
+                deltaObj.addKeyValue(JSON_limit    , delta.getLimit());
+            }
+            if (delta.isPartial() && (delta.getDeviceIDs() != null)) {
+                JSON._Array devArray = new JSON._Array();
+                for (String devID : delta.getDeviceIDs()) {
+                    devArray.addValue(devID);
+                }
+                deltaObj.addKeyValue(JSON_Devices, devArray);
+            }
+            jMapDataObj.addKeyValue(JSON_Delta, deltaObj);
+            if (delta.isNotModified()) {
+                // -- nothing else to send
+                return jMapDataObj;
+            }
+        }
+
+        /* reduced events */
+        // "Reduce": {
+        //    "level": 1,
+        //    "zoom": 12,
+        //    "total": 43200,
+        //    "count": 812,
+        //    "clusters": 0
+        // },
+        if ((mdr != null) && (mdr.getLevel() != MapDataReducer.LOD_FULL)) {
+            edp = mdr.getEvents();
+            JSON._Object reduceObj = new JSON._Object();
+            reduceObj.addKeyValue(JSON_level   , mdr.getLevel());
+            reduceObj.addKeyValue(JSON_zoom    , mdr.getZoom());
+            reduceObj.addKeyValue(JSON_total   , mdr.getOriginalCount());
+            reduceObj.addKeyValue(JSON_count   , ListTools.size(edp));
+            reduceObj.addKeyValue(JSON_clusters, ListTools.size(mdr.getClusters()));
+            jMapDataObj.addKeyValue(JSON_Reduce, reduceObj);
+        }
+
         /* today time */
         // "Time": {
         //    "timestamp": EPOCH,
@@ -2286,12 +2438,29 @@ public class EventUtil
             //      ...
             //    ],
             // },
-            this._getMapPoi_json(
-                dataSetArray,
-                privLabel,
-                this._getPOI(((acct != null)? acct.getAccountID() : null), privLabel), 
-                iconMap, 
-                csvSep);
+            if ((delta == null) || !delta.isPartial()) {
+                // -- (the client retains the POI from the prior full update)
+                this._getMapPoi_json(
+                    dataSetArray,
+                    privLabel,
+                    this._getPOI(((acct != null)? acct.getAccountID() : null), privLabel), 
+                    iconMap, 
+                    csvSep);
+            }
+            // {
+            //    "type": "poi",
+            //    "id": "cluster",
+            //    "route": "false",
+            //    "Points": [ ... ]
+            // },
+            if ((mdr != null) && mdr.hasClusters()) {
+                this._getMapClusters_json(
+                    dataSetArray,
+                    privLabel, i18n,
+                    mdr.getClusters(),
+                    iconSelector, iconMap,
+                    csvSep);
+            }
             // {
             //    "type": "device",
             //    "id": "deviceid",
@@ -2328,6 +2497,11 @@ public class EventUtil
         //      "arg": "2"
         //    }
         // ]
+        if ((mdr != null) && (mdr.getNextLevel() != MapDataReducer.LOD_FULL)) {
+            // -- a refined (higher level-of-detail) response is available
+            actions = (actions != null)? new Vector<String>(actions) : new Vector<String>();
+            actions.add(ACTION_refine + "|" + mdr.getNextLevel());
+        }
         if (!ListTools.isEmpty(actions)) {
             // "command|Data"
             JSON._Array actionArray = new JSON._Array();
@@ -2408,6 +2582,58 @@ public class EventUtil
 
     }
 
+    /* add map fleet clusters to the specified JSON array */
+    private boolean _getMapClusters_json(
+        JSON._Array dataSetArray,
+        BasicPrivateLabel privLabel, I18N i18n,
+        java.util.List<MapDataReducer.Cluster> clusters,
+        final String iconSelector, final OrderedMap<String,PushpinIcon> iconMap,
+        char csvSep)
+    {
+
+        /* no clusters? */
+        if (ListTools.isEmpty(clusters)) {
+            return false;
+        }
+
+        /* header */
+        JSON._Object clusterObj = new JSON._Object();
+        clusterObj.addKeyValue(JSON_type    , DSTYPE_poi);
+        clusterObj.addKeyValue(JSON_id      , DSID_cluster);
+        clusterObj.addKeyValue(JSON_route   , false);
+        JSON._Array pointArray = new JSON._Array();
+        clusterObj.addKeyValue(JSON_Points  , pointArray);
+        dataSetArray.addValue(clusterObj);
+
+        /* clusters */
+        for (MapDataReducer.Cluster c : clusters) {
+            final EventDataProvider rep = c.getRepresentative();
+            final String   desc = i18n.getString("EventUtil.clusterDevices","{0} devices", String.valueOf(c.getCount()));
+            final GeoPoint gp   = new GeoPoint(c.getLatitude(), c.getLongitude());
+            EventDataProvider edp = new EventDataProviderAdapter() {
+                public String   getAccountID()         { return rep.getAccountID(); }
+                public String   getDeviceID()          { return DSID_cluster; }
+                public String   getDeviceDescription() { return desc; }
+                public long     getTimestamp()         { return rep.getTimestamp(); }
+                public GeoPoint getGeoPoint()          { return gp; }
+                public double   getLatitude()          { return gp.getLatitude(); }
+                public double   getLongitude()         { return gp.getLongitude(); }
+                public int      getPushpinIconIndex(String iconSel, OrderedMap<String,PushpinIcon> iconM, boolean isFleet, BasicPrivateLabel bpl) { 
+                    return rep.getPushpinIconIndex(iconSelector, iconMap, true, bpl); 
+                }
+            };
+            String rcd = this.formatMapEvent(privLabel, edp, // cluster JSON
+                null/*iconSelector*/, iconMap, 
+                true/*isFleet*/, 1/*stoppedState*/,
+                null/*TimeZone*/, null/*dateFmt*/, null/*timeFmt*/, csvSep);
+            pointArray.addValue(rcd);
+        }
+
+        /* add to DataSet */
+        return true;
+
+    }
+
     /* add map event dataset to the specified JSON array */
     private boolean _addDataSet_json(
         JSON._Array dataSetArray,
@@ -0,0 +1,491 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Server-side map point reduction (route simplification, fleet clustering)
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Device maps: each device route is simplified with the Douglas-Peucker
+//    algorithm.  Points with a "significant" status code (anything other than
+//    the periodic location/in-motion codes), and points where the device stops
+//    or starts moving, are always retained, as are the first/last points.
+//  - Fleet maps: devices are grouped into grid cells, and each cell containing
+//    more than one device is replaced by a single "cluster" point.
+//  - Tolerances are specified in screen pixels, and converted to meters using
+//    the map zoom level.  If the client does not specify a zoom level, the zoom
+//    level at which all points fit the map viewport is used.
+//  - Progressive output: level-of-detail 1 is "coarse", level 2 is "fine".  A
+//    coarse response indicates that a refined response is available.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.db;
+
+import java.lang.*;
+import java.util.*;
+
+import org.opengts.util.*;
+
+/**
+*** Server-side map point reduction (route simplification, fleet clustering)
+**/
+
+public class MapDataReducer
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int        LOD_FULL                = 0;    // no reduction
+    public  static final int        LOD_COARSE              = 1;
+    public  static final int        LOD_FINE                = 2;
+
+    public  static final double     DFT_TOLERANCE_PIXELS    = 1.5;
+    public  static final double     COARSE_MULTIPLIER       = 4.0;
+    public  static final double     DFT_CLUSTER_PIXELS      = 40.0;
+
+    private static final double     EARTH_CIRCUMFERENCE_M   = 40075016.686;
+    private static final double     MAX_ZOOM                = 20.0;
+    private static final int        TILE_SIZE               = 256;
+
+    /* periodic/routine status codes (may be removed by route simplification) */
+    private static final Set<Integer> ROUTINE_CODES = new HashSet<Integer>(Arrays.asList(new Integer[] {
+        StatusCodes.STATUS_NONE,
+        StatusCodes.STATUS_LOCATION,
+        StatusCodes.STATUS_LOCATION_1,
+        StatusCodes.STATUS_LOCATION_2,
+        StatusCodes.STATUS_LOCATION_3,
+        StatusCodes.STATUS_LOCATION_4,
+        StatusCodes.STATUS_LAST_LOCATION,
+        StatusCodes.STATUS_CELL_LOCATION,
+        StatusCodes.STATUS_DISTANCE,
+        StatusCodes.STATUS_DISTANCE_1,
+        StatusCodes.STATUS_DISTANCE_2,
+        StatusCodes.STATUS_MOTION_ENROUTE,
+        StatusCodes.STATUS_MOTION_HEADING,
+    }));
+
+    /**
+    *** Returns true if the specified event must be retained by route simplification
+    *** @param e  The event
+    *** @return True if the event status code is not a periodic/routine code
+    **/
+    public static boolean IsSignificant(EventDataProvider e)
+    {
+        return (e != null) && !ROUTINE_CODES.contains(new Integer(e.getStatusCode()));
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns the number of meters per pixel at the specified latitude and zoom
+    *** level (Web-Mercator tiles)
+    *** @param lat   The latitude
+    *** @param zoom  The zoom level
+    *** @return The meters per pixel
+    **/
+    public static double MetersPerPixel(double lat, double zoom)
+    {
+        double cosLat = Math.cos(Math.toRadians(Math.max(-85.0,Math.min(85.0,lat))));
+        return (EARTH_CIRCUMFERENCE_M * cosLat) / (TILE_SIZE * Math.pow(2.0, zoom));
+    }
+
+    /**
+    *** Returns the largest zoom level at which the specified bounds fit within
+    *** the specified viewport (Web-Mercator tiles)
+    *** @param gb        The bounds
+    *** @param widthPx   The viewport width (pixels)
+    *** @param heightPx  The viewport height (pixels)
+    *** @return The zoom level
+    **/
+    public static double FitZoom(GeoBounds gb, int widthPx, int heightPx)
+    {
+        if ((gb == null) || !gb.isValid() || (widthPx <= 0) || (heightPx <= 0)) {
+            return MAX_ZOOM;
+        }
+        double lonSpan = Math.max(gb.getMaxLongitude() - gb.getMinLongitude(), 0.000001);
+        double latN    = _mercatorY(gb.getMaxLatitude());
+        double latS    = _mercatorY(gb.getMinLatitude());
+        double latSpan = Math.max(latN - latS, 0.000001);
+        double zoomX   = Math.log((widthPx  * 360.0) / (lonSpan * TILE_SIZE)) / Math.log(2.0);
+        double zoomY   = Math.log((heightPx * 360.0) / (latSpan * TILE_SIZE)) / Math.log(2.0);
+        double zoom    = Math.floor(Math.min(zoomX, zoomY));
+        return Math.max(0.0, Math.min(MAX_ZOOM, zoom));
+    }
+
+    /**
+    *** Returns the Mercator Y value, scaled to degrees
+    **/
+    private static double _mercatorY(double lat)
+    {
+        double r = Math.toRadians(Math.max(-85.0,Math.min(85.0,lat)));
+        return Math.toDegrees(Math.log(Math.tan((Math.PI / 4.0) + (r / 2.0))));
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Fleet cluster (group of devices in the same grid cell)
+    **/
+    public static class Cluster
+    {
+        private EventDataProvider   representative  = null;
+        private Set<String>         deviceIDs       = new HashSet<String>();
+        private int                 count           = 0;
+        private double              sumLat          = 0.0;
+        private double              sumLon          = 0.0;
+        public Cluster() {
+            super();
+        }
+        private void add(EventDataProvider e) {
+            if ((this.representative == null) || (e.getTimestamp() > this.representative.getTimestamp())) {
+                this.representative = e;
+            }
+            this.deviceIDs.add(e.getDeviceID());
+            this.sumLat += e.getLatitude();
+            this.sumLon += e.getLongitude();
+            this.count++;
+        }
+        /* most recent event in this cluster */
+        public EventDataProvider getRepresentative() {
+            return this.representative;
+        }
+        /* number of distinct devices in this cluster */
+        public int getCount() {
+            return this.deviceIDs.size();
+        }
+        /* number of events in this cluster */
+        public int getEventCount() {
+            return this.count;
+        }
+        /* cluster center */
+        public double getLatitude() {
+            return (this.count > 0)? (this.sumLat / this.count) : 0.0;
+        }
+        public double getLongitude() {
+            return (this.count > 0)? (this.sumLon / this.count) : 0.0;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private int                     level           = LOD_FULL;
+    private int                     originalCount   = 0;
+    private double                  zoom            = -1.0;
+    private double                  toleranceM      = 0.0;
+    private EventDataProvider       events[]        = null;
+    private java.util.List<Cluster> clusters        = null;
+
+    /**
+    *** Constructor.  Reduces the specified events per the level-of-detail.
+    *** @param edp          The events (grouped by device, in ascending time order)
+    *** @param isFleet      True for a fleet map (clustering), false for a device map (simplification)
+    *** @param level        The level-of-detail (LOD_FULL, LOD_COARSE, LOD_FINE)
+    *** @param zoom         The client map zoom level (<0 to fit the events within the viewport)
+    *** @param widthPx      The viewport width (pixels)
+    *** @param heightPx     The viewport height (pixels)
+    *** @param tolerancePx  The route simplification tolerance (pixels)
+    *** @param clusterPx    The fleet cluster grid cell size (pixels, <=0 for no clustering)
+    **/
+    public MapDataReducer(EventDataProvider edp[], boolean isFleet, int level,
+        double zoom, int widthPx, int heightPx,
+        double tolerancePx, double clusterPx)
+    {
+        this.events        = (edp != null)? edp : new EventDataProvider[0];
+        this.originalCount = this.events.length;
+        this.level         = level;
+        if ((level <= LOD_FULL) || (this.events.length < 3)) {
+            this.level = LOD_FULL;
+            return;
+        }
+
+        /* zoom */
+        GeoBounds gb = new GeoBounds();
+        for (EventDataProvider e : this.events) {
+            if (GeoPoint.isValid(e.getLatitude(),e.getLongitude())) {
+                gb.extendByPoint(e.getGeoPoint());
+            }
+        }
+        if (!gb.isValid()) {
+            this.level = LOD_FULL;
+            return;
+        }
+        this.zoom = (zoom >= 0.0)? zoom : MapDataReducer.FitZoom(gb, widthPx, heightPx);
+        double mpp = MapDataReducer.MetersPerPixel(gb.getCenter().getLatitude(), this.zoom);
+        double mul = (level == LOD_COARSE)? COARSE_MULTIPLIER : 1.0;
+
+        /* reduce */
+        if (isFleet) {
+            if (clusterPx > 0.0) {
+                this._cluster(clusterPx * mul * mpp);
+            }
+        } else {
+            this.toleranceM = tolerancePx * mul * mpp;
+            this._simplify(this.toleranceM);
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the level-of-detail of the reduced events
+    *** @return The level-of-detail
+    **/
+    public int getLevel()
+    {
+        return this.level;
+    }
+
+    /**
+    *** Gets the next level-of-detail which should be requested by the client
+    *** @return The next level-of-detail, or LOD_FULL if no further refinement is available
+    **/
+    public int getNextLevel()
+    {
+        if ((this.level == LOD_COARSE) && this.isReduced()) {
+            return LOD_FINE;
+        } else {
+            // -- not coarse, or nothing was removed at the coarse level
+            return LOD_FULL;
+        }
+    }
+
+    /**
+    *** Returns true if any events were removed (simplified or clustered)
+    *** @return True if any events were removed
+    **/
+    public boolean isReduced()
+    {
+        return (this.events.length < this.originalCount);
+    }
+
+    /**
+    *** Gets the zoom level used to reduce the events
+    *** @return The zoom level (<0 if not reduced)
+    **/
+    public double getZoom()
+    {
+        return this.zoom;
+    }
+
+    /**
+    *** Gets the number of events prior to reduction
+    *** @return The number of events prior to reduction
+    **/
+    public int getOriginalCount()
+    {
+        return this.originalCount;
+    }
+
+    /**
+    *** Gets the reduced events
+    *** @return The reduced events
+    **/
+    public EventDataProvider[] getEvents()
+    {
+        return this.events;
+    }
+
+    /**
+    *** Returns true if this instance contains fleet clusters
+    *** @return True if this instance contains fleet clusters
+    **/
+    public boolean hasClusters()
+    {
+        return !ListTools.isEmpty(this.clusters);
+    }
+
+    /**
+    *** Gets the fleet clusters
+    *** @return The fleet clusters (null if none)
+    **/
+    public java.util.List<Cluster> getClusters()
+    {
+        return this.clusters;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Simplifies each device route
+    **/
+    private void _simplify(double tolM)
+    {
+        EventDataProvider edp[] = this.events;
+        boolean keep[] = new boolean[edp.length];
+        int s = 0;
+        while (s < edp.length) {
+            // -- find device run [s..e]
+            String devID = edp[s].getDeviceID();
+            int e = s;
+            while (((e + 1) < edp.length) && devID.equals(edp[e + 1].getDeviceID())) { e++; }
+            this._simplifyRun(edp, s, e, tolM, keep);
+            s = e + 1;
+        }
+        java.util.List<EventDataProvider> list = new Vector<EventDataProvider>();
+        for (int i = 0; i < edp.length; i++) {
+            if (keep[i]) { list.add(edp[i]); }
+        }
+        this.events = list.toArray(new EventDataProvider[list.size()]);
+    }
+
+    /**
+    *** Simplifies a single device route [s..e] (inclusive)
+    **/
+    private void _simplifyRun(EventDataProvider edp[], int s, int e, double tolM, boolean keep[])
+    {
+
+        /* project to local meters (equirectangular) */
+        int    n   = e - s + 1;
+        double x[] = new double[n];
+        double y[] = new double[n];
+        double lat0 = 0.0;
+        for (int i = 0; i < n; i++) { lat0 += edp[s + i].getLatitude(); }
+        lat0 /= n;
+        double mPerDeg = EARTH_CIRCUMFERENCE_M / 360.0;
+        double cosLat0 = Math.cos(Math.toRadians(lat0));
+        boolean valid[] = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            EventDataProvider ev = edp[s + i];
+            valid[i] = GeoPoint.isValid(ev.getLatitude(), ev.getLongitude());
+            x[i] = ev.getLongitude() * mPerDeg * cosLat0;
+            y[i] = ev.getLatitude()  * mPerDeg;
+        }
+
+        /* always retain first/last, significant, invalid, and stop/start points */
+        java.util.List<Integer> anchors = new Vector<Integer>();
+        for (int i = 0; i < n; i++) {
+            EventDataProvider ev = edp[s + i];
+            boolean anchor = (i == 0) || (i == (n - 1)) || !valid[i] || MapDataReducer.IsSignificant(ev);
+            if (!anchor && (i > 0)) {
+                boolean stoppedPrev = (edp[s + i - 1].getSpeedKPH() <= 0.0);
+                boolean stoppedThis = (ev.getSpeedKPH() <= 0.0);
+                if (stoppedPrev != stoppedThis) {
+                    anchor = true;
+                }
+            }
+            if (anchor) {
+                keep[s + i] = true;
+                if (valid[i]) { anchors.add(new Integer(i)); }
+            }
+        }
+
+        /* Douglas-Peucker between consecutive anchors (iterative) */
+        double tol2 = tolM * tolM;
+        int stack[] = new int[Math.max(16, n * 2)];
+        for (int a = 0; (a + 1) < anchors.size(); a++) {
+            int sp = 0;
+            stack[sp++] = anchors.get(a).intValue();
+            stack[sp++] = anchors.get(a + 1).intValue();
+            while (sp > 0) {
+                int hi = stack[--sp];
+                int lo = stack[--sp];
+                if ((hi - lo) < 2) { continue; }
+                double maxD2 = -1.0;
+                int    maxI  = -1;
+                for (int i = lo + 1; i < hi; i++) {
+                    if (!valid[i]) { continue; }
+                    double d2 = _segmentDist2(x[i], y[i], x[lo], y[lo], x[hi], y[hi]);
+                    if (d2 > maxD2) { maxD2 = d2; maxI = i; }
+                }
+                if ((maxI >= 0) && (maxD2 > tol2)) {
+                    keep[s + maxI] = true;
+                    if ((sp + 4) > stack.length) { stack = Arrays.copyOf(stack, stack.length * 2); }
+                    stack[sp++] = lo;   stack[sp++] = maxI;
+                    stack[sp++] = maxI; stack[sp++] = hi;
+                }
+            }
+        }
+
+    }
+
+    /**
+    *** Returns the square of the distance from point P to segment AB
+    **/
+    private static double _segmentDist2(double px, double py, double ax, double ay, double bx, double by)
+    {
+        double dx = bx - ax, dy = by - ay;
+        double len2 = (dx * dx) + (dy * dy);
+        double t = (len2 > 0.0)? (((px - ax) * dx) + ((py - ay) * dy)) / len2 : 0.0;
+        if (t < 0.0) { t = 0.0; } else if (t > 1.0) { t = 1.0; }
+        double cx = ax + (t * dx) - px, cy = ay + (t * dy) - py;
+        return (cx * cx) + (cy * cy);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Groups fleet devices into grid cells
+    **/
+    private void _cluster(double cellM)
+    {
+        double cellDeg = cellM / (EARTH_CIRCUMFERENCE_M / 360.0);
+        if (cellDeg <= 0.0) {
+            return;
+        }
+
+        /* assign events to cells */
+        EventDataProvider edp[] = this.events;
+        Long cellKey[] = new Long[edp.length];
+        Map<Long,Cluster> cellMap = new LinkedHashMap<Long,Cluster>();
+        for (int i = 0; i < edp.length; i++) {
+            EventDataProvider e = edp[i];
+            if (!GeoPoint.isValid(e.getLatitude(),e.getLongitude())) {
+                continue; // not clustered
+            }
+            long row = (long)Math.floor((e.getLatitude()  +  90.0) / cellDeg);
+            long col = (long)Math.floor((e.getLongitude() + 180.0) / cellDeg);
+            cellKey[i] = new Long((row << 32) | (col & 0xFFFFFFFFL));
+            Cluster c = cellMap.get(cellKey[i]);
+            if (c == null) {
+                c = new Cluster();
+                cellMap.put(cellKey[i], c);
+            }
+            c.add(e);
+        }
+
+        /* clusters (cells containing more than one distinct device) */
+        this.clusters = new Vector<Cluster>();
+        for (Cluster c : cellMap.values()) {
+            if (c.getCount() > 1) {
+                this.clusters.add(c);
+            }
+        }
+        if (this.clusters.isEmpty()) {
+            this.clusters = null;
+            return;
+        }
+
+        /* retain only events which are not part of a cluster */
+        java.util.List<EventDataProvider> list = new Vector<EventDataProvider>();
+        for (int i = 0; i < edp.length; i++) {
+            if ((cellKey[i] == null) || (cellMap.get(cellKey[i]).getCount() <= 1)) {
+                list.add(edp[i]);
+            }
+        }
+        this.events = list.toArray(new EventDataProvider[list.size()]);
+
+    }
+
+    // ------------------------------------------------------------------------
+
+}
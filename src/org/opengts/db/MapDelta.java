@@ -0,0 +1,247 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Incremental ("delta") map update state
+// ----------------------------------------------------------------------------
+// Notes:
+//  - The watermark is the largest EventData "creationMillis" (or Device
+//    "lastEventCreateMillis") known to the client.  An auto-update request
+//    which includes the watermark is answered with one of the following:
+//      - "not modified": no device in the selection has an event created after
+//        the watermark (no events are selected/serialized).
+//      - "partial": only the datasets for devices which have changed, and the
+//        list of all DeviceIDs in the selection.  Device datasets held by the
+//        client which are not in this list are removed ("tombstones").  On a
+//        device map ("append") the dataset contains only the events created
+//        after the watermark, which the client appends to its current dataset
+//        (retaining at most "limit" points).
+//      - "full": the complete map data (the client discards its prior state).
+//  - Events committed out of creation order may be missed by a partial update,
+//    the client therefore periodically requests a full update.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.db;
+
+import java.lang.*;
+import java.util.*;
+
+import org.opengts.util.*;
+
+import org.opengts.db.tables.*;
+
+/**
+*** Incremental ("delta") map update state
+**/
+
+public class MapDelta
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int    TYPE_FULL           = 0;
+    public  static final int    TYPE_PARTIAL        = 1;
+    public  static final int    TYPE_NOT_MODIFIED   = 2;
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns the largest event/device creation time for the specified events
+    *** @param edp      The events
+    *** @param dftMS    The default watermark (returned if larger than any event creation time)
+    *** @return The watermark
+    **/
+    public static long GetWatermark(EventDataProvider edp[], long dftMS)
+    {
+        long wm = dftMS;
+        if (edp != null) {
+            for (EventDataProvider e : edp) {
+                if (e instanceof EventData) {
+                    EventData ev = (EventData)e;
+                    long cm = ev.getCreationMillis();
+                    if (cm > wm) { wm = cm; }
+                    Device dev = ev.getDevice();
+                    if (dev != null) {
+                        long dm = dev.getLastEventCreateMillis();
+                        if (dm > wm) { wm = dm; }
+                    }
+                }
+            }
+        }
+        return wm;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Creates a "full" MapDelta
+    *** @param watermarkMS  The watermark for the next update
+    **/
+    public static MapDelta Full(long watermarkMS)
+    {
+        return new MapDelta(TYPE_FULL, -1L, watermarkMS, null);
+    }
+
+    /**
+    *** Creates a "not modified" MapDelta
+    *** @param sinceMS  The watermark specified by the client
+    **/
+    public static MapDelta NotModified(long sinceMS)
+    {
+        return new MapDelta(TYPE_NOT_MODIFIED, sinceMS, sinceMS, null);
+    }
+
+    /**
+    *** Creates a "partial" MapDelta
+    *** @param sinceMS      The watermark specified by the client
+    *** @param watermarkMS  The watermark for the next update
+    *** @param deviceIDs    All DeviceIDs in the current map selection
+    **/
+    public static MapDelta Partial(long sinceMS, long watermarkMS, Collection<String> deviceIDs)
+    {
+        return new MapDelta(TYPE_PARTIAL, sinceMS, watermarkMS, deviceIDs);
+    }
+
+    /**
+    *** Creates a "partial" MapDelta, where the device datasets contain only the
+    *** events created after the client watermark
+    *** @param sinceMS      The watermark specified by the client
+    *** @param watermarkMS  The watermark for the next update
+    *** @param deviceIDs    All DeviceIDs in the current map selection
+    *** @param limit        The maximum number of points the client should retain per dataset (<=0 for no limit)
+    **/
+    public static MapDelta Append(long sinceMS, long watermarkMS, Collection<String> deviceIDs, long limit)
+    {
+        MapDelta md = new MapDelta(TYPE_PARTIAL, sinceMS, watermarkMS, deviceIDs);
+        md.append = true;
+        md.limit  = limit;
+        return md;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private int                 type        = TYPE_FULL;
+    private long                sinceMS     = -1L;
+    private long                watermarkMS = 0L;
+    private Collection<String>  deviceIDs   = null;
+    private boolean             append      = false;
+    private long                limit       = -1L;
+
+    /**
+    *** Constructor
+    **/
+    private MapDelta(int type, long sinceMS, long watermarkMS, Collection<String> deviceIDs)
+    {
+        this.type        = type;
+        this.sinceMS     = sinceMS;
+        this.watermarkMS = Math.max(watermarkMS, sinceMS);
+        this.deviceIDs   = deviceIDs;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns true if this is a "full" update
+    **/
+    public boolean isFull()
+    {
+        return (this.type == TYPE_FULL);
+    }
+
+    /**
+    *** Returns true if this is a "partial" update
+    **/
+    public boolean isPartial()
+    {
+        return (this.type == TYPE_PARTIAL);
+    }
+
+    /**
+    *** Returns true if the "partial" device datasets should be appended to the
+    *** datasets held by the client (rather than replacing them)
+    **/
+    public boolean isAppend()
+    {
+        return this.append;
+    }
+
+    /**
+    *** Gets the maximum number of points the client should retain per appended dataset
+    **/
+    public long getLimit()
+    {
+        return this.limit;
+    }
+
+    /**
+    *** Returns true if this is a "not modified" update
+    **/
+    public boolean isNotModified()
+    {
+        return (this.type == TYPE_NOT_MODIFIED);
+    }
+
+    /**
+    *** Gets the watermark specified by the client (-1 for a "full" update)
+    **/
+    public long getSince()
+    {
+        return this.sinceMS;
+    }
+
+    /**
+    *** Gets the watermark which the client should specify on the next update
+    **/
+    public long getWatermark()
+    {
+        return this.watermarkMS;
+    }
+
+    /**
+    *** Gets all DeviceIDs in the current map selection ("partial" update only)
+    **/
+    public Collection<String> getDeviceIDs()
+    {
+        return this.deviceIDs;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns a String representation of this instance
+    **/
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append(this.isFull()? "full" : this.isPartial()? "partial" : "notModified");
+        sb.append(" since=").append(this.getSince());
+        sb.append(" watermark=").append(this.getWatermark());
+        if (this.isAppend()) {
+            sb.append(" append limit=").append(this.getLimit());
+        }
+        if (this.deviceIDs != null) {
+            sb.append(" devices=").append(this.deviceIDs.size());
+        }
+        return sb.toString();
+    }
+
+}
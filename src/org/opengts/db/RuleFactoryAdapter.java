@@ -24,6 +24,8 @@ package org.opengts.db;
 
 import java.lang.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.opengts.util.*;
 import org.opengts.dbtools.*;
@@ -53,11 +55,270 @@ public abstract class RuleFactoryAdapter
     }
 
     // ------------------------------------------------------------------------
+
+    /**
+    *** Returns the boolean value of the specified selector evaluation result
+    *** (null is false, a Number is true if non-zero, all other values are true)
+    *** @param eval  The selector evaluation result
+    *** @return The boolean value
+    **/
+    public static boolean IsTrue(Object eval)
+    {
+        if (eval == null) {
+            return false;
+        } else
+        if (eval instanceof Boolean) {
+            return ((Boolean)eval).booleanValue();
+        } else
+        if (eval instanceof Number) {
+            return (((Number)eval).longValue() != 0L);
+        } else {
+            return true;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Compiled (pre-parsed) rule selector
+    **/
+    public static abstract class CompiledSelector
+    {
+        private String  selector    = null;
+        private int     statusCodes[] = null;
+        /**
+        *** Constructor
+        *** @param selector     The selector source text
+        *** @param statusCodes  The only status codes this selector can match, or null
+        ***                     if the selector may match any status code
+        **/
+        public CompiledSelector(String selector, int statusCodes[]) {
+            this.selector    = StringTools.trim(selector);
+            this.statusCodes = statusCodes;
+        }
+        public String getSelector() {
+            return this.selector;
+        }
+        /* null if this selector may match any status code */
+        public int[] getStatusCodes() {
+            return this.statusCodes;
+        }
+        public boolean isAnyStatusCode() {
+            return (this.statusCodes == null);
+        }
+        public boolean canMatchStatusCode(int code) {
+            if (this.statusCodes == null) {
+                return true;
+            }
+            for (int sc : this.statusCodes) {
+                if (sc == code) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        /* evaluate this selector against the specified event */
+        public abstract Object evaluate(EventData event)
+            throws RuleParseException;
+        /* return true if the evaluated selector matches (the status code has already been checked) */
+        protected boolean matches(EventData event)
+            throws RuleParseException {
+            return RuleFactoryAdapter.IsTrue(this.evaluate(event));
+        }
+        /* return true if this selector matches the specified event */
+        public boolean isMatch(EventData event) {
+            if ((event == null) || !this.canMatchStatusCode(event.getStatusCode())) {
+                return false;
+            }
+            try {
+                return this.matches(event);
+            } catch (RuleParseException rpe) {
+                Print.logError("Selector evaluation error: " + this.selector + " [" + rpe.getMessage() + "]");
+                return false;
+            }
+        }
+        public String toString() {
+            return this.selector;
+        }
+    }
+
+    /* cached placeholder for selectors which could not be compiled */
+    private static final CompiledSelector INVALID_SELECTOR = new CompiledSelector("", new int[0]) {
+        public Object evaluate(EventData event) { return null; }
+    };
+
     // ------------------------------------------------------------------------
 
+    /**
+    *** Account rules grouped by the status codes they can match
+    **/
+    public static class RuleGroup
+    {
+        private String                                  accountID   = null;
+        private long                                    createMS    = 0L;
+        private int                                     ruleCount   = 0;
+        private Map<Integer,java.util.List<RuleEntry>>  codeRules   = new HashMap<Integer,java.util.List<RuleEntry>>();
+        private java.util.List<RuleEntry>               anyRules    = new Vector<RuleEntry>();
+        public RuleGroup(String accountID) {
+            this.accountID = accountID;
+            this.createMS  = System.currentTimeMillis();
+        }
+        public String getAccountID() {
+            return this.accountID;
+        }
+        public long getCreateTimeMS() {
+            return this.createMS;
+        }
+        public int getRuleCount() {
+            return this.ruleCount;
+        }
+        public void addRule(String ruleID, CompiledSelector sel) {
+            RuleEntry re = new RuleEntry(this.ruleCount++, ruleID, sel);
+            int codes[] = sel.getStatusCodes();
+            if (codes == null) {
+                this.anyRules.add(re);
+            } else {
+                for (int sc : codes) {
+                    Integer key = new Integer(sc);
+                    java.util.List<RuleEntry> list = this.codeRules.get(key);
+                    if (list == null) {
+                        list = new Vector<RuleEntry>();
+                        this.codeRules.put(key, list);
+                    }
+                    list.add(re);
+                }
+            }
+        }
+        /* rules which can match the specified status code (in rule order) */
+        public java.util.List<RuleEntry> getCandidateRules(int statusCode) {
+            java.util.List<RuleEntry> codeList = this.codeRules.get(new Integer(statusCode));
+            if (ListTools.isEmpty(codeList)) {
+                return this.anyRules;
+            } else
+            if (this.anyRules.isEmpty()) {
+                return codeList;
+            } else {
+                // -- merge by rule index
+                java.util.List<RuleEntry> list = new Vector<RuleEntry>(codeList.size() + this.anyRules.size());
+                int c = 0, a = 0;
+                while ((c < codeList.size()) || (a < this.anyRules.size())) {
+                    if (a >= this.anyRules.size()) {
+                        list.add(codeList.get(c++));
+                    } else
+                    if ((c >= codeList.size()) || (this.anyRules.get(a).index < codeList.get(c).index)) {
+                        list.add(this.anyRules.get(a++));
+                    } else {
+                        list.add(codeList.get(c++));
+                    }
+                }
+                return list;
+            }
+        }
+    }
+
+    /**
+    *** Rule-ID and compiled selector
+    **/
+    public static class RuleEntry
+    {
+        private int              index    = 0;
+        private String           ruleID   = null;
+        private CompiledSelector selector = null;
+        public RuleEntry(int index, String ruleID, CompiledSelector sel) {
+            this.index    = index;
+            this.ruleID   = ruleID;
+            this.selector = sel;
+        }
+        public String getRuleID() {
+            return this.ruleID;
+        }
+        public CompiledSelector getSelector() {
+            return this.selector;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Per-rule evaluation statistics
+    **/
+    public static class RuleStats
+    {
+        private String      name        = null;
+        private AtomicLong  evalCount   = new AtomicLong(0L);
+        private AtomicLong  matchCount  = new AtomicLong(0L);
+        private AtomicLong  evalNanos   = new AtomicLong(0L);
+        public RuleStats(String name) {
+            this.name = name;
+        }
+        public String getName() {
+            return this.name;
+        }
+        public void record(long nanos, boolean match) {
+            this.evalCount.incrementAndGet();
+            this.evalNanos.addAndGet(nanos);
+            if (match) {
+                this.matchCount.incrementAndGet();
+            }
+        }
+        public long getEvaluationCount() {
+            return this.evalCount.get();
+        }
+        public long getMatchCount() {
+            return this.matchCount.get();
+        }
+        public long getEvaluationNanos() {
+            return this.evalNanos.get();
+        }
+        /* match count / evaluation count */
+        public double getMatchRate() {
+            long n = this.getEvaluationCount();
+            return (n > 0L)? ((double)this.getMatchCount() / (double)n) : 0.0;
+        }
+        /* average evaluation time (microseconds) */
+        public double getAverageMicros() {
+            long n = this.getEvaluationCount();
+            return (n > 0L)? ((double)this.getEvaluationNanos() / (double)n / 1000.0) : 0.0;
+        }
+        public String toString() {
+            return this.name + 
+                ": evals=" + this.getEvaluationCount() + 
+                " matches=" + this.getMatchCount() + 
+                " rate=" + StringTools.format(this.getMatchRate(),"0.000") + 
+                " avg=" + StringTools.format(this.getAverageMicros(),"0.0") + "us";
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private Map<String,CompiledSelector>        selectorCache       = null;
+    private AtomicLong                          selectorCacheHits   = new AtomicLong(0L);
+    private AtomicLong                          selectorCacheMisses = new AtomicLong(0L);
+
+    private ConcurrentHashMap<String,RuleGroup> ruleGroups          = new ConcurrentHashMap<String,RuleGroup>();
+    private long                                ruleGroupRefreshMS  = 60000L;
+    private AtomicLong                          skippedRuleCount    = new AtomicLong(0L);
+
+    /* statistics names (in addition to "accountID/ruleID") */
+    private static final String                 STATS_SELECTOR      = "<selector>"; // ad-hoc selectors
+    private static final String                 STATS_OTHER         = "<other>";    // beyond MAX_RULE_STATS
+    private static final int                    MAX_RULE_STATS      = 1000;
+
+    private ConcurrentHashMap<String,RuleStats> ruleStats           = new ConcurrentHashMap<String,RuleStats>();
+    private AtomicBoolean                       metricsRegistered   = new AtomicBoolean(false);
+
     public RuleFactoryAdapter() 
     {
         super();
+        final int maxSize = Math.max(RTConfig.getInt(DBConfig.PROP_RuleFactory_selectorCacheSize,1000), 1);
+        this.selectorCache = new LinkedHashMap<String,CompiledSelector>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<String,CompiledSelector> eldest) {
+                return (this.size() > maxSize);
+            }
+        };
+        this.ruleGroupRefreshMS = Math.max(RTConfig.getLong(DBConfig.PROP_RuleFactory_ruleGroupRefreshSec,60L), 0L) * 1000L;
     }
 
     // ------------------------------------------------------------------------
@@ -104,4 +365,293 @@ public abstract class RuleFactoryAdapter
         return null;
     }
 
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Compiles the specified selector.  Subclasses which support compiled
+    *** selectors override this method (the default returns null).
+    *** @param selector  The selector source text (non-blank)
+    *** @return The compiled selector, or null if compiled selectors are not supported
+    *** @throws RuleParseException if the selector contains a syntax error
+    **/
+    protected CompiledSelector compileSelector(String selector)
+        throws RuleParseException
+    {
+        return null;
+    }
+
+    /**
+    *** Gets the compiled selector for the specified selector text (from the
+    *** compiled selector cache, compiling the selector if necessary)
+    *** @param selector  The selector source text
+    *** @return The compiled selector, or null if the selector is blank, invalid,
+    ***     or compiled selectors are not supported
+    **/
+    public CompiledSelector getCompiledSelector(String selector)
+    {
+        if (StringTools.isBlank(selector)) {
+            return null;
+        }
+        String key = selector.trim();
+
+        /* cached? */
+        CompiledSelector cs;
+        synchronized (this.selectorCache) {
+            cs = this.selectorCache.get(key);
+        }
+        if (cs != null) {
+            this.selectorCacheHits.incrementAndGet();
+            return (cs != INVALID_SELECTOR)? cs : null;
+        }
+        this.selectorCacheMisses.incrementAndGet();
+
+        /* compile (outside lock, a concurrent compile of the same selector is harmless) */
+        try {
+            cs = this.compileSelector(key);
+        } catch (RuleParseException rpe) {
+            Print.logError("Invalid selector: " + key + " [" + rpe.getMessage() + "]");
+            cs = null;
+        }
+        synchronized (this.selectorCache) {
+            this.selectorCache.put(key, ((cs != null)? cs : INVALID_SELECTOR));
+        }
+        return cs;
+
+    }
+
+    /**
+    *** Removes all compiled selectors from the cache
+    **/
+    public void clearCompiledSelectors()
+    {
+        synchronized (this.selectorCache) {
+            this.selectorCache.clear();
+        }
+    }
+
+    /**
+    *** Gets the number of compiled selector cache hits
+    **/
+    public long getSelectorCacheHits()
+    {
+        return this.selectorCacheHits.get();
+    }
+
+    /**
+    *** Gets the number of compiled selector cache misses
+    **/
+    public long getSelectorCacheMisses()
+    {
+        return this.selectorCacheMisses.get();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the Account rules grouped by status code.  The group is built from 
+    *** "getRuleIDs" and "getRuleSelector", and is rebuilt after the configured 
+    *** refresh interval (or after "resetRuleGroup").
+    *** @param account  The Account
+    *** @return The rule group (does not return null)
+    **/
+    public RuleGroup getRuleGroup(Account account)
+    {
+        String acctID = (account != null)? account.getAccountID() : "";
+        RuleGroup rg = this.ruleGroups.get(acctID);
+        long nowMS = System.currentTimeMillis();
+        if ((rg == null) || ((nowMS - rg.getCreateTimeMS()) > this.ruleGroupRefreshMS)) {
+            rg = new RuleGroup(acctID);
+            String ruleIDs[] = (account != null)? this.getRuleIDs(account) : null;
+            if (ruleIDs != null) {
+                for (String ruleID : ruleIDs) {
+                    String selector = this.getRuleSelector(account, ruleID);
+                    CompiledSelector cs = this.getCompiledSelector(selector);
+                    if (cs != null) {
+                        rg.addRule(ruleID, cs);
+                    }
+                }
+            }
+            this.ruleGroups.put(acctID, rg);
+        }
+        return rg;
+    }
+
+    /**
+    *** Discards the rule group for the specified Account (ie. after a rule has changed)
+    *** @param accountID  The Account ID
+    **/
+    public void resetRuleGroup(String accountID)
+    {
+        if (accountID != null) {
+            this.ruleGroups.remove(accountID);
+        }
+    }
+
+    /**
+    *** Returns the IDs of the Account rules which match the specified event.
+    *** Only rules which can match the event status code are evaluated.
+    *** @param event  The event
+    *** @return The list of matching rule IDs (does not return null)
+    **/
+    public java.util.List<String> getMatchingRuleIDs(EventData event)
+    {
+        java.util.List<String> matchIDs = new Vector<String>();
+        if (event != null) {
+            RuleGroup rg = this.getRuleGroup(event.getAccount());
+            java.util.List<RuleEntry> rules = rg.getCandidateRules(event.getStatusCode());
+            this.skippedRuleCount.addAndGet(rg.getRuleCount() - rules.size());
+            for (RuleEntry re : rules) {
+                if (this.isRuleMatch(rg.getAccountID(), re.getRuleID(), re.getSelector(), event)) {
+                    matchIDs.add(re.getRuleID());
+                }
+            }
+        }
+        return matchIDs;
+    }
+
+    /**
+    *** Evaluates the specified compiled rule selector, and records the rule statistics
+    *** @param accountID  The Account ID which owns the rule
+    *** @param ruleID     The rule ID
+    *** @param sel        The compiled rule selector
+    *** @param event      The event
+    *** @return True if the selector matches the event
+    **/
+    protected boolean isRuleMatch(String accountID, String ruleID, CompiledSelector sel, EventData event)
+    {
+        return this._isMatch(accountID + "/" + ruleID, sel, event);
+    }
+
+    /**
+    *** Evaluates the specified compiled selector, and records the selector statistics
+    *** (all selectors which are not rules are accumulated in a single "<selector>" entry)
+    *** @param sel    The compiled selector
+    *** @param event  The event
+    *** @return True if the selector matches the event
+    **/
+    protected boolean isCompiledSelectorMatch(CompiledSelector sel, EventData event)
+    {
+        return this._isMatch(STATS_SELECTOR, sel, event);
+    }
+
+    /**
+    *** Evaluates the specified compiled selector, and records the statistics
+    *** under the specified name
+    **/
+    private boolean _isMatch(String statsName, CompiledSelector sel, EventData event)
+    {
+        RuleStats stats = this.getRuleStats(statsName);
+        long startNS = System.nanoTime();
+        boolean match = sel.isMatch(event);
+        stats.record(System.nanoTime() - startNS, match);
+        return match;
+    }
+
+    /**
+    *** Gets the number of rule evaluations skipped because the rule could not
+    *** match the event status code
+    **/
+    public long getSkippedRuleCount()
+    {
+        return this.skippedRuleCount.get();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets (creates) the statistics for the specified rule name.  At most
+    *** MAX_RULE_STATS rules are tracked, further rules are accumulated in a single
+    *** "<other>" entry.
+    *** @param name  The rule name (typically "accountID/ruleID")
+    **/
+    public RuleStats getRuleStats(String name)
+    {
+        RuleStats stats = this.ruleStats.get(name);
+        if (stats == null) {
+            if (this.ruleStats.size() >= MAX_RULE_STATS) {
+                name  = STATS_OTHER;
+                stats = this.ruleStats.get(name);
+                if (stats != null) {
+                    return stats;
+                }
+            }
+            RuleStats newStats = new RuleStats(name);
+            stats = this.ruleStats.putIfAbsent(name, newStats);
+            if (stats == null) {
+                stats = newStats;
+                this._registerMetrics();
+            }
+        }
+        return stats;
+    }
+
+    /**
+    *** Registers the counters of this RuleFactory with Metrics (once).  Rule 
+    *** evaluations are exported as totals for all rules, per-rule statistics 
+    *** are available from "getRuleStatistics"
+    **/
+    private void _registerMetrics()
+    {
+        final RuleFactoryAdapter R = this;
+        String factory = Metrics.escapeLabel(this.getName());
+        if (this.metricsRegistered.compareAndSet(false,true)) {
+            Metrics.registerCounter("gts_rule_selector_cache_total{factory=\"" + factory + "\",result=\"hit\"}",
+                "RuleFactory compiled selector cache lookups", new Metrics.Gauge() {
+                public double getValue() { return R.getSelectorCacheHits(); }
+            });
+            Metrics.registerCounter("gts_rule_selector_cache_total{factory=\"" + factory + "\",result=\"miss\"}",
+                "RuleFactory compiled selector cache lookups", new Metrics.Gauge() {
+                public double getValue() { return R.getSelectorCacheMisses(); }
+            });
+            Metrics.registerCounter("gts_rule_skipped_total{factory=\"" + factory + "\"}",
+                "RuleFactory rule evaluations skipped by status code", new Metrics.Gauge() {
+                public double getValue() { return R.getSkippedRuleCount(); }
+            });
+            String labels = "{factory=\"" + factory + "\"}";
+            Metrics.registerCounter("gts_rule_evaluations_total" + labels, "Rule selector evaluations", new Metrics.Gauge() {
+                public double getValue() { 
+                    long n = 0L;
+                    for (RuleStats rs : R.ruleStats.values()) { n += rs.getEvaluationCount(); }
+                    return (double)n;
+                }
+            });
+            Metrics.registerCounter("gts_rule_matches_total" + labels, "Rule selector matches", new Metrics.Gauge() {
+                public double getValue() { 
+                    long n = 0L;
+                    for (RuleStats rs : R.ruleStats.values()) { n += rs.getMatchCount(); }
+                    return (double)n;
+                }
+            });
+            Metrics.registerCounter("gts_rule_evaluation_seconds_total" + labels, "Rule selector evaluation time", new Metrics.Gauge() {
+                public double getValue() { 
+                    long ns = 0L;
+                    for (RuleStats rs : R.ruleStats.values()) { ns += rs.getEvaluationNanos(); }
+                    return (double)ns / 1.0E9;
+                }
+            });
+        }
+    }
+
+    /**
+    *** Gets the statistics for all evaluated rules
+    **/
+    public Collection<RuleStats> getRuleStatistics()
+    {
+        return new Vector<RuleStats>(this.ruleStats.values());
+    }
+
+    /**
+    *** Prints the rule statistics to the log
+    **/
+    public void printRuleStatistics()
+    {
+        Print.logInfo("RuleFactory '" + this.getName() + "' statistics:");
+        Print.logInfo("  Selector cache: hits=" + this.getSelectorCacheHits() + " misses=" + this.getSelectorCacheMisses());
+        Print.logInfo("  Skipped rules : " + this.getSkippedRuleCount());
+        for (RuleStats stats : this.getRuleStatistics()) {
+            Print.logInfo("  " + stats);
+        }
+    }
+
 }
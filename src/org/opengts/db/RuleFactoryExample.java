@@ -350,6 +350,66 @@ public class RuleFactoryExample
         }
     }
 
+    // ------------------------------------------------------------------------
+
+    /* compile the specified comma-separated selector list (cached by RuleFactoryAdapter) */
+    // -- as with the uncompiled selector, an unrecognized function never matches, but
+    // -- does not prevent the other functions in the list from matching.
+    protected CompiledSelector compileSelector(String selector)
+        throws RuleParseException
+    {
+        String selList[] = StringTools.split(selector,',');
+        final RuleFunction ftns[] = new RuleFunction[selList.length];
+        final String       args[] = new String[selList.length];
+        Set<Integer> codes = new HashSet<Integer>();
+        boolean anyCode = false;
+        for (int i = 0; i < selList.length; i++) {
+            ftns[i] = this.getFunction(selList[i]);
+            if (ftns[i] == null) {
+                // -- no function, no match
+                continue;
+            }
+            args[i] = this.getArgument(selList[i]);
+            // -- status codes which this function can match
+            String name = selList[i].substring(0, Math.max(indexOfArgSeparator(selList[i]),0));
+            if (SEL_PANIC.equals(selList[i])) {
+                codes.add(new Integer(StatusCodes.STATUS_PANIC_ON));
+            } else
+            if (SEL_CODE.equals(name)) {
+                codes.add(new Integer(StringTools.parseInt(args[i],StatusCodes.STATUS_NONE)));
+            } else {
+                anyCode = true;
+            }
+        }
+        int statusCodes[] = null;
+        if (!anyCode) {
+            statusCodes = new int[codes.size()];
+            int n = 0;
+            for (Integer sc : codes) { statusCodes[n++] = sc.intValue(); }
+        }
+        return new CompiledSelector(selector, statusCodes) {
+            public Object evaluate(EventData event) {
+                Object eval = null;
+                for (int i = 0; i < ftns.length; i++) {
+                    eval = (ftns[i] != null)? ftns[i].evaluate(event, args[i]) : null;
+                    if (((eval instanceof Boolean) || (eval instanceof Number)) && RuleFactoryAdapter.IsTrue(eval)) {
+                        return eval; // first true/non-zero value
+                    }
+                }
+                return eval; // return last value
+            }
+            protected boolean matches(EventData event) {
+                // -- true if any function result is true/non-zero/non-null
+                for (int i = 0; i < ftns.length; i++) {
+                    if ((ftns[i] != null) && RuleFactoryAdapter.IsTrue(ftns[i].evaluate(event, args[i]))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
@@ -430,55 +490,15 @@ public class RuleFactoryExample
     public boolean isSelectorMatch(String selector, EventData event) 
     {
         if ((event != null) && !StringTools.isBlank(selector)) {
-            String selList[] = StringTools.split(selector,',');
-            for (int i = 0; i < selList.length; i++) {
-                if (this._isSelectorMatch(selList[i],event)) {
-                    return true;
-                }
+            // -- compiled selector is cached by RuleFactoryAdapter (null if invalid)
+            CompiledSelector cs = this.getCompiledSelector(selector);
+            if (cs != null) {
+                return this.isCompiledSelectorMatch(cs, event);
             }
         }
         return false;
     }
 
-    /* return true if the specified selector matches the specified event record */
-    private boolean _isSelectorMatch(String selector, EventData event) 
-    {
-        
-        /* valid selector */
-        if (StringTools.isBlank(selector)) {
-            return false;
-        }
-
-        /* get function */
-        RuleFunction ftn = this.getFunction(selector);
-        if (ftn == null) {
-            // no function, no match
-            return false;
-        }
-
-        /* evaluate function */
-        String arg = this.getArgument(selector);
-        Object eval = ftn.evaluate(event,arg);
-        if (eval == null) {
-            // no valid result, return false
-            return false;
-        }
-        
-        /* return boolean results */
-        if (eval instanceof Boolean) {
-            // return Boolean value
-            return ((Boolean)eval).booleanValue();
-        } else
-        if (eval instanceof Number) {
-            // return true if Number is non-zero
-            return (((Number)eval).longValue() != 0L);
-        } else {
-            // return true for everything else
-            return true;
-        }
-
-    }
-
     // ------------------------------------------------------------------------
 
     /* check rule selector and perform action */
@@ -498,37 +518,16 @@ public class RuleFactoryExample
     /* return the result of the specified selector */
     public Object evaluateSelector(String selector, EventData event) 
     {
-        String selList[] = StringTools.split(selector,',');
-        Object eval = null;
-        for (int i = 0; i < selList.length; i++) {
-            eval = this._evaluateSelector(selList[i],event);
-            if ((eval instanceof Boolean) && ((Boolean)eval).booleanValue()) {
-                // return Boolean value
-                return eval;
-            } else
-            if ((eval instanceof Number) && (((Number)eval).longValue() != 0L)) {
-                // return Number value
-                return eval;
-            }
+        // -- compiled selector is cached by RuleFactoryAdapter (null if invalid)
+        CompiledSelector cs = this.getCompiledSelector(selector);
+        if ((cs == null) || (event == null)) {
+            return null;
         }
-        return eval; // return last value
-    }
-
-    /* return the result of the specified selector */
-    private Object _evaluateSelector(String selector, EventData event) 
-    {
-
-        /* get function */
-        RuleFunction ftn = this.getFunction(selector);
-        if (ftn == null) {
-            // no function
+        try {
+            return cs.evaluate(event);
+        } catch (RuleParseException rpe) {
             return null;
         }
-        
-        /* evaluate and return */
-        String arg = this.getArgument(selector);
-        return ftn.evaluate(event,arg);
-
     }
 
     // ------------------------------------------------------------------------
@@ -573,12 +572,18 @@ public class RuleFactoryExample
             RuleFactoryExample._sendNotification(event, actionMask);
             return actionMask;
         }
-            
-        // other rules/selectors can be evaluated here
-        // IE. loop through other selectors: this.executeSelector(ruleSel[i], event);
 
-        /* no triggered rules */
-        return -1;
+        /* Account rules (only those which can match the event status code are evaluated) */
+        int accumMask = -1;
+        for (String ruleID : this.getMatchingRuleIDs(event)) {
+            Print.logInfo("Rule matched: " + accountID + "/" + ruleID);
+            int actionMask = RuleFactory.ACTION_DEFAULT;
+            RuleFactoryExample._sendNotification(event, actionMask);
+            accumMask = (accumMask < 0)? actionMask : (accumMask | actionMask);
+        }
+
+        /* triggered rules (-1 if none) */
+        return accumMask;
 
     }
 
@@ -587,8 +592,27 @@ public class RuleFactoryExample
     /* execute a specifically named rule id */
     public int executeRule(String ruleID, EventData event) 
     {
-        // not currently implemented in the RuleFactoryExample
+
+        /* no event */
+        if ((event == null) || StringTools.isBlank(ruleID)) {
+            return -1;
+        }
+
+        /* rule selector */
+        Account account = event.getAccount();
+        CompiledSelector cs = this.getCompiledSelector(this.getRuleSelector(account, ruleID));
+        if (cs == null) {
+            return -1;
+        }
+
+        /* match, and perform appropriate action */
+        if (this.isRuleMatch(event.getAccountID(), ruleID, cs, event)) {
+            int actionMask = RuleFactory.ACTION_DEFAULT;
+            RuleFactoryExample._sendNotification(event, actionMask);
+            return actionMask;
+        }
         return -1;
+
     }
 
     // ------------------------------------------------------------------------
@@ -834,6 +858,7 @@ public class RuleFactoryExample
         printMatch(ruleFact, evRcd, SEL_IS_STOPPED);
         printMatch(ruleFact, evRcd, SEL_OVER_SPEED + ":" + 99.0);
         printMatch(ruleFact, evRcd, SEL_OVER_SPEED + ":" + 106.0);
+        ((RuleFactoryAdapter)ruleFact).printRuleStatistics();
 
     }
     
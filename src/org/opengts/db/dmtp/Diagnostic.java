@@ -348,12 +348,15 @@ public class Diagnostic
 
         /* get Properties */
         Diagnostic d[] = null;
+        boolean locked = false;
         try {
-            DBProvider.lockTables(new String[] { TABLE_NAME() }, null);
+            locked = DBProvider.lockTablesForSelect(new String[] { TABLE_NAME() });
             //d = (Diagnostic[])DBRecord.select(Diagnostic.getFactory(), dsel.toString(false));
             d = DBRecord.select(dsel); // select:DBSelect
         } finally {
-            DBProvider.unlockTables();
+            if (locked) {
+                DBProvider.unlockTables();
+            }
         }
 
         /* no properties */
@@ -420,12 +420,15 @@ public class PendingPacket
 
         /* get PendingPackets */
         PendingPacket pp[] = null;
+        boolean locked = false;
         try {
-            DBProvider.lockTables(new String[] { TABLE_NAME() }, null);
+            locked = DBProvider.lockTablesForSelect(new String[] { TABLE_NAME() });
             //pp = (PendingPacket[])DBRecord.select(PendingPacket.getFactory(), dsel.toString(false));
             pp = DBRecord.select(dsel); // select:DBSelect
         } finally {
-            DBProvider.unlockTables();
+            if (locked) {
+                DBProvider.unlockTables();
+            }
         }
 
         /* no packets? */
@@ -349,12 +349,15 @@ public class Property
 
         /* get Properties */
         Property p[] = null;
+        boolean locked = false;
         try {
-            DBProvider.lockTables(new String[] { TABLE_NAME() }, null);
+            locked = DBProvider.lockTablesForSelect(new String[] { TABLE_NAME() });
             //p = (Property[])DBRecord.select(Property.getFactory(), dsel.toString(false));
             p = DBRecord.select(dsel); // select:DBSelect
         } finally {
-            DBProvider.unlockTables();
+            if (locked) {
+                DBProvider.unlockTables();
+            }
         }
 
         /* no properties */
@@ -265,6 +265,10 @@ public class Device // Asset
         }
     }
 
+    /* event insertion timer (see Metrics) */
+    private static final Metrics.Timer InsertEventTimer = Metrics.getTimer("gts_event_insert_seconds",
+        "EventData insertion time (including pre/post insertion processing)");
+
     // ------------------------------------------------------------------------
 
     /* optimization for caching status code descriptions */
@@ -435,20 +439,26 @@ public class Device // Asset
 
     // ------------------------------------------------------------------------
 
-    /* Event update background ThreadPool */
-    // Device.ThreadPool.DeviceEventUpdate.maximumPoolSize=50
+    /* Event update background ThreadPool (jobs for the same Device are run in order) */
+    // Device.ThreadPool.DeviceEventUpdate.maximumPoolSize=50       (number of lanes)
     // Device.ThreadPool.DeviceEventUpdate.maximumIdleSeconds=0
-    // Device.ThreadPool.DeviceEventUpdate.maximumQueueSize=0
+    // Device.ThreadPool.DeviceEventUpdate.maximumQueueSize=1000    (per lane)
+    // Device.ThreadPool.DeviceEventUpdate.rejectPolicy=SPILL       (REJECT, WAIT, CALLER_RUNS, SPILL)
+    // Device.ThreadPool.DeviceEventUpdate.maximumWaitMS=30000      (WAIT only)
+    // Device.ThreadPool.DeviceEventUpdate.maximumOverflowSize=1000 (per lane, beyond maximumQueueSize)
     private static final RTKey PROP_ThreadPool_DeviceEventUpdate_   = RTKey.valueOf(RTKey.ThreadPool_DeviceEventUpdate_);
     private static final int   ThreadPool_DeviceEventUpdate_Size    = 50;
     private static final int   ThreadPool_DeviceEventUpdate_IdleSec =  0;
-    private static final int   ThreadPool_DeviceEventUpdate_QueSize =  0;
-    private static ThreadPool  ThreadPool_DeviceEventUpdate         = new ThreadPool(
+    private static final int   ThreadPool_DeviceEventUpdate_QueSize = 1000;
+    private static final long  ThreadPool_DeviceEventUpdate_WaitMS  = 30000L;
+    private static KeyedThreadPool ThreadPool_DeviceEventUpdate     = new KeyedThreadPool(
         "DeviceEventUpdate",
         PROP_ThreadPool_DeviceEventUpdate_, // property allowing default override
         ThreadPool_DeviceEventUpdate_Size, 
         ThreadPool_DeviceEventUpdate_IdleSec, 
-        ThreadPool_DeviceEventUpdate_QueSize);
+        ThreadPool_DeviceEventUpdate_QueSize,
+        KeyedThreadPool.RejectPolicy.SPILL, // never block the DCS thread
+        ThreadPool_DeviceEventUpdate_WaitMS);
 
     // ------------------------------------------------------------------------
     // new asset defaults
@@ -790,10 +800,12 @@ public class Device // Asset
     **/
     public static boolean GetCheckLastOdometer()
     {
-        // TODO: optimize
-        return RTConfig.getBoolean(DBConfig.PROP_Device_checkLastOdometer, CHECK_LAST_ODOMETER);
+        return CheckLastOdometer_setting.get();
     }
 
+    private static final RTConfigSnapshot.BooleanSetting CheckLastOdometer_setting =
+        RTConfigSnapshot.registerBoolean(DBConfig.PROP_Device_checkLastOdometer, CHECK_LAST_ODOMETER);
+
     // ------------------------------------------------------------------------
     // (EXPERIMENTAL) Simulate Engine Hours from ignition state
 
@@ -806,10 +818,14 @@ public class Device // Asset
     **/
     public static boolean GetSimulateEngineHours(Device dev)
     {
-        // TODO: optimize
-        return RTConfig.getBoolean(DBConfig.PROP_Device_simulateEngineHours, SIMULATE_ENGINE_HOURS);
+        return SimulateEngineHours_setting.get();
     }
 
+    private static final RTConfigSnapshot.BooleanSetting SimulateEngineHours_setting =
+        RTConfigSnapshot.registerSetting(new RTConfigSnapshot.BooleanSetting(DBConfig.PROP_Device_simulateEngineHours, false) {
+            public boolean getDefault() { return SIMULATE_ENGINE_HOURS; }
+        });
+
     // ------------------------------------------------------------------------
     // (EXPERIMENTAL) Simulate PTO Hours from PTO on/off state
 
@@ -822,10 +838,14 @@ public class Device // Asset
     **/
     public static boolean GetSimulatePtoHours(Device dev)
     {
-        // TODO: optimize
-        return RTConfig.getBoolean(DBConfig.PROP_Device_simulatePtoHours, SIMULATE_PTO_HOURS);
+        return SimulatePtoHours_setting.get();
     }
 
+    private static final RTConfigSnapshot.BooleanSetting SimulatePtoHours_setting =
+        RTConfigSnapshot.registerSetting(new RTConfigSnapshot.BooleanSetting(DBConfig.PROP_Device_simulatePtoHours, true) {
+            public boolean getDefault() { return SIMULATE_PTO_HOURS; }
+        });
+
     // ------------------------------------------------------------------------
     // (EXPERIMENTAL) Update Event loc if invalid and it has a valid GeozoneID
 
@@ -1302,62 +1322,75 @@ public class Device // Asset
     public static final int PAST_DATE_DISABLED      = 0;
     public static final int PAST_DATE_TRUNCATE      = 1;
 
-    private static int  PastEventDateAction = PAST_DATE_UNDEFINED;
+    private static final RTConfigSnapshot.IntSetting PastEventDateAction_setting =
+        RTConfigSnapshot.registerSetting(new RTConfigSnapshot.IntSetting(DBConfig.PROP_Device_pastDate_action, PAST_DATE_DISABLED) {
+            protected int parse() {
+                // -- "Device.pastDate.action="
+                String act = this.getString("");
+                if (act.equalsIgnoreCase("ignore")   ||
+                    act.equalsIgnoreCase("skip")     ||
+                    act.equalsIgnoreCase("discard")  ||  // 2.6.0-B25
+                    act.equalsIgnoreCase("-1")         ) {
+                    return PAST_DATE_IGNORE;
+                } else
+                if (act.equalsIgnoreCase("truncate") ||
+                    act.equalsIgnoreCase("current")  ||  // 2.5.3-B10
+                    act.equalsIgnoreCase("1")          ) {
+                    return PAST_DATE_TRUNCATE;
+                } else
+                if (StringTools.isBlank(act)         ||
+                    act.equalsIgnoreCase("disabled") ||
+                    act.equalsIgnoreCase("disable")  ||
+                    act.equalsIgnoreCase("0")          ) {
+                    return PAST_DATE_DISABLED;
+                } else {
+                    Print.logError("Invalid property value %s => %s", this.getKey(), act);
+                    return PAST_DATE_DISABLED;
+                }
+            }
+        });
+
     /**
     *** Gets the action to perform when a past event date is detected
     *** @return The action to perform when a past event date is detected
     **/
     public static int pastEventDateAction()
     {
-        if (PastEventDateAction == PAST_DATE_UNDEFINED) {
-            // TODO: synchronize?
-            // "Device.pastDate.action="
-            String act = RTConfig.getString(DBConfig.PROP_Device_pastDate_action,"");
-            if (act.equalsIgnoreCase("ignore")   ||
-                act.equalsIgnoreCase("skip")     ||
-                act.equalsIgnoreCase("discard")  ||  // 2.6.0-B25
-                act.equalsIgnoreCase("-1")         ) {
-                PastEventDateAction = PAST_DATE_IGNORE;
-            } else
-            if (act.equalsIgnoreCase("truncate") ||
-                act.equalsIgnoreCase("current")  ||  // 2.5.3-B10
-                act.equalsIgnoreCase("1")          ) {
-                PastEventDateAction = PAST_DATE_TRUNCATE;
-            } else
-            if (StringTools.isBlank(act)         ||
-                act.equalsIgnoreCase("disabled") ||
-                act.equalsIgnoreCase("disable")  ||
-                act.equalsIgnoreCase("0")          ) {
-                PastEventDateAction = PAST_DATE_DISABLED;
-            } else {
-                Print.logError("Invalid property value %s => %s", DBConfig.PROP_Device_pastDate_action, act);
-                PastEventDateAction = PAST_DATE_DISABLED;
-            }
-        }
-        return PastEventDateAction;
+        return PastEventDateAction_setting.get();
     }
 
-    private static long PastEventDateMaxSec = -999L;
+    private static final RTConfigSnapshot.LongSetting PastEventDateMaxSec_setting =
+        RTConfigSnapshot.registerSetting(new RTConfigSnapshot.LongSetting(DBConfig.PROP_Device_pastDate_maximumSec, 0L) {
+            protected long parse() {
+                return Device._parseMaximumSec(this.getString(""));
+            }
+        });
+
     /**
     *** Gets the maximum number of seconds an event is allowed to be into the past
     *** @return The maximum number of seconds into the past
     **/
     public static long pastEventDateMaximumSec()
     {
-        if (PastEventDateMaxSec == -999L) {
-            // TODO: synchronize?
-            String M = RTConfig.getString(DBConfig.PROP_Device_pastDate_maximumSec,"");
-            if (!StringTools.isBlank(M)) {
-                long S = StringTools.parseLong(M,0L);
-                if (StringTools.endsWithIgnoreCase(M,"d")) {
-                    S = DateTime.DaySeconds(S);
-                }
-                PastEventDateMaxSec = Math.abs(S);
-            } else {
-                PastEventDateMaxSec = 0L;
+        return PastEventDateMaxSec_setting.get();
+    }
+
+    /**
+    *** Parses the specified maximum seconds value (may be suffixed with "d" for days)
+    *** @param M  The maximum seconds value to parse
+    *** @return The maximum number of seconds
+    **/
+    private static long _parseMaximumSec(String M)
+    {
+        if (!StringTools.isBlank(M)) {
+            long S = StringTools.parseLong(M,0L);
+            if (StringTools.endsWithIgnoreCase(M,"d")) {
+                S = DateTime.DaySeconds(S);
             }
+            return Math.abs(S);
+        } else {
+            return 0L;
         }
-        return PastEventDateMaxSec;
     }
 
     // ------------------------------------------------------------------------
@@ -1368,62 +1401,57 @@ public class Device // Asset
     public static final int FUTURE_DATE_DISABLED    = 0;
     public static final int FUTURE_DATE_TRUNCATE    = 1;
 
-    private static int  FutureEventDateAction = FUTURE_DATE_UNDEFINED;
+    private static final RTConfigSnapshot.IntSetting FutureEventDateAction_setting =
+        RTConfigSnapshot.registerSetting(new RTConfigSnapshot.IntSetting(DBConfig.PROP_Device_futureDate_action, FUTURE_DATE_DISABLED) {
+            protected int parse() {
+                // -- "Device.futureDate.action="
+                String act = this.getString("");
+                if (act.equalsIgnoreCase("ignore")   ||
+                    act.equalsIgnoreCase("skip")     ||
+                    act.equalsIgnoreCase("discard")  ||  // 2.6.0-B25
+                    act.equalsIgnoreCase("-1")         ) {
+                    return FUTURE_DATE_IGNORE;
+                } else
+                if (act.equalsIgnoreCase("truncate") ||
+                    act.equalsIgnoreCase("current")  ||  // 2.5.3-B10
+                    act.equalsIgnoreCase("1")          ) {
+                    return FUTURE_DATE_TRUNCATE;
+                } else
+                if (StringTools.isBlank(act)         ||
+                    act.equalsIgnoreCase("disabled") ||
+                    act.equalsIgnoreCase("disable")  ||
+                    act.equalsIgnoreCase("0")          ) {
+                    return FUTURE_DATE_DISABLED;
+                } else {
+                    Print.logError("Invalid property value %s => %s", this.getKey(), act);
+                    return FUTURE_DATE_DISABLED;
+                }
+            }
+        });
+
     /**
     *** Gets the action to perform when a future event date is detected
     *** @return The action to perform when a future event date is detected
     **/
     public static int futureEventDateAction()
     {
-        if (FutureEventDateAction == FUTURE_DATE_UNDEFINED) {
-            // TODO: synchronize?
-            // "Device.futureDate.action="
-            String act = RTConfig.getString(DBConfig.PROP_Device_futureDate_action,"");
-            if (act.equalsIgnoreCase("ignore")   ||
-                act.equalsIgnoreCase("skip")     ||
-                act.equalsIgnoreCase("discard")  ||  // 2.6.0-B25
-                act.equalsIgnoreCase("-1")         ) {
-                FutureEventDateAction = FUTURE_DATE_IGNORE;
-            } else
-            if (act.equalsIgnoreCase("truncate") ||
-                act.equalsIgnoreCase("current")  ||  // 2.5.3-B10
-                act.equalsIgnoreCase("1")          ) {
-                FutureEventDateAction = FUTURE_DATE_TRUNCATE;
-            } else
-            if (StringTools.isBlank(act)         ||
-                act.equalsIgnoreCase("disabled") ||
-                act.equalsIgnoreCase("disable")  ||
-                act.equalsIgnoreCase("0")          ) {
-                FutureEventDateAction = FUTURE_DATE_DISABLED;
-            } else {
-                Print.logError("Invalid property value %s => %s", DBConfig.PROP_Device_futureDate_action, act);
-                FutureEventDateAction = FUTURE_DATE_DISABLED;
-            }
-        }
-        return FutureEventDateAction;
+        return FutureEventDateAction_setting.get();
     }
 
-    private static long FutureEventDateMaxSec = -999L;
+    private static final RTConfigSnapshot.LongSetting FutureEventDateMaxSec_setting =
+        RTConfigSnapshot.registerSetting(new RTConfigSnapshot.LongSetting(DBConfig.PROP_Device_futureDate_maximumSec, 0L) {
+            protected long parse() {
+                return Device._parseMaximumSec(this.getString(""));
+            }
+        });
+
     /**
     *** Gets the maximum number of seconds an event is allowed to be into the future
     *** @return The maximum number of seconds into the future
     **/
     public static long futureEventDateMaximumSec()
     {
-        if (FutureEventDateMaxSec == -999L) {
-            // TODO: synchronize?
-            String M = RTConfig.getString(DBConfig.PROP_Device_futureDate_maximumSec,"");
-            if (!StringTools.isBlank(M)) {
-                long S = StringTools.parseLong(M,0L);
-                if (StringTools.endsWithIgnoreCase(M,"d")) {
-                    S = DateTime.DaySeconds(S);
-                }
-                FutureEventDateMaxSec = Math.abs(S);
-            } else {
-                FutureEventDateMaxSec = 0L;
-            }
-        }
-        return FutureEventDateMaxSec;
+        return FutureEventDateMaxSec_setting.get();
     }
 
     // ------------------------------------------------------------------------
@@ -1436,69 +1464,73 @@ public class Device // Asset
     public static final int INVALID_SPEED_ZERO        = 2;
     public static final int INVALID_SPEED_IGNORE_LOC  = 3;
 
-    private static int  InvalidSpeedAction = INVALID_SPEED_UNDEFINED;
+    private static final RTConfigSnapshot.IntSetting InvalidSpeedAction_setting =
+        RTConfigSnapshot.registerSetting(new RTConfigSnapshot.IntSetting(DBConfig.PROP_Device_invalidSpeed_action, INVALID_SPEED_DISABLED) {
+            protected int parse() {
+                // -- "Device.invalidSpeed.action="
+                String act = this.getString("");
+                if (act.equalsIgnoreCase("ignore")    ||
+                    act.equalsIgnoreCase("skip")      ||
+                    act.equalsIgnoreCase("-1")          ) {
+                    // -- events with invalid speed will be ignored
+                    // -- WARNING: this could cause events with important status codes to be ignored.
+                    return INVALID_SPEED_IGNORE;
+                } else
+                if (act.equalsIgnoreCase("ignoreLoc") ||
+                    act.equalsIgnoreCase("3")           ) {
+                    // -- events with invalid speed will be ignored (only if status code is "Location")
+                    return INVALID_SPEED_IGNORE_LOC;
+                } else
+                if (act.equalsIgnoreCase("truncate")  ||
+                    act.equalsIgnoreCase("max")       ||  // 2.5.3-B10
+                    act.equalsIgnoreCase("1")           ) {
+                    // -- event speeds exceeding the max allowed speed will be set to the max allowed speed
+                    return INVALID_SPEED_TRUNCATE;
+                } else
+                if (act.equalsIgnoreCase("zero")      ||
+                    act.equalsIgnoreCase("setzero")   ||
+                    act.equalsIgnoreCase("2")           ) {
+                    // -- event speeds exceeding the max allowed speed will be set to zero speed
+                    return INVALID_SPEED_ZERO;
+                } else
+                if (StringTools.isBlank(act)          ||
+                    act.equalsIgnoreCase("blank")     || // <-- in case someone took "blank" literally
+                    act.equalsIgnoreCase("disabled")  ||
+                    act.equalsIgnoreCase("disable")   ||
+                    act.equalsIgnoreCase("0")           ) {
+                    // -- maximum allowed speed will not be checked
+                    return INVALID_SPEED_DISABLED;
+                } else {
+                    Print.logError("Invalid property value %s => %s", this.getKey(), act);
+                    return INVALID_SPEED_DISABLED;
+                }
+            }
+        });
+
     public static int invalidSpeedAction()
     {
-        // TODO: synchronize?
-        if (InvalidSpeedAction == INVALID_SPEED_UNDEFINED) {
-            // "Device.invalidSpeed.action="
-            String act = RTConfig.getString(DBConfig.PROP_Device_invalidSpeed_action,"");
-            if (act.equalsIgnoreCase("ignore")    ||
-                act.equalsIgnoreCase("skip")      ||
-                act.equalsIgnoreCase("-1")          ) {
-                // -- events with invalid speed will be ignored
-                // -- WARNING: this could cause events with important status codes to be ignored.
-                InvalidSpeedAction = INVALID_SPEED_IGNORE;
-            } else
-            if (act.equalsIgnoreCase("ignoreLoc") ||
-                act.equalsIgnoreCase("3")           ) {
-                // -- events with invalid speed will be ignored (only if status code is "Location")
-                InvalidSpeedAction = INVALID_SPEED_IGNORE_LOC;
-            } else
-            if (act.equalsIgnoreCase("truncate")  ||
-                act.equalsIgnoreCase("max")       ||  // 2.5.3-B10
-                act.equalsIgnoreCase("1")           ) {
-                // -- event speeds exceeding the max allowed speed will be set to the max allowed speed
-                InvalidSpeedAction = INVALID_SPEED_TRUNCATE;
-            } else
-            if (act.equalsIgnoreCase("zero")      ||
-                act.equalsIgnoreCase("setzero")   ||
-                act.equalsIgnoreCase("2")           ) {
-                // -- event speeds exceeding the max allowed speed will be set to zero speed
-                InvalidSpeedAction = INVALID_SPEED_ZERO;
-            } else
-            if (StringTools.isBlank(act)          ||
-                act.equalsIgnoreCase("blank")     || // <-- in case someone took "blank" literally
-                act.equalsIgnoreCase("disabled")  ||
-                act.equalsIgnoreCase("disable")   ||
-                act.equalsIgnoreCase("0")           ) {
-                // -- maximum allowed speed will not be checked
-                InvalidSpeedAction = INVALID_SPEED_DISABLED;
-            } else {
-                Print.logError("Invalid property value %s => %s", DBConfig.PROP_Device_invalidSpeed_action, act);
-                InvalidSpeedAction = INVALID_SPEED_DISABLED;
-            }
-        }
-        return InvalidSpeedAction;
+        return InvalidSpeedAction_setting.get();
     }
 
-    private static double InvalidSpeedMaxKPH = -999.0;
+    private static final RTConfigSnapshot.DoubleSetting InvalidSpeedMaxKPH_setting =
+        RTConfigSnapshot.registerSetting(new RTConfigSnapshot.DoubleSetting(DBConfig.PROP_Device_invalidSpeed_maximumKPH, 0.0) {
+            protected double parse() {
+                double maxKPH = super.parse();
+                if (maxKPH <= 0.0) {
+                    // essentially "disabled"
+                    return 0.0;
+                } else
+                if (maxKPH <= 100.0) {
+                    // a low maximum speed warning
+                    Print.logWarn("**** \""+this.getKey()+"\" set to " + maxKPH + " km/h ****");
+                }
+                return maxKPH;
+            }
+        });
+
     public static double invalidSpeedMaximumKPH()
     {
-        // TODO: synchronize?
-        if (InvalidSpeedMaxKPH <= -999.0) {
-            String spdMaxProp = DBConfig.PROP_Device_invalidSpeed_maximumKPH;
-            InvalidSpeedMaxKPH = RTConfig.getDouble(spdMaxProp, 0.0);
-            if (InvalidSpeedMaxKPH <= 0.0) {
-                // essentially "disabled"
-                InvalidSpeedMaxKPH = 0.0;
-            } else
-            if (InvalidSpeedMaxKPH <= 100.0) {
-                // a low maximum speed warning
-                Print.logWarn("**** \""+spdMaxProp+"\" set to " + InvalidSpeedMaxKPH + " km/h ****");
-            }
-        }
-        return InvalidSpeedMaxKPH;
+        return InvalidSpeedMaxKPH_setting.get();
     }
 
     // ------------------------------------------------------------------------
@@ -5755,7 +5787,7 @@ public class Device // Asset
         /* look for the last ignition state based on a status code */
         // -- non-optimized 
         try {
-            EventData ev = this.getLastEvent(ignSC);
+            DeviceStateCache.EventState ev = this.getLastEventState(ignSC, -1L, false);
             if (ev == null) {
                 // -- no such event
                 this.cacheIgnitionState = -1;
@@ -5908,7 +5940,7 @@ public class Device // Asset
         /* look for StatusCodes.IGNITION_[ON|OFF]? */
         if (checkLastSC) {
             try {
-                EventData priorEV = this.getLastEvent(ignSC, ev.getTimestamp(), false);
+                DeviceStateCache.EventState priorEV = this.getLastEventState(ignSC, ev.getTimestamp(), false);
                 if (priorEV != null) {
                     return (priorEV.getStatusCode() == ignSC[1])? 1 : 0;
                 }
@@ -6384,7 +6416,7 @@ public class Device // Asset
         GeoPoint gp = this.getLastValidLocation();
         if ((gp == null) && tryLastEvent) {
             try {
-                EventData lastEv = this.getLastEvent(true); // valid GPS only
+                DeviceStateCache.EventState lastEv = this.getLastEventState(null, -1L, true); // valid GPS only
                 if ((lastEv != null) && lastEv.isValidGeoPoint()) {
                     gp = lastEv.getGeoPoint();
                     this.setLastValidLocation(
@@ -11675,6 +11707,15 @@ public class Device // Asset
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Returns true if LastEventCreateMillis is supported
+    *** @return True if LastEventCreateMillis is supported
+    **/
+    public static boolean SupportsLastEventCreateMillis()
+    {
+        return Device.getFactory().hasField(FLD_lastEventCreateMillis);
+    }
+
     /**
     *** Gets the Last Event Creation time, in milliseconds
     *** @return The Last Event Creation time, in milliseconds
@@ -11918,6 +11959,102 @@ public class Device // Asset
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
+    private static volatile boolean             subdivProviderInit  = false;
+    private static volatile SubdivisionProvider subdivProvider      = null;
+
+    /**
+    *** Gets the SubdivisionProvider specified by the "SubdivisionProvider.class" property.
+    *** The SubdivisionProvider is instantiated once on first access, using the same
+    *** (name, key, RTProperties) constructor as a ReverseGeocodeProvider, where the
+    *** RTProperties contains the "SubdivisionProvider.*" properties (without the prefix).
+    *** Classes without this constructor are created with the no-argument constructor.
+    *** @return The SubdivisionProvider, or null if not specified/available
+    **/
+    public static SubdivisionProvider GetSubdivisionProvider()
+    {
+        if (!Device.subdivProviderInit) {
+            synchronized (Device.class) {
+                if (!Device.subdivProviderInit) {
+                    String spClassName = RTConfig.getString(DBConfig.PROP_SubdivisionProvider_class,null);
+                    if (!StringTools.isBlank(spClassName)) {
+                        try {
+                            Class<?> spClass = Class.forName(spClassName.trim());
+                            MethodAction ma = null;
+                            try {
+                                ma = new MethodAction(spClass, String.class, String.class, RTProperties.class);
+                            } catch (NoSuchMethodException nsme) {
+                                ma = null; // use no-argument constructor
+                            }
+                            if (ma != null) {
+                                String pfx = DBConfig.PROP_SubdivisionProvider_;
+                                RTProperties spProps = new RTProperties();
+                                for (String k : RTConfig.getPropertyKeys(pfx, true)) {
+                                    spProps.setString(k.substring(pfx.length()), RTConfig.getString(k,null));
+                                }
+                                String spKey = RTConfig.getString(DBConfig.PROP_SubdivisionProvider_key,null);
+                                Device.subdivProvider = (SubdivisionProvider)ma.invoke("subdivision", spKey, spProps);
+                            } else {
+                                Device.subdivProvider = (SubdivisionProvider)spClass.newInstance();
+                            }
+                        } catch (Throwable th) { // ClassNotFoundException, ClassCastException, etc
+                            Print.logException("Unable to load SubdivisionProvider: " + spClassName, th);
+                            Device.subdivProvider = null;
+                        }
+                    }
+                    Device.subdivProviderInit = true;
+                }
+            }
+        }
+        return Device.subdivProvider;
+    }
+
+    /**
+    *** Sets the EventData subdivision (and Device last subdivision) from the
+    *** configured "fast" SubdivisionProvider, if the EventData subdivision has
+    *** not already been set by the Geozone/ReverseGeocode address update.
+    *** @param evdb  The EventData record
+    *** @return True if the subdivision was set, false otherwise
+    **/
+    protected boolean _updateSubdivision(EventData evdb)
+    {
+        if ((evdb == null) || evdb.hasSubdivision() || !evdb.isValidGeoPoint()) {
+            return false;
+        }
+        SubdivisionProvider sp = Device.GetSubdivisionProvider();
+        if ((sp == null) || !sp.isFastOperation()) {
+            return false;
+        }
+        String subDiv = null;
+        try {
+            if (sp instanceof KeyedSubdivisionProvider) {
+                // -- the key allows the provider to check the last match for this device first
+                String key = this.getAccountID() + "/" + this.getDeviceID();
+                subDiv = ((KeyedSubdivisionProvider)sp).getSubdivision(key, evdb.getGeoPoint());
+            } else {
+                subDiv = sp.getSubdivision(evdb.getGeoPoint());
+            }
+        } catch (SubdivisionException se) {
+            Print.logWarn("Unable to obtain subdivision: " + se.getMessage());
+            return false;
+        }
+        if (StringTools.isBlank(subDiv)) {
+            return false;
+        }
+        evdb.setSubdivision(subDiv); // FLD_subdivision
+        if (!subDiv.equals(this.getLastSubdivision())) {
+            this.setLastSubdivision(subDiv); // FLD_lastSubdivision
+            try {
+                this._updateEventFields(Device.FLD_lastSubdivision);
+            } catch (DBException dbe) {
+                Print.logError("Unable to update Device: " + dbe);
+            }
+        }
+        return true;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
     private static boolean  ENABLE_LOAD_TESTING     = true;
     private static Object   loadTestingLock         = new Object();
     private static DateTime loadTestingTime         = null;
@@ -12048,6 +12185,7 @@ public class Device // Asset
         }
 
         /* insert event */
+        long insStartNS = InsertEventTimer.start();
         try {
             if (!this._insertEventData(evdb)) {
                 // -- event was ignored
@@ -12057,6 +12195,8 @@ public class Device // Asset
         } catch (DBException dbe) {
             // -- error message already displayed
             throw dbe;
+        } finally {
+            InsertEventTimer.stop(insStartNS);
         }
 
         /* status code */
@@ -12116,6 +12256,12 @@ public class Device // Asset
         }
         int statusCode = evdb.getStatusCode();
 
+        /* recently inserted duplicate? (ie. retransmitted after reconnect) */
+        if (EventDedupWindow.isDuplicate(this, evdb)) {
+            Print.logDebug("Duplicate EventData ["+acctID+"/"+devID+"]: "+evdb.getTimestamp()+" "+StatusCodes.GetHex(statusCode)+" [ignoring record]");
+            return false; // not a database error
+        }
+
         /* set device */
         if (this.getDeferRuleCheckToPostInsert()) {
             // -- save current snapshot of this Device instance
@@ -12303,8 +12449,28 @@ public class Device // Asset
             boolean ALWAYS_UPDATE_CELLGPS = true;
             CellTower dct = !ALWAYS_UPDATE_CELLGPS? this.getLastServingCellTower() : null;
             if (dct == null) {
-                // -- No last CellID
-                extUpdate |= EXT_UPDATE_CELLGPS;
+                // -- No last CellID, check the shared CellTower location cache
+                MobileLocationProvider mlp = account.getPrivateLabel().getMobileLocationProvider();
+                CellTower sct = evdb.getServingCellTower();
+                MobileLocation ml = CellTowerLocationCache.getCachedLocation(mlp, sct);
+                if (ml == null) {
+                    // -- not cached, resolve via the MobileLocationProvider
+                    extUpdate |= EXT_UPDATE_CELLGPS;
+                } else {
+                    if (ml.isValid()) {
+                        evdb.setCellGeoPoint(ml.getGeoPoint());
+                        evdb.setCellAccuracy(ml.getAccuracy());
+                    } else {
+                        // -- cached as having no known location
+                    }
+                    // -- update Device lastCellServingInfo (as for a MobileLocationProvider request)
+                    this.setLastServingCellTower(sct); // FLD_lastCellServingInfo
+                    try {
+                        this._updateEventFields(Device.FLD_lastCellServingInfo);
+                    } catch (DBException dbe) {
+                        Print.logError("Unable to update Device: " + dbe);
+                    }
+                }
             } else
             if (!dct.equals(evdb.getServingCellTower())) {
                 // -- Last CellID does not match current CellID
@@ -12341,7 +12507,7 @@ public class Device // Asset
                 if (!StringTools.isBlank(subDiv)) {
                     this.setLastSubdivision(subDiv); // FLD_lastSubdivision
                     try {
-                        this.update(Device.FLD_lastSubdivision);
+                        this._updateEventFields(Device.FLD_lastSubdivision);
                     } catch (DBException dbe) {
                         Print.logError("Unable to update Device: " + dbe);
                     }
@@ -12362,6 +12528,9 @@ public class Device // Asset
             Print.logException("Address update error", th);
         }
 
+        /* set subdivision (if not set by geozone/reverse-geocode address) */
+        this._updateSubdivision(evdb);
+
         /* stateline border-crossing check */
         // -- not performed here (SLBC check performed in cron task)
         //if (this.getBorderCrossing() == Device.BorderCrossingState.ON.getIntValue()) {
@@ -12819,6 +12988,8 @@ public class Device // Asset
         try {
             evdb.save(); // insert();
             // -- may be re-saved below after deferred reverse-geocode
+            DeviceStateCache.recordEvent(this, evdb); // previous-event lookups
+            EventDedupWindow.recordEvent(this, evdb); // duplicate suppression
         } catch (DBException dbe) {
             // -- save failed, print error
             Print.logError("EventData save failed: " + dbe);
@@ -12852,8 +13023,21 @@ public class Device // Asset
                     Device.this._postEventInsertionProcessing(evdb, extUpd, deferRuleCheck);
                 }
             };
-            ThreadPool_DeviceEventUpdate.run(job);
-            Print.logDebug("Address update queued for background operation");
+            String jobKey = this.getAccountID() + "/" + this.getDeviceID();
+            if (ThreadPool_DeviceEventUpdate.run(jobKey, job)) {
+                Print.logDebug("Address update queued for background operation");
+            } else
+            if (ThreadPool_DeviceEventUpdate.isStopping(jobKey)) {
+                // -- background pool is stopping, run now
+                Print.logWarn("Background pool stopped, running address update now: " + jobKey);
+                job.run();
+            } else {
+                // -- rejected per the pool policy (counted/logged by the pool)
+                Print.logDebug("Address update rejected (lane full): " + jobKey);
+            }
+        } else {
+            // -- no background processing, update daily rollup now
+            DeviceDailySummary.updateForEvent(this, evdb);
         }
 
         // ---------------------------------------------------------------------
@@ -12886,6 +13070,12 @@ public class Device // Asset
         this.setLastEventTimestamp(evdb.getTimestamp());        // FLD_lastEventTimestamp
         this.setLastEventStatusCode(evdb.getStatusCode());      // FLD_lastEventStatusCode
 
+        /* last event creation time (see "getDevicesChangedSince") */
+        if (Device.SupportsLastEventCreateMillis() && (evdb.getCreationMillis() > this.getLastEventCreateMillis())) {
+            this.setLastEventCreateMillis(evdb.getCreationMillis()); // FLD_lastEventCreateMillis
+            this.addOtherChangedFieldNames(Device.FLD_lastEventCreateMillis);
+        }
+
         /* latitude/longitude */
         if (evdb.isValidGeoPoint()) {
             // -- save current lastValid location
@@ -13188,7 +13378,7 @@ public class Device // Asset
                     // -- update Device lastCellServingInfo
                     this.setLastServingCellTower(sct); // FLD_lastCellServingInfo
                     try {
-                        this.update(Device.FLD_lastCellServingInfo);
+                        this._updateEventFields(Device.FLD_lastCellServingInfo);
                     } catch (DBException dbe) {
                         Print.logError("Unable to update Device: " + dbe);
                     }
@@ -13212,7 +13402,7 @@ public class Device // Asset
                     if (!StringTools.isBlank(subDiv)) {
                         this.setLastSubdivision(subDiv); // FLD_lastSubdivision
                         try {
-                            this.update(Device.FLD_lastSubdivision);
+                            this._updateEventFields(Device.FLD_lastSubdivision);
                         } catch (DBException dbe) {
                             Print.logError("Unable to update Device: " + dbe);
                         }
@@ -13240,6 +13430,9 @@ public class Device // Asset
             }
         }
 
+        /* daily rollup (after address/subdivision update) */
+        DeviceDailySummary.updateForEvent(this, evdb);
+
         /* rule check (in "_postEventInsertionProcessing") */
         // -- Cannot generally defer rule check to here without proper initialization!
         // -  Rule triggers may be based on values which may be changing in the Device record,
@@ -13425,6 +13618,8 @@ public class Device // Asset
             throw new DBException("Deleting EventData records", sqe);
         } finally {
             DBConnection.release(dbc);
+            EventDedupWindow.invalidate(this);
+            DeviceStateCache.invalidate(this);
         }
 
         /* number of records deleted (or supposed to have been deleted) */
@@ -13625,7 +13820,7 @@ public class Device // Asset
     public void updateChangedEventFields()
         throws DBException
     {
-        this.update(_createChangedFieldsSet((String[])null));
+        this._updateEventFields(_createChangedFieldsSet((String[])null));
         this._postDeviceEventUpdate();
     }
 
@@ -13636,7 +13831,7 @@ public class Device // Asset
     public void updateChangedEventFields(Set<String> flds)
         throws DBException
     {
-        this.update(_createChangedFieldsSet(flds));
+        this._updateEventFields(_createChangedFieldsSet(flds));
         this._postDeviceEventUpdate();
     }
 
@@ -13647,10 +13842,91 @@ public class Device // Asset
     public void updateChangedEventFields(String... flds)
         throws DBException
     {
-        this.update(_createChangedFieldsSet(flds));
+        this._updateEventFields(_createChangedFieldsSet(flds));
         this._postDeviceEventUpdate();
     }
 
+    /**
+    *** Updates the specified Device event fields, or merges them into the pending
+    *** write-behind updates if Device write-behind is enabled
+    *** @param flds The field set to update
+    **/
+    private void _updateEventFields(Set<String> flds)
+        throws DBException
+    {
+        DeviceWriteBehind wb = DeviceWriteBehind.getInstance();
+        if (wb == null) {
+            // -- update immediately
+            this.update(flds);
+        } else
+        if (!this.isOkToSave()) {
+            throw new DBException("Update not allowed");
+        } else {
+            // -- write-behind (the caller-supplied set may be shared)
+            Set<String> updFlds = new HashSet<String>(flds);
+            if (this.setLastUpdateTime(DateTime.getCurrentTimeSec())) {
+                updFlds.add(FLD_lastUpdateTime);
+            }
+            this.recordWillUpdate();
+            wb.enqueue(this, updFlds);
+            this.recordDidUpdate();
+            // -- NOTE: this clears ALL changes, as does "update(...)"
+            this.clearChanged();
+        }
+    }
+
+    /**
+    *** Updates the specified Device event fields, or merges them into the pending
+    *** write-behind updates if Device write-behind is enabled
+    *** @param flds The fields to update
+    **/
+    private void _updateEventFields(String... flds)
+        throws DBException
+    {
+        this._updateEventFields(ListTools.toSet(flds,null));
+    }
+
+    /**
+    *** Updates the specified fields in this Device, discarding any pending 
+    *** write-behind values for these fields
+    *** @param updFldSet  A Set of fields to update (null for all fields)
+    *** @throws DBException if a database error occurs.
+    **/
+    @Override
+    public void update(Set<String> updFldSet)
+        throws DBException
+    {
+        super.update(updFldSet);
+        DeviceWriteBehind wb = DeviceWriteBehind.getInstance();
+        if (wb != null) {
+            wb.discard(this, updFldSet);
+        }
+    }
+
+    /**
+    *** Applies any pending write-behind values to the specified loaded Device
+    **/
+    private static void _applyWriteBehind(Device dev, String... fieldNames)
+    {
+        DeviceWriteBehind wb = DeviceWriteBehind.getInstance();
+        if (wb != null) {
+            wb.applyPending(dev, fieldNames);
+        }
+    }
+
+    /**
+    *** Writes any pending write-behind updates for the specified Device (ie. at 
+    *** the end of a DCS session)
+    *** @param dev  The Device
+    **/
+    public static void flushWriteBehind(Device dev)
+    {
+        DeviceWriteBehind wb = (dev != null)? DeviceWriteBehind.getInstance() : null;
+        if (wb != null) {
+            wb.flush(dev.getAccountID(), dev.getDeviceID());
+        }
+    }
+
     // --------------------------------
 
     /**
@@ -14863,6 +15139,26 @@ public class Device // Asset
         }
     }
 
+    /**
+    *** Gets the key fields of the last EventData record for this Device.  The
+    *** event is obtained from the in-memory DeviceStateCache if possible,
+    *** otherwise the EventData table is queried.
+    *** @param statusCodes Return the last event that matches one of these status codes
+    *** @param endTime     Return the EventData record less-than or equal-to this time
+    *** @param validGPS    True to only return the last event with a valid GPS
+    *** @return The EventState, or null if no matching event was found
+    **/
+    public DeviceStateCache.EventState getLastEventState(int statusCodes[], long endTime, boolean validGPS)
+        throws DBException
+    {
+        DeviceStateCache.EventState es = DeviceStateCache.getLastEvent(this, statusCodes, endTime, validGPS);
+        if (es == null) {
+            EventData ev = this.getLastEvent(statusCodes, endTime, validGPS);
+            es = (ev != null)? new DeviceStateCache.EventState(ev) : null;
+        }
+        return es;
+    }
+
     // ------------------------------------------------------------------------
 
     /**
@@ -14944,6 +15240,7 @@ public class Device // Asset
     **/
     protected void eventDidInsert(EventData evdb)
     {
+        EventBus.publishEvent(evdb);
         if (evdb == null) {
             // -- no EventData instance
         } else
@@ -15221,6 +15518,11 @@ public class Device // Asset
             DBConnection.release(dbc);
         }
 
+        /* pending write-behind values */
+        if (dev != null) {
+            Device._applyWriteBehind(dev, (String[])null);
+        }
+
         /* return device */
         // Note: 'dev' may be null if it wasn't found
         return dev;
@@ -15281,6 +15583,7 @@ public class Device // Asset
                 if (dev._reload(fieldNames) != null) {
                     // -- device exists
                     dev.setAccount(account);
+                    Device._applyWriteBehind(dev, fieldNames);
                     return dev;
                 } else {
                     // -- device does not exist
@@ -15291,6 +15594,7 @@ public class Device // Asset
                 // -- device exists
                 Device dev = key.getDBRecord(true, fieldNames); // throws DBException
                 dev.setAccount(account);
+                Device._applyWriteBehind(dev, fieldNames);
                 return dev;
             } else {
                 // -- device does not exist
@@ -15335,6 +15639,7 @@ public class Device // Asset
             // -- get DBRecord
             Device dev = key._getDBRecord(true, fieldNames); // may throw DBException
             dev.setAccount(account);
+            Device._applyWriteBehind(dev, fieldNames);
             return dev;
         } else {
             throw new DBException("Account/Device null");
@@ -15548,6 +15853,73 @@ public class Device // Asset
 
     }
 
+    /**
+    *** Returns the DeviceIDs which have received an event created after the 
+    *** specified time, mapped to the device "lastEventCreateMillis".
+    *** @param acctId    The Account ID
+    *** @param userAuth  The User (if non-null, only authorized devices are returned)
+    *** @param sinceMS   The creation time (milliseconds)
+    *** @return The DeviceID map, or null if "lastEventCreateMillis" is not supported
+    **/
+    public static OrderedMap<String,Long> getDevicesChangedSince(String acctId, User userAuth, long sinceMS)
+        throws DBException
+    {
+
+        /* not supported */
+        if (!Device.SupportsLastEventCreateMillis()) {
+            return null;
+        }
+
+        /* no account specified? */
+        if (StringTools.isBlank(acctId)) {
+            Print.logError("Account not specified!");
+            return new OrderedMap<String,Long>();
+        }
+
+        /* read changed devices for account */
+        OrderedMap<String,Long> devMap = new OrderedMap<String,Long>();
+        DBConnection dbc = null;
+        Statement   stmt = null;
+        ResultSet     rs = null;
+        try {
+
+            /* select */
+            // DBSelect: SELECT deviceID,lastEventCreateMillis FROM Device WHERE (accountID='acct') AND (lastEventCreateMillis>123) ORDER BY deviceID
+            DBSelect<Device> dsel = new DBSelect<Device>(Device.getFactory());
+            dsel.setSelectedFields(Device.FLD_deviceID, Device.FLD_lastEventCreateMillis);
+            DBWhere dwh = dsel.createDBWhere();
+            dsel.setWhere(dwh.WHERE_(
+                dwh.AND(
+                    dwh.EQ(Device.FLD_accountID,acctId),
+                    dwh.GT(Device.FLD_lastEventCreateMillis,sinceMS)
+                )
+            ));
+            dsel.setOrderByFields(Device.FLD_deviceID);
+
+            /* get records */
+            dbc  = DBConnection.getDBConnection_read();
+            stmt = dbc.execute(dsel.toString());
+            rs = stmt.getResultSet();
+            while (rs.next()) {
+                String devId = rs.getString(Device.FLD_deviceID);
+                if ((userAuth == null) || userAuth.isAuthorizedDevice(devId)) {
+                    devMap.put(devId, new Long(rs.getLong(Device.FLD_lastEventCreateMillis)));
+                }
+            }
+
+        } catch (SQLException sqe) {
+            throw new DBException("Getting Changed Device List", sqe);
+        } finally {
+            if (rs   != null) { try { rs.close();   } catch (Throwable t) {} }
+            if (stmt != null) { try { stmt.close(); } catch (Throwable t) {} }
+            DBConnection.release(dbc);
+        }
+
+        /* return map */
+        return devMap;
+
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
     // This section supports a method for obtaining human readable information from
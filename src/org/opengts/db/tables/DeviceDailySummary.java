@@ -0,0 +1,1185 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Per-Device, per-Day pre-aggregated EventData summary (rollup) records
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Each record summarizes the EventData records for a single Device over a
+//    single day, where the day boundaries are based on the TimeZone stored in
+//    the record (the Account TimeZone at the time the record was created).
+//  - Records are maintained incrementally as events are inserted (see property
+//    "DeviceDailySummary.updateOnInsert"), and/or rebuilt from the EventData
+//    table by a catch-up job:
+//      bin/admin.sh DeviceDailySummary -account=<acct> [-device=<dev>] -rebuild=<days>
+//  - A record which has received an out-of-order event (ie. an event older
+//    than the last summarized event) is marked "dirty" and is ignored by the
+//    reports until it has been rebuilt.
+//  - Distance, engine-hours, and fuel-used are accumulated from the deltas
+//    between consecutive events, starting with the delta from the last event
+//    of the previous day.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.db.tables;
+
+import java.lang.*;
+import java.util.*;
+import java.math.*;
+import java.io.*;
+import java.sql.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+
+import org.opengts.db.*;
+
+public class DeviceDailySummary
+    extends DeviceRecord<DeviceDailySummary>
+{
+
+    // ------------------------------------------------------------------------
+
+    /* update rollup records as events are inserted */
+    private static final RTConfigSnapshot.BooleanSetting UpdateOnInsert_setting =
+        RTConfigSnapshot.registerBoolean(DBConfig.PROP_DeviceDailySummary_updateOnInsert, false);
+
+    /* allow reports to use the rollup records */
+    private static final RTConfigSnapshot.BooleanSetting UseInReports_setting =
+        RTConfigSnapshot.registerBoolean(DBConfig.PROP_DeviceDailySummary_useInReports, false);
+
+    /**
+    *** Returns true if the rollup records should be updated as events are inserted
+    *** @return True if the rollup records should be updated as events are inserted
+    **/
+    public static boolean IsUpdateOnInsert()
+    {
+        return UpdateOnInsert_setting.get() && DeviceDailySummary.TableExists();
+    }
+
+    /**
+    *** Returns true if reports are allowed to use the rollup records
+    *** @return True if reports are allowed to use the rollup records
+    **/
+    public static boolean IsUseInReports()
+    {
+        return UseInReports_setting.get() && DeviceDailySummary.TableExists();
+    }
+
+    private static int TableExists = -1; // -1=unknown, 0=false, 1=true
+
+    /**
+    *** Returns true if the DeviceDailySummary table exists (checked once)
+    **/
+    private static boolean TableExists()
+    {
+        if (TableExists < 0) {
+            try {
+                TableExists = DeviceDailySummary.getFactory().tableExists()? 1 : 0;
+            } catch (DBException dbe) {
+                Print.logError("Unable to determine if DeviceDailySummary table exists: " + dbe);
+                TableExists = 0;
+            }
+            if (TableExists == 0) {
+                Print.logWarn("DeviceDailySummary table does not exist, rollup records disabled");
+            }
+        }
+        return (TableExists == 1);
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Summary class (accumulated values for a range of EventData records)
+    **/
+    public static class Summary
+    {
+
+        private long                firstTime       = 0L;   // first event in summary
+        private long                lastTime        = 0L;   // last event (may be prior to summary when seeded)
+        private long                eventCount      = 0L;
+        private long                validGPSCount   = 0L;
+        private Map<Integer,Long>   statusCounts    = new TreeMap<Integer,Long>();
+        private double              startOdomKM     = 0.0;
+        private double              lastOdomKM      = 0.0;
+        private double              distanceKM      = 0.0;
+        private double              maxSpeedKPH     = 0.0;
+        private double              lastSpeedKPH    = 0.0;
+        private int                 ignitionState   = -1;   // -1=unknown, 0=off, 1=on
+        private long                idleSec         = 0L;
+        private double              lastEngHours    = 0.0;
+        private double              engineHours     = 0.0;
+        private double              lastFuelTotal   = 0.0;
+        private double              fuelUsed        = 0.0;
+        private String              lastStateProv   = "";
+        private Map<String,Double>  stateDistKM     = new TreeMap<String,Double>();
+        private long                minTime         = 0L;   // idle accumulation starts here
+        private int                 ignCodes[]      = null; // device specific { OFF, ON }
+
+        public Summary() {
+            super();
+        }
+
+        // --------------------------------
+
+        /* set the device specific ignition off/on status codes */
+        public void setIgnitionStatusCodes(int ignSC[]) {
+            this.ignCodes = ((ignSC != null) && (ignSC.length >= 2))? ignSC : null;
+        }
+
+        /* set the minimum time for idle accumulation (ie. the start of the day) */
+        public void setMinimumTime(long minTime) {
+            this.minTime = minTime;
+        }
+
+        /* continue from the final state of the specified summary (totals are not copied) */
+        public void seed(Summary prior) {
+            if (prior != null) {
+                this.lastTime      = prior.lastTime;
+                this.lastOdomKM    = prior.lastOdomKM;
+                this.lastSpeedKPH  = prior.lastSpeedKPH;
+                this.ignitionState = prior.ignitionState;
+                this.lastEngHours  = prior.lastEngHours;
+                this.lastFuelTotal = prior.lastFuelTotal;
+                this.lastStateProv = prior.lastStateProv;
+            }
+        }
+
+        /* continue from the specified prior event (totals are not copied) */
+        public void seed(EventData prior) {
+            if (prior != null) {
+                this.lastTime      = prior.getTimestamp();
+                this.lastOdomKM    = prior.getOdometerKM();
+                this.lastSpeedKPH  = prior.getSpeedKPH();
+                this.ignitionState = this._getIgnitionState(prior.getStatusCode(), prior.getSpeedKPH(), -1);
+                this.lastEngHours  = prior.getEngineHours();
+                this.lastFuelTotal = prior.getFuelTotal();
+                this.lastStateProv = StringTools.trim(prior.getStateProvince());
+            }
+        }
+
+        // --------------------------------
+
+        private int _getIgnitionState(int sc, double speedKPH, int dftState) {
+            if ((this.ignCodes != null) && (sc == this.ignCodes[1])) {
+                return 1;
+            } else
+            if ((this.ignCodes != null) && (sc == this.ignCodes[0])) {
+                return 0;
+            }
+            switch (sc) {
+                case StatusCodes.STATUS_IGNITION_ON  :
+                case StatusCodes.STATUS_ENGINE_START :
+                    return 1;
+                case StatusCodes.STATUS_IGNITION_OFF :
+                case StatusCodes.STATUS_ENGINE_STOP  :
+                    return 0;
+            }
+            return (speedKPH > 0.0)? 1 : dftState;
+        }
+
+        /**
+        *** Adds the specified event to this summary.  Events must be added in ascending
+        *** timestamp order.
+        *** @return False if the event is older than the last event added (the event is still
+        ***     counted, but the time-based accumulators may be inaccurate)
+        **/
+        public boolean addEvent(EventData ev) {
+            boolean validGPS = ev.isValidGeoPoint() ||
+                GeoPoint.isValid(ev.getCellLatitude(), ev.getCellLongitude());
+            return this.addEvent(
+                ev.getTimestamp(), ev.getStatusCode(), validGPS,
+                ev.getOdometerKM(), ev.getSpeedKPH(), ev.getEngineHours(), ev.getFuelTotal(),
+                ev.getStateProvince());
+        }
+
+        /**
+        *** Adds the specified event values to this summary.  Events must be added in ascending
+        *** timestamp order.
+        *** @return False if the event is older than the last event added (the event is still
+        ***     counted, but the time-based accumulators may be inaccurate)
+        **/
+        public boolean addEvent(long ts, int sc, boolean validGPS,
+            double odomKM, double speedKPH, double engHours, double fuelTotal, String stateProv) {
+            boolean inOrder = (ts >= this.lastTime);
+            String  state   = !StringTools.isBlank(stateProv)? stateProv.trim() : this.lastStateProv;
+
+            /* counts */
+            if (this.eventCount <= 0L) { this.firstTime = ts; }
+            this.eventCount++;
+            if (validGPS) { this.validGPSCount++; }
+            Long scCnt = this.statusCounts.get(sc);
+            this.statusCounts.put(sc, ((scCnt != null)? (scCnt.longValue() + 1L) : 1L));
+
+            /* idle time (ignition on and not moving since the last event) */
+            if (inOrder && (this.lastTime > 0L) && (this.ignitionState == 1) && (this.lastSpeedKPH <= 0.0)) {
+                long fromTime = Math.max(this.lastTime, this.minTime);
+                if (ts > fromTime) {
+                    this.idleSec += (ts - fromTime);
+                }
+            }
+            this.ignitionState = this._getIgnitionState(sc, speedKPH, this.ignitionState);
+
+            /* distance */
+            if (odomKM > 0.0) {
+                if (inOrder && (this.lastOdomKM > 0.0) && (odomKM > this.lastOdomKM)) {
+                    double deltaKM = odomKM - this.lastOdomKM;
+                    this.distanceKM += deltaKM;
+                    Double stKM = this.stateDistKM.get(state);
+                    this.stateDistKM.put(state, ((stKM != null)? (stKM.doubleValue() + deltaKM) : deltaKM));
+                }
+                if (this.startOdomKM <= 0.0) { this.startOdomKM = odomKM; }
+                if (inOrder || (odomKM > this.lastOdomKM)) { this.lastOdomKM = odomKM; }
+            }
+
+            /* engine hours */
+            if (engHours > 0.0) {
+                if (inOrder && (this.lastEngHours > 0.0) && (engHours > this.lastEngHours)) {
+                    this.engineHours += (engHours - this.lastEngHours);
+                }
+                if (inOrder || (engHours > this.lastEngHours)) { this.lastEngHours = engHours; }
+            }
+
+            /* fuel used */
+            if (fuelTotal > 0.0) {
+                if (inOrder && (this.lastFuelTotal > 0.0) && (fuelTotal > this.lastFuelTotal)) {
+                    this.fuelUsed += (fuelTotal - this.lastFuelTotal);
+                }
+                if (inOrder || (fuelTotal > this.lastFuelTotal)) { this.lastFuelTotal = fuelTotal; }
+            }
+
+            /* speed */
+            if (speedKPH > this.maxSpeedKPH) { this.maxSpeedKPH = speedKPH; }
+
+            /* last event state */
+            if (inOrder) {
+                this.lastTime      = ts;
+                this.lastSpeedKPH  = speedKPH;
+                this.lastStateProv = state;
+            }
+            return inOrder;
+
+        }
+
+        /**
+        *** Appends the specified (chronologically following) summary to this summary
+        **/
+        public void merge(Summary next) {
+            if (next == null) {
+                return;
+            }
+            if (next.eventCount > 0L) {
+                if (this.eventCount <= 0L) { this.firstTime = next.firstTime; }
+                this.eventCount    += next.eventCount;
+                this.validGPSCount += next.validGPSCount;
+                for (Integer sc : next.statusCounts.keySet()) {
+                    Long cnt = this.statusCounts.get(sc);
+                    long add = next.statusCounts.get(sc).longValue();
+                    this.statusCounts.put(sc, ((cnt != null)? (cnt.longValue() + add) : add));
+                }
+                if (this.startOdomKM <= 0.0) { this.startOdomKM = next.startOdomKM; }
+                this.distanceKM    += next.distanceKM;
+                this.idleSec       += next.idleSec;
+                this.engineHours   += next.engineHours;
+                this.fuelUsed      += next.fuelUsed;
+                for (String st : next.stateDistKM.keySet()) {
+                    Double km  = this.stateDistKM.get(st);
+                    double add = next.stateDistKM.get(st).doubleValue();
+                    this.stateDistKM.put(st, ((km != null)? (km.doubleValue() + add) : add));
+                }
+                if (next.maxSpeedKPH > this.maxSpeedKPH) { this.maxSpeedKPH = next.maxSpeedKPH; }
+            }
+            if (next.lastTime >= this.lastTime) {
+                this.lastTime      = next.lastTime;
+                this.lastSpeedKPH  = next.lastSpeedKPH;
+                this.ignitionState = next.ignitionState;
+                this.lastStateProv = next.lastStateProv;
+                if (next.lastOdomKM    > 0.0) { this.lastOdomKM    = next.lastOdomKM;    }
+                if (next.lastEngHours  > 0.0) { this.lastEngHours  = next.lastEngHours;  }
+                if (next.lastFuelTotal > 0.0) { this.lastFuelTotal = next.lastFuelTotal; }
+            }
+        }
+
+        // --------------------------------
+
+        public long getFirstEventTime() {
+            return (this.eventCount > 0L)? this.firstTime : 0L;
+        }
+
+        public long getLastEventTime() {
+            return (this.eventCount > 0L)? this.lastTime : 0L;
+        }
+
+        public long getEventCount() {
+            return this.eventCount;
+        }
+
+        public long getValidGPSCount() {
+            return this.validGPSCount;
+        }
+
+        /* count of events matching the specified status codes (null for all) */
+        public long getEventCount(int statusCodes[], boolean validGPS) {
+            if (ListTools.isEmpty(statusCodes)) {
+                return validGPS? this.validGPSCount : this.eventCount;
+            } else
+            if (validGPS) {
+                // -- valid GPS counts are not maintained per status code
+                return -1L;
+            } else {
+                long count = 0L;
+                for (int sc : statusCodes) {
+                    Long cnt = this.statusCounts.get(sc);
+                    if (cnt != null) { count += cnt.longValue(); }
+                }
+                return count;
+            }
+        }
+
+        public Map<Integer,Long> getStatusCodeCounts() {
+            return Collections.unmodifiableMap(this.statusCounts);
+        }
+
+        public double getStartOdometerKM() {
+            return this.startOdomKM;
+        }
+
+        public double getEndOdometerKM() {
+            return this.lastOdomKM;
+        }
+
+        public double getDistanceKM() {
+            return this.distanceKM;
+        }
+
+        public Map<String,Double> getStateDistanceKM() {
+            return Collections.unmodifiableMap(this.stateDistKM);
+        }
+
+        public double getMaximumSpeedKPH() {
+            return this.maxSpeedKPH;
+        }
+
+        public long getIdleSeconds() {
+            return this.idleSec;
+        }
+
+        public double getEngineHours() {
+            return this.engineHours;
+        }
+
+        public double getFuelUsed() {
+            return this.fuelUsed;
+        }
+
+        public int getIgnitionState() {
+            return this.ignitionState;
+        }
+
+        public String toString() {
+            StringBuffer sb = new StringBuffer();
+            sb.append("Events=").append(this.eventCount);
+            sb.append(" ValidGPS=").append(this.validGPSCount);
+            sb.append(" DistanceKM=").append(StringTools.format(this.distanceKM,"0.0"));
+            sb.append(" MaxSpeedKPH=").append(StringTools.format(this.maxSpeedKPH,"0.0"));
+            sb.append(" IdleSec=").append(this.idleSec);
+            sb.append(" EngineHours=").append(StringTools.format(this.engineHours,"0.00"));
+            sb.append(" FuelUsed=").append(StringTools.format(this.fuelUsed,"0.0"));
+            sb.append(" States=").append(EncodeStateDistance(this.stateDistKM));
+            return sb.toString();
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* encode status code counts: "F020=12,F112=3" */
+    private static String EncodeStatusCounts(Map<Integer,Long> scCounts)
+    {
+        StringBuffer sb = new StringBuffer();
+        for (Integer sc : scCounts.keySet()) {
+            if (sb.length() > 0) { sb.append(","); }
+            sb.append(StringTools.toHexString(sc.intValue(),16)).append("=").append(scCounts.get(sc));
+        }
+        return sb.toString();
+    }
+
+    /* decode status code counts */
+    private static void DecodeStatusCounts(String s, Map<Integer,Long> scCounts)
+    {
+        for (String kv : StringTools.split(s,',')) {
+            int p = kv.indexOf('=');
+            if (p > 0) {
+                int  sc  = StringTools.parseHexInt(kv.substring(0,p), StatusCodes.STATUS_NONE);
+                long cnt = StringTools.parseLong(kv.substring(p+1), 0L);
+                scCounts.put(sc, cnt);
+            }
+        }
+    }
+
+    /* encode state distance: "CA=12.345,NV=3.2" */
+    private static String EncodeStateDistance(Map<String,Double> stateDist)
+    {
+        StringBuffer sb = new StringBuffer();
+        for (String st : stateDist.keySet()) {
+            if (sb.length() > 0) { sb.append(","); }
+            sb.append(st).append("=").append(StringTools.format(stateDist.get(st).doubleValue(),"0.000"));
+        }
+        return sb.toString();
+    }
+
+    /* decode state distance */
+    private static void DecodeStateDistance(String s, Map<String,Double> stateDist)
+    {
+        for (String kv : StringTools.split(s,',')) {
+            int p = kv.indexOf('=');
+            if (p >= 0) {
+                String st = kv.substring(0,p).trim();
+                double km = StringTools.parseDouble(kv.substring(p+1), 0.0);
+                stateDist.put(st, km);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // SQL table definition below
+
+    /* table name */
+    public static final String _TABLE_NAME              = "DeviceDailySummary";
+    public static String TABLE_NAME() { return DBProvider._preTranslateTableName(_TABLE_NAME); }
+
+    /* field definition */
+    public static final String FLD_dayNumber            = "dayNumber";
+    public static final String FLD_timeZone             = Account.FLD_timeZone;
+    public static final String FLD_isDirty              = "isDirty";
+    public static final String FLD_startTime            = "startTime";
+    public static final String FLD_endTime              = "endTime";
+    public static final String FLD_eventCount           = "eventCount";
+    public static final String FLD_validGPSCount        = "validGPSCount";
+    public static final String FLD_statusCodeCounts     = "statusCodeCounts";
+    public static final String FLD_startOdometerKM      = "startOdometerKM";
+    public static final String FLD_endOdometerKM        = "endOdometerKM";
+    public static final String FLD_distanceKM           = "distanceKM";
+    public static final String FLD_stateDistanceKM      = "stateDistanceKM";
+    public static final String FLD_maxSpeedKPH          = "maxSpeedKPH";
+    public static final String FLD_endSpeedKPH          = "endSpeedKPH";
+    public static final String FLD_ignitionState        = "ignitionState";
+    public static final String FLD_idleSeconds          = "idleSeconds";
+    public static final String FLD_engineHours          = "engineHours";
+    public static final String FLD_endEngineHours       = "endEngineHours";
+    public static final String FLD_fuelUsed             = "fuelUsed";
+    public static final String FLD_endFuelTotal         = "endFuelTotal";
+    public static final String FLD_endStateProvince     = "endStateProvince";
+    private static DBField FieldInfo[] = {
+        // DeviceDailySummary fields
+        newField_accountID(true),
+        newField_deviceID(true),
+        new DBField(FLD_dayNumber           , Long.TYPE     , DBField.TYPE_UINT32     , "Day Number"             , "key=true"),
+        new DBField(FLD_timeZone            , String.class  , DBField.TYPE_STRING(32) , "Time Zone"              , ""),
+        new DBField(FLD_isDirty             , Boolean.TYPE  , DBField.TYPE_BOOLEAN    , "Requires Rebuild"       , ""),
+        new DBField(FLD_startTime           , Long.TYPE     , DBField.TYPE_UINT32     , "First Event Time"       , "format=time"),
+        new DBField(FLD_endTime             , Long.TYPE     , DBField.TYPE_UINT32     , "Last Event Time"        , "format=time"),
+        new DBField(FLD_eventCount          , Long.TYPE     , DBField.TYPE_UINT32     , "Event Count"            , ""),
+        new DBField(FLD_validGPSCount       , Long.TYPE     , DBField.TYPE_UINT32     , "Valid GPS Event Count"  , ""),
+        new DBField(FLD_statusCodeCounts    , String.class  , DBField.TYPE_TEXT       , "Status Code Counts"     , ""),
+        new DBField(FLD_startOdometerKM     , Double.TYPE   , DBField.TYPE_DOUBLE     , "First Odometer KM"      , "format=#0.0"),
+        new DBField(FLD_endOdometerKM       , Double.TYPE   , DBField.TYPE_DOUBLE     , "Last Odometer KM"       , "format=#0.0"),
+        new DBField(FLD_distanceKM          , Double.TYPE   , DBField.TYPE_DOUBLE     , "Distance KM"            , "format=#0.0"),
+        new DBField(FLD_stateDistanceKM     , String.class  , DBField.TYPE_TEXT       , "State Distance KM"      , ""),
+        new DBField(FLD_maxSpeedKPH         , Double.TYPE   , DBField.TYPE_DOUBLE     , "Maximum Speed KPH"      , "format=#0.0"),
+        new DBField(FLD_endSpeedKPH         , Double.TYPE   , DBField.TYPE_DOUBLE     , "Last Speed KPH"         , "format=#0.0"),
+        new DBField(FLD_ignitionState       , Integer.TYPE  , DBField.TYPE_INT16      , "Last Ignition State"    , ""),
+        new DBField(FLD_idleSeconds         , Long.TYPE     , DBField.TYPE_UINT32     , "Idle Seconds"           , ""),
+        new DBField(FLD_engineHours         , Double.TYPE   , DBField.TYPE_DOUBLE     , "Engine Hours"           , "format=#0.00"),
+        new DBField(FLD_endEngineHours      , Double.TYPE   , DBField.TYPE_DOUBLE     , "Last Engine Hours"      , "format=#0.00"),
+        new DBField(FLD_fuelUsed            , Double.TYPE   , DBField.TYPE_DOUBLE     , "Fuel Used"              , "format=#0.0"),
+        new DBField(FLD_endFuelTotal        , Double.TYPE   , DBField.TYPE_DOUBLE     , "Last Fuel Total"        , "format=#0.0"),
+        new DBField(FLD_endStateProvince    , String.class  , DBField.TYPE_STRING(40) , "Last State/Province"    , "utf8=true"),
+        // Common fields
+        newField_lastUpdateTime(),
+        newField_creationTime(),
+    };
+
+    /* key class */
+    public static class Key
+        extends DeviceKey<DeviceDailySummary>
+    {
+        public Key() {
+            super();
+        }
+        public Key(String acctId, String devId, long dayNumber) {
+            super.setKeyValue(FLD_accountID , ((acctId != null)? acctId.toLowerCase() : ""));
+            super.setKeyValue(FLD_deviceID  , ((devId  != null)? devId.toLowerCase()  : ""));
+            super.setKeyValue(FLD_dayNumber , dayNumber);
+        }
+        public DBFactory<DeviceDailySummary> getFactory() {
+            return DeviceDailySummary.getFactory();
+        }
+    }
+
+    /* factory constructor */
+    private static DBFactory<DeviceDailySummary> factory = null;
+    public static DBFactory<DeviceDailySummary> getFactory()
+    {
+        if (factory == null) {
+            factory = DBFactory.createDBFactory(
+                DeviceDailySummary.TABLE_NAME(),
+                DeviceDailySummary.FieldInfo,
+                DBFactory.KeyType.PRIMARY,
+                DeviceDailySummary.class,
+                DeviceDailySummary.Key.class,
+                false/*editable*/,false/*viewable*/);
+            factory.addParentTable(Account.TABLE_NAME());
+            factory.addParentTable(Device.TABLE_NAME());
+        }
+        return factory;
+    }
+
+    /* Bean instance */
+    public DeviceDailySummary()
+    {
+        super();
+    }
+
+    /* database record */
+    public DeviceDailySummary(DeviceDailySummary.Key key)
+    {
+        super(key);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* table description */
+    public static String getTableDescription(Locale loc)
+    {
+        I18N i18n = I18N.getI18N(DeviceDailySummary.class, loc);
+        return i18n.getString("DeviceDailySummary.description",
+            "This table contains " +
+            "Device specific pre-aggregated daily EventData summaries."
+            );
+    }
+
+    // SQL table definition above
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // Bean access fields below
+
+    public long getDayNumber()
+    {
+        Long v = (Long)this.getFieldValue(FLD_dayNumber);
+        return (v != null)? v.longValue() : 0L;
+    }
+
+    private void setDayNumber(long v)
+    {
+        this.setFieldValue(FLD_dayNumber, v);
+    }
+
+    // ------------------------------------------------------------------------
+
+    public String getTimeZone()
+    {
+        String v = (String)this.getFieldValue(FLD_timeZone);
+        return StringTools.trim(v);
+    }
+
+    public void setTimeZone(String v)
+    {
+        this.setFieldValue(FLD_timeZone, StringTools.trim(v));
+    }
+
+    // ------------------------------------------------------------------------
+
+    public boolean getIsDirty()
+    {
+        Boolean v = (Boolean)this.getFieldValue(FLD_isDirty);
+        return (v != null)? v.booleanValue() : false;
+    }
+
+    public void setIsDirty(boolean v)
+    {
+        this.setFieldValue(FLD_isDirty, v);
+    }
+
+    // ------------------------------------------------------------------------
+
+    public long getStartTime()
+    {
+        return this.getFieldValue(FLD_startTime, 0L);
+    }
+
+    public long getEndTime()
+    {
+        return this.getFieldValue(FLD_endTime, 0L);
+    }
+
+    public long getEventCount()
+    {
+        return this.getFieldValue(FLD_eventCount, 0L);
+    }
+
+    public double getDistanceKM()
+    {
+        return this.getFieldValue(FLD_distanceKM, 0.0);
+    }
+
+    // Bean access fields above
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns true if this record may be used in place of the EventData records for
+    *** the specified TimeZone
+    *** @param tz  The TimeZone used to determine day boundaries
+    *** @return True if this record may be used
+    **/
+    public boolean isUsable(TimeZone tz)
+    {
+        if (this.getIsDirty()) {
+            return false;
+        } else
+        if ((tz != null) && !tz.getID().equals(this.getTimeZone())) {
+            return false;
+        } else {
+            return true;
+        }
+    }
+
+    /**
+    *** Gets the Summary represented by this record
+    *** @return The Summary
+    **/
+    public Summary getSummary()
+    {
+        Summary s = new Summary();
+        s.firstTime     = this.getStartTime();
+        s.lastTime      = this.getEndTime();
+        s.eventCount    = this.getEventCount();
+        s.validGPSCount = this.getFieldValue(FLD_validGPSCount, 0L);
+        DecodeStatusCounts((String)this.getFieldValue(FLD_statusCodeCounts), s.statusCounts);
+        s.startOdomKM   = this.getFieldValue(FLD_startOdometerKM, 0.0);
+        s.lastOdomKM    = this.getFieldValue(FLD_endOdometerKM, 0.0);
+        s.distanceKM    = this.getDistanceKM();
+        DecodeStateDistance((String)this.getFieldValue(FLD_stateDistanceKM), s.stateDistKM);
+        s.maxSpeedKPH   = this.getFieldValue(FLD_maxSpeedKPH, 0.0);
+        s.lastSpeedKPH  = this.getFieldValue(FLD_endSpeedKPH, 0.0);
+        s.ignitionState = this.getFieldValue(FLD_ignitionState, -1);
+        s.idleSec       = this.getFieldValue(FLD_idleSeconds, 0L);
+        s.engineHours   = this.getFieldValue(FLD_engineHours, 0.0);
+        s.lastEngHours  = this.getFieldValue(FLD_endEngineHours, 0.0);
+        s.fuelUsed      = this.getFieldValue(FLD_fuelUsed, 0.0);
+        s.lastFuelTotal = this.getFieldValue(FLD_endFuelTotal, 0.0);
+        s.lastStateProv = StringTools.trim((String)this.getFieldValue(FLD_endStateProvince));
+        return s;
+    }
+
+    /**
+    *** Sets the Summary values in this record
+    *** @param s  The Summary
+    **/
+    public void setSummary(Summary s)
+    {
+        this.setFieldValue(FLD_startTime         , s.firstTime);
+        this.setFieldValue(FLD_endTime           , s.lastTime);
+        this.setFieldValue(FLD_eventCount        , s.eventCount);
+        this.setFieldValue(FLD_validGPSCount     , s.validGPSCount);
+        this.setFieldValue(FLD_statusCodeCounts  , EncodeStatusCounts(s.statusCounts));
+        this.setFieldValue(FLD_startOdometerKM   , s.startOdomKM);
+        this.setFieldValue(FLD_endOdometerKM     , s.lastOdomKM);
+        this.setFieldValue(FLD_distanceKM        , s.distanceKM);
+        this.setFieldValue(FLD_stateDistanceKM   , EncodeStateDistance(s.stateDistKM));
+        this.setFieldValue(FLD_maxSpeedKPH       , s.maxSpeedKPH);
+        this.setFieldValue(FLD_endSpeedKPH       , s.lastSpeedKPH);
+        this.setFieldValue(FLD_ignitionState     , s.ignitionState);
+        this.setFieldValue(FLD_idleSeconds       , s.idleSec);
+        this.setFieldValue(FLD_engineHours       , s.engineHours);
+        this.setFieldValue(FLD_endEngineHours    , s.lastEngHours);
+        this.setFieldValue(FLD_fuelUsed          , s.fuelUsed);
+        this.setFieldValue(FLD_endFuelTotal      , s.lastFuelTotal);
+        this.setFieldValue(FLD_endStateProvince  , s.lastStateProv);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* String representation */
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append(this.getAccountID()).append("/").append(this.getDeviceID()).append(" ");
+        sb.append(new DayNumber(this.getDayNumber()).toString()).append(" ");
+        if (this.getIsDirty()) { sb.append("[dirty] "); }
+        sb.append(this.getSummary().toString());
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the day number of the specified time
+    **/
+    private static long _getDayNumber(long timestamp, TimeZone tz)
+    {
+        return new DateTime(timestamp,tz).getDayNumber(tz);
+    }
+
+    /**
+    *** Gets the start time of the specified day number
+    **/
+    private static long _getDayStart(long dayNumber, TimeZone tz)
+    {
+        DateTime.ParsedDateTime pdt = DateTime.getDateFromDayNumber(dayNumber, tz);
+        return new DateTime(tz, pdt.year, pdt.month1, pdt.day).getDayStart(tz);
+    }
+
+    /**
+    *** Gets the TimeZone used for new rollup records for the specified Device
+    **/
+    private static TimeZone _getTimeZone(Device dev)
+    {
+        return Account.getTimeZone(dev.getAccount(), DateTime.getGMTTimeZone());
+    }
+
+    /**
+    *** Gets the last event prior to the specified time
+    **/
+    private static EventData _getPriorEvent(Device dev, long timeEnd)
+        throws DBException
+    {
+        EventData ev[] = EventData.getRangeEvents(
+            dev.getAccountID(), dev.getDeviceID(),
+            -1L, timeEnd,
+            null/*statusCodes*/,
+            false/*validGPS*/,
+            EventData.LimitType.LAST, 1L/*limit*/, true/*ascending*/,
+            null/*additionalSelect*/);
+        return !ListTools.isEmpty(ev)? ev[ev.length - 1] : null;
+    }
+
+    /**
+    *** Gets the last rollup record prior to the specified day number
+    **/
+    private static DeviceDailySummary _getPriorRecord(Device dev, long dayNumber)
+        throws DBException
+    {
+        DBSelect<DeviceDailySummary> dsel = new DBSelect<DeviceDailySummary>(DeviceDailySummary.getFactory());
+        DBWhere dwh = dsel.createDBWhere();
+        dwh.append(dwh.AND(
+            dwh.EQ(FLD_accountID, dev.getAccountID()),
+            dwh.EQ(FLD_deviceID , dev.getDeviceID()),
+            dwh.LT(FLD_dayNumber, dayNumber)
+        ));
+        dsel.setWhere(dwh.WHERE(dwh.toString()));
+        dsel.setOrderByFields(FLD_dayNumber);
+        dsel.setOrderAscending(false);
+        dsel.setLimit(1L);
+        DeviceDailySummary dds[] = DBRecord.select(dsel);
+        return !ListTools.isEmpty(dds)? dds[0] : null;
+    }
+
+    /**
+    *** Creates a Summary for the specified Device, seeded with the state of the last event
+    *** prior to the specified time
+    **/
+    private static Summary _createSeededSummary(Device dev, long startTime, long dayNumber)
+        throws DBException
+    {
+        EventData prior = DeviceDailySummary._getPriorEvent(dev, startTime - 1L);
+        return DeviceDailySummary._createSeededSummary(dev, startTime, dayNumber, prior);
+    }
+
+    /**
+    *** Creates a Summary for the specified Device, seeded with the state of the specified
+    *** prior event
+    **/
+    private static Summary _createSeededSummary(Device dev, long startTime, long dayNumber, EventData prior)
+        throws DBException
+    {
+        Summary s = new Summary();
+        s.setIgnitionStatusCodes(dev.getIgnitionStatusCodes());
+        s.setMinimumTime(startTime);
+        if (prior != null) {
+            // -- prefer the prior rollup record if it ends with this same event (ignition state)
+            DeviceDailySummary pdds = (dayNumber > 0L)? DeviceDailySummary._getPriorRecord(dev, dayNumber) : null;
+            if ((pdds != null) && !pdds.getIsDirty() && (pdds.getEndTime() == prior.getTimestamp())) {
+                s.seed(pdds.getSummary());
+            } else {
+                s.seed(prior);
+            }
+        }
+        return s;
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static final Object UpdateLock[] = new Object[32];
+    static {
+        for (int i = 0; i < UpdateLock.length; i++) { UpdateLock[i] = new Object(); }
+    }
+
+    /**
+    *** Gets the update lock for the specified Device
+    **/
+    private static Object _getUpdateLock(Device dev)
+    {
+        int h = (dev.getAccountID() + "/" + dev.getDeviceID()).hashCode();
+        return UpdateLock[(h & 0x7FFFFFFF) % UpdateLock.length];
+    }
+
+    /**
+    *** Updates the rollup record for the day of the specified inserted event
+    *** @param dev  The Device
+    *** @param ev   The inserted EventData record
+    **/
+    public static void updateForEvent(Device dev, EventData ev)
+    {
+        if ((dev == null) || (ev == null) || !DeviceDailySummary.IsUpdateOnInsert()) {
+            return;
+        }
+        TimeZone tz  = DeviceDailySummary._getTimeZone(dev);
+        long     day = DeviceDailySummary._getDayNumber(ev.getTimestamp(), tz);
+        synchronized (DeviceDailySummary._getUpdateLock(dev)) {
+            try {
+                DeviceDailySummary.Key key = new DeviceDailySummary.Key(dev.getAccountID(), dev.getDeviceID(), day);
+                DeviceDailySummary dds = key.getDBRecord();
+                boolean exists = (dds._reload() != null); // single select (null if not found)
+                long dayStart = DeviceDailySummary._getDayStart(day, tz);
+                Summary s;
+                if (exists) {
+                    s   = dds.getSummary();
+                    s.setIgnitionStatusCodes(dev.getIgnitionStatusCodes());
+                    s.setMinimumTime(dayStart);
+                    if (!tz.getID().equals(dds.getTimeZone())) {
+                        // -- Account TimeZone changed, day boundaries no longer match
+                        dds.setIsDirty(true);
+                    }
+                } else {
+                    dds.setTimeZone(tz.getID());
+                    EventData prior = DeviceDailySummary._getPriorEvent(dev, ev.getTimestamp() - 1L);
+                    s   = DeviceDailySummary._createSeededSummary(dev, ev.getTimestamp(), day, prior);
+                    s.setMinimumTime(dayStart);
+                    if ((prior != null) && (prior.getTimestamp() >= dayStart)) {
+                        // -- earlier events on this day are not included, requires rebuild
+                        dds.setIsDirty(true);
+                    }
+                }
+                if (!s.addEvent(ev)) {
+                    // -- out-of-order event, requires rebuild
+                    dds.setIsDirty(true);
+                }
+                dds.setSummary(s);
+                if (exists) {
+                    dds.update();
+                } else {
+                    dds.insert();
+                }
+            } catch (DBException dbe) {
+                Print.logError("Unable to update DeviceDailySummary: " + dbe);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Rebuilds the rollup record for the specified Device/day from the EventData table
+    *** @param dev        The Device
+    *** @param dayNumber  The day number
+    *** @param tz         The TimeZone used to determine the day boundaries
+    *** @return The rebuilt record, or null if the Device has no events on this day
+    **/
+    public static DeviceDailySummary rebuild(Device dev, long dayNumber, TimeZone tz)
+        throws DBException
+    {
+        if (dev == null) {
+            return null;
+        }
+        if (tz == null) {
+            tz = DeviceDailySummary._getTimeZone(dev);
+        }
+        long dayStart = DeviceDailySummary._getDayStart(dayNumber, tz);
+        long dayEnd   = new DateTime(dayStart,tz).getDayEnd(tz);
+        synchronized (DeviceDailySummary._getUpdateLock(dev)) {
+            final Summary s = DeviceDailySummary._createSeededSummary(dev, dayStart, dayNumber);
+            EventData.getRangeEvents(
+                dev.getAccountID(), dev.getDeviceID(),
+                dayStart, dayEnd,
+                null/*statusCodes*/,
+                false/*validGPS*/,
+                EventData.LimitType.FIRST, -1L/*limit*/, true/*ascending*/,
+                null/*additionalSelect*/,
+                new DBRecordHandler<EventData>() {
+                    public int handleDBRecord(EventData ev) throws DBException {
+                        s.addEvent(ev);
+                        return DBRH_SKIP;
+                    }
+                });
+            DeviceDailySummary.Key key = new DeviceDailySummary.Key(dev.getAccountID(), dev.getDeviceID(), dayNumber);
+            if (s.getEventCount() <= 0L) {
+                if (key.exists()) {
+                    key.delete(false);
+                }
+                return null;
+            }
+            DeviceDailySummary dds = key.exists()? key.getDBRecord(true) : key.getDBRecord();
+            dds.setTimeZone(tz.getID());
+            dds.setIsDirty(false);
+            dds.setSummary(s);
+            dds.save();
+            return dds;
+        }
+    }
+
+    /**
+    *** Rebuilds the rollup records for the specified Device over a range of days
+    *** @param dev        The Device
+    *** @param startDay   The first day number
+    *** @param endDay     The last day number (inclusive)
+    *** @param tz         The TimeZone used to determine the day boundaries
+    *** @return The number of rollup records written
+    **/
+    public static int rebuild(Device dev, long startDay, long endDay, TimeZone tz)
+        throws DBException
+    {
+        int count = 0;
+        for (long day = startDay; day <= endDay; day++) {
+            if (DeviceDailySummary.rebuild(dev, day, tz) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the rollup records for the specified Device over a range of days
+    *** @param dev        The Device
+    *** @param startDay   The first day number
+    *** @param endDay     The last day number (inclusive)
+    *** @return A map of day number to rollup record (does not return null)
+    **/
+    public static Map<Long,DeviceDailySummary> getSummaryRecords(Device dev, long startDay, long endDay)
+        throws DBException
+    {
+        Map<Long,DeviceDailySummary> ddsMap = new HashMap<Long,DeviceDailySummary>();
+        if ((dev == null) || (endDay < startDay)) {
+            return ddsMap;
+        }
+        DBSelect<DeviceDailySummary> dsel = new DBSelect<DeviceDailySummary>(DeviceDailySummary.getFactory());
+        DBWhere dwh = dsel.createDBWhere();
+        dwh.append(dwh.AND(
+            dwh.EQ(FLD_accountID, dev.getAccountID()),
+            dwh.EQ(FLD_deviceID , dev.getDeviceID()),
+            dwh.GE(FLD_dayNumber, startDay),
+            dwh.LE(FLD_dayNumber, endDay)
+        ));
+        dsel.setWhere(dwh.WHERE(dwh.toString()));
+        dsel.setOrderByFields(FLD_dayNumber);
+        DeviceDailySummary dds[] = DBRecord.select(dsel);
+        if (dds != null) {
+            for (DeviceDailySummary d : dds) {
+                d.setDevice(dev);
+                ddsMap.put(new Long(d.getDayNumber()), d);
+            }
+        }
+        return ddsMap;
+    }
+
+    /**
+    *** Gets the Summary for the specified Device over the specified time range.  Rollup
+    *** records are used for whole days within the range (if allowed and usable), and
+    *** the EventData table is scanned for the partial days at the range edges and for
+    *** any days without a usable rollup record.
+    *** @param dev        The Device
+    *** @param startTime  The range start time
+    *** @param endTime    The range end time (inclusive)
+    *** @param tz         The TimeZone used to determine the day boundaries
+    *** @return The Summary for the specified range
+    **/
+    public static Summary getRangeSummary(Device dev, long startTime, long endTime, TimeZone tz)
+        throws DBException
+    {
+        if (tz == null) {
+            tz = DeviceDailySummary._getTimeZone(dev);
+        }
+        final Summary total = DeviceDailySummary._createSeededSummary(dev, startTime, -1L);
+
+        /* rollup records */
+        long startDay = DeviceDailySummary._getDayNumber(startTime, tz);
+        long endDay   = DeviceDailySummary._getDayNumber(endTime  , tz);
+        Map<Long,DeviceDailySummary> ddsMap = DeviceDailySummary.IsUseInReports()?
+            DeviceDailySummary.getSummaryRecords(dev, startDay, endDay) :
+            new HashMap<Long,DeviceDailySummary>();
+
+        /* iterate through days */
+        long scanStart = -1L; // pending EventData scan start
+        for (long dayStart = startTime; dayStart <= endTime;) {
+            DateTime dayDT  = new DateTime(dayStart,tz);
+            long     dayEnd = Math.min(dayDT.getDayEnd(tz), endTime);
+            DeviceDailySummary dds = ddsMap.get(new Long(dayDT.getDayNumber(tz)));
+            boolean  whole  = (dayStart == dayDT.getDayStart(tz)) && (dayEnd == dayDT.getDayEnd(tz));
+            if (whole && (dds != null) && dds.isUsable(tz)) {
+                if (scanStart >= 0L) {
+                    DeviceDailySummary._scanEvents(dev, scanStart, dayStart - 1L, total);
+                    scanStart = -1L;
+                }
+                total.merge(dds.getSummary());
+            } else
+            if (scanStart < 0L) {
+                scanStart = dayStart;
+            }
+            dayStart = dayEnd + 1L;
+        }
+        if (scanStart >= 0L) {
+            DeviceDailySummary._scanEvents(dev, scanStart, endTime, total);
+        }
+        return total;
+
+    }
+
+    /**
+    *** Adds the EventData records within the specified range to the specified Summary
+    **/
+    private static void _scanEvents(Device dev, long startTime, long endTime, Summary total)
+        throws DBException
+    {
+        final Summary s = new Summary();
+        s.setIgnitionStatusCodes(dev.getIgnitionStatusCodes());
+        s.setMinimumTime(startTime);
+        s.seed(total);
+        EventData.getRangeEvents(
+            dev.getAccountID(), dev.getDeviceID(),
+            startTime, endTime,
+            null/*statusCodes*/,
+            false/*validGPS*/,
+            EventData.LimitType.FIRST, -1L/*limit*/, true/*ascending*/,
+            null/*additionalSelect*/,
+            new DBRecordHandler<EventData>() {
+                public int handleDBRecord(EventData ev) throws DBException {
+                    s.addEvent(ev);
+                    return DBRH_SKIP;
+                }
+            });
+        total.merge(s);
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static final String ARG_ACCOUNT[]   = new String[] { "account", "acct", "a" };
+    private static final String ARG_DEVICE[]    = new String[] { "device" , "dev" , "d" };
+    private static final String ARG_REBUILD[]   = new String[] { "rebuild"              };
+    private static final String ARG_SUMMARY[]   = new String[] { "summary"              };
+
+    private static void usage()
+    {
+        Print.sysPrintln("Usage:");
+        Print.sysPrintln("  java ... " + DeviceDailySummary.class.getName() + " {options}");
+        Print.sysPrintln("Options:");
+        Print.sysPrintln("  -account=<id>   Account ID");
+        Print.sysPrintln("  -device=<id>    Device ID (optional, default all account devices)");
+        Print.sysPrintln("  -rebuild=<days> Rebuild rollup records for the last <days> days (through today)");
+        Print.sysPrintln("  -summary=<days> Display summary for the last <days> days (through today)");
+        System.exit(1);
+    }
+
+    public static void main(String argv[])
+    {
+        DBConfig.cmdLineInit(argv,true);  // main
+        String acctID = RTConfig.getString(ARG_ACCOUNT, "");
+        String devID  = RTConfig.getString(ARG_DEVICE , "");
+
+        /* account */
+        Account account = null;
+        try {
+            account = !StringTools.isBlank(acctID)? Account.getAccount(acctID) : null;
+        } catch (DBException dbe) {
+            Print.logException("Error loading Account: " + acctID, dbe);
+            System.exit(99);
+        }
+        if (account == null) {
+            Print.sysPrintln("ERROR: Account not found: " + acctID);
+            usage();
+        }
+        TimeZone tz = account.getTimeZone(null);
+
+        /* devices */
+        java.util.List<Device> devList = new Vector<Device>();
+        try {
+            if (!StringTools.isBlank(devID)) {
+                Device dev = Device.getDevice(account, devID);
+                if (dev == null) {
+                    Print.sysPrintln("ERROR: Device not found: " + devID);
+                    usage();
+                }
+                devList.add(dev);
+            } else {
+                for (String id : Device.getDeviceIDsForAccount(acctID, null, false)) {
+                    Device dev = Device.getDevice(account, id);
+                    if (dev != null) { devList.add(dev); }
+                }
+            }
+        } catch (DBException dbe) {
+            Print.logException("Error loading Devices: " + acctID, dbe);
+            System.exit(99);
+        }
+
+        /* rebuild */
+        if (RTConfig.hasProperty(ARG_REBUILD)) {
+            long days   = Math.max(RTConfig.getLong(ARG_REBUILD,1L), 1L);
+            long endDay = DateTime.getCurrentDayNumber(tz);
+            for (Device dev : devList) {
+                try {
+                    int cnt = DeviceDailySummary.rebuild(dev, endDay - days + 1L, endDay, tz);
+                    Print.sysPrintln("Rebuilt " + cnt + " rollup record(s): " + acctID + "/" + dev.getDeviceID());
+                } catch (DBException dbe) {
+                    Print.logException("Error rebuilding rollup records: " + acctID + "/" + dev.getDeviceID(), dbe);
+                    System.exit(99);
+                }
+            }
+            System.exit(0);
+        }
+
+        /* summary */
+        if (RTConfig.hasProperty(ARG_SUMMARY)) {
+            long days    = Math.max(RTConfig.getLong(ARG_SUMMARY,1L), 1L);
+            long endTime = DateTime.getCurrentTimeSec();
+            long begTime = DeviceDailySummary._getDayStart(DateTime.getCurrentDayNumber(tz) - days + 1L, tz);
+            for (Device dev : devList) {
+                try {
+                    Summary s = DeviceDailySummary.getRangeSummary(dev, begTime, endTime, tz);
+                    Print.sysPrintln(acctID + "/" + dev.getDeviceID() + ": " + s);
+                } catch (DBException dbe) {
+                    Print.logException("Error reading summary: " + acctID + "/" + dev.getDeviceID(), dbe);
+                    System.exit(99);
+                }
+            }
+            System.exit(0);
+        }
+
+        /* no options */
+        usage();
+
+    }
+
+}
@@ -3306,7 +3306,7 @@ public class EventData
             // -- currently "cache" is expected to be true when the vehicle is "stopped"
             // -  the reverse-geocoding process may be dependent on this behavior.
             boolean cache = (this.getSpeedKPH() <= 0.0)? true : false; // cache if not moving
-            rg = rgp.getReverseGeocode(addrGP, localeStr, cache/*stopped*/); // get the reverse-geocode
+            rg = EventData._getReverseGeocode(rgp, addrGP, localeStr, cache/*stopped*/); // get the reverse-geocode
         } catch (Throwable th) {
             // -- ignore
         } finally {
@@ -3440,7 +3440,7 @@ public class EventData
             // -- currently "cache" is expected to be true when the vehicle is "stopped"
             // -  the reverse-geocoding process may be dependent on this behavior.
             boolean cache = (this.getSpeedKPH() <= 0.0)? true : false; // cache if not moving
-            rg = rgp.getReverseGeocode(addrGP, localeStr, cache/*stopped*/); // get the reverse-geocode
+            rg = EventData._getReverseGeocode(rgp, addrGP, localeStr, cache/*stopped*/); // get the reverse-geocode
         } catch (Throwable th) {
             // -- ignore
         } finally {
@@ -3452,6 +3452,29 @@ public class EventData
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Gets the ReverseGeocode from the specified provider, recording the elapsed
+    *** time in the per-provider reverse-geocode timer (see Metrics)
+    **/
+    private static ReverseGeocode _getReverseGeocode(ReverseGeocodeProvider rgp,
+        GeoPoint gp, String localeStr, boolean cache)
+    {
+        if (!Metrics.IsEnabled()) {
+            return rgp.getReverseGeocode(gp, localeStr, cache);
+        }
+        Metrics.Timer timer = Metrics.getTimer(
+            "gts_reverse_geocode_seconds{provider=\"" + Metrics.escapeLabel(rgp.getName()) + "\"}",
+            "Reverse-geocode time by provider");
+        long startNS = timer.start();
+        try {
+            return rgp.getReverseGeocode(gp, localeStr, cache);
+        } finally {
+            timer.stop(startNS);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
     public String getStreetAddress()
     {
         String v = (String)this.getFieldValue(FLD_streetAddress);
@@ -4765,7 +4788,7 @@ public class EventData
         CellTower servCT   = this.getServingCellTower();
         CellTower nborCT[] = this.getNeighborCellTowers();
         Print.logInfo("Getting CellTower location: " + mlp.getName());
-        MobileLocation ml = mlp.getMobileLocation(servCT, nborCT); // may return null
+        MobileLocation ml = CellTowerLocationCache.getMobileLocation(mlp, servCT, nborCT); // may return null
         if ((ml != null) && ml.hasGeoPoint()) {
             GeoPoint gp = ml.getGeoPoint();
             this.setCellLatitude( gp.getLatitude());
@@ -9380,13 +9403,14 @@ public class EventData
 
         /* get events */
         EventData ed[] = null;
+        boolean locked = false;
         try {
             if (EventData.LockTableOnRead()) {
-                DBProvider.lockTables(new String[] { EventData.TABLE_NAME() }, null); // dbFact.getUntranslatedTableName()
+                locked = DBProvider.lockTablesForSelect(new String[] { EventData.TABLE_NAME() }); // dbFact.getUntranslatedTableName()
             }
             ed = DBRecord.select(dsel, null); // select:DBSelect
         } finally {
-            if (EventData.LockTableOnRead()) {
+            if (locked) {
                 DBProvider.unlockTables();
             }
         }
@@ -9406,13 +9430,14 @@ public class EventData
 
         /* get events */
         EventData ed[] = null;
+        boolean locked = false;
         try {
             if (EventData.LockTableOnRead()) {
-                DBProvider.lockTables(new String[] { EventData.TABLE_NAME() }, null); // dbFact.getUntranslatedTableName()
+                locked = DBProvider.lockTablesForSelect(new String[] { EventData.TABLE_NAME() }); // dbFact.getUntranslatedTableName()
             }
             ed = DBRecord.select(dsel, rcdHandler);
         } finally {
-            if (EventData.LockTableOnRead()) {
+            if (locked) {
                 DBProvider.unlockTables();
             }
         }
@@ -9588,15 +9613,16 @@ public class EventData
 
         /* get events */
         EventData ed[] = null;
+        boolean locked = false;
         try {
             if (EventData.LockTableOnRead()) {
-                DBProvider.lockTables(new String[] { EventData.TABLE_NAME() }, null); // dbFact.getUntranslatedTableName()
+                locked = DBProvider.lockTablesForSelect(new String[] { EventData.TABLE_NAME() }); // dbFact.getUntranslatedTableName()
             }
             //ed = (EventData[])DBRecord.select(EventData.getFactory(), dsel.toString(false), rcdHandler);
             ed = DBRecord.select(dsel, rcdHandler); // select:DBSelect
             // -- 'ed' _may_ be empty if (rcdHandler != null)
         } finally {
-            if (EventData.LockTableOnRead()) {
+            if (locked) {
                 DBProvider.unlockTables();
             }
         }
@@ -9649,13 +9675,14 @@ public class EventData
 
         /* count events */
         long recordCount = 0L;
+        boolean locked = false;
         try {
             if (EventData.LockTableOnRead()) {
-                DBProvider.lockTables(new String[] { EventData.TABLE_NAME() }, null); // dbFact.getUntranslatedTableName()
+                locked = DBProvider.lockTablesForSelect(new String[] { EventData.TABLE_NAME() }); // dbFact.getUntranslatedTableName()
             }
             recordCount = DBRecord.getRecordCount(dsel);
         } finally {
-            if (EventData.LockTableOnRead()) {
+            if (locked) {
                 DBProvider.unlockTables();
             }
         }
@@ -9826,13 +9853,14 @@ public class EventData
 
         /* get events */
         EventData ed[] = null;
+        boolean locked = false;
         try {
             if (EventData.LockTableOnRead()) {
-                DBProvider.lockTables(new String[] { EventData.TABLE_NAME() }, null); // dbFact.getUntranslatedTableName()
+                locked = DBProvider.lockTablesForSelect(new String[] { EventData.TABLE_NAME() }); // dbFact.getUntranslatedTableName()
             }
             ed = DBRecord.select(dsel, null/*rcdHandler*/); // select:DBSelect
         } finally {
-            if (EventData.LockTableOnRead()) {
+            if (locked) {
                 DBProvider.unlockTables();
             }
         }
@@ -9955,6 +9983,8 @@ public class EventData
             throw new DBException("Deleting future EventData records", sqe);
         } finally {
             DBConnection.release(dbc);
+            EventDedupWindow.invalidate(acctID, devID);
+            DeviceStateCache.invalidate(acctID, devID);
         }
 
         /* return count */
@@ -10079,6 +10109,8 @@ public class EventData
             throw new DBException("Deleting old EventData records", sqe);
         } finally {
             DBConnection.release(dbc);
+            EventDedupWindow.invalidate(acctID, devID);
+            DeviceStateCache.invalidate(acctID, devID);
         }
 
         /* return count */
@@ -3304,10 +3304,27 @@ public class Geozone
             reverseGeocodeOnly);
     }
 
+    /* point-in-zone search timer (see Metrics) */
+    private static final Metrics.Timer GetGeozoneTimer = Metrics.getTimer("gts_geozone_lookup_seconds",
+        "Geozone point-in-zone search time");
+
     public static Geozone getGeozone( // active only
         String acctID, String zoneID, 
         GeoPoint gp, String purposeID, 
         boolean reverseGeocodeOnly)
+    {
+        long startNS = GetGeozoneTimer.start();
+        try {
+            return Geozone._getGeozone(acctID, zoneID, gp, purposeID, reverseGeocodeOnly);
+        } finally {
+            GetGeozoneTimer.stop(startNS);
+        }
+    }
+
+    private static Geozone _getGeozone( // active only
+        String acctID, String zoneID, 
+        GeoPoint gp, String purposeID, 
+        boolean reverseGeocodeOnly)
     {
         boolean debug = false;
         if (debug) { Print.logInfo("Debug: Searching for Geozone at " + gp); }
@@ -3346,17 +3363,20 @@ public class Geozone
 
         /* get Geozones */
         Geozone gz[] = null;
+        boolean locked = false;
         try {
-            DBProvider.lockTables(new String[] { TABLE_NAME() }, null);
+            locked = DBProvider.lockTablesForSelect(new String[] { TABLE_NAME() });
             gz = DBRecord.select(dsel); // select:DBSelect
         } catch (DBException dbe) {
             Print.logError("Geozone error: " + dbe);
             return null;
         } finally {
-            try {
-                DBProvider.unlockTables();
-            } catch (DBException dbe) {
-                // ignore
+            if (locked) {
+                try {
+                    DBProvider.unlockTables();
+                } catch (DBException dbe) {
+                    // ignore
+                }
             }
         }
 
@@ -3452,17 +3472,20 @@ public class Geozone
 
         /* get Geozones */
         Geozone gz[] = null;
+        boolean locked = false;
         try {
-            DBProvider.lockTables(new String[] { TABLE_NAME() }, null); // <-- not needed?
+            locked = DBProvider.lockTablesForSelect(new String[] { TABLE_NAME() }); // <-- not needed?
             gz = DBRecord.select(dsel); // select:DBSelect
         } catch (DBException dbe) {
             Print.logError("Geozone error: " + dbe);
             throw dbe;
         } finally {
-            try {
-                DBProvider.unlockTables();
-            } catch (DBException dbe) {
-                // ignore
+            if (locked) {
+                try {
+                    DBProvider.unlockTables();
+                } catch (DBException dbe) {
+                    // ignore
+                }
             }
         }
 
@@ -3567,18 +3590,21 @@ public class Geozone
 
         /* get Geozones */
         Geozone gz[] = null;
+        boolean locked = false;
         try {
-            DBProvider.lockTables(new String[] { TABLE_NAME() }, null);
+            locked = DBProvider.lockTablesForSelect(new String[] { TABLE_NAME() });
             gz = DBRecord.select(dsel); // select:DBSelect
         } catch (DBException dbe) {
             Print.logError("Geozone error: " + dbe);
             //return null;
             throw dbe;
         } finally {
-            try {
-                DBProvider.unlockTables();
-            } catch (DBException dbe) {
-                // -- ignore
+            if (locked) {
+                try {
+                    DBProvider.unlockTables();
+                } catch (DBException dbe) {
+                    // -- ignore
+                }
             }
         }
 
@@ -3708,17 +3734,20 @@ public class Geozone
 
         /* get Geozones */
         Geozone gz[] = null;
+        boolean locked = false;
         try {
-            DBProvider.lockTables(new String[] { TABLE_NAME() }, null);
+            locked = DBProvider.lockTablesForSelect(new String[] { TABLE_NAME() });
             //gz = (Geozone[])DBRecord.select(Geozone.getFactory(), dsel.toString(false));
             gz = DBRecord.select(dsel); // select:DBSelect
         } catch (DBException dbe) {
             throw new DBNotFoundException("Geozone error: " + dbe);
         } finally {
-            try {
-                DBProvider.unlockTables();
-            } catch (DBException dbe) {
-                // ignore
+            if (locked) {
+                try {
+                    DBProvider.unlockTables();
+                } catch (DBException dbe) {
+                    // ignore
+                }
             }
         }
 
@@ -3775,18 +3804,21 @@ public class Geozone
 
         /* get clientID Geozones */
         Geozone gz[] = null;
+        boolean locked = false;
         try {
-            DBProvider.lockTables(new String[] { TABLE_NAME() }, null);
+            locked = DBProvider.lockTablesForSelect(new String[] { TABLE_NAME() });
             //gz = (Geozone[])DBRecord.select(Geozone.getFactory(), dsel.toString(false));
             gz = DBRecord.select(dsel); // select:DBSelect
         } catch (DBException dbe) {
             Print.logError("Geozone error: " + dbe);
             return null;
         } finally {
-            try {
-                DBProvider.unlockTables();
-            } catch (DBException dbe) {
-                // ignore
+            if (locked) {
+                try {
+                    DBProvider.unlockTables();
+                } catch (DBException dbe) {
+                    // ignore
+                }
             }
         }
 
@@ -3901,18 +3933,21 @@ public class Geozone
 
         /* get Geozones */
         Geozone gz[] = null;
+        boolean locked = false;
         try {
-            DBProvider.lockTables(new String[] { TABLE_NAME() }, null);
+            locked = DBProvider.lockTablesForSelect(new String[] { TABLE_NAME() });
             //gz = (Geozone[])DBRecord.select(Geozone.getFactory(), dsel.toString(false));
             gz = DBRecord.select(dsel); // select:DBSelect
         } catch (DBException dbe) {
             Print.logError("Geozone error: " + dbe);
             return null;
         } finally {
-            try {
-                DBProvider.unlockTables();
-            } catch (DBException dbe) {
-                // ignore
+            if (locked) {
+                try {
+                    DBProvider.unlockTables();
+                } catch (DBException dbe) {
+                    // ignore
+                }
             }
         }
 
@@ -4098,18 +4133,21 @@ public class Geozone
 
         /* get Geozones */
         Geozone gz[] = null;
+        boolean locked = false;
         try {
-            DBProvider.lockTables(new String[] { TABLE_NAME() }, null);
+            locked = DBProvider.lockTablesForSelect(new String[] { TABLE_NAME() });
             //gz = (Geozone[])DBRecord.select(Geozone.getFactory(), dsel.toString(false));
             gz = DBRecord.select(dsel); // select:DBSelect
         } catch (DBException dbe) {
             Print.logError("Geozone error: " + dbe);
             return;
         } finally {
-            try {
-                DBProvider.unlockTables();
-            } catch (DBException dbe) {
-                // ignore
+            if (locked) {
+                try {
+                    DBProvider.unlockTables();
+                } catch (DBException dbe) {
+                    // ignore
+                }
             }
         }
 
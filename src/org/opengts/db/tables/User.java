@@ -1676,6 +1676,58 @@ public class User
         return this.deviceGroupList;
     }
 
+    // ------------------------------------------------------------------------
+
+    /* cached AccessLevels (enabled for session cached User instances only) */
+    private Map<String,AccessLevel> aclCache = null;
+
+    /**
+    *** Enables/disables caching of AccessLevel lookups in this User instance
+    *** @param enable  True to enable AccessLevel caching
+    **/
+    public void setAccessLevelCacheEnabled(boolean enable)
+    {
+        if (!enable) {
+            this.aclCache = null;
+        } else
+        if (this.aclCache == null) {
+            this.aclCache = new java.util.concurrent.ConcurrentHashMap<String,AccessLevel>();
+        }
+    }
+
+    /**
+    *** Gets the cached AccessLevel for the specified key (null if not cached)
+    **/
+    public AccessLevel getCachedAccessLevel(String key)
+    {
+        Map<String,AccessLevel> cache = this.aclCache;
+        return ((cache != null) && (key != null))? cache.get(key) : null;
+    }
+
+    /**
+    *** Caches the AccessLevel for the specified key (if AccessLevel caching is enabled)
+    **/
+    public void setCachedAccessLevel(String key, AccessLevel acl)
+    {
+        Map<String,AccessLevel> cache = this.aclCache;
+        if ((cache != null) && (key != null) && (acl != null)) {
+            cache.put(key, acl);
+        }
+    }
+
+    /**
+    *** Clears the cached authorization state (AccessLevels and authorized device
+    *** groups), which will be reloaded as needed
+    **/
+    public void clearCachedAuthorization()
+    {
+        Map<String,AccessLevel> cache = this.aclCache;
+        if (cache != null) {
+            cache.clear();
+        }
+        this.deviceGroupList = null;
+    }
+
     /**
     *** Gets the first authorized device groupID
     **/
@@ -2398,11 +2450,14 @@ public class User
 
         /* count users */
         long recordCount = 0L;
+        boolean locked = false;
         try {
-            DBProvider.lockTables(new String[] { TABLE_NAME() }, null);
+            locked = DBProvider.lockTablesForSelect(new String[] { TABLE_NAME() });
             recordCount = DBRecord.getRecordCount(dsel);
         } finally {
-            DBProvider.unlockTables();
+            if (locked) {
+                DBProvider.unlockTables();
+            }
         }
         return recordCount;
 
@@ -945,6 +945,7 @@ public class DBAdmin
     public  static final String ARG_OVERWRITE[]     = new String[] { "overwrite"     };
     public  static final String ARG_NODROPWARN[]    = new String[] { "noDropWarning" };
     public  static final String ARG_BEAN[]          = new String[] { "bean"          };
+    public  static final String ARG_PROFILE_SQL[]   = new String[] { "profileSQL"    };
   //public  static final String ARG_HIBXML[]        = new String[] { "hibxml"        };
   //public  static final String ARG_RELOAD[]        = new String[] { "reload"        };
 
@@ -955,9 +956,31 @@ public class DBAdmin
     ***         executed and that the caller of this method should exit, OK to represent that a command
     ***         was executed, but the caller should continue.
     **/
+    public static DBAdminExec execCommands()
+    {
+
+        /* profile SQL statements executed by the following commands */
+        // -profileSQL[=<time|count|rows|max|errors>]
+        if (!RTConfig.hasProperty(ARG_PROFILE_SQL)) {
+            return DBAdmin._execCommands();
+        }
+        RTConfig.setBoolean(RTKey.DB_PROFILE_SQL, true);
+        try {
+            return DBAdmin._execCommands();
+        } finally {
+            String sortBy = RTConfig.getString(ARG_PROFILE_SQL,"");
+            if (!ListTools.contains(new String[] { SQLProfiler.SORT_TIME, SQLProfiler.SORT_COUNT, 
+                SQLProfiler.SORT_ROWS, SQLProfiler.SORT_MAX, SQLProfiler.SORT_ERRORS }, sortBy)) {
+                sortBy = SQLProfiler.SORT_TIME;
+            }
+            Print.sysPrintln(SQLProfiler.writeReport(null, sortBy, SQLProfiler.DEFAULT_TOP_COUNT).toString());
+        }
+
+    }
+
     //@SuppressWarnings({"rawtypes","unchecked"})  // <? extends DBRecord<?>>
     //@SuppressWarnings("all")
-    public static <T extends DBRecord<T>> DBAdminExec execCommands() // may not build on Java6
+    private static <T extends DBRecord<T>> DBAdminExec _execCommands() // may not build on Java6
     {
         RTConfig.setBoolean(RTKey.LOG_EMAIL_EXCEPTIONS, false);
         int execCmd = 0;
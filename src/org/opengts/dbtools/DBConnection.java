@@ -86,6 +86,34 @@ public class DBConnection
         setShowExecutedSQL(DefaultShowExecutedSQL);
     }
 
+    // ------------------------------------------------------------------------
+    // SQL execution timers (see Metrics)
+
+    private static final String  SQL_TIMER_NAME         = "gts_sql_execute_seconds";
+    private static final String  SQL_TIMER_HELP         = "JDBC statement execution time";
+    private static final Metrics.Timer ExecuteTimer     = Metrics.getTimer(SQL_TIMER_NAME + "{op=\"execute\"}", SQL_TIMER_HELP);
+    private static final Metrics.Timer QueryTimer       = Metrics.getTimer(SQL_TIMER_NAME + "{op=\"query\"}"  , SQL_TIMER_HELP);
+    private static final Metrics.Timer UpdateTimer      = Metrics.getTimer(SQL_TIMER_NAME + "{op=\"update\"}" , SQL_TIMER_HELP);
+    private static final Metrics.Timer BatchTimer       = Metrics.getTimer(SQL_TIMER_NAME + "{op=\"batch\"}"  , SQL_TIMER_HELP);
+
+    /* SQL execution start time (nanoseconds), or 0 if not timed */
+    private static long _sqlStart()
+    {
+        return (Metrics.IsEnabled() || SQLProfiler.IsEnabled())? System.nanoTime() : 0L;
+    }
+
+    /* record SQL execution time (see Metrics, SQLProfiler) */
+    private static void _sqlStop(Metrics.Timer timer, long startNS, String sql, long rows, boolean error)
+    {
+        if (startNS != 0L) {
+            long elapsedNS = System.nanoTime() - startNS;
+            if (Metrics.IsEnabled()) {
+                timer.record(elapsedNS);
+            }
+            SQLProfiler.record(sql, elapsedNS, rows, error);
+        }
+    }
+
     // ------------------------------------------------------------------------
 
     /**
@@ -1044,15 +1072,20 @@ public class DBConnection
         throws SQLException
     {
         Statement stmt = null;
+        long sqlStartNS = _sqlStart();
+        boolean sqlError = true;
         try {
             LastSQLExecuted = sql;
             stmt = this.createStatement(rowByRow); // may throw SQLException
             stmt.execute(sql); // eg. "SELECT * FROM <table>"
+            sqlError = false;
             return stmt;
         } catch (SQLException sqe) { // CommunicationsException?
             // -- close Statement if an exception occurs (we won't get another chance to close it later)
             if (stmt != null) { try { stmt.close(); } catch (Throwable t) {} }
             throw sqe;
+        } finally {
+            _sqlStop(ExecuteTimer, sqlStartNS, sql, -1L, sqlError);
         }
     }
 
@@ -1096,10 +1129,13 @@ public class DBConnection
     {
         Statement stmt = null;
         ResultSet rs   = null;
+        long sqlStartNS = _sqlStart();
+        boolean sqlError = true;
         try {
             LastSQLExecuted = sql;
             stmt = this.createStatement(); // may throw SQLException
             rs = stmt.executeQuery(sql);
+            sqlError = false;
             return rs; // TODO: close 'stmt'?
         } catch (SQLException sqe) { // CommunicationsException?
             // -- close ResultSet if an exception occurs (we won't get another chance to close it later)
@@ -1107,6 +1143,7 @@ public class DBConnection
             throw sqe;
         } finally {
             if (stmt != null) { try { stmt.close(); } catch (Throwable t) {} } // 2.5.4-B35
+            _sqlStop(QueryTimer, sqlStartNS, sql, -1L, sqlError);
         }
     }
 
@@ -1183,11 +1220,15 @@ public class DBConnection
     {
         Statement stmt = null;
         ResultSet rs = null;
+        long sqlStartNS = _sqlStart();
+        long sqlRows = -1L;
+        boolean sqlError = true;
         try {
             LastSQLExecuted = sql;
             stmt = this.createStatement(); // may throw SQLException
             if (rtnAutoIncrVal) {
-                stmt.executeUpdate(sql, Statement.RETURN_GENERATED_KEYS);
+                sqlRows = stmt.executeUpdate(sql, Statement.RETURN_GENERATED_KEYS);
+                sqlError = false;
                 rs = stmt.getGeneratedKeys();
                 if (rs.next()) {
                     return rs.getLong(1);
@@ -1196,7 +1237,8 @@ public class DBConnection
                     return -1L;
                 }
             } else {
-                stmt.executeUpdate(sql); // known to throw IOException
+                sqlRows = stmt.executeUpdate(sql); // known to throw IOException
+                sqlError = false;
                 return -1L;
             }
         } catch (SQLException sqe) {
@@ -1205,6 +1247,87 @@ public class DBConnection
         } finally {
             if (rs   != null) { try { rs.close();   } catch (Throwable t) {} }
             if (stmt != null) { try { stmt.close(); } catch (Throwable t) {} }
+            _sqlStop(UpdateTimer, sqlStartNS, sql, sqlRows, sqlError);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Execute the specified SQL updates in a single JDBC batch
+    *** @param sqlList  The list of SQL update statements to execute
+    *** @return The update counts for each statement
+    *** @throws SQLException  If an SQL error occurs
+    *** @throws DBException   If a database error occurs
+    **/
+    public int[] executeUpdateBatch(List<String> sqlList)
+        throws SQLException, DBException
+    {
+        if ((sqlList == null) || sqlList.isEmpty()) {
+            return new int[0];
+        }
+        try {
+            if (ShowExecutedSQL) {
+                Print.logInfo("SQL(batch of "+sqlList.size()+"): " + sqlList.get(0));
+            }
+            return this._executeUpdateBatch(sqlList);
+        } catch (IOException ioe) { // EOFException
+            // close/retry connection
+            Print.logWarn("SQL(IOException) close/retry: "+ioe.getMessage());
+            this.closeConnection();
+            try {
+                return this._executeUpdateBatch(sqlList);
+            } catch (IOException ioe2) {
+                throw new DBException("JDBC IOException", ioe2);
+            }
+        } catch (BatchUpdateException bue) {
+            // -- partially applied, do not retry
+            throw bue;
+        } catch (SQLException sqe) {
+            if (DBConnection.parseCommunicationsException(sqe)) {
+                // close/retry connection
+                this.closeConnection();
+                try {
+                    return this._executeUpdateBatch(sqlList);
+                } catch (IOException ioe2) {
+                    throw new DBException("JDBC IOException", ioe2);
+                }
+            } else {
+                throw sqe;
+            }
+        }
+    }
+
+    /**
+    *** Execute the specified SQL updates in a single JDBC batch
+    **/
+    private int[] _executeUpdateBatch(List<String> sqlList)
+        throws SQLException, IOException
+    {
+        Statement stmt = null;
+        long sqlStartNS = _sqlStart();
+        long sqlRows = -1L;
+        boolean sqlError = true;
+        try {
+            stmt = this.createStatement(); // may throw SQLException
+            for (String sql : sqlList) {
+                LastSQLExecuted = sql;
+                stmt.addBatch(sql);
+            }
+            int counts[] = stmt.executeBatch();
+            sqlError = false;
+            sqlRows = 0L;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) { sqlRows += counts[i]; }
+            }
+            return counts;
+        } finally {
+            if (stmt != null) { try { stmt.close(); } catch (Throwable t) {} }
+            if (sqlStartNS != 0L) {
+                // -- profiled as a single statement, using the shape of the first statement
+                String sql = "/* batch " + sqlList.size() + " */ " + sqlList.get(0);
+                _sqlStop(BatchTimer, sqlStartNS, sql, sqlRows, sqlError);
+            }
         }
     }
 
@@ -2464,6 +2464,43 @@ public class DBProvider
     public static <T extends DBRecord<T>> boolean updateRecordInTable(DBRecord<T> rec, Set<String> updFldSet)
         throws SQLException, DBException
     {
+
+        /* update statement */
+        String sql = DBProvider.getUpdateSQL(rec, updFldSet);
+
+        /* execute */
+        if (sql != null) {
+            DBConnection dbc = null;
+            try {
+                dbc = DBConnection.getDBConnection_write();
+                dbc.executeUpdate(sql);
+            } catch (SQLException sqle) {
+                Print.logError("SQL(ExecuteUpdate): " + sql);
+                throw sqle; // rethrow exception
+            } catch (DBException dbe) {
+                Print.logError("SQL(ExecuteUpdate): " + sql);
+                throw dbe; // rethrow exception
+            } finally {
+                DBConnection.release(dbc);
+            }
+            return true;
+        } else {
+            Print.logInfo("No columns specified to update!!! [" + rec.getRecordKey().getTranslatedTableName() + "]");
+            return false;
+        }
+
+    }
+
+    /**
+    *** Assemble an update statement for the specified record and set of fields to update
+    *** @param rec The record to update
+    *** @param updFldSet The set of fields to update (null to update all fields)
+    *** @return The SQL update statement, or null if there are no columns to update
+    *** @throws DBException   If a database error occurs
+    **/
+    public static <T extends DBRecord<T>> String getUpdateSQL(DBRecord<T> rec, Set<String> updFldSet)
+        throws DBException
+    {
         DBRecordKey<T> recKey     = rec.getRecordKey();
         String         xtableName = recKey.getTranslatedTableName();
         StringBuffer   sb         = new StringBuffer();
@@ -2562,27 +2599,9 @@ public class DBProvider
         sb.append(recKey.getWhereClause(DBWhere.KEY_FULL));
         //Print.logInfo("Update SQL: " + sb);
 
-        /* execute */
-        if (addedField) {
-            DBConnection dbc = null;
-            try {
-                dbc = DBConnection.getDBConnection_write();
-                dbc.executeUpdate(sb.toString());
-            } catch (SQLException sqle) {
-                Print.logError("SQL(ExecuteUpdate): " + sb);
-                throw sqle; // rethrow exception
-            } catch (DBException dbe) {
-                Print.logError("SQL(ExecuteUpdate): " + sb);
-                throw dbe; // rethrow exception
-            } finally {
-                DBConnection.release(dbc);
-            }
-            return true;
-        } else {
-            Print.logInfo("No columns specified to update!!! [" + xtableName + "]");
-            return false;
-        }
-        
+        /* return */
+        return addedField? sb.toString() : null;
+
     }
 
     // ------------------------------------------------------------------------
@@ -2790,6 +2809,13 @@ public class DBProvider
     private static int              lockSeq        = 0;
     private static int              unlockSeq      = 0;
 
+    /* lock level of the current thread (LOCK TABLES applies to the thread's connection) */
+    private static ThreadLocal<int[]> threadLockLevel = new ThreadLocal<int[]>() {
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
     /**
     *** Returns true if table locking is enabled
     *** @return True if table locking is enabled
@@ -2819,6 +2845,156 @@ public class DBProvider
         return DBProvider.lockLevel.size();
     }
 
+    /**
+    *** Returns the current recursive lock level of the current thread
+    *** @return The current recursive lock level of the current thread
+    **/
+    public static int getThreadLockLevel()
+    {
+        return DBProvider.threadLockLevel.get()[0];
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Read-path table locking mode ("db.tableLocking.reads")
+    **/
+    public enum ReadLockMode {
+        LOCK,   // -- always lock tables on read (legacy behavior)
+        AUTO,   // -- lock only tables which are not MySQL/InnoDB
+        NONE,   // -- never lock tables on read
+        AUDIT   // -- never lock tables on read, log each elided call site once
+    };
+
+    private static ReadLockMode         readLockMode         = null;
+    private static long                 readLockTakenCount   = 0L;
+    private static long                 readLockElidedCount  = 0L;
+    private static Set<String>          readLockAuditSites   = new HashSet<String>();
+
+    static {
+        Metrics.registerCounter("gts_db_read_lock_taken_total",
+            "Read-path table locks acquired", new Metrics.Gauge() {
+            public double getValue() { return DBProvider.getReadLockTakenCount(); }
+        });
+        Metrics.registerCounter("gts_db_read_lock_elided_total",
+            "Read-path table locks elided", new Metrics.Gauge() {
+            public double getValue() { return DBProvider.getReadLockElidedCount(); }
+        });
+    }
+
+    /**
+    *** Gets the read-path table locking mode
+    *** @return The read-path table locking mode
+    **/
+    public static ReadLockMode getReadLockMode()
+    {
+        if (readLockMode == null) {
+            String m = RTConfig.getString(RTKey.DB_TABLE_LOCKING_READS,"auto"); // "db.tableLocking.reads"
+            if (m.equalsIgnoreCase("lock") || m.equalsIgnoreCase("true")) {
+                readLockMode = ReadLockMode.LOCK;
+            } else
+            if (m.equalsIgnoreCase("none") || m.equalsIgnoreCase("false")) {
+                readLockMode = ReadLockMode.NONE;
+            } else
+            if (m.equalsIgnoreCase("audit")) {
+                readLockMode = ReadLockMode.AUDIT;
+            } else {
+                readLockMode = ReadLockMode.AUTO;
+            }
+            Print.logDebug("Read table locking mode is " + readLockMode);
+        }
+        return readLockMode;
+    }
+
+    /**
+    *** Gets the number of read-path table locks acquired
+    *** @return The number of read-path table locks acquired
+    **/
+    public static synchronized long getReadLockTakenCount()
+    {
+        return DBProvider.readLockTakenCount;
+    }
+
+    /**
+    *** Gets the number of read-path table locks elided
+    *** @return The number of read-path table locks elided
+    **/
+    public static synchronized long getReadLockElidedCount()
+    {
+        return DBProvider.readLockElidedCount;
+    }
+
+    /**
+    *** Returns true if all specified tables are MySQL/InnoDB (and can therefore
+    *** be read using a consistent non-locking read)
+    *** @param utables  The array of untranslated table names
+    *** @return True if all specified tables are MySQL/InnoDB
+    **/
+    private static boolean _isInnoDB(String utables[])
+    {
+        for (int i = 0; i < utables.length; i++) {
+            DBFactory<? extends DBRecord<?>> fact = DBFactory.getFactoryByName(utables[i]);
+            if ((fact == null) || !fact.isMySQLInnoDB()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+    *** Lock specified tables prior to a read-only query (select/count).  Depending
+    *** on the read-path locking mode ("db.tableLocking.reads"), the lock is elided
+    *** when the tables can be read without locking (ie. MySQL/InnoDB consistent
+    *** reads).  A lock is always taken if the current thread currently holds another
+    *** table lock (see "getThreadLockLevel"), since MySQL does not allow accessing 
+    *** unlocked tables while a "LOCK TABLES" is in effect.
+    *** @param utables  The array of untranslated table names to lock
+    *** @return True if a lock was acquired (and "unlockTables" must be called)
+    *** @throws DBException   If a database error occurs
+    **/
+    public static boolean lockTablesForSelect(String utables[])
+        throws DBException
+    {
+
+        /* nothing to lock */
+        if (ListTools.isEmpty(utables) || !DBProvider.isTableLockingEnabled()) {
+            return false;
+        }
+
+        /* elide lock? */
+        ReadLockMode mode = DBProvider.getReadLockMode();
+        if (DBProvider.getThreadLockLevel() > 0) {
+            // -- must lock (tables already locked by this thread)
+        } else
+        if (mode.equals(ReadLockMode.LOCK)) {
+            // -- must lock (legacy behavior)
+        } else
+        if (mode.equals(ReadLockMode.AUTO) && !DBProvider._isInnoDB(utables)) {
+            // -- must lock (MyISAM)
+        } else {
+            synchronized (DBProvider.class) {
+                DBProvider.readLockElidedCount++;
+                if (mode.equals(ReadLockMode.AUDIT)) {
+                    String site = Print._getStackFrame(1);
+                    if (DBProvider.readLockAuditSites.add(site)) {
+                        Print.logInfo("Elided read lock ["+StringTools.join(utables,",")+"]: " + site);
+                    }
+                }
+            }
+            return false;
+        }
+
+        /* lock */
+        boolean locked = DBProvider.lockTables(utables, null);
+        if (locked) {
+            synchronized (DBProvider.class) {
+                DBProvider.readLockTakenCount++;
+            }
+        }
+        return locked;
+
+    }
+
     /**
     *** Lock specified tables for write/read
     *** @param writeTables The array of tables to lock for writing
@@ -2907,6 +3083,8 @@ public class DBProvider
                     DBConnection.release(dbc);
                 }
                 DBProvider.lockLevel.push(t);
+                DBProvider.threadLockLevel.get()[0]++;
+                SQLProfiler.setLockContext(sb.toString());
             }
             
             return true;
@@ -2969,6 +3147,11 @@ public class DBProvider
                 } else {
                     Print.logStackTrace("Lock-Level stack is empty");
                 }
+                int tll[] = DBProvider.threadLockLevel.get();
+                if (tll[0] > 0) {
+                    tll[0]--;
+                }
+                SQLProfiler.setLockContext(null);
             }
             if (!DBProvider.lockLevel.empty()) { 
                 // TODO: this could get out-of-sync, if the above had previously thrown an exception
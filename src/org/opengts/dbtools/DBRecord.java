@@ -756,6 +756,7 @@ public abstract class DBRecord<gDBR extends DBRecord<gDBR>>
 
         /* get result set */
         long       rcdCnt = 0L;
+        String        sql = null;
         DBConnection  dbc = null;
         Statement    stmt = null;
         ResultSet    rs   = null;
@@ -764,7 +765,8 @@ public abstract class DBRecord<gDBR extends DBRecord<gDBR>>
 
         try {
             dbc  = DBConnection.getDBConnection_read();
-            stmt = dbc.execute(dsel.toString());
+            sql  = dsel.toString();
+            stmt = dbc.execute(sql);
             rs   = stmt.getResultSet();
             /* extract records from result set */
             T lastRcd = null; // last/prior record
@@ -836,6 +838,7 @@ public abstract class DBRecord<gDBR extends DBRecord<gDBR>>
             if (rs   != null) { try { rs.close();   } catch (Throwable t) {} }
             if (stmt != null) { try { stmt.close(); } catch (Throwable t) {} }
             DBConnection.release(dbc);
+            SQLProfiler.recordRows(sql, rcdCnt);
         }
 
         /* convert to array */
@@ -30,11 +30,24 @@ import org.opengts.util.*;
 
 /**
 *** <code>DBRecordIterator</code> is used to iterate through a DBRecord selection.<br>
-*** This DBRecordIterator currently uses the SQL DB provider OFFSET/LIMIT keywords to
-*** iterate through a selection, and thus is only supported by DB providers that support
-*** these keywords.  This method has the disadvantage that record insertions/deletions 
-*** occurring while this DBRecordIterator is in use may cause this iterator to possibly 
-*** miss some records, or produce duplicate records.
+*** The selection may be iterated using one of the following modes:<br>
+*** <ul>
+*** <li>OFFSET: Uses the SQL DB provider OFFSET/LIMIT keywords to iterate through a 
+***     selection, and thus is only supported by DB providers that support these keywords.
+***     This method has the disadvantage that each block must skip all prior records, and
+***     that record insertions/deletions occurring while this DBRecordIterator is in use may
+***     cause this iterator to possibly miss some records, or produce duplicate records.</li>
+*** <li>KEYSET: Orders the selection by the primary key fields, and resumes each block
+***     following the primary key of the last record retrieved ("WHERE (k1,k2,..) &gt; (..)").
+***     Each block is an index range scan, and records are neither missed nor duplicated
+***     when other records are inserted/deleted.  Any 'ORDER BY' on the DBSelect must be
+***     the ascending primary key fields.</li>
+*** <li>STREAM: Executes the selection once on a dedicated DBConnection and reads the
+***     records row-by-row from the server (for single-pass scans).  The connection is
+***     held until the end of the selection is reached, or 'close()' is called.</li>
+*** </ul>
+*** When an adaptive limit is set, the block size is doubled (up to the maximum) while
+*** blocks are retrieved quickly, and halved (down to the initial limit) when slow.
 **/
 
 public class DBRecordIterator<DBR extends DBRecord<DBR>>
@@ -42,17 +55,40 @@ public class DBRecordIterator<DBR extends DBRecord<DBR>>
 
     // ------------------------------------------------------------------------
 
-    public static final long    DEFAULT_LIMIT  = 50L;
+    public static final long    DEFAULT_LIMIT           = 50L;
+    public static final long    DEFAULT_TARGET_FETCH_MS = 250L;
+
+    /**
+    *** Iteration mode
+    **/
+    public enum IterationMode {
+        OFFSET,     // -- OFFSET/LIMIT blocks
+        KEYSET,     // -- primary key "seek" blocks
+        STREAM      // -- single row-by-row selection
+    };
 
     // ------------------------------------------------------------------------
 
     private Iterator<DBR>       iterator        = null;
     
     private DBSelect<DBR>       dbSelector      = null;
+    private IterationMode       iterMode        = IterationMode.OFFSET;
     private long                offset          = 0L;
     private long                limit           = DEFAULT_LIMIT;
-    
+    private long                minLimit        = DEFAULT_LIMIT;
+    private long                maxLimit        = DEFAULT_LIMIT;
+    private long                targetFetchMS   = DEFAULT_TARGET_FETCH_MS;
+    private boolean             lastBlock       = false;
+
+    private String              baseWhere       = null;
+    private String              keyNames[]      = null;
     private DBRecordKey<DBR>    lastRecordKey   = null;
+
+    private DBConnection        streamDBC       = null;
+    private Statement           streamStmt      = null;
+    private ResultSet           streamRS        = null;
+    private String              streamSQL       = null;
+    private long                streamCount     = 0L;
     
     // ------------------------------------------------------------------------
 
@@ -96,16 +132,56 @@ public class DBRecordIterator<DBR extends DBRecord<DBR>>
     **/
     public DBRecordIterator(DBSelect<DBR> dbSel)
         throws DBException
+    {
+        this(dbSel, IterationMode.OFFSET);
+    }
+
+    /**
+    *** Constructor
+    *** @param dbSel The DBSelect instance
+    *** @param mode  The iteration mode
+    *** @throws DBException if the DBProvider does not support the specified iteration mode.
+    **/
+    public DBRecordIterator(DBSelect<DBR> dbSel, IterationMode mode)
+        throws DBException
     {
         super();
         this.iterator   = null;
         this.dbSelector = dbSel;
+        this.iterMode   = (mode != null)? mode : IterationMode.OFFSET;
         if (this.dbSelector != null) {
-            if (!this.dbSelector.supportsLimit()) {
-                throw new DBException("DB provider does not support LIMIT");
-            } else
-            if (!this.dbSelector.supportsOffset()) {
-                throw new DBException("DB provider does not support OFFSET");
+            switch (this.iterMode) {
+                case OFFSET:
+                    if (!this.dbSelector.supportsLimit()) {
+                        throw new DBException("DB provider does not support LIMIT");
+                    } else
+                    if (!this.dbSelector.supportsOffset()) {
+                        throw new DBException("DB provider does not support OFFSET");
+                    }
+                    break;
+                case KEYSET:
+                    if (!this.dbSelector.supportsLimit()) {
+                        throw new DBException("DB provider does not support LIMIT");
+                    } else
+                    if (this.dbSelector.hasGroupByFields()) {
+                        throw new DBException("Keyset iteration does not support GROUP BY");
+                    }
+                    this.keyNames = this.dbSelector.getFactory().getKeyNames();
+                    if (ListTools.isEmpty(this.keyNames)) {
+                        throw new DBException("No keys defined: " + this.dbSelector.getUntranslatedTableName());
+                    } else
+                    if (this.dbSelector.hasOrderByFields() && 
+                        (!this.dbSelector.isOrderAscending() || 
+                         !Arrays.equals(this.dbSelector.getOrderByFields(),this.keyNames))) {
+                        throw new DBException("Keyset iteration requires ascending primary key order");
+                    }
+                    this.baseWhere = this.dbSelector.getWhere(); // may be null
+                    this.dbSelector.setOrderByFields(this.keyNames);
+                    this.dbSelector.setOrderAscending(true);
+                    this.dbSelector.setOffset(0L);
+                    break;
+                case STREAM:
+                    break;
             }
         }
     }
@@ -127,7 +203,32 @@ public class DBRecordIterator<DBR extends DBRecord<DBR>>
     **/
     public void setLimit(long limit)
     {
-        this.limit = (limit > 0L)? limit : DEFAULT_LIMIT;
+        this.limit    = (limit > 0L)? limit : DEFAULT_LIMIT;
+        this.minLimit = this.limit;
+        this.maxLimit = Math.max(this.maxLimit, this.limit);
+    }
+
+    /**
+    *** Sets the maximum adaptive block size limit.  The block size starts at the
+    *** current limit (see "setLimit") and is adjusted between the current limit
+    *** and the specified maximum limit, based on the time taken to retrieve each block.
+    *** @param maxLimit  The maximum block size limit
+    *** @param targetMS  The target time (in milliseconds) to retrieve a block
+    ***                  ('0' to use the default)
+    **/
+    public void setAdaptiveLimit(long maxLimit, long targetMS)
+    {
+        this.maxLimit      = Math.max(maxLimit, this.minLimit);
+        this.targetFetchMS = (targetMS > 0L)? targetMS : DEFAULT_TARGET_FETCH_MS;
+    }
+
+    /**
+    *** Gets the iteration mode
+    *** @return The iteration mode
+    **/
+    public IterationMode getIterationMode()
+    {
+        return this.iterMode;
     }
     
     // ------------------------------------------------------------------------
@@ -166,6 +267,21 @@ public class DBRecordIterator<DBR extends DBRecord<DBR>>
         }
     }
 
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Releases any resources held by this iterator (ie. the dedicated DBConnection
+    *** used by the STREAM iteration mode).  No further records will be returned.
+    *** Resources are released automatically when the end of the selection is reached.
+    **/
+    public void close()
+    {
+        this._closeStream();
+        this.dbSelector    = null;
+        this.iterator      = null;
+        this.lastRecordKey = null;
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
@@ -198,14 +314,31 @@ public class DBRecordIterator<DBR extends DBRecord<DBR>>
             // unable to fetch data
             throw new DBNotFoundException("No db selector");
         }
-        
+
+        /* stream */
+        if (this.iterMode.equals(IterationMode.STREAM)) {
+            return this._fetchStream();
+        }
+
+        /* prior block was the last */
+        if (this.lastBlock) {
+            this.close();
+            throw new DBNotFoundException("No more records");
+        }
+
         /* offset/limit */
-        this.dbSelector.setOffset(this.offset);
-        this.dbSelector.setLimit(this.limit);
+        long blockLimit = this.limit;
+        if (this.iterMode.equals(IterationMode.KEYSET)) {
+            this.dbSelector.setWhere(this._getKeysetWhere());
+        } else {
+            this.dbSelector.setOffset(this.offset);
+        }
+        this.dbSelector.setLimit(blockLimit);
         this.dbSelector.setLastRecordKey(this.lastRecordKey);
 
         /* get records */
         DBR rcdArry[] = null;
+        long startMS = System.currentTimeMillis();
         try {
             //Print.logInfo("Fetch ... " + this.offset + ":" + this.limit);
             //DBProvider.lockTables(new String[] { this.dbSelector.getTableName() }, null);
@@ -213,15 +346,15 @@ public class DBRecordIterator<DBR extends DBRecord<DBR>>
         } finally {
             //DBProvider.unlockTables();
         }
+        long fetchMS = System.currentTimeMillis() - startMS;
 
         /* end of data? */
         if ((rcdArry == null) || (rcdArry.length == 0)) {
             // no more records, this record iterator is done
-            this.dbSelector = null;
-            this.iterator = null;
-            this.lastRecordKey = null;
+            this.close();
             throw new DBNotFoundException("No more records");
         }
+        this.lastBlock = (rcdArry.length < blockLimit); // partial block
         
         /* last record retrieved */
         this.lastRecordKey = rcdArry[rcdArry.length - 1].getRecordKey(); // "unchecked cast"
@@ -229,6 +362,18 @@ public class DBRecordIterator<DBR extends DBRecord<DBR>>
         /* advance offset */
         this.offset += rcdArry.length;
 
+        /* adjust block size */
+        if (this.maxLimit > this.minLimit) {
+            if (fetchMS > this.targetFetchMS) {
+                // -- slow block, reduce size
+                this.limit = Math.max(this.limit / 2L, this.minLimit);
+            } else
+            if ((fetchMS < (this.targetFetchMS / 2L)) && !this.lastBlock) {
+                // -- fast full block, increase size
+                this.limit = Math.min(this.limit * 2L, this.maxLimit);
+            }
+        }
+
         /* reset/return iterator */
         this.iterator = ListTools.toIterator(rcdArry);
         return this.iterator;
@@ -237,4 +382,101 @@ public class DBRecordIterator<DBR extends DBRecord<DBR>>
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Gets the WHERE clause for the next keyset block
+    *** @return The WHERE clause for the next keyset block
+    **/
+    private String _getKeysetWhere()
+    {
+
+        /* first block */
+        if (this.lastRecordKey == null) {
+            return this.baseWhere;
+        }
+
+        /* seek past last record key */
+        Object keyVals[] = new Object[this.keyNames.length];
+        for (int i = 0; i < this.keyNames.length; i++) {
+            keyVals[i] = this.lastRecordKey.getFieldValue(this.keyNames[i]);
+        }
+        DBWhere dwh  = this.dbSelector.createDBWhere();
+        String  seek = dwh.GT(this.keyNames, keyVals);
+        if (StringTools.isBlank(this.baseWhere)) {
+            return dwh.WHERE_(seek);
+        } else {
+            // -- "WHERE ( <base> ) AND <seek>"
+            String base = this.baseWhere.trim().substring("WHERE ".length());
+            return dwh.WHERE_("( " + base + " )" + dwh.AND_(seek));
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns an iterator over the next streamed record
+    *** @return The DBRecord iterator
+    **/
+    @SuppressWarnings("unchecked")
+    private Iterator<DBR> _fetchStream()
+        throws DBException, DBNotFoundException
+    {
+        try {
+
+            /* start selection */
+            if (this.streamRS == null) {
+                // -- dedicated connection, so that other queries may be executed while streaming
+                this.streamDBC  = new DBConnection(
+                    DBProvider.getDBUri(true), DBProvider.getDBUsername(), DBProvider.getDBPassword());
+                this.streamSQL  = this.dbSelector.toString();
+                this.streamStmt = this.streamDBC.execute(this.streamSQL, true/*rowByRow*/);
+                this.streamRS   = this.streamStmt.getResultSet();
+            }
+
+            /* next record */
+            DBFactory<DBR> fact = this.dbSelector.getFactory();
+            while (this.streamRS.next()) {
+                this.streamCount++;
+                DBRecordKey<DBR> rcdKey = fact.createKey(this.streamRS); // may throw DBException
+                if (rcdKey != null) {
+                    DBR rcd = rcdKey.getDBRecord();
+                    rcd.setAllFieldValues(this.streamRS);
+                    this.lastRecordKey = rcdKey;
+                    this.iterator = ListTools.toIterator(Collections.singletonList(rcd));
+                    return this.iterator;
+                }
+            }
+
+        } catch (SQLException sqe) {
+            this.close();
+            throw new DBException("Record Stream (Record #"+this.streamCount+")", sqe);
+        } catch (DBException dbe) {
+            this.close();
+            throw dbe;
+        }
+
+        /* end of data */
+        this.close();
+        throw new DBNotFoundException("No more records");
+
+    }
+
+    /**
+    *** Closes the streamed selection
+    **/
+    private void _closeStream()
+    {
+        if (this.streamRS   != null) { try { this.streamRS.close();   } catch (Throwable t) {} }
+        if (this.streamStmt != null) { try { this.streamStmt.close(); } catch (Throwable t) {} }
+        if (this.streamDBC  != null) {
+            this.streamDBC.closeConnection();
+            SQLProfiler.recordRows(this.streamSQL, this.streamCount);
+        }
+        this.streamRS   = null;
+        this.streamStmt = null;
+        this.streamDBC  = null;
+    }
+
+    // ------------------------------------------------------------------------
+
 }
@@ -576,6 +576,50 @@ public abstract class DBRecordKey<gDBR extends DBRecord<gDBR>>
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Gets the "lastUpdateTime" of the record with this primary key, without reading
+    *** the remaining record fields (ie. to cheaply revalidate a cached record)
+    *** @return The record "lastUpdateTime", 0 if the table does not contain a 
+    ***     "lastUpdateTime" column, or -1 if the record does not exist
+    *** @throws DBException If a database error occurs
+    **/
+    public long getLastUpdateTime()
+        throws DBException
+    {
+
+        /* check for field "lastUpdateTime" */
+        String fldUpdTime = DBRecord.FLD_lastUpdateTime;
+        if (this.getFactory().getField(fldUpdTime) == null) {
+            return 0L;
+        }
+
+        // DBSelect: SELECT lastUpdateTime FROM <TableName> <KeyWhere>
+        DBSelect<gDBR> dsel = new DBSelect<gDBR>(this.getFactory());
+        dsel.setSelectedFields(fldUpdTime);
+        dsel.setWhere(this._getWhereClause(null, DBWhere.KEY_FULL, null));
+
+        /* get keyed record update time */
+        DBConnection dbc  = null;
+        Statement    stmt = null;
+        ResultSet    rs   = null;
+        try {
+            dbc  = DBConnection.getDBConnection_read();
+            stmt = dbc.execute(dsel.toString()); // may throw DBException
+            rs   = stmt.getResultSet();
+            return rs.next()? rs.getLong(fldUpdTime) : -1L;
+        } catch (SQLException sqe) {
+            String tn = this.getUntranslatedTableName();
+            throw new DBException("Record update time " + tn + "='" + this + "'", sqe);
+        } finally {
+            if (rs   != null) { try { rs.close();   } catch (Throwable t) {} }
+            if (stmt != null) { try { stmt.close(); } catch (Throwable t) {} }
+            DBConnection.release(dbc);
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+
     /**
     *** Returns true if the parent records in their respective parent tables exist.
     *** @return True if the parent records exist.
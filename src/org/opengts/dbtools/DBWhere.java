@@ -891,6 +891,71 @@ public class DBWhere
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Row-value comparison "((field1,field2,...) &gt; (value1,value2,...))".<br>
+    *** MySQL and PostgreSQL use the row constructor directly.  Other DB providers
+    *** use the equivalent "((field1 &gt;= value1) AND ((field1 &gt; value1) OR ((field1 = value1) AND ...)))"
+    *** expansion (the leading bound allows an index range scan on the first field).
+    *** @param fld   The table fields
+    *** @param value The values (must be the same length as the fields)
+    *** @return A String representation of the row-value comparison
+    **/
+    public String GT(String fld[], Object value[])
+    {
+        DBProvider dbp = DBProvider.getProvider();
+        int   fldLen = ListTools.size(fld);
+        StringBuffer sb = new StringBuffer();
+        if ((fldLen <= 0) || (fldLen != ListTools.size(value))) {
+            // -- invalid
+            return "";
+        } else
+        if (fldLen == 1) {
+            // -- (field > value)
+            sb.append("(");
+            sb.append(dbp.quoteColumnName(fld[0]));
+            sb.append(">").append(this._quoteValue(fld[0],value[0]));
+            sb.append(")");
+        } else
+        if ((dbp.getID() == DBProvider.DB_MYSQL) || (dbp.getID() == DBProvider.DB_POSTGRESQL)) {
+            // -- ((field1,field2,...) > (value1,value2,...))
+            sb.append("((");
+            for (int i = 0; i < fldLen; i++) {
+                if (i > 0) { sb.append(","); }
+                sb.append(dbp.quoteColumnName(fld[i]));
+            }
+            sb.append(")>(");
+            for (int i = 0; i < fldLen; i++) {
+                if (i > 0) { sb.append(","); }
+                sb.append(this._quoteValue(fld[i],value[i]));
+            }
+            sb.append("))");
+        } else {
+            // -- ((field1>=value1) AND ((field1>value1) OR ((field1=value1) AND (field2>value2)) OR ...))
+            sb.append("((");
+            sb.append(dbp.quoteColumnName(fld[0]));
+            sb.append(">=").append(this._quoteValue(fld[0],value[0]));
+            sb.append(") AND (");
+            for (int i = 0; i < fldLen; i++) {
+                if (i > 0) { sb.append(" OR "); }
+                sb.append("(");
+                for (int e = 0; e < i; e++) {
+                    sb.append("(");
+                    sb.append(dbp.quoteColumnName(fld[e]));
+                    sb.append("=").append(this._quoteValue(fld[e],value[e]));
+                    sb.append(") AND ");
+                }
+                sb.append("(");
+                sb.append(dbp.quoteColumnName(fld[i]));
+                sb.append(">").append(this._quoteValue(fld[i],value[i]));
+                sb.append("))");
+            }
+            sb.append("))");
+        }
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+
     /**
     *** "(field &lt; value)"
     *** @param fld   The table field
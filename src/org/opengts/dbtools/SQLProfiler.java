@@ -0,0 +1,555 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Per-statement SQL profiling and slow statement capture
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Enabled with the runtime property "db.profileSQL" (default false).
+//  - Each executed SQL statement is normalized into a statement "shape" (string
+//    and numeric literals replaced with '?', IN-lists and multi-row VALUES
+//    collapsed), and per-shape call counts, error counts, rows, and a latency
+//    histogram are maintained.
+//  - Rows are the update counts for insert/update/delete statements, and the
+//    number of records read for DBRecord selections.
+//  - Statements taking longer than "db.profileSQL.slowMS" are retained (most
+//    recent "db.profileSQL.slowCount") along with the calling stack, and the
+//    table locks ("DBProvider.lockTables") held by the calling thread.
+//  - At most "db.profileSQL.maxShapes" shapes are tracked, further shapes are
+//    accumulated in a single "<other>" shape.
+//  - Reports are available from "DBAdmin -profileSQL", the "%SQLPROFILE%" DCS
+//    internal command, and the "SQLProfile" servlet.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.dbtools;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.opengts.util.*;
+
+/**
+*** Per-statement SQL profiling and slow statement capture
+**/
+
+public class SQLProfiler
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final String SORT_TIME               = "time";
+    public  static final String SORT_COUNT              = "count";
+    public  static final String SORT_ROWS               = "rows";
+    public  static final String SORT_MAX                = "max";
+    public  static final String SORT_ERRORS             = "errors";
+
+    public  static final int    DEFAULT_TOP_COUNT       = 25;
+
+    private static final String OTHER_SHAPE             = "<other>";
+    private static final int    MAX_SQL_LENGTH          = 4000;
+    private static final int    MAX_STACK_FRAMES        = 12;
+
+    private static final RTConfigSnapshot.BooleanSetting Enable_setting =
+        RTConfigSnapshot.registerBoolean(RTKey.DB_PROFILE_SQL, false);
+    private static final RTConfigSnapshot.LongSetting SlowMS_setting =
+        RTConfigSnapshot.registerLong(RTKey.DB_PROFILE_SLOW_MS, 500L);
+
+    /**
+    *** Returns true if SQL profiling is enabled
+    *** @return True if SQL profiling is enabled
+    **/
+    public static boolean IsEnabled()
+    {
+        return Enable_setting.get();
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // table-lock context
+
+    private static final ThreadLocal<String> LockContext = new ThreadLocal<String>();
+
+    /**
+    *** Sets the table-lock statement currently held by the calling thread
+    *** @param lockSQL  The "LOCK TABLES ..." statement, or null if the tables have been unlocked
+    **/
+    public static void setLockContext(String lockSQL)
+    {
+        if (lockSQL != null) {
+            LockContext.set(lockSQL);
+        } else {
+            LockContext.remove();
+        }
+    }
+
+    /**
+    *** Gets the table-lock statement currently held by the calling thread
+    *** @return The "LOCK TABLES ..." statement, or null if no tables are locked
+    **/
+    public static String getLockContext()
+    {
+        return LockContext.get();
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // statement normalization
+
+    private static final Pattern IN_LIST_PATTERN   = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern ROW_LIST_PATTERN  = Pattern.compile("\\(\\?\\.\\.\\.\\)(\\s*,\\s*\\(\\?\\.\\.\\.\\))+");
+
+    /**
+    *** Normalizes the specified SQL statement into a statement "shape".  String and
+    *** numeric literals are replaced with '?', whitespace is collapsed, and lists of
+    *** literals ("IN (1,2,3)", "VALUES (1,'a'),(2,'b')") are collapsed.
+    *** @param sql  The SQL statement
+    *** @return The statement shape
+    **/
+    public static String normalizeSQL(String sql)
+    {
+        if (sql == null) {
+            return "";
+        }
+        int len = sql.length();
+        StringBuffer sb = new StringBuffer(Math.min(len, 256));
+        boolean space = false;
+        for (int i = 0; i < len;) {
+            char ch = sql.charAt(i);
+            if (Character.isWhitespace(ch)) {
+                // -- collapse whitespace
+                space = true;
+                i++;
+                continue;
+            }
+            if (space) {
+                if (sb.length() > 0) { sb.append(' '); }
+                space = false;
+            }
+            if ((ch == '\'') || (ch == '\"')) {
+                // -- string literal
+                i++;
+                while (i < len) {
+                    char c = sql.charAt(i++);
+                    if (c == '\\') {
+                        i++; // skip escaped char
+                    } else
+                    if (c == ch) {
+                        if ((i < len) && (sql.charAt(i) == ch)) {
+                            i++; // doubled quote
+                        } else {
+                            break;
+                        }
+                    }
+                }
+                sb.append('?');
+            } else
+            if (ch == '`') {
+                // -- quoted identifier (copied as-is)
+                int e = sql.indexOf('`', i + 1);
+                e = (e < 0)? len : (e + 1);
+                sb.append(sql, i, e);
+                i = e;
+            } else
+            if (Character.isDigit(ch) && !_isIdentChar(sb)) {
+                // -- numeric literal (including hex/decimal/exponent)
+                i++;
+                while ((i < len) && (Character.isLetterOrDigit(sql.charAt(i)) || (sql.charAt(i) == '.'))) {
+                    i++;
+                }
+                sb.append('?');
+            } else {
+                sb.append(ch);
+                i++;
+            }
+        }
+        String shape = sb.toString();
+        if (shape.indexOf(',') >= 0) {
+            shape = IN_LIST_PATTERN.matcher(shape).replaceAll("(?...)");
+            shape = ROW_LIST_PATTERN.matcher(shape).replaceAll("(?...),...");
+        }
+        return shape;
+    }
+
+    /* true if the last character appended is part of an identifier */
+    private static boolean _isIdentChar(StringBuffer sb)
+    {
+        if (sb.length() <= 0) {
+            return false;
+        }
+        char ch = sb.charAt(sb.length() - 1);
+        return Character.isLetterOrDigit(ch) || (ch == '_') || (ch == '.') || (ch == '$');
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** ShapeStats class (statistics for a single statement shape)
+    **/
+    public static class ShapeStats
+    {
+        private String          shape       = null;
+        private Metrics.Timer   timer       = null;
+        private AtomicLong      rowCount    = new AtomicLong(0L);
+        private AtomicLong      errorCount  = new AtomicLong(0L);
+        private AtomicLong      maxNanos    = new AtomicLong(0L);
+        public ShapeStats(String shape) {
+            this.shape = shape;
+            this.timer = new Metrics.Timer(shape, null); // not registered
+        }
+        public String getShape() {
+            return this.shape;
+        }
+        public void record(long elapsedNS, long rows, boolean error) {
+            this.timer.record(elapsedNS);
+            if (rows > 0L) {
+                this.rowCount.addAndGet(rows);
+            }
+            if (error) {
+                this.errorCount.incrementAndGet();
+            }
+            long max = this.maxNanos.get();
+            while ((elapsedNS > max) && !this.maxNanos.compareAndSet(max, elapsedNS)) {
+                max = this.maxNanos.get();
+            }
+        }
+        public void addRows(long rows) {
+            if (rows > 0L) {
+                this.rowCount.addAndGet(rows);
+            }
+        }
+        public long getCount() {
+            return this.timer.getCount();
+        }
+        public long getRowCount() {
+            return this.rowCount.get();
+        }
+        public long getErrorCount() {
+            return this.errorCount.get();
+        }
+        public long getTotalNanos() {
+            return this.timer.getSumNanos();
+        }
+        public long getMaxNanos() {
+            return this.maxNanos.get();
+        }
+        public long getQuantileNanos(double q) {
+            // -- bucket upper bound, limited to the observed maximum
+            return Math.min(this.timer.getQuantileNanos(q), this.getMaxNanos());
+        }
+        public double getAverageMS() {
+            long n = this.getCount();
+            return (n > 0L)? ((double)this.getTotalNanos() / (double)n / 1000000.0) : 0.0;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** SlowStatement class (a single captured slow statement)
+    **/
+    public static class SlowStatement
+    {
+        private long        timestampMS = 0L;
+        private long        elapsedNS   = 0L;
+        private String      sql         = null;
+        private String      threadName  = null;
+        private String      lockContext = null;
+        private int         lockLevel   = 0;
+        private String      stack[]     = null;
+        public SlowStatement(String sql, long elapsedNS, String stack[]) {
+            this.timestampMS = DateTime.getCurrentTimeMillis();
+            this.elapsedNS   = elapsedNS;
+            this.sql         = (sql.length() > MAX_SQL_LENGTH)? (sql.substring(0,MAX_SQL_LENGTH) + "...") : sql;
+            this.threadName  = Thread.currentThread().getName();
+            this.lockContext = SQLProfiler.getLockContext();
+            this.lockLevel   = DBProvider.getLockLevel();
+            this.stack       = stack;
+        }
+        public long getTimestampMS() {
+            return this.timestampMS;
+        }
+        public long getElapsedNanos() {
+            return this.elapsedNS;
+        }
+        public String getSQL() {
+            return this.sql;
+        }
+        public String getThreadName() {
+            return this.threadName;
+        }
+        public String getLockContext() {
+            return this.lockContext;
+        }
+        public int getLockLevel() {
+            return this.lockLevel;
+        }
+        public String[] getStack() {
+            return this.stack;
+        }
+        public String toString() {
+            StringBuffer sb = new StringBuffer();
+            sb.append(new DateTime(this.timestampMS/1000L)).append(" ");
+            sb.append(StringTools.format((double)this.elapsedNS/1000000.0,"0.0")).append("ms");
+            sb.append(" [").append(this.threadName).append("]\n");
+            sb.append("  SQL : ").append(this.sql).append("\n");
+            if (this.lockContext != null) {
+                sb.append("  Lock: ").append(this.lockContext).append("\n");
+            } else
+            if (this.lockLevel > 0) {
+                sb.append("  Lock: level ").append(this.lockLevel).append(" (other thread)\n");
+            }
+            if (this.stack != null) {
+                for (int i = 0; i < this.stack.length; i++) {
+                    sb.append("    at ").append(this.stack[i]).append("\n");
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static final ConcurrentHashMap<String,ShapeStats> ShapeMap = new ConcurrentHashMap<String,ShapeStats>();
+
+    private static int              MaxShapes       = -1;
+    private static SlowStatement    SlowList[]      = null;
+    private static int              SlowPos         = 0;
+    private static long             SlowTotal       = 0L;
+
+    /**
+    *** Gets the ShapeStats for the specified SQL statement
+    **/
+    private static ShapeStats _getShapeStats(String sql)
+    {
+        String shape = SQLProfiler.normalizeSQL(sql);
+        ShapeStats ss = ShapeMap.get(shape);
+        if (ss == null) {
+            if (MaxShapes < 0) {
+                MaxShapes = Math.max(RTConfig.getInt(RTKey.DB_PROFILE_MAX_SHAPES,1000), 1);
+            }
+            if (ShapeMap.size() >= MaxShapes) {
+                shape = OTHER_SHAPE;
+                ss = ShapeMap.get(shape);
+                if (ss != null) {
+                    return ss;
+                }
+            }
+            ShapeStats newSS = new ShapeStats(shape);
+            ss = ShapeMap.putIfAbsent(shape, newSS);
+            if (ss == null) { ss = newSS; }
+        }
+        return ss;
+    }
+
+    /**
+    *** Records the execution of the specified SQL statement
+    *** @param sql        The executed SQL statement
+    *** @param elapsedNS  The execution time (nanoseconds)
+    *** @param rows       The number of rows affected (-1 if unknown)
+    *** @param error      True if the statement failed
+    **/
+    public static void record(String sql, long elapsedNS, long rows, boolean error)
+    {
+        if ((sql == null) || !SQLProfiler.IsEnabled()) {
+            return;
+        }
+        SQLProfiler._getShapeStats(sql).record(elapsedNS, rows, error);
+        long slowMS = SlowMS_setting.get();
+        if ((slowMS > 0L) && (elapsedNS >= (slowMS * 1000000L))) {
+            SQLProfiler._addSlowStatement(new SlowStatement(sql, elapsedNS, SQLProfiler._getCallerStack()));
+        }
+    }
+
+    /**
+    *** Adds the number of rows read from the ResultSet of the specified (previously
+    *** recorded) SQL statement
+    *** @param sql   The executed SQL statement
+    *** @param rows  The number of rows read
+    **/
+    public static void recordRows(String sql, long rows)
+    {
+        if ((sql == null) || (rows <= 0L) || !SQLProfiler.IsEnabled()) {
+            return;
+        }
+        SQLProfiler._getShapeStats(sql).addRows(rows);
+    }
+
+    /* calling stack, excluding frames within this package */
+    private static String[] _getCallerStack()
+    {
+        StackTraceElement ste[] = new Throwable().getStackTrace();
+        String pkg = SQLProfiler.class.getPackage().getName() + ".";
+        int s = 0;
+        while ((s < ste.length) && ste[s].getClassName().startsWith(pkg)) {
+            s++;
+        }
+        if (s >= ste.length) {
+            s = 0; // all frames are within this package
+        }
+        int n = Math.min(ste.length - s, MAX_STACK_FRAMES);
+        String stack[] = new String[n];
+        for (int i = 0; i < n; i++) {
+            stack[i] = ste[s + i].toString();
+        }
+        return stack;
+    }
+
+    /* add slow statement */
+    private static synchronized void _addSlowStatement(SlowStatement ss)
+    {
+        if (SlowList == null) {
+            SlowList = new SlowStatement[Math.max(RTConfig.getInt(RTKey.DB_PROFILE_SLOW_COUNT,100), 1)];
+        }
+        SlowList[SlowPos] = ss;
+        SlowPos = (SlowPos + 1) % SlowList.length;
+        SlowTotal++;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the retained slow statements (most recent first)
+    *** @return The list of slow statements
+    **/
+    public static synchronized java.util.List<SlowStatement> getSlowStatements()
+    {
+        java.util.List<SlowStatement> list = new Vector<SlowStatement>();
+        if (SlowList != null) {
+            for (int i = 1; i <= SlowList.length; i++) {
+                SlowStatement ss = SlowList[(SlowPos - i + SlowList.length) % SlowList.length];
+                if (ss == null) { break; }
+                list.add(ss);
+            }
+        }
+        return list;
+    }
+
+    /**
+    *** Gets the total number of slow statements captured (including those no longer retained)
+    *** @return The total number of slow statements
+    **/
+    public static synchronized long getSlowStatementCount()
+    {
+        return SlowTotal;
+    }
+
+    /**
+    *** Gets the top statement shapes
+    *** @param sortBy  The sort order (SORT_TIME, SORT_COUNT, SORT_ROWS, SORT_MAX, SORT_ERRORS)
+    *** @param topN    The maximum number of shapes to return (<=0 for all)
+    *** @return The list of ShapeStats, in descending order
+    **/
+    public static java.util.List<ShapeStats> getTopShapes(String sortBy, int topN)
+    {
+        java.util.List<ShapeStats> list = new Vector<ShapeStats>(ShapeMap.values());
+        final String sort = StringTools.blankDefault(sortBy, SORT_TIME).toLowerCase();
+        Collections.sort(list, new Comparator<ShapeStats>() {
+            public int compare(ShapeStats s1, ShapeStats s2) {
+                long v1, v2;
+                if (sort.equals(SORT_COUNT)) {
+                    v1 = s1.getCount();      v2 = s2.getCount();
+                } else
+                if (sort.equals(SORT_ROWS)) {
+                    v1 = s1.getRowCount();   v2 = s2.getRowCount();
+                } else
+                if (sort.equals(SORT_MAX)) {
+                    v1 = s1.getMaxNanos();   v2 = s2.getMaxNanos();
+                } else
+                if (sort.equals(SORT_ERRORS)) {
+                    v1 = s1.getErrorCount(); v2 = s2.getErrorCount();
+                } else {
+                    v1 = s1.getTotalNanos(); v2 = s2.getTotalNanos();
+                }
+                return (v1 > v2)? -1 : (v1 < v2)? 1 : 0;
+            }
+        });
+        if ((topN > 0) && (list.size() > topN)) {
+            list = new Vector<ShapeStats>(list.subList(0, topN));
+        }
+        return list;
+    }
+
+    /**
+    *** Discards all profile statistics and slow statements
+    **/
+    public static void reset()
+    {
+        ShapeMap.clear();
+        synchronized (SQLProfiler.class) {
+            SlowList  = null;
+            SlowPos   = 0;
+            SlowTotal = 0L;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Writes a text report of the top statement shapes and recent slow statements
+    *** @param sb      The output StringBuffer (created if null)
+    *** @param sortBy  The sort order (SORT_TIME, SORT_COUNT, SORT_ROWS, SORT_MAX, SORT_ERRORS)
+    *** @param topN    The maximum number of shapes/slow statements to include
+    *** @return The StringBuffer
+    **/
+    public static StringBuffer writeReport(StringBuffer sb, String sortBy, int topN)
+    {
+        if (sb == null) { sb = new StringBuffer(); }
+        String sort = StringTools.blankDefault(sortBy, SORT_TIME);
+        int    top  = (topN > 0)? topN : DEFAULT_TOP_COUNT;
+
+        /* shapes */
+        java.util.List<ShapeStats> shapes = SQLProfiler.getTopShapes(sort, top);
+        sb.append("SQL Profile: ").append(ShapeMap.size()).append(" statement shapes");
+        sb.append(" (top ").append(shapes.size()).append(" by ").append(sort).append(")");
+        if (!SQLProfiler.IsEnabled()) {
+            sb.append(" [profiling disabled, set '").append(RTKey.DB_PROFILE_SQL).append("=true']");
+        }
+        sb.append("\n");
+        sb.append(String.format("%10s %7s %10s %11s %9s %9s %9s  %s\n",
+            "Count", "Errors", "Rows", "Total(ms)", "Avg(ms)", "p99(ms)", "Max(ms)", "Statement"));
+        for (ShapeStats ss : shapes) {
+            sb.append(String.format("%10d %7d %10d %11.1f %9.2f %9.2f %9.2f  %s\n",
+                ss.getCount(), ss.getErrorCount(), ss.getRowCount(),
+                (double)ss.getTotalNanos() / 1000000.0,
+                ss.getAverageMS(),
+                (double)ss.getQuantileNanos(0.99) / 1000000.0,
+                (double)ss.getMaxNanos() / 1000000.0,
+                ss.getShape()));
+        }
+
+        /* slow statements */
+        java.util.List<SlowStatement> slow = SQLProfiler.getSlowStatements();
+        sb.append("\n");
+        sb.append("Slow statements: ").append(SQLProfiler.getSlowStatementCount());
+        sb.append(" (>= ").append(SlowMS_setting.get()).append("ms");
+        sb.append(", most recent ").append(Math.min(slow.size(),top)).append(")\n");
+        for (int i = 0; (i < slow.size()) && (i < top); i++) {
+            sb.append(slow.get(i).toString());
+        }
+
+        return sb;
+    }
+
+}
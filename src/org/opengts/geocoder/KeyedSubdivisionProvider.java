@@ -0,0 +1,41 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+// 
+// http://www.apache.org/licenses/LICENSE-2.0
+// 
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.geocoder;
+
+import org.opengts.util.*;
+
+public interface KeyedSubdivisionProvider
+    extends SubdivisionProvider
+{
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Return the subdivision of the specified point.  The key (ie. "account/device")
+    *** identifies a sequence of related points, which the provider may use to speed 
+    *** up consecutive lookups.
+    **/
+    public String getSubdivision(String key, GeoPoint gp)
+        throws SubdivisionException;
+
+}
@@ -30,6 +30,9 @@
 // ----------------------------------------------------------------------------
 package org.opengts.geocoder;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 import org.opengts.util.*;
 import org.opengts.geocoder.country.*;
 
@@ -118,6 +121,34 @@ public class ReverseGeocode
         this((json != null)? json.getObject() : null);
     }
 
+    /**
+    *** JSON stream constructor (reads the next JSON object from the reader)
+    **/
+    public ReverseGeocode(JsonReader reader)
+        throws IOException, JSON.JSONParsingException
+    {
+        this();
+        final ReverseGeocode rg = this;
+        reader.readObject(new JsonReader.ObjectBinder() {
+            public boolean bindValue(String n, JsonReader r) throws IOException, JSON.JSONParsingException {
+                if (JsonReader.isName(n,TAG_FullAddress  )) { rg.setFullAddress(  r.nextString(null)); } else
+                if (JsonReader.isName(n,TAG_StreetAddress)) { rg.setStreetAddress(r.nextString(null)); } else
+                if (JsonReader.isName(n,TAG_City         )) { rg.setCity(         r.nextString(null)); } else
+                if (JsonReader.isName(n,TAG_StateProvince)) { rg.setStateProvince(r.nextString(null)); } else
+                if (JsonReader.isName(n,TAG_PostalCode   )) { rg.setPostalCode(   r.nextString(null)); } else
+                if (JsonReader.isName(n,TAG_CountryCode  )) { rg.setCountryCode(  r.nextString(null)); } else
+                if (JsonReader.isName(n,TAG_Subdivision  )) { rg.setSubdivision(  r.nextString(null)); } else
+                if (JsonReader.isName(n,TAG_SpeedLimit   )) { rg.setSpeedLimitKPH(r.nextDouble( 0.0)); } else
+                if (JsonReader.isName(n,TAG_TollRoad     )) { rg.setIsTollRoad(   r.nextInt(     -1)); } else
+                if (JsonReader.isName(n,TAG_TimeZone     )) { rg.setTimeZone(     r.nextString(null)); } else
+                if (JsonReader.isName(n,TAG_ReferenceID  )) { rg.setReferenceID(  r.nextString(null)); } else {
+                    return false; // skip
+                }
+                return true;
+            }
+        });
+    }
+
     // ------------------------------------------------------------------------
     // Full address
 
@@ -537,6 +568,45 @@ public class ReverseGeocode
         return new JSON(jsonObj);
     }
 
+    /**
+    *** Writes this ReverseGeocode information as a JSON object to the specified JsonWriter.
+    *** (produces the same output as "toJSON(longFmt)")
+    **/
+    public void toJSON(JsonWriter jw, boolean longFmt)
+        throws IOException
+    {
+        int ndx = longFmt? 1 : 0;
+        jw.beginObject();
+        if (this.hasFullAddress())   { jw.name(TAG_FullAddress[ndx]  ).value(this.getFullAddress());   }
+        if (this.hasStreetAddress()) { jw.name(TAG_StreetAddress[ndx]).value(this.getStreetAddress()); }
+        if (this.hasCity())          { jw.name(TAG_City[ndx]         ).value(this.getCity());          }
+        if (this.hasStateProvince()) { jw.name(TAG_StateProvince[ndx]).value(this.getStateProvince()); }
+        if (this.hasPostalCode())    { jw.name(TAG_PostalCode[ndx]   ).value(this.getPostalCode());    }
+        if (this.hasCountryCode())   { jw.name(TAG_CountryCode[ndx]  ).value(this.getCountryCode());   }
+        if (this.hasSubdivision())   { jw.name(TAG_Subdivision[ndx]  ).value(this.getSubdivision());   }
+        if (this.hasSpeedLimitKPH()) { jw.name(TAG_SpeedLimit[ndx]   ).value(this.getSpeedLimitKPH()); }
+        if (this.hasIsTollRoad())    { jw.name(TAG_TollRoad[ndx]     ).value(this.getIsTollRoad());    }
+        if (this.hasTimeZone())      { jw.name(TAG_TimeZone[ndx]     ).value(this.getTimeZone());      }
+        if (this.hasReferenceID())   { jw.name(TAG_ReferenceID[ndx]  ).value(this.getReferenceID());   }
+        jw.endObject();
+    }
+
+    /**
+    *** Returns a compact JSON String containing this ReverseGeocode information,
+    *** without building an intermediate JSON object tree.
+    **/
+    public String toJSONString(boolean longFmt)
+    {
+        StringWriter sw = new StringWriter();
+        try {
+            this.toJSON(new JsonWriter(sw,false), longFmt);
+        } catch (IOException ioe) {
+            // -- StringWriter will not throw an IOException
+            Print.logException("Unexpected IOException", ioe);
+        }
+        return sw.toString();
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
@@ -25,6 +25,7 @@
 package org.opengts.geocoder;
 
 import java.util.*;
+import java.io.IOException;
 
 import org.opengts.util.*;
 
@@ -444,11 +445,15 @@ public class ReverseGeocodeCache
             if (rgValS.startsWith("{")) {
                 // -- contains JSON
                 try {
-                    return new ReverseGeocode(new JSON(rgValS));
+                    return new ReverseGeocode(new JsonReader(rgValS));
                 } catch (JSON.JSONParsingException jpe) {
                     // -- unable to parse JSON
                     Print.logWarn("Invalid JSON found in ReverseGeocode Cachs: " + rgValS);
                     return null;
+                } catch (IOException ioe) {
+                    // -- StringReader will not throw an IOException
+                    Print.logWarn("Unable to read JSON in ReverseGeocode Cache: " + ioe);
+                    return null;
                 }
             } else {
                 // -- assume full address
@@ -485,13 +490,13 @@ public class ReverseGeocodeCache
                 while (((String)rgVal).startsWith("{")) { rgVal = ((String)rgVal).substring(1); }
                 break;
             case Store_As_StringJSON:
-                rgVal = rg.toJSON().toString(false);
+                rgVal = rg.toJSONString(false);
                 break;
             case Store_As_ReverseGeocode:
                 rgVal = rg;
                 break;
             default:
-                rgVal = rg.toJSON().toString(false);
+                rgVal = rg.toJSONString(false);
                 break;
         }
 
@@ -31,6 +31,9 @@
 package org.opengts.geocoder;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.io.*;
+import java.net.*;
 
 import org.opengts.util.*;
 
@@ -387,6 +390,50 @@ public abstract class ReverseGeocodeProviderAdapter
     /* get reverse-geocode */
     public abstract ReverseGeocode getReverseGeocode(GeoPoint gp, String localeStr, boolean cache);
 
+    /**
+    *** Asynchronously gets the reverse-geocode for the specified GeoPoint.
+    *** The request is run on the shared HTTPClient ThreadPool.
+    *** @param gp         The GeoPoint
+    *** @param localeStr  The locale
+    *** @param cache      True to cache the result (if supported by the provider)
+    *** @return The Future ReverseGeocode (result may be null)
+    **/
+    public Future<ReverseGeocode> getReverseGeocodeAsync(final GeoPoint gp, final String localeStr, final boolean cache)
+    {
+        return HTTPClient.getInstance().submit(new Callable<ReverseGeocode>() {
+            public ReverseGeocode call() {
+                return ReverseGeocodeProviderAdapter.this.getReverseGeocode(gp, localeStr, cache);
+            }
+        });
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* GET page using the shared (keep-alive, per-host limited) HTTPClient */
+    protected static byte[] readPage_GET(String url, int timeoutMS)
+        throws IOException
+    {
+        return HTTPClient.getInstance().readPage_GET(new URL(url), null, timeoutMS, -1);
+    }
+
+    /* POST page using the shared (keep-alive, per-host limited) HTTPClient */
+    protected static byte[] readPage_POST(String url, String contentType, byte postData[], int timeoutMS)
+        throws IOException
+    {
+        Properties headers = new Properties();
+        if (!StringTools.isBlank(contentType)) {
+            headers.setProperty(HTMLTools.HEADER_CONTENT_TYPE, contentType);
+        }
+        return HTTPClient.getInstance().readPage_POST(new URL(url), headers, postData, timeoutMS, -1);
+    }
+
+    /* GET JSON document using the shared (keep-alive, per-host limited) HTTPClient */
+    protected static JSON readJSON_GET(String url, int timeoutMS)
+        throws IOException
+    {
+        return HTTPClient.getInstance().readJSON_GET(new URL(url), null, timeoutMS);
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
@@ -424,9 +424,7 @@ public class GeoNames
         
         /* get XML String */
         try {
-            byte xml[] = HTMLTools.readPage_GET(
-                new URL(url),
-                timeoutMS, -1);
+            byte xml[] = ReverseGeocodeProviderAdapter.readPage_GET(url, timeoutMS);
             return StringTools.toStringValue(xml);
         } catch (Throwable th) {
             Print.logError("GeoNames URL: " + url);
@@ -554,9 +552,7 @@ public class GeoNames
 
         /* get XML String */
         try {
-            byte xml[] = HTMLTools.readPage_GET(
-                new URL(url),
-                timeoutMS, -1);
+            byte xml[] = ReverseGeocodeProviderAdapter.readPage_GET(url, timeoutMS);
             String xmlStr = StringTools.toStringValue(xml);
             //Print.logInfo("Query XML:\n" + xmlStr);
             return xmlStr;
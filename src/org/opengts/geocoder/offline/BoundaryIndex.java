@@ -0,0 +1,367 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Grid index of subdivision (state/province) boundary polygons
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Boundaries are loaded once from a GeoJSON FeatureCollection containing
+//    Polygon/MultiPolygon features.  The subdivision of each feature is taken
+//    from the first matching "code" property (ie. "postal", "name"), and is
+//    normalized to "CC/XX" using the USState/Canada/Mexico code tables.
+//  - Each grid cell holds the polygons whose bounding box intersects the cell.
+//  - Lookups may specify a "hint" (ie. per-device) holder containing the index
+//    of the polygon which matched the previous lookup.  If the point is still
+//    within that polygon, the grid index is not consulted.
+//  - Interior rings (holes) are supported using the even-odd rule.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.geocoder.offline;
+
+import java.util.*;
+import java.io.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.opengts.util.*;
+
+import org.opengts.geocoder.*;
+import org.opengts.geocoder.country.*;
+
+/**
+*** Grid index of subdivision (state/province) boundary polygons
+**/
+
+public class BoundaryIndex
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final double DEFAULT_CELL_SIZE_DEG   = 1.0;
+
+    public  static final String DEFAULT_CODE_PROPS[]    = new String[] { "subdivision", "code", "postal", "STUSPS", "name", "NAME" };
+    public  static final String DEFAULT_COUNTRY_PROPS[] = new String[] { "country", "countryCode", "iso_a2", "ISO_A2" };
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Polygon class (outer ring plus optional holes)
+    **/
+    private static class Polygon
+    {
+        private String      subdivision = null;
+        private double      rings[][]   = null; // {lon0,lat0,lon1,lat1,...} per ring
+        private double      minLat      =  90.0;
+        private double      maxLat      = -90.0;
+        private double      minLon      =  180.0;
+        private double      maxLon      = -180.0;
+        public Polygon(String subdiv, double rings[][]) {
+            this.subdivision = subdiv;
+            this.rings       = rings;
+            for (double r[] : rings) {
+                for (int i = 0; (i + 1) < r.length; i += 2) {
+                    if (r[i    ] < this.minLon) { this.minLon = r[i    ]; }
+                    if (r[i    ] > this.maxLon) { this.maxLon = r[i    ]; }
+                    if (r[i + 1] < this.minLat) { this.minLat = r[i + 1]; }
+                    if (r[i + 1] > this.maxLat) { this.maxLat = r[i + 1]; }
+                }
+            }
+        }
+        public String getSubdivision() {
+            return this.subdivision;
+        }
+        public boolean contains(double lat, double lon) {
+            if ((lat < this.minLat) || (lat > this.maxLat) || (lon < this.minLon) || (lon > this.maxLon)) {
+                return false;
+            }
+            boolean inside = false;
+            for (double r[] : this.rings) {
+                int n = r.length / 2;
+                for (int i = 0, j = n - 1; i < n; j = i++) {
+                    double xi = r[i * 2], yi = r[i * 2 + 1];
+                    double xj = r[j * 2], yj = r[j * 2 + 1];
+                    if (((yi > lat) != (yj > lat)) && (lon < ((xj - xi) * (lat - yi) / (yj - yi) + xi))) {
+                        inside = !inside;
+                    }
+                }
+            }
+            return inside;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private Polygon             polygons[]  = null;
+    private double              cellSizeDeg = DEFAULT_CELL_SIZE_DEG;
+    private int                 cellCols    = 0;
+    private Map<Integer,int[]>  cellMap     = null;
+
+    private AtomicLong          hintHits    = new AtomicLong(0L);
+    private AtomicLong          indexHits   = new AtomicLong(0L);
+    private AtomicLong          misses      = new AtomicLong(0L);
+
+    /**
+    *** Constructor (loads the specified GeoJSON boundary file)
+    *** @param geoJsonFile  The GeoJSON FeatureCollection file
+    *** @param cellSizeDeg  The grid cell size (degrees)
+    *** @param codeProps    The feature property names containing the subdivision code/name
+    *** @param countryProps The feature property names containing the country code
+    *** @param dftCountry   The default country code (if not specified by a feature property)
+    *** @throws IOException if the file could not be read or parsed
+    **/
+    public BoundaryIndex(File geoJsonFile, double cellSizeDeg,
+        String codeProps[], String countryProps[], String dftCountry)
+        throws IOException
+    {
+        this.cellSizeDeg = (cellSizeDeg > 0.0)? cellSizeDeg : DEFAULT_CELL_SIZE_DEG;
+        this.cellCols    = (int)Math.ceil(360.0 / this.cellSizeDeg);
+        if (ListTools.isEmpty(codeProps)    || StringTools.isBlank(codeProps[0]))    { codeProps    = DEFAULT_CODE_PROPS;    }
+        if (ListTools.isEmpty(countryProps) || StringTools.isBlank(countryProps[0])) { countryProps = DEFAULT_COUNTRY_PROPS; }
+        long startMS = System.currentTimeMillis();
+
+        /* parse GeoJSON */
+        JSON json;
+        try {
+            json = new JSON(geoJsonFile);
+        } catch (JSON.JSONParsingException jpe) {
+            throw new IOException("Invalid GeoJSON boundary file: " + geoJsonFile, jpe);
+        }
+        JSON._Object root = json.getObject();
+        JSON._Array features = (root != null)? root.getArrayForName("features", null) : null;
+        if (features == null) {
+            throw new IOException("GeoJSON boundary file does not contain 'features': " + geoJsonFile);
+        }
+
+        /* load polygons */
+        java.util.List<Polygon> polyList = new Vector<Polygon>();
+        for (int f = 0; f < features.size(); f++) {
+            JSON._Object feature = features.getObjectValueAt(f, null);
+            if (feature == null) { continue; }
+            JSON._Object props = feature.getObjectForName("properties", null);
+            JSON._Object geom  = feature.getObjectForName("geometry", null);
+            if ((props == null) || (geom == null)) { continue; }
+            String subdiv = BoundaryIndex.getSubdivisionCode(
+                props.getStringForName(countryProps, dftCountry),
+                props.getStringForName(codeProps, null));
+            if (StringTools.isBlank(subdiv)) {
+                Print.logWarn("Skipping boundary feature without a recognized subdivision: #" + f);
+                continue;
+            }
+            String type   = geom.getStringForName("type", "");
+            JSON._Array c = geom.getArrayForName("coordinates", null);
+            if (c == null) { continue; }
+            if (type.equalsIgnoreCase("Polygon")) {
+                polyList.add(new Polygon(subdiv, _parseRings(c)));
+            } else
+            if (type.equalsIgnoreCase("MultiPolygon")) {
+                for (int p = 0; p < c.size(); p++) {
+                    JSON._Array pc = c.getArrayValueAt(p, null);
+                    if (pc != null) {
+                        polyList.add(new Polygon(subdiv, _parseRings(pc)));
+                    }
+                }
+            }
+        }
+        this.polygons = polyList.toArray(new Polygon[polyList.size()]);
+
+        /* build grid */
+        Map<Integer,java.util.List<Integer>> grid = new HashMap<Integer,java.util.List<Integer>>();
+        for (int p = 0; p < this.polygons.length; p++) {
+            Polygon poly = this.polygons[p];
+            int r0 = this._getRow(poly.minLat), r1 = this._getRow(poly.maxLat);
+            int c0 = this._getCol(poly.minLon), c1 = this._getCol(poly.maxLon);
+            for (int r = r0; r <= r1; r++) {
+                for (int col = c0; col <= c1; col++) {
+                    Integer key = new Integer((r * this.cellCols) + col);
+                    java.util.List<Integer> list = grid.get(key);
+                    if (list == null) {
+                        list = new Vector<Integer>();
+                        grid.put(key, list);
+                    }
+                    list.add(new Integer(p));
+                }
+            }
+        }
+        this.cellMap = new HashMap<Integer,int[]>();
+        for (Map.Entry<Integer,java.util.List<Integer>> e : grid.entrySet()) {
+            java.util.List<Integer> list = e.getValue();
+            int ndx[] = new int[list.size()];
+            for (int i = 0; i < ndx.length; i++) { ndx[i] = list.get(i).intValue(); }
+            this.cellMap.put(e.getKey(), ndx);
+        }
+
+        Print.logInfo("Loaded " + this.polygons.length + " boundary polygons (" + this.cellMap.size() +
+            " cells) from " + geoJsonFile + " [" + (System.currentTimeMillis() - startMS) + " ms]");
+    }
+
+    /**
+    *** Parses the GeoJSON polygon rings ([[[lon,lat],...],...])
+    **/
+    private static double[][] _parseRings(JSON._Array rings)
+    {
+        java.util.List<double[]> list = new Vector<double[]>();
+        for (int r = 0; r < rings.size(); r++) {
+            JSON._Array ring = rings.getArrayValueAt(r, null);
+            if ((ring == null) || (ring.size() < 3)) { continue; }
+            double pts[] = new double[ring.size() * 2];
+            for (int i = 0; i < ring.size(); i++) {
+                JSON._Array pt = ring.getArrayValueAt(i, null);
+                pts[i * 2    ] = (pt != null)? pt.getDoubleValueAt(0, 0.0) : 0.0; // lon
+                pts[i * 2 + 1] = (pt != null)? pt.getDoubleValueAt(1, 0.0) : 0.0; // lat
+            }
+            list.add(pts);
+        }
+        return list.toArray(new double[list.size()][]);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the normalized subdivision ("CC/XX") for the specified country and
+    *** subdivision code/name
+    *** @param country  The country code (may be blank if unknown)
+    *** @param code     The subdivision code, name, or FIPS code
+    *** @return The normalized subdivision, or null if not recognized
+    **/
+    public static String getSubdivisionCode(String country, String code)
+    {
+        if (StringTools.isBlank(code)) {
+            return null;
+        }
+        String c  = code.trim();
+        String cc = StringTools.trim(country).toUpperCase();
+        if (cc.equals("") || cc.equals(USState.COUNTRY_US)) {
+            String st = USState.getCode(c, null);
+            if (!StringTools.isBlank(st)) { return USState.COUNTRY_US_ + st; }
+        }
+        if (cc.equals("") || cc.equals(Canada.COUNTRY_CA)) {
+            String st = Canada.getCode(c, null);
+            if (!StringTools.isBlank(st)) { return Canada.COUNTRY_CA_ + st; }
+        }
+        if (cc.equals("") || cc.equals(Mexico.COUNTRY_MX)) {
+            String st = Mexico.getCode(c, null);
+            if (!StringTools.isBlank(st)) { return Mexico.COUNTRY_MX_ + st; }
+        }
+        if (!cc.equals("") && (c.indexOf(CountryCode.SUBDIVISION_SEPARATOR) < 0)) {
+            // -- other country, use code as specified
+            return cc + CountryCode.SUBDIVISION_SEPARATOR + c.toUpperCase();
+        }
+        return null;
+    }
+
+    // ------------------------------------------------------------------------
+
+    private int _getRow(double lat)
+    {
+        int r = (int)Math.floor((lat + 90.0) / this.cellSizeDeg);
+        return (r < 0)? 0 : r;
+    }
+
+    private int _getCol(double lon)
+    {
+        int c = (int)Math.floor((lon + 180.0) / this.cellSizeDeg);
+        return (c < 0)? 0 : (c >= this.cellCols)? (this.cellCols - 1) : c;
+    }
+
+    /**
+    *** Gets the number of loaded polygons
+    *** @return The number of polygons
+    **/
+    public int getPolygonCount()
+    {
+        return this.polygons.length;
+    }
+
+    /**
+    *** Returns the subdivision containing the specified point
+    *** @param lat   The latitude
+    *** @param lon   The longitude
+    *** @param hint  A holder for the index of the previously matched polygon
+    ***              (may be null).  Updated with the matching polygon index.
+    *** @return The subdivision ("CC/XX"), or null if the point is not within any
+    ***         loaded boundary
+    **/
+    public String getSubdivision(double lat, double lon, int hint[])
+    {
+
+        /* check hint */
+        if ((hint != null) && (hint.length > 0)) {
+            int h = hint[0];
+            if ((h >= 0) && (h < this.polygons.length) && this.polygons[h].contains(lat,lon)) {
+                this.hintHits.incrementAndGet();
+                return this.polygons[h].getSubdivision();
+            }
+        }
+
+        /* check grid cell candidates */
+        int ndx[] = this.cellMap.get(new Integer((this._getRow(lat) * this.cellCols) + this._getCol(lon)));
+        if (ndx != null) {
+            for (int i = 0; i < ndx.length; i++) {
+                Polygon poly = this.polygons[ndx[i]];
+                if (poly.contains(lat,lon)) {
+                    if ((hint != null) && (hint.length > 0)) {
+                        hint[0] = ndx[i];
+                    }
+                    this.indexHits.incrementAndGet();
+                    return poly.getSubdivision();
+                }
+            }
+        }
+
+        /* not found */
+        this.misses.incrementAndGet();
+        return null;
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of lookups answered by the hinted polygon
+    *** @return The number of hint hits
+    **/
+    public long getHintHitCount()
+    {
+        return this.hintHits.get();
+    }
+
+    /**
+    *** Gets the number of lookups answered using the grid index
+    *** @return The number of grid index hits
+    **/
+    public long getIndexHitCount()
+    {
+        return this.indexHits.get();
+    }
+
+    /**
+    *** Gets the number of lookups not within any loaded boundary
+    *** @return The number of misses
+    **/
+    public long getMissCount()
+    {
+        return this.misses.get();
+    }
+
+    // ------------------------------------------------------------------------
+
+}
@@ -0,0 +1,336 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Notes:
+// - This SubdivisionProvider resolves the state/province ("US/CA") locally from
+//   a GeoJSON boundary file (see "BoundaryIndex").  The boundaries are loaded
+//   once per process and shared by all instances.
+// - Enable with the following runtime properties:
+//     SubdivisionProvider.class=org.opengts.geocoder.offline.BoundarySubdivisionProvider
+//     SubdivisionProvider.boundaryFile=boundaries/us_ca_mx.geojson
+//     SubdivisionProvider.cellSizeDeg=1.0
+//     SubdivisionProvider.codeProperty=postal,name
+//     SubdivisionProvider.defaultCountry=US
+//   (the "SubdivisionProvider.*" properties are passed to the constructor without
+//   the "SubdivisionProvider." prefix)
+// - The boundaries are loaded in a background thread when this provider is
+//   first used.  Until they are available "isFastOperation" returns false, so
+//   that event insertion does not wait for the GeoJSON file to be parsed.
+// - The "getSubdivision(String,GeoPoint)" method retains the last matching
+//   polygon per key (ie. "account/device"), so that consecutive points within
+//   the same state/province are resolved with a single point-in-polygon test.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.geocoder.offline;
+
+import java.util.*;
+import java.io.*;
+
+import org.opengts.util.*;
+
+import org.opengts.geocoder.*;
+
+public class BoundarySubdivisionProvider
+    implements KeyedSubdivisionProvider
+{
+
+    // ------------------------------------------------------------------------
+
+    protected static final String PROP_boundaryFile     = "boundaryFile";
+    protected static final String PROP_cellSizeDeg      = "cellSizeDeg";
+    protected static final String PROP_codeProperty     = "codeProperty";
+    protected static final String PROP_defaultCountry   = "defaultCountry";
+
+    private static final int    MAX_HINT_CACHE_SIZE     = 5000;
+
+    // ------------------------------------------------------------------------
+
+    /* shared boundary indexes (by boundary file path), loaded once per process */
+    private static final Map<String,BoundaryIndex>  BoundaryIndexMap = new HashMap<String,BoundaryIndex>();
+    private static final Set<String>                FailedIndexSet   = new HashSet<String>();
+
+    /**
+    *** Gets the shared BoundaryIndex for the specified GeoJSON file, loading the
+    *** boundaries if necessary.
+    *** @return The BoundaryIndex, or null if the boundaries could not be loaded
+    **/
+    protected static BoundaryIndex _getBoundaryIndex(File file, double cellSizeDeg,
+        String codeProps[], String dftCountry)
+    {
+        String key = file.getAbsolutePath();
+        synchronized (BoundaryIndexMap) {
+            BoundaryIndex bi = BoundaryIndexMap.get(key);
+            if ((bi == null) && !FailedIndexSet.contains(key)) {
+                try {
+                    bi = new BoundaryIndex(file, cellSizeDeg, codeProps, null, dftCountry);
+                    BoundaryIndexMap.put(key, bi);
+                    _registerMetrics(file, bi);
+                } catch (Throwable th) {
+                    // -- do not retry on every subdivision request
+                    Print.logException("Unable to load boundary file: " + file, th);
+                    FailedIndexSet.add(key);
+                    bi = null;
+                }
+            }
+            return bi;
+        }
+    }
+
+    /**
+    *** Registers the lookup counters of the specified BoundaryIndex with Metrics
+    **/
+    private static void _registerMetrics(File file, final BoundaryIndex bi)
+    {
+        String F = Metrics.escapeLabel(file.getName());
+        Metrics.registerCounter("gts_boundary_lookups_total{file=\"" + F + "\",result=\"hint\"}",
+            "BoundaryIndex lookups by result", new Metrics.Gauge() {
+            public double getValue() { return bi.getHintHitCount(); }
+        });
+        Metrics.registerCounter("gts_boundary_lookups_total{file=\"" + F + "\",result=\"index\"}",
+            "BoundaryIndex lookups by result", new Metrics.Gauge() {
+            public double getValue() { return bi.getIndexHitCount(); }
+        });
+        Metrics.registerCounter("gts_boundary_lookups_total{file=\"" + F + "\",result=\"miss\"}",
+            "BoundaryIndex lookups by result", new Metrics.Gauge() {
+            public double getValue() { return bi.getMissCount(); }
+        });
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private File                    boundaryFile    = null;
+    private double                  cellSizeDeg     = BoundaryIndex.DEFAULT_CELL_SIZE_DEG;
+    private String                  codeProps[]     = null;
+    private String                  dftCountry      = null;
+
+    private MemCache<String,int[]>  hintCache       = new MemCache<String,int[]>(MAX_HINT_CACHE_SIZE);
+
+    private final    Object         indexLock       = new Object();
+    private          boolean        loaderStarted   = false;
+    private volatile boolean        indexLoaded     = false;
+    private volatile BoundaryIndex  boundaryIndex   = null;
+
+    /**
+    *** Constructor
+    *** @param name    The name assigned to this SubdivisionProvider (not used)
+    *** @param key     The optional authorization key (not used)
+    *** @param rtProps The properties associated with this SubdivisionProvider
+    **/
+    public BoundarySubdivisionProvider(String name, String key, RTProperties rtProps)
+    {
+        this(OfflineGeocoder._resolveFile(rtProps.getString(PROP_boundaryFile,null)),
+            rtProps.getDouble(PROP_cellSizeDeg, BoundaryIndex.DEFAULT_CELL_SIZE_DEG),
+            StringTools.split(rtProps.getString(PROP_codeProperty,""),','),
+            rtProps.getString(PROP_defaultCountry,null));
+    }
+
+    /**
+    *** Constructor
+    *** @param boundaryFile The GeoJSON boundary file
+    *** @param cellSizeDeg  The grid cell size (degrees)
+    *** @param codeProps    The feature property names containing the subdivision code/name
+    *** @param dftCountry   The default country code
+    **/
+    public BoundarySubdivisionProvider(File boundaryFile, double cellSizeDeg,
+        String codeProps[], String dftCountry)
+    {
+        this.boundaryFile = boundaryFile;
+        this.cellSizeDeg  = cellSizeDeg;
+        this.codeProps    = codeProps;
+        this.dftCountry   = !StringTools.isBlank(dftCountry)? dftCountry.trim().toUpperCase() : null;
+        if (this.boundaryFile == null) {
+            Print.logWarn("Boundary file not specified: " + PROP_boundaryFile);
+            this.indexLoaded = true;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Starts loading the BoundaryIndex in a background thread (if not already started)
+    **/
+    private void _startIndexLoader()
+    {
+        synchronized (this.indexLock) {
+            if (this.loaderStarted || this.indexLoaded) {
+                return;
+            }
+            this.loaderStarted = true;
+        }
+        Thread loader = new Thread(new Runnable() {
+            public void run() {
+                BoundaryIndex bi = null;
+                try {
+                    bi = BoundarySubdivisionProvider._getBoundaryIndex(
+                        BoundarySubdivisionProvider.this.boundaryFile, 
+                        BoundarySubdivisionProvider.this.cellSizeDeg, 
+                        BoundarySubdivisionProvider.this.codeProps, 
+                        BoundarySubdivisionProvider.this.dftCountry);
+                } finally {
+                    synchronized (BoundarySubdivisionProvider.this.indexLock) {
+                        BoundarySubdivisionProvider.this.boundaryIndex = bi;
+                        BoundarySubdivisionProvider.this.indexLoaded   = true;
+                        BoundarySubdivisionProvider.this.indexLock.notifyAll();
+                    }
+                }
+            }
+        }, "BoundarySubdivisionProvider");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+    *** Returns true once the boundaries have been loaded, since subdivisions are
+    *** then resolved locally
+    *** @return True if the boundaries have been loaded
+    **/
+    public boolean isFastOperation()
+    {
+        if (!this.indexLoaded) {
+            this._startIndexLoader();
+        }
+        return this.indexLoaded;
+    }
+
+    /**
+    *** Gets the BoundaryIndex for this SubdivisionProvider, waiting for the background
+    *** load to complete if necessary.
+    *** @return The BoundaryIndex, or null if not configured/available
+    **/
+    public BoundaryIndex getBoundaryIndex()
+    {
+        if (!this.indexLoaded) {
+            this._startIndexLoader();
+            synchronized (this.indexLock) {
+                while (!this.indexLoaded) {
+                    try { this.indexLock.wait(); } catch (InterruptedException ie) { break; }
+                }
+            }
+        }
+        return this.boundaryIndex;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Return the subdivision of the specified point
+    *** @param gp  The GeoPoint
+    *** @return The subdivision ("US/CA"), or null if the point is not within a
+    ***     loaded boundary
+    **/
+    public String getSubdivision(GeoPoint gp)
+        throws SubdivisionException
+    {
+        return this.getSubdivision(null, gp);
+    }
+
+    /**
+    *** Return the subdivision of the specified point, using the polygon which
+    *** matched the previous point for the same key as the first candidate.
+    *** @param key The hint key (ie. "account/device"), may be null
+    *** @param gp  The GeoPoint
+    *** @return The subdivision ("US/CA"), or null if the point is not within a
+    ***     loaded boundary
+    **/
+    public String getSubdivision(String key, GeoPoint gp)
+        throws SubdivisionException
+    {
+
+        /* no GeoPoint? */
+        if ((gp == null) || !gp.isValid()) {
+            return null;
+        }
+
+        /* boundaries */
+        BoundaryIndex bi = this.getBoundaryIndex();
+        if (bi == null) {
+            throw new SubdivisionException("Boundary file not available: " + this.boundaryFile, null);
+        }
+
+        /* hint */
+        int hint[] = null;
+        if (!StringTools.isBlank(key)) {
+            hint = this.hintCache.getValue(key, null);
+            if (hint == null) {
+                hint = new int[] { -1 };
+                this.hintCache.addValue(key, hint);
+            }
+        }
+
+        /* lookup */
+        if (hint != null) {
+            synchronized (hint) {
+                return bi.getSubdivision(gp.getLatitude(), gp.getLongitude(), hint);
+            }
+        } else {
+            return bi.getSubdivision(gp.getLatitude(), gp.getLongitude(), null);
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static final String ARG_FILE[]      = new String[] { "file"   , "boundaryFile" };
+    private static final String ARG_CELL[]      = new String[] { "cell"   , "cellSizeDeg"  };
+    private static final String ARG_CODE[]      = new String[] { "code"   , "codeProperty" };
+    private static final String ARG_COUNTRY[]   = new String[] { "country", "defaultCountry" };
+    private static final String ARG_GEOPOINT[]  = new String[] { "geoPoint", "gp"          };
+
+    /**
+    *** Main entry point for debugging/testing
+    **/
+    public static void main(String argv[])
+    {
+        RTConfig.setCommandLineArgs(argv);
+        Print.setAllOutputToStdout(true);
+        File file = RTConfig.getFile(ARG_FILE, null);
+        if (file == null) {
+            Print.sysPrintln("Usage:");
+            Print.sysPrintln("  java ... " + BoundarySubdivisionProvider.class.getName() + " -file=<geojson> [-code=<props>] [-country=<cc>] -gp=<lat>/<lon>[,<lat>/<lon>...]");
+            System.exit(1);
+        }
+        BoundarySubdivisionProvider bsp = new BoundarySubdivisionProvider(file,
+            RTConfig.getDouble(ARG_CELL, BoundaryIndex.DEFAULT_CELL_SIZE_DEG),
+            StringTools.split(RTConfig.getString(ARG_CODE,""),','),
+            RTConfig.getString(ARG_COUNTRY,null));
+        String gpList[] = StringTools.split(RTConfig.getString(ARG_GEOPOINT,""),',');
+        for (String gps : gpList) {
+            GeoPoint gp = new GeoPoint(gps);
+            try {
+                long startNS = System.nanoTime();
+                String subdiv = bsp.getSubdivision("main", gp);
+                long deltaUS = (System.nanoTime() - startNS) / 1000L;
+                Print.sysPrintln(gp + " ==> " + subdiv + " [" + deltaUS + " us]");
+            } catch (SubdivisionException se) {
+                Print.sysPrintln("Error: " + se.getMessage());
+                System.exit(99);
+            }
+        }
+        BoundaryIndex bi = bsp.getBoundaryIndex();
+        if (bi != null) {
+            Print.sysPrintln("Hint hits=" + bi.getHintHitCount() + ", index hits=" + bi.getIndexHitCount() + ", misses=" + bi.getMissCount());
+        }
+    }
+
+}
@@ -0,0 +1,370 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Notes:
+// - This reverse-geocoder resolves addresses locally from a place/address data
+//   file (ie. a GeoNames or OSM-derived extract), using a memory-mapped grid
+//   index (see "PlaceIndex").  Since no remote service is called, this is a
+//   "fast" operation and addresses may be resolved inline during event insertion.
+// - Properties:
+//     dataFile     - The place/address data file (relative to the config dir)
+//     format       - "geonames", "postal", or "csv" (default "geonames")
+//     indexFile    - The index file (default "<dataFile>.idx")
+//     cellSizeDeg  - The index grid cell size in degrees (default 0.1, minimum 0.01)
+//     radiusKM     - The maximum distance to the nearest place (default 5.0)
+// - The index file is (re)built when it does not exist, or is older than the
+//   data file.  Large extracts should be indexed beforehand with "main".
+// - The index is loaded (or built) in a background thread when this provider is
+//   first used (not when it is created, since all configured providers are
+//   created, including inactive providers).  Until the index is available 
+//   "isFastOperation" returns false, so that address lookups are queued for
+//   background processing rather than waiting for the index inline during 
+//   event insertion.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.geocoder.offline;
+
+import java.util.*;
+import java.io.*;
+
+import org.opengts.util.*;
+
+import org.opengts.geocoder.*;
+
+public class OfflineGeocoder
+    extends ReverseGeocodeProviderAdapter
+    implements ReverseGeocodeProvider
+{
+
+    // ------------------------------------------------------------------------
+
+    protected static final String PROP_dataFile                 = "dataFile";
+    protected static final String PROP_format                   = "format";
+    protected static final String PROP_indexFile                = "indexFile";
+    protected static final String PROP_cellSizeDeg              = "cellSizeDeg";
+    protected static final String PROP_radiusKM                 = "radiusKM";
+
+    protected static final double DEFAULT_RADIUS_KM             = 5.0;
+
+    // ------------------------------------------------------------------------
+
+    /* shared indexes (by index file path), loaded once per process */
+    private static final Map<String,PlaceIndex> PlaceIndexMap   = new HashMap<String,PlaceIndex>();
+    private static final Set<String>            FailedIndexSet  = new HashSet<String>();
+
+    /**
+    *** Resolves the specified file path (relative paths are relative to the
+    *** loaded config file directory)
+    **/
+    protected static File _resolveFile(String path)
+    {
+        if (StringTools.isBlank(path)) {
+            return null;
+        }
+        File f = new File(path.trim());
+        if (!f.isAbsolute()) {
+            File cfgDir = RTConfig.getLoadedConfigDir();
+            if (cfgDir != null) {
+                f = new File(cfgDir, f.getPath());
+            }
+        }
+        return f;
+    }
+
+    /**
+    *** Gets the shared PlaceIndex for the specified data/index file, loading (or
+    *** building) the index if necessary.
+    *** @return The PlaceIndex, or null if the index could not be loaded
+    **/
+    protected static PlaceIndex _getPlaceIndex(File dataFile, String format, double cellSizeDeg, File indexFile)
+    {
+        if (indexFile == null) {
+            indexFile = new File(dataFile.getPath() + ".idx");
+        }
+        String key = indexFile.getAbsolutePath();
+        synchronized (PlaceIndexMap) {
+            PlaceIndex pi = PlaceIndexMap.get(key);
+            if ((pi == null) && !FailedIndexSet.contains(key)) {
+                try {
+                    pi = PlaceIndex.load(dataFile, format, cellSizeDeg, indexFile);
+                    PlaceIndexMap.put(key, pi);
+                    Print.logInfo("Loaded place index: " + indexFile + " [" + pi.getRecordCount() + " places]");
+                } catch (Throwable th) {
+                    // -- do not retry on every reverse-geocode request
+                    Print.logException("Unable to load place index: " + indexFile, th);
+                    FailedIndexSet.add(key);
+                    pi = null;
+                }
+            }
+            return pi;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Constructor
+    *** @param name    The name assigned to this ReverseGeocodeProvider
+    *** @param key     The optional authorization key (not used)
+    *** @param rtProps The properties associated with this ReverseGeocodeProvider
+    **/
+    public OfflineGeocoder(String name, String key, RTProperties rtProps)
+    {
+        super(name, key, rtProps);
+    }
+
+    // ------------------------------------------------------------------------
+
+    private final    Object     indexLock       = new Object();
+    private          boolean    loaderStarted   = false;
+    private volatile boolean    indexLoaded     = false;
+    private volatile PlaceIndex placeIndex      = null;
+
+    /**
+    *** Starts loading the PlaceIndex in a background thread (if not already started)
+    **/
+    private void _startIndexLoader()
+    {
+        synchronized (this.indexLock) {
+            if (this.loaderStarted) {
+                return;
+            }
+            this.loaderStarted = true;
+        }
+        Thread loader = new Thread(new Runnable() {
+            public void run() {
+                PlaceIndex pi = null;
+                try {
+                    pi = OfflineGeocoder.this._loadPlaceIndex();
+                } finally {
+                    synchronized (OfflineGeocoder.this.indexLock) {
+                        OfflineGeocoder.this.placeIndex  = pi;
+                        OfflineGeocoder.this.indexLoaded = true;
+                        OfflineGeocoder.this.indexLock.notifyAll();
+                    }
+                }
+            }
+        }, "OfflineGeocoder_" + this.getName());
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+    *** Returns true if the PlaceIndex has been loaded (or has failed to load)
+    *** @return True if the PlaceIndex load has completed
+    **/
+    public boolean isIndexLoaded()
+    {
+        return this.indexLoaded;
+    }
+
+    /**
+    *** Returns true once the index has been loaded, since addresses are then 
+    *** resolved locally
+    *** @return True if the index has been loaded
+    **/
+    public boolean isFastOperation()
+    {
+        if (!this.indexLoaded && this.isEnabled()) {
+            this._startIndexLoader();
+        }
+        return this.indexLoaded;
+    }
+
+    /**
+    *** Gets the PlaceIndex for this ReverseGeocodeProvider, waiting for the
+    *** background load to complete if necessary.
+    *** @return The PlaceIndex, or null if not configured/available
+    **/
+    protected PlaceIndex getPlaceIndex()
+    {
+        if (!this.indexLoaded) {
+            this._startIndexLoader();
+            synchronized (this.indexLock) {
+                while (!this.indexLoaded) {
+                    try { this.indexLock.wait(); } catch (InterruptedException ie) { break; }
+                }
+            }
+        }
+        return this.placeIndex;
+    }
+
+    /**
+    *** Loads the PlaceIndex for this ReverseGeocodeProvider
+    *** @return The PlaceIndex, or null if not configured/available
+    **/
+    private PlaceIndex _loadPlaceIndex()
+    {
+        RTProperties rtp = this.getProperties();
+        File dataFile = OfflineGeocoder._resolveFile(rtp.getString(PROP_dataFile,null));
+        if (dataFile == null) {
+            return null;
+        }
+        String format    = rtp.getString(PROP_format, PlaceIndex.FORMAT_GEONAMES);
+        double cellDeg   = rtp.getDouble(PROP_cellSizeDeg, PlaceIndex.DEFAULT_CELL_SIZE_DEG);
+        File   indexFile = OfflineGeocoder._resolveFile(rtp.getString(PROP_indexFile,null));
+        return OfflineGeocoder._getPlaceIndex(dataFile, format, cellDeg, indexFile);
+    }
+
+    /**
+    *** Gets the maximum distance to the nearest place
+    *** @return The maximum distance (kilometers)
+    **/
+    protected double getRadiusKM()
+    {
+        RTProperties rtp = this.getProperties();
+        return rtp.getDouble(PROP_radiusKM, DEFAULT_RADIUS_KM);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns a ReverseGeocode instance for the specified GeoPoint
+    *** @param gp  The GeoPoint
+    *** @return The ReverseGeocode instance, or null if no place was found within
+    ***     the configured radius
+    **/
+    public ReverseGeocode getReverseGeocode(GeoPoint gp, String localeStr, boolean cache)
+    {
+
+        /* no GeoPoint? */
+        if ((gp == null) || !gp.isValid()) {
+            return null;
+        }
+
+        /* nearest place */
+        PlaceIndex pi = this.getPlaceIndex();
+        PlaceIndex.Place place = (pi != null)? pi.getNearest(gp.getLatitude(), gp.getLongitude(), this.getRadiusKM()) : null;
+        if (place == null) {
+            return null;
+        }
+
+        /* address */
+        String  country = place.getCountryCode();
+        String  state   = place.getStateProvince();
+        boolean isUS    = country.equalsIgnoreCase(ReverseGeocode.COUNTRY_US);
+        StringBuffer sb = new StringBuffer();
+        if (!StringTools.isBlank(place.getStreetAddress())) {
+            sb.append(place.getStreetAddress());
+        }
+        if (!StringTools.isBlank(place.getCity())) {
+            if (sb.length() > 0) { sb.append(", "); }
+            sb.append(place.getCity());
+        }
+        if (!StringTools.isBlank(state)) {
+            if (sb.length() > 0) { sb.append(", "); }
+            sb.append(state);
+        }
+        if (!StringTools.isBlank(place.getPostalCode())) {
+            if (sb.length() > 0) { sb.append(" "); }
+            sb.append(place.getPostalCode());
+        }
+        if (!isUS && !StringTools.isBlank(country)) {
+            if (sb.length() > 0) { sb.append(" "); }
+            sb.append(country);
+        }
+        String addr = sb.toString().trim();
+        if (addr.equals("")) {
+            return null;
+        }
+
+        /* return ReverseGeocode */
+        ReverseGeocode rg = new ReverseGeocode();
+        rg.setFullAddress(addr);
+        rg.setStreetAddress(place.getStreetAddress());
+        rg.setCity(place.getCity());
+        rg.setStateProvince(state);
+        rg.setPostalCode(place.getPostalCode());
+        rg.setCountryCode(country);
+        if (!StringTools.isBlank(country) && !StringTools.isBlank(state)) {
+            rg.setSubdivision(country.toUpperCase() + ReverseGeocode.SUBDIVISION_SEPARATOR + state);
+        }
+        return rg;
+
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static final String ARG_DATA[]      = new String[] { "data"   , "dataFile"    };
+    private static final String ARG_FORMAT[]    = new String[] { "format" , "fmt"         };
+    private static final String ARG_INDEX[]     = new String[] { "index"  , "indexFile"   };
+    private static final String ARG_CELL[]      = new String[] { "cell"   , "cellSizeDeg" };
+    private static final String ARG_BUILD[]     = new String[] { "build"                  };
+    private static final String ARG_GEOPOINT[]  = new String[] { "geoPoint", "gp"         };
+    private static final String ARG_RADIUS[]    = new String[] { "radius" , "radiusKM"    };
+
+    /**
+    *** Main entry point for building an index, and debugging/testing
+    **/
+    public static void main(String argv[])
+    {
+        RTConfig.setCommandLineArgs(argv);
+        Print.setAllOutputToStdout(true);
+        File   dataFile  = RTConfig.getFile(ARG_DATA, null);
+        File   indexFile = RTConfig.getFile(ARG_INDEX, null);
+        String format    = RTConfig.getString(ARG_FORMAT, PlaceIndex.FORMAT_GEONAMES);
+        double cellDeg   = RTConfig.getDouble(ARG_CELL, PlaceIndex.DEFAULT_CELL_SIZE_DEG);
+        if (dataFile == null) {
+            Print.sysPrintln("Usage:");
+            Print.sysPrintln("  java ... " + OfflineGeocoder.class.getName() + " -data=<file> [-format=<fmt>] [-index=<file>] -build");
+            Print.sysPrintln("  java ... " + OfflineGeocoder.class.getName() + " -data=<file> [-format=<fmt>] [-index=<file>] -gp=<lat>/<lon>");
+            System.exit(1);
+        }
+
+        /* build */
+        if (RTConfig.getBoolean(ARG_BUILD,false)) {
+            try {
+                File idx = (indexFile != null)? indexFile : new File(dataFile.getPath() + ".idx");
+                int count = PlaceIndex.buildIndex(dataFile, format, cellDeg, idx);
+                Print.sysPrintln("Indexed " + count + " places: " + idx);
+                System.exit(0);
+            } catch (IOException ioe) {
+                Print.logException("Unable to build index", ioe);
+                System.exit(99);
+            }
+        }
+
+        /* reverse-geocode */
+        GeoPoint gp = new GeoPoint(RTConfig.getString(ARG_GEOPOINT,""));
+        if (!gp.isValid()) {
+            Print.sysPrintln("Invalid GeoPoint specified");
+            System.exit(1);
+        }
+        RTProperties rtp = new RTProperties();
+        rtp.setString(PROP_dataFile   , dataFile.getPath());
+        rtp.setString(PROP_format     , format);
+        rtp.setDouble(PROP_cellSizeDeg, cellDeg);
+        rtp.setDouble(PROP_radiusKM   , RTConfig.getDouble(ARG_RADIUS, DEFAULT_RADIUS_KM));
+        if (indexFile != null) {
+            rtp.setString(PROP_indexFile, indexFile.getPath());
+        }
+        OfflineGeocoder og = new OfflineGeocoder("offline", null, rtp);
+        long startNS = System.nanoTime();
+        ReverseGeocode rg = og.getReverseGeocode(gp, null/*localeStr*/, false/*cache*/);
+        long deltaUS = (System.nanoTime() - startNS) / 1000L;
+        Print.sysPrintln("RevGeocode = " + rg + " [" + deltaUS + " us]");
+
+    }
+
+}
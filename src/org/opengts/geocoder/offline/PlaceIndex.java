@@ -0,0 +1,562 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Memory-mapped grid index of named places/address points
+// ----------------------------------------------------------------------------
+// Notes:
+//  - The index is built once from a place/address data file, written to a
+//    binary index file, and then memory-mapped (read-only).  Lookups read the
+//    mapped file with absolute "get" methods only, so a single PlaceIndex
+//    instance may be shared by all threads.
+//  - Supported data file formats:
+//      "geonames" - GeoNames "cities" dump (ie. "cities1000.txt", tab-separated)
+//      "postal"   - GeoNames postal-code dump (ie. "US.txt", tab-separated)
+//      "csv"      - lat,lon,streetAddress,city,stateProvince,postalCode,countryCode
+//                   (ie. an OSM-derived address point extract)
+//  - Index file layout (big-endian):
+//      Header : magic, version, cellSizeMicroDeg, recordCount, cellCount, stringTableSize
+//      Cells  : cellCount   x { int cellKey, int firstRecord }   (ascending cellKey)
+//      Records: recordCount x { int lat1E6, int lon1E6, int stringOffset }
+//      Strings: { short length, UTF-8 "street\tcity\tstate\tpostal\tcountry" }
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.geocoder.offline;
+
+import java.util.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+import org.opengts.util.*;
+
+import org.opengts.geocoder.country.*;
+
+/**
+*** Memory-mapped grid index of named places/address points
+**/
+
+public class PlaceIndex
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final String FORMAT_GEONAMES         = "geonames";
+    public  static final String FORMAT_POSTAL           = "postal";
+    public  static final String FORMAT_CSV              = "csv";
+
+    public  static final double DEFAULT_CELL_SIZE_DEG   = 0.1;
+    public  static final double MIN_CELL_SIZE_DEG       = 0.01;  // (180/c)*(360/c) must fit in an 'int' cell key
+
+    private static final int    INDEX_MAGIC             = 0x4F475049; // "OGPI"
+    private static final int    INDEX_VERSION           = 1;
+    private static final int    HEADER_SIZE             = 24;
+    private static final int    CELL_ENTRY_SIZE         = 8;
+    private static final int    RECORD_ENTRY_SIZE       = 12;
+
+    private static final double KM_PER_DEGREE           = 111.195;
+    private static final java.nio.charset.Charset UTF8  = java.nio.charset.Charset.forName(StringTools.CharEncoding_UTF_8);
+    private static final int    MAX_SEARCH_RINGS        = 50;
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Place class (the nearest matching place)
+    **/
+    public static class Place
+    {
+        private double  latitude        = 0.0;
+        private double  longitude       = 0.0;
+        private double  distanceKM      = 0.0;
+        private String  streetAddress   = "";
+        private String  city            = "";
+        private String  stateProvince   = "";
+        private String  postalCode      = "";
+        private String  countryCode     = "";
+        private Place(double lat, double lon, double distKM, String s) {
+            this.latitude   = lat;
+            this.longitude  = lon;
+            this.distanceKM = distKM;
+            String f[] = StringTools.split(s, '\t');
+            this.streetAddress = (f.length > 0)? f[0] : "";
+            this.city          = (f.length > 1)? f[1] : "";
+            this.stateProvince = (f.length > 2)? f[2] : "";
+            this.postalCode    = (f.length > 3)? f[3] : "";
+            this.countryCode   = (f.length > 4)? f[4] : "";
+        }
+        public GeoPoint getGeoPoint() {
+            return new GeoPoint(this.latitude, this.longitude);
+        }
+        public double getDistanceKM() {
+            return this.distanceKM;
+        }
+        public String getStreetAddress() {
+            return this.streetAddress;
+        }
+        public String getCity() {
+            return this.city;
+        }
+        public String getStateProvince() {
+            return this.stateProvince;
+        }
+        public String getPostalCode() {
+            return this.postalCode;
+        }
+        public String getCountryCode() {
+            return this.countryCode;
+        }
+        public String toString() {
+            StringBuffer sb = new StringBuffer();
+            sb.append(this.streetAddress).append("|").append(this.city).append("|");
+            sb.append(this.stateProvince).append("|").append(this.postalCode).append("|");
+            sb.append(this.countryCode).append(" [").append(StringTools.format(this.distanceKM,"0.000")).append(" km]");
+            return sb.toString();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns the index file for the specified data file, building (or rebuilding)
+    *** the index file if it does not exist or is older than the data file.
+    *** @param dataFile    The place/address data file
+    *** @param format      The data file format
+    *** @param cellSizeDeg The grid cell size (degrees)
+    *** @param indexFile   The index file (null to use "dataFile.idx")
+    *** @return The PlaceIndex
+    *** @throws IOException if the index could not be built or loaded
+    **/
+    public static PlaceIndex load(File dataFile, String format, double cellSizeDeg, File indexFile)
+        throws IOException
+    {
+        if (indexFile == null) {
+            indexFile = new File(dataFile.getPath() + ".idx");
+        }
+        if (!indexFile.isFile() || (dataFile.isFile() && (dataFile.lastModified() > indexFile.lastModified()))) {
+            PlaceIndex.buildIndex(dataFile, format, cellSizeDeg, indexFile);
+        }
+        return new PlaceIndex(indexFile);
+    }
+
+    // ------------------------------------------------------------------------
+
+    private File                indexFile       = null;
+    private MappedByteBuffer    mapBuf          = null;
+    private int                 cellSizeMicro   = 0;
+    private double              cellSizeDeg     = 0.0;
+    private int                 cellCols        = 0;
+    private int                 recordCount     = 0;
+    private int                 cellCount       = 0;
+    private int                 cellTableOfs    = 0;
+    private int                 recordTableOfs  = 0;
+    private int                 stringTableOfs  = 0;
+
+    /**
+    *** Constructor (memory-maps an existing index file)
+    *** @param indexFile  The index file
+    *** @throws IOException if the index file could not be mapped or is invalid
+    **/
+    public PlaceIndex(File indexFile)
+        throws IOException
+    {
+        this.indexFile = indexFile;
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(indexFile, "r");
+            FileChannel fc = raf.getChannel();
+            this.mapBuf = fc.map(FileChannel.MapMode.READ_ONLY, 0L, fc.size());
+        } finally {
+            if (raf != null) { try { raf.close(); } catch (Throwable th) {/*ignore*/} }
+        }
+        MappedByteBuffer mb = this.mapBuf;
+        if ((mb.capacity() < HEADER_SIZE) || (mb.getInt(0) != INDEX_MAGIC) || (mb.getInt(4) != INDEX_VERSION)) {
+            throw new IOException("Invalid place index file: " + indexFile);
+        }
+        this.cellSizeMicro  = mb.getInt(8);
+        this.recordCount    = mb.getInt(12);
+        this.cellCount      = mb.getInt(16);
+        int strTableSize    = mb.getInt(20);
+        this.cellSizeDeg    = (double)this.cellSizeMicro / 1000000.0;
+        this.cellCols       = PlaceIndex._getCellCols(this.cellSizeMicro);
+        this.cellTableOfs   = HEADER_SIZE;
+        this.recordTableOfs = this.cellTableOfs   + (this.cellCount   * CELL_ENTRY_SIZE);
+        this.stringTableOfs = this.recordTableOfs + (this.recordCount * RECORD_ENTRY_SIZE);
+        if ((this.cellSizeDeg < MIN_CELL_SIZE_DEG) || ((this.stringTableOfs + strTableSize) > mb.capacity())) {
+            throw new IOException("Invalid/truncated place index file: " + indexFile);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the index file
+    *** @return The index file
+    **/
+    public File getIndexFile()
+    {
+        return this.indexFile;
+    }
+
+    /**
+    *** Gets the number of places in this index
+    *** @return The number of places
+    **/
+    public int getRecordCount()
+    {
+        return this.recordCount;
+    }
+
+    /**
+    *** Gets the number of non-empty grid cells in this index
+    *** @return The number of grid cells
+    **/
+    public int getCellCount()
+    {
+        return this.cellCount;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the grid column count for the specified cell size
+    **/
+    private static int _getCellCols(int cellSizeMicro)
+    {
+        return (int)((360000000L + cellSizeMicro - 1L) / cellSizeMicro);
+    }
+
+    /**
+    *** Gets the grid cell key for the specified row/column
+    **/
+    private static int _getCellKey(int row, int col, int cols)
+    {
+        return (row * cols) + col;
+    }
+
+    /**
+    *** Gets the grid row for the specified latitude (micro-degrees)
+    **/
+    private static int _getRow(long lat1E6, int cellSizeMicro)
+    {
+        return (int)((lat1E6 + 90000000L) / cellSizeMicro);
+    }
+
+    /**
+    *** Gets the grid column for the specified longitude (micro-degrees)
+    **/
+    private static int _getCol(long lon1E6, int cellSizeMicro, int cols)
+    {
+        int c = (int)((lon1E6 + 180000000L) / cellSizeMicro);
+        return (c < cols)? c : (cols - 1);
+    }
+
+    /**
+    *** Gets the record range {first,end} of the specified grid cell
+    *** @return True if the cell was found, false if the cell is empty
+    **/
+    private boolean _findCell(int cellKey, int range[])
+    {
+        int lo = 0, hi = this.cellCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int key = this.mapBuf.getInt(this.cellTableOfs + (mid * CELL_ENTRY_SIZE));
+            if (key < cellKey) {
+                lo = mid + 1;
+            } else
+            if (key > cellKey) {
+                hi = mid - 1;
+            } else {
+                range[0] = this.mapBuf.getInt(this.cellTableOfs + (mid * CELL_ENTRY_SIZE) + 4);
+                range[1] = ((mid + 1) < this.cellCount)?
+                    this.mapBuf.getInt(this.cellTableOfs + ((mid + 1) * CELL_ENTRY_SIZE) + 4) :
+                    this.recordCount;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+    *** Reads the UTF-8 string at the specified string table offset
+    **/
+    private String _getString(int strOfs)
+    {
+        int p   = this.stringTableOfs + strOfs;
+        int len = this.mapBuf.getShort(p) & 0xFFFF;
+        byte b[] = new byte[len];
+        for (int i = 0; i < len; i++) {
+            b[i] = this.mapBuf.get(p + 2 + i);
+        }
+        return new String(b, UTF8);
+    }
+
+    /**
+    *** Returns the nearest place to the specified point, within the specified radius
+    *** @param lat       The latitude
+    *** @param lon       The longitude
+    *** @param maxDistKM The maximum distance to search (kilometers)
+    *** @return The nearest Place, or null if no place is within the specified radius
+    **/
+    public Place getNearest(double lat, double lon, double maxDistKM)
+    {
+        if (!GeoPoint.isValid(lat,lon) || (this.recordCount <= 0) || (maxDistKM <= 0.0)) {
+            return null;
+        }
+        long   lat1E6 = Math.round(lat * 1000000.0);
+        long   lon1E6 = Math.round(lon * 1000000.0);
+        int    row    = _getRow(lat1E6, this.cellSizeMicro);
+        int    col    = _getCol(lon1E6, this.cellSizeMicro, this.cellCols);
+        double cosLat = Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+        double cellKM = this.cellSizeDeg * KM_PER_DEGREE;
+        int    rowR   = Math.min((int)Math.ceil(maxDistKM / cellKM), MAX_SEARCH_RINGS);
+        int    colR   = Math.min((int)Math.ceil(maxDistKM / (cellKM * cosLat)), Math.min(MAX_SEARCH_RINGS, this.cellCols / 2));
+        int    maxRow = _getRow(90000000L, this.cellSizeMicro);
+
+        /* scan neighboring cells */
+        double maxDeg2  = (maxDistKM / KM_PER_DEGREE) * (maxDistKM / KM_PER_DEGREE);
+        double bestD2   = Double.MAX_VALUE;
+        int    bestRec  = -1;
+        int    range[]  = new int[2];
+        for (int r = Math.max(row - rowR, 0); r <= Math.min(row + rowR, maxRow); r++) {
+            for (int dc = -colR; dc <= colR; dc++) {
+                int c = (col + dc + this.cellCols) % this.cellCols;
+                if (!this._findCell(_getCellKey(r,c,this.cellCols), range)) {
+                    continue;
+                }
+                for (int n = range[0]; n < range[1]; n++) {
+                    int    p   = this.recordTableOfs + (n * RECORD_ENTRY_SIZE);
+                    double dy  = (double)(this.mapBuf.getInt(p) - lat1E6) / 1000000.0;
+                    double dx  = (double)(this.mapBuf.getInt(p + 4) - lon1E6) / 1000000.0;
+                    if (dx >  180.0) { dx -= 360.0; } else if (dx < -180.0) { dx += 360.0; }
+                    dx *= cosLat;
+                    double d2  = (dx * dx) + (dy * dy);
+                    if ((d2 <= maxDeg2) && (d2 < bestD2)) {
+                        bestD2  = d2;
+                        bestRec = n;
+                    }
+                }
+            }
+        }
+        if (bestRec < 0) {
+            return null;
+        }
+
+        /* place */
+        int p = this.recordTableOfs + (bestRec * RECORD_ENTRY_SIZE);
+        return new Place(
+            (double)this.mapBuf.getInt(p    ) / 1000000.0,
+            (double)this.mapBuf.getInt(p + 4) / 1000000.0,
+            Math.sqrt(bestD2) * KM_PER_DEGREE,
+            this._getString(this.mapBuf.getInt(p + 8)));
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Normalizes the state/province code for the specified country
+    **/
+    private static String _stateCode(String cc, String state)
+    {
+        if (StringTools.isBlank(state)) {
+            return "";
+        } else
+        if (cc.equalsIgnoreCase(USState.COUNTRY_US)) {
+            return USState.getCode(state, state);
+        } else
+        if (cc.equalsIgnoreCase(Canada.COUNTRY_CA)) {
+            return Canada.getCode(state, state);
+        } else
+        if (cc.equalsIgnoreCase(Mexico.COUNTRY_MX)) {
+            return Mexico.getCode(state, state);
+        } else {
+            return state;
+        }
+    }
+
+    /**
+    *** Returns the field at the specified index (tab characters removed)
+    **/
+    private static String _fld(String f[], int ndx)
+    {
+        return ((ndx < f.length) && (f[ndx] != null))? f[ndx].replace('\t',' ').trim() : "";
+    }
+
+    /**
+    *** Builds an index file from the specified place/address data file
+    *** @param dataFile    The place/address data file
+    *** @param format      The data file format ("geonames", "postal", "csv")
+    *** @param cellSizeDeg The grid cell size (degrees)
+    *** @param indexFile   The index file to write
+    *** @return The number of places indexed
+    *** @throws IOException if an error occurs
+    **/
+    public static int buildIndex(File dataFile, String format, double cellSizeDeg, File indexFile)
+        throws IOException
+    {
+        String fmt = StringTools.trim(format).toLowerCase();
+        if (!fmt.equals(FORMAT_GEONAMES) && !fmt.equals(FORMAT_POSTAL) && !fmt.equals(FORMAT_CSV)) {
+            throw new IOException("Unsupported place data format: " + format);
+        }
+        if (cellSizeDeg <= 0.0) {
+            cellSizeDeg = DEFAULT_CELL_SIZE_DEG;
+        } else
+        if (cellSizeDeg < MIN_CELL_SIZE_DEG) {
+            Print.logWarn("Cell size " + cellSizeDeg + " below minimum, using " + MIN_CELL_SIZE_DEG);
+            cellSizeDeg = MIN_CELL_SIZE_DEG;
+        }
+        int cellSizeMicro = (int)Math.round(cellSizeDeg * 1000000.0);
+        int cols = _getCellCols(cellSizeMicro);
+        Print.logInfo("Building place index: " + dataFile + " ==> " + indexFile);
+        long startMS = System.currentTimeMillis();
+
+        /* read places (parallel arrays, to limit per-record overhead) */
+        int    count    = 0;
+        int    lats[]   = new int[4096];
+        int    lons[]   = new int[4096];
+        int    sofs[]   = new int[4096];
+        ByteArrayOutputStream strTable = new ByteArrayOutputStream();
+        DataOutputStream      strOut   = new DataOutputStream(strTable);
+        BufferedReader br = null;
+        try {
+            br = new BufferedReader(new InputStreamReader(new FileInputStream(dataFile), StringTools.CharEncoding_UTF_8));
+            for (String line = br.readLine(); line != null; line = br.readLine()) {
+                if (line.startsWith("#") || StringTools.isBlank(line)) {
+                    continue;
+                }
+                double lat, lon;
+                String street, city, state, postal, cc;
+                if (fmt.equals(FORMAT_GEONAMES)) {
+                    // -- 0:id 1:name 2:ascii 3:alt 4:lat 5:lon 6:fclass 7:fcode 8:cc 9:cc2 10:admin1 ...
+                    String f[] = StringTools.split(line, '\t', false);
+                    if ((f.length < 11) || !_fld(f,6).equals("P")) { continue; }
+                    lat    = StringTools.parseDouble(f[4], 999.0);
+                    lon    = StringTools.parseDouble(f[5], 999.0);
+                    cc     = _fld(f,8);
+                    street = "";
+                    city   = _fld(f,1);
+                    state  = _stateCode(cc, _fld(f,10));
+                    postal = "";
+                } else
+                if (fmt.equals(FORMAT_POSTAL)) {
+                    // -- 0:cc 1:postal 2:place 3:admin1Name 4:admin1Code 5..8:admin2/3 9:lat 10:lon 11:accuracy
+                    String f[] = StringTools.split(line, '\t', false);
+                    if (f.length < 11) { continue; }
+                    lat    = StringTools.parseDouble(f[9] , 999.0);
+                    lon    = StringTools.parseDouble(f[10], 999.0);
+                    cc     = _fld(f,0);
+                    street = "";
+                    city   = _fld(f,2);
+                    state  = _stateCode(cc, _fld(f,4));
+                    postal = _fld(f,1);
+                } else {
+                    // -- 0:lat 1:lon 2:street 3:city 4:state 5:postal 6:country
+                    String f[] = StringTools.parseStringArray(line, ',');
+                    if (f.length < 4) { continue; }
+                    lat    = StringTools.parseDouble(f[0], 999.0);
+                    lon    = StringTools.parseDouble(f[1], 999.0);
+                    cc     = _fld(f,6);
+                    street = _fld(f,2);
+                    city   = _fld(f,3);
+                    state  = _stateCode(cc, _fld(f,4));
+                    postal = _fld(f,5);
+                }
+                if (!GeoPoint.isValid(lat,lon)) {
+                    continue;
+                }
+                if (count >= lats.length) {
+                    int newLen = lats.length * 2;
+                    lats = Arrays.copyOf(lats, newLen);
+                    lons = Arrays.copyOf(lons, newLen);
+                    sofs = Arrays.copyOf(sofs, newLen);
+                }
+                byte s[] = (street + "\t" + city + "\t" + state + "\t" + postal + "\t" + cc).getBytes(StringTools.CharEncoding_UTF_8);
+                int  sLen = Math.min(s.length, 0xFFFF);
+                lats[count] = (int)Math.round(lat * 1000000.0);
+                lons[count] = (int)Math.round(lon * 1000000.0);
+                sofs[count] = strOut.size();
+                strOut.writeShort(sLen);
+                strOut.write(s, 0, sLen);
+                count++;
+            }
+        } finally {
+            if (br != null) { try { br.close(); } catch (Throwable th) {/*ignore*/} }
+        }
+        strOut.flush();
+
+        /* sort by cell (cellKey << 32 | recordIndex) */
+        long order[] = new long[count];
+        for (int i = 0; i < count; i++) {
+            int cellKey = _getCellKey(_getRow(lats[i],cellSizeMicro), _getCol(lons[i],cellSizeMicro,cols), cols);
+            order[i] = ((long)cellKey << 32) | (long)i;
+        }
+        Arrays.sort(order);
+        int cellCount = 0;
+        for (int i = 0; i < count; i++) {
+            if ((i == 0) || ((int)(order[i] >>> 32) != (int)(order[i - 1] >>> 32))) {
+                cellCount++;
+            }
+        }
+
+        /* write index file (to a temporary file, then rename) */
+        File tmpFile = new File(indexFile.getPath() + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile), 65536));
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeInt(cellSizeMicro);
+            out.writeInt(count);
+            out.writeInt(cellCount);
+            out.writeInt(strTable.size());
+            for (int i = 0; i < count; i++) {
+                int cellKey = (int)(order[i] >>> 32);
+                if ((i == 0) || (cellKey != (int)(order[i - 1] >>> 32))) {
+                    out.writeInt(cellKey);
+                    out.writeInt(i);
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                int r = (int)(order[i] & 0xFFFFFFFFL);
+                out.writeInt(lats[r]);
+                out.writeInt(lons[r]);
+                out.writeInt(sofs[r]);
+            }
+            strTable.writeTo(out);
+        } finally {
+            if (out != null) { try { out.close(); } catch (Throwable th) {/*ignore*/} }
+        }
+        if (indexFile.exists() && !indexFile.delete()) {
+            throw new IOException("Unable to replace place index file: " + indexFile);
+        }
+        if (!tmpFile.renameTo(indexFile)) {
+            throw new IOException("Unable to rename place index file: " + tmpFile);
+        }
+
+        Print.logInfo("Indexed " + count + " places in " + cellCount + " cells [" + (System.currentTimeMillis() - startMS) + " ms]");
+        return count;
+    }
+
+    // ------------------------------------------------------------------------
+
+}
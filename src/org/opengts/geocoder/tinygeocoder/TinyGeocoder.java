@@ -85,9 +85,7 @@ public class TinyGeocoder
         String response = null;
         try {
             Print.logInfo("URL: " + url);
-            byte respB[] = HTMLTools.readPage_GET(
-                new URL(url),
-                timeoutMS, -1);
+            byte respB[] = ReverseGeocodeProviderAdapter.readPage_GET(url, timeoutMS);
             if ((respB != null) && (respB.length > 0)) {
                 response = StringTools.toStringValue(respB).trim();
                 Print.logInfo("Response: " + response);
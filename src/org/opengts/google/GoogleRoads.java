@@ -136,23 +136,16 @@ public class GoogleRoads
     private static JSON GetJSONDocument(String url, int timeoutMS)
     {
         JSON jsonDoc = null;
-        HTMLTools.HttpBufferedInputStream input = null;
         try {
-            input = HTMLTools.inputStream_GET(url, null, timeoutMS);
-            jsonDoc = new JSON(input);
-        } catch (JSON.JSONParsingException jpe) {
-            Print.logError("JSON parse error: " + jpe);
+            jsonDoc = HTTPClient.getInstance().readJSON_GET(new URL(url), null, timeoutMS);
         } catch (HTMLTools.HttpIOException hioe) {
             // -- IO error: java.io.IOException: 
             int    rc = hioe.getResponseCode();
             String rm = hioe.getResponseMessage();
             Print.logError("HttpIOException ["+rc+"-"+rm+"]: " + hioe.getMessage());
         } catch (IOException ioe) {
+            // -- IO/JSON parse error
             Print.logError("IOException: " + ioe.getMessage());
-        } finally {
-            if (input != null) {
-                try { input.close(); } catch (Throwable th) {/*ignore*/}
-            }
         }
         return jsonDoc;
     }
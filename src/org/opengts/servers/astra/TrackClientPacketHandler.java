@@ -38,6 +38,9 @@
 //	   -Improved handling of odometer, by using live journey distance.
 //	   -Added parsing of battery level, adc, satellite count, signal strength
 //		, digital input/output mask and driver ID.
+//  2026/10/19
+//     -Parse packet fields with a reusable "PayloadBuffer" (no per-report copy)
+//     -Return a preallocated ACK packet
 // ----------------------------------------------------------------------------
 package org.opengts.servers.astra;
 
@@ -157,6 +160,9 @@ public class TrackClientPacketHandler
     /* CAN bits */
     private static int MALFUNCTION_LAMP                 = 0x80;
 
+    /* acknowledgment packet (returned packets are not modified by the server) */
+    private static final byte ACK_PACKET[]              = new byte[] { 0x06 }; // ACK
+
     // ------------------------------------------------------------------------
 
     /* session IP address */
@@ -172,6 +178,9 @@ public class TrackClientPacketHandler
     /* Extra report data added to rawData field if true */
     private boolean         addRawData                  = true;
 
+    /* reusable (zero-copy) packet field reader */
+    private PayloadBuffer   payload                     = new PayloadBuffer(true);
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
@@ -233,7 +242,7 @@ public class TrackClientPacketHandler
             protocol = packet[0];
 
             /* Determine the full packet length */
-            Payload p = new Payload(packet, 1, 2);
+            PayloadBuffer p = this.payload.wrap(packet, 1, 2);
             packetLength = p.readUInt(2, 0, true);
 
             /* (debug message) log protocol for received packet */
@@ -275,8 +284,7 @@ public class TrackClientPacketHandler
                 if (parseInsertRecord_C(pktBytes))
                 {
                     /* If packet parsed successfully return acknowledgment back to client device */
-                    rtn = new byte[1];
-                    rtn[0] = 0x06; // ACK
+                    rtn = ACK_PACKET;
                 }
             }
             else if (protocol == PROTOCOL_K)
@@ -284,8 +292,7 @@ public class TrackClientPacketHandler
                 if (parseInsertRecord_K(pktBytes))
                 {
                     /* If packet parsed successfully return acknowledgment back to client device */
-                    rtn = new byte[1];
-                    rtn[0] = 0x06; // ACK
+                    rtn = ACK_PACKET;
                 }
             }
             else if (protocol == PROTOCOL_M)
@@ -293,8 +300,7 @@ public class TrackClientPacketHandler
                 if (parseInsertRecord_M(pktBytes))
                 {
                     /* If packet parsed successfully return acknowledgment back to client device */
-                    rtn = new byte[1];
-                    rtn[0] = 0x06; // ACK
+                    rtn = ACK_PACKET;
                 }
             }
             else if (protocol == PROTOCOL_V)
@@ -302,8 +308,7 @@ public class TrackClientPacketHandler
                 if (parseInsertRecord_V(pktBytes))
                 {
                     /* If packet parsed successfully return acknowledgment back to client device */
-                    rtn = new byte[1];
-                    rtn[0] = 0x06; // ACK
+                    rtn = ACK_PACKET;
                 }
             }
 
@@ -363,7 +368,7 @@ public class TrackClientPacketHandler
         String rawData = "";
 
         /* Generate 2 byte packet checksum for all bytes except the last 2 */
-        Payload p = new Payload(pktBytes, (pktBytes.length - 2), 2);
+        PayloadBuffer p = this.payload.wrap(pktBytes, (pktBytes.length - 2), 2);
         packetChecksum = p.readUInt(2, 0);
         checksum = generateCheckSum (pktBytes, pktBytes.length);
 
@@ -375,7 +380,7 @@ public class TrackClientPacketHandler
 
         /* Parse the header to extract the IMEI */
         index = 3;
-        p = new Payload(pktBytes, index, 7);
+        p = this.payload.wrap(pktBytes, index, 7);
         long tac = p.readULong(4, 0L, true);
         int msn = p.readUInt(3, 0, true);
         String imei = String.valueOf(tac) + String.valueOf(msn);
@@ -398,7 +403,7 @@ public class TrackClientPacketHandler
         {
             reportLen = PROTOCOL_C_BASIC_LEN;
 
-            p = new Payload(pktBytes, index, PROTOCOL_K_BASIC_LEN);
+            p = this.payload.wrap(pktBytes, index, PROTOCOL_K_BASIC_LEN);
             sequenceNumber = p.readUInt(1, 0);
             intLatitude = p.readInt(4, 0);
             intLongitude = p.readInt(4, 0);
@@ -597,7 +602,7 @@ public class TrackClientPacketHandler
         String iButton ="";
 
         /* Generate 2 byte packet checksum for all bytes except the last 2 */
-        Payload p = new Payload(pktBytes, (pktBytes.length - 2), 2);
+        PayloadBuffer p = this.payload.wrap(pktBytes, (pktBytes.length - 2), 2);
         packetChecksum = p.readUInt(2, 0);
         checksum = generateCheckSum (pktBytes, pktBytes.length);
 
@@ -609,7 +614,7 @@ public class TrackClientPacketHandler
 
         /* Parse the header to extract the IMEI */
         index = 3;
-        p = new Payload(pktBytes, index, 7);
+        p = this.payload.wrap(pktBytes, index, 7);
         long tac = p.readULong(4, 0L, true);
         int msn = p.readUInt(3, 0, true);
         String imei = String.valueOf(tac) + String.valueOf(msn);
@@ -632,7 +637,7 @@ public class TrackClientPacketHandler
         {
         	        	
             intOdometer = 0;
-            p = new Payload(pktBytes, index, PROTOCOL_K_BASIC_LEN);
+            p = this.payload.wrap(pktBytes, index, PROTOCOL_K_BASIC_LEN);
             sequenceNumber = p.readUInt(1, 0);
             intLatitude = p.readInt(4, 0);
             intLongitude = p.readInt(4, 0);
@@ -725,7 +730,7 @@ public class TrackClientPacketHandler
 
             //ReadDriverID
             if((repStatus & STATUS_EXTRA_DATA)>0){
-            	p = new Payload(pktBytes, (index + 38), 7);
+            	p = this.payload.wrap(pktBytes, (index + 38), 7);
             	iButtonFN = p.readUInt(1, 0);
             	iButtonSN = p.readUInt(6, 0);
             	iButton = StringTools.toHexString(iButtonFN,8)+ " - " +StringTools.toHexString(iButtonSN,48);
@@ -734,7 +739,7 @@ public class TrackClientPacketHandler
             //If there is a journey start or stop, the device's odometer is read
             if(((repReason & REASON_JOURNEY_START) > 0)||((repReason & REASON_JOURNEY_STOP) > 0)){
                
-            	p = new Payload(pktBytes, (index + 45), 3);
+            	p = this.payload.wrap(pktBytes, (index + 45), 3);
                 intOdometer = p.readUInt(3, 0);
                 odometer = (double)intOdometer;
             }
@@ -894,7 +899,7 @@ public class TrackClientPacketHandler
         String iButton ="";
 
         /* Generate 2 byte packet checksum for all bytes except the last 2 */
-        Payload p = new Payload(pktBytes, (pktBytes.length - 2), 2);
+        PayloadBuffer p = this.payload.wrap(pktBytes, (pktBytes.length - 2), 2);
         packetChecksum = p.readUInt(2, 0);
         checksum = generateCheckSum (pktBytes, pktBytes.length);
 
@@ -906,7 +911,7 @@ public class TrackClientPacketHandler
 
         /* Parse the header to extract the IMEI */
         index = 3;
-        p = new Payload(pktBytes, index, 7);
+        p = this.payload.wrap(pktBytes, index, 7);
         long tac = p.readULong(4, 0L, true);
         int msn = p.readUInt(3, 0, true);
         String imei = String.valueOf(tac) + String.valueOf(msn);
@@ -927,7 +932,7 @@ public class TrackClientPacketHandler
         /* Parse each report in the packet */
         do
         {
-            p = new Payload(pktBytes, index, PROTOCOL_M_BASIC_LEN);
+            p = this.payload.wrap(pktBytes, index, PROTOCOL_M_BASIC_LEN);
             sequenceNumber = p.readUInt(1, 0);
             intLatitude = p.readInt(4, 0);
             intLongitude = p.readInt(4, 0);
@@ -1024,7 +1029,7 @@ public class TrackClientPacketHandler
 
             //ReadDriverID
             if((repStatus & STATUS_EXTRA_DATA)>0){
-            	p = new Payload(pktBytes, (index + 41), 7);
+            	p = this.payload.wrap(pktBytes, (index + 41), 7);
             	iButtonFN = p.readUInt(1, 0);
             	iButtonSN = p.readUInt(6, 0);
             	iButton = StringTools.toHexString(iButtonFN,8)+ " - " +StringTools.toHexString(iButtonSN,48);
@@ -1033,7 +1038,7 @@ public class TrackClientPacketHandler
             //If there is a journey start or stop, the device's odometer is read
             if(((repReason & REASON_JOURNEY_START) > 0)||((repReason & REASON_JOURNEY_STOP) > 0)){
                
-            	p = new Payload(pktBytes, (index + 48), 3);
+            	p = this.payload.wrap(pktBytes, (index + 48), 3);
                 intOdometer = p.readUInt(3, 0);
                 odometer = (double)intOdometer;
             }
@@ -1212,7 +1217,7 @@ public class TrackClientPacketHandler
         CanbusData canData = new CanbusData();
 
         /* Generate 2 byte packet checksum for all bytes except the last 2 */
-        Payload p = new Payload(pktBytes, (pktBytes.length - 2), 2);
+        PayloadBuffer p = this.payload.wrap(pktBytes, (pktBytes.length - 2), 2);
         packetChecksum = p.readUInt(2, 0);
         checksum = generateCheckSum (pktBytes, pktBytes.length);
 
@@ -1224,7 +1229,7 @@ public class TrackClientPacketHandler
 
         /* Parse the header to extract the IMEI */
         index = 3;
-        p = new Payload(pktBytes, index, 7);
+        p = this.payload.wrap(pktBytes, index, 7);
         long tac = p.readULong(4, 0L, true);
         int msn = p.readUInt(3, 0, true);
         String imei = String.valueOf(tac) + String.valueOf(msn);
@@ -1245,7 +1250,7 @@ public class TrackClientPacketHandler
         /* Parse each report in the packet */
         do
         {
-            p = new Payload(pktBytes, index, PROTOCOL_V_BASIC_LEN);
+            p = this.payload.wrap(pktBytes, index, PROTOCOL_V_BASIC_LEN);
             sequenceNumber = p.readUInt(1, 0);
             eventtime = p.readULong(4, 0L, true);
             intLatitude = p.readInt(4, 0);
@@ -1398,13 +1403,13 @@ public class TrackClientPacketHandler
             //Odometer and extra data handling
             if ((repStatus & STATUS_EXTRA_DATA) > 0)
             {
-            	p = new Payload(pktBytes, (index + 72), 7);
+            	p = this.payload.wrap(pktBytes, (index + 72), 7);
             	iButtonFN = p.readUInt(1, 0);
             	iButtonSN = p.readUInt(6, 0);
             	iButton = StringTools.toHexString(iButtonFN,8)+ " - " +StringTools.toHexString(iButtonSN,48);
                 if ((repReason & REASON_JOURNEY_STOP) > 0)
                 {
-                    p = new Payload(pktBytes, (index + PROTOCOL_V_LIFETIME_ODO_OFFSET), 19);
+                    p = this.payload.wrap(pktBytes, (index + PROTOCOL_V_LIFETIME_ODO_OFFSET), 19);
 
                   /* For start/stop reports read the lifetime odometer in km */
                   intOdometer = p.readUInt(3, 0);
@@ -1424,7 +1429,7 @@ public class TrackClientPacketHandler
                 }
                 else
                 {
-                    p = new Payload(pktBytes, (index + PROTOCOL_V_LIFETIME_ODO_OFFSET), 7);
+                    p = this.payload.wrap(pktBytes, (index + PROTOCOL_V_LIFETIME_ODO_OFFSET), 7);
 
                   /* For start/stop reports read the lifetime odometer in km */
                   intOdometer = p.readUInt(3, 0);
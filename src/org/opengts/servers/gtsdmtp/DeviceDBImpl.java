@@ -455,7 +455,7 @@ public class DeviceDBImpl
         if (SIMEVENT_GEOZONES && evdb.isValidGeoPoint() && 
             (statusCode != StatusCodes.STATUS_GEOFENCE_ARRIVE) && 
             (statusCode != StatusCodes.STATUS_GEOFENCE_DEPART)   ) {
-            EventData prevEv = DCServerFactory.getPreviousEventData(device, timestamp);
+            DeviceStateCache.EventState prevEv = DCServerFactory.getPreviousEventState(device, timestamp);
             GeoPoint prevGP  = ((prevEv != null) && prevEv.isValidGeoPoint())? prevEv.getGeoPoint() : null;
             Geozone prevZone = (prevGP != null)? Geozone.getGeozone(accountID, null, prevGP, false) : null;
             GeoPoint thisGP  = evdb.getGeoPoint();
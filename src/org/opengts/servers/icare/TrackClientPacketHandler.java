@@ -27,6 +27,9 @@
 // Change History:
 //  2009/04/02  Martin D. Flynn
 //     -Initial release
+//  2026/10/19
+//     -Parse the GPRMC fields directly from the packet bytes with a reusable
+//      "PayloadBuffer" (no intermediate field Strings).
 // ----------------------------------------------------------------------------
 package org.opengts.servers.icare;
 
@@ -57,6 +60,9 @@ public class TrackClientPacketHandler
     
     /* count the number of events we've parsed during this session */
     private int             eventCount                  = 0;
+
+    /* reusable (zero-copy) packet field reader */
+    private PayloadBuffer   payload                     = new PayloadBuffer(true);
     
     /* packet handler constructor */
     public TrackClientPacketHandler() 
@@ -107,9 +113,8 @@ public class TrackClientPacketHandler
             // skip the first 12 bytes of this packet and parse the rest
             int ofs = 12;
             int len = pktBytes.length - ofs;
-            String s = StringTools.toStringValue(pktBytes,ofs,len).trim();
-            Print.logInfo("Recv: " + s); // debug message
-            this.parseInsertRecord(s);
+            Print.logInfo("Recv: " + StringTools.toStringValue(pktBytes,ofs,len).trim()); // debug message
+            this.parseInsertRecord(pktBytes, ofs, len);
             this.eventCount++;
             // the remainder of the data stream probably can be flushed
             // this.terminate = true;
@@ -172,18 +177,17 @@ public class TrackClientPacketHandler
 
     /**
     *** Parses latitude given values from GPS device.
-    *** @param  s  Latitude String from GPS device in ddmm.mm format.
-    *** @param  d  Latitude hemisphere, "N" for northern, "S" for southern.
+    *** @param  _lat  Latitude value from GPS device in ddmm.mm format (99999.0 if invalid).
+    *** @param  d     Latitude hemisphere, 'N' for northern, 'S' for southern.
     *** @return Latitude parsed from GPS data, with appropriate sign based on hemisphere or
     ***         90.0 if invalid latitude provided.
     **/
-    private double _parseLatitude(String s, String d)
+    private double _parseLatitude(double _lat, int d)
     {
-        double _lat = StringTools.parseDouble(s, 99999.0);
-        if (_lat < 99999.0) {
+        if ((_lat >= 0.0) && (_lat < 99999.0)) {
             double lat = (double)((long)_lat / 100L); // _lat is always positive here
             lat += (_lat - (lat * 100.0)) / 60.0;
-            return d.equals("S")? -lat : lat;
+            return (d == 'S')? -lat : lat;
         } else {
             return 90.0; // invalid latitude
         }
@@ -191,25 +195,42 @@ public class TrackClientPacketHandler
 
     /**
     *** Parses longitude given values from GPS device.
-    *** @param s Longitude String from GPS device in ddmm.mm format.
-    *** @param d Longitude hemisphere, "E" for eastern, "W" for western.
+    *** @param _lon Longitude value from GPS device in ddmm.mm format (99999.0 if invalid).
+    *** @param d    Longitude hemisphere, 'E' for eastern, 'W' for western.
     *** @return Longitude parsed from GPS data, with appropriate sign based on hemisphere or
     *** 180.0 if invalid longitude provided.
     **/
-    private double _parseLongitude(String s, String d)
+    private double _parseLongitude(double _lon, int d)
     {
-        double _lon = StringTools.parseDouble(s, 99999.0);
-        if (_lon < 99999.0) {
+        if ((_lon >= 0.0) && (_lon < 99999.0)) {
             double lon = (double)((long)_lon / 100L); // _lon is always positive here
             lon += (_lon - (lon * 100.0)) / 60.0;
-            return d.equals("W")? -lon : lon;
+            return (d == 'W')? -lon : lon;
         } else {
             return 180.0; // invalid longitude
         }
     }
 
+    /* reads the next comma-separated field as a double value */
+    private static double _readField(PayloadBuffer p, double dft)
+    {
+        double val = p.readDecimalDouble(p.getFieldLength(','), dft);
+        p.readDelimiter(',');
+        return val;
+    }
+
+    /* reads the first character of the next comma-separated field (0 if blank) */
+    private static int _readFieldChar(PayloadBuffer p)
+    {
+        int len = p.getFieldLength(',');
+        int ch  = (len > 0)? p.peekByte() : 0;
+        p.readSkip(len);
+        p.readDelimiter(',');
+        return ch;
+    }
+
     /* parse and insert data record */
-    private boolean parseInsertRecord(String s)
+    private boolean parseInsertRecord(byte pktBytes[], int ofs, int len)
     {
         // ----------------------------------------------------------------------------------------------------------------------
         // ----------------------------------------------------------------------------------------------------------------------
@@ -233,42 +254,59 @@ public class TrackClientPacketHandler
         //   E - phone#?
         //   F - unknown?
         // ----------------------------------------------------------------------------------------------------------------------
-        Print.logInfo("Parsing: " + s);
 
         /* pre-validate */
-        if (s == null) {
-            Print.logError("String is null");
+        if (pktBytes == null) {
+            Print.logError("Packet is null");
             return false;
         }
+        PayloadBuffer p = this.payload.wrap(pktBytes, ofs, len);
+        while ((p.peekByte() >= 0) && (p.peekByte() <= ' ')) {
+            p.readSkip(1); // leading whitespace
+        }
 
-        /* parse to fields */
-        String fld[] = StringTools.parseStringArray(s, ',');
-        if ((fld == null) || (fld.length < 11) || !fld[1].equals("$GPRMC")) {
-            Print.logWarn("Invalid number of fields");
+        /* valid IMEI? */
+        int imeiLen = p.getFieldLength(',');
+        if ((p.peekByte() != '%') || (imeiLen < 10)) {
             return false;
         }
+        p.readSkip(1); // '%'
+        String  imei        = p.readStringASCII(imeiLen - 1).toLowerCase();
+        p.readDelimiter(',');
 
-        /* valid IMEI? */
-        if (!fld[0].startsWith("%") || (fld[0].length() < 10)) {
+        /* record type */
+        if (!p.isMatchASCII("$GPRMC,")) {
+            Print.logWarn("Invalid number of fields");
             return false;
         }
+        p.readSkip(7);
 
         /* parse individual fields */
-        String  imei        = fld[0].substring(1).toLowerCase();
-        long    hms         = StringTools.parseLong(fld[ 2], 0L);
-        long    dmy         = StringTools.parseLong(fld[10], 0L);
+        long    hms         = (long)_readField(p, 0.0);
+        int     fixValid    = _readFieldChar(p);
+        double  _lat        = _readField(p, 99999.0);
+        int     latHemi     = _readFieldChar(p);
+        double  _lon        = _readField(p, 99999.0);
+        int     lonHemi     = _readFieldChar(p);
+        double  _knots      = _readField(p, -1.0);
+        double  _heading    = _readField(p, -1.0);
+        if (!p.hasAvailableRead()) {
+            Print.logWarn("Invalid number of fields");
+            return false;
+        }
+        long    dmy         = (long)_readField(p, 0.0);
         long    fixtime     = this._getUTCSeconds(dmy, hms);
-        boolean validGPS    = fld[3].equalsIgnoreCase("A");
-        double  latitude    = validGPS? this._parseLatitude( fld[4], fld[5])  : 0.0;
-        double  longitude   = validGPS? this._parseLongitude(fld[6], fld[7])  : 0.0;
-        double  knots       = validGPS? StringTools.parseDouble(fld[8], -1.0) : 0.0;
-        double  heading     = validGPS? StringTools.parseDouble(fld[9], -1.0) : 0.0;
-        double  speedKPH    = (knots >= 0.0)? (knots * KILOMETERS_PER_KNOT)   : -1.0;
+        boolean validGPS    = ((fixValid == 'A') || (fixValid == 'a'));
+        double  latitude    = validGPS? this._parseLatitude( _lat, latHemi) : 0.0;
+        double  longitude   = validGPS? this._parseLongitude(_lon, lonHemi) : 0.0;
+        double  knots       = validGPS? _knots   : 0.0;
+        double  heading     = validGPS? _heading : 0.0;
+        double  speedKPH    = (knots >= 0.0)? (knots * KILOMETERS_PER_KNOT) : -1.0;
         int     statusCode  = StatusCodes.STATUS_LOCATION;
 
         /* invalid date? */
         if (fixtime <= 0L) {
-            Print.logWarn("Invalid date: " + fld[10] + "/" + fld[2]);
+            Print.logWarn("Invalid date: " + dmy + "/" + hms);
             fixtime = DateTime.getCurrentTimeSec(); // default to now
         }
 
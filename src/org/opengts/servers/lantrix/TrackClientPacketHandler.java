@@ -27,6 +27,9 @@
 //     -Support Lantrix T1800/T2000
 //  2012/10/16  Martin D. Flynn
 //     -Replaced "DCServerFactory.loadDeviceByPrefixedModemID" with "DCServerConfig.loadDeviceUniqueID".
+//  2026/10/19
+//     -Parse the fixed-length "RGP" fields directly from the packet bytes with a
+//      reusable "PayloadBuffer", and encode the ACK with a reusable writer.
 // ----------------------------------------------------------------------------
 package org.opengts.servers.lantrix;
 
@@ -73,6 +76,10 @@ public class TrackClientPacketHandler
 	/* count the number of events we've parsed during this session */
     private int             eventTotalCount                 = 0;
 
+    /* reusable (zero-copy) packet field reader, and ACK writer */
+    private PayloadBuffer   payload                         = new PayloadBuffer(true);
+    private PayloadBuffer   ackBuffer                       = new PayloadBuffer(256, true);
+
     /* packet handler constructor */
     public TrackClientPacketHandler() 
     {
@@ -123,7 +130,7 @@ public class TrackClientPacketHandler
            	String s = StringTools.toStringValue(pktBytes).trim();
             Print.logInfo("Recv: " + s); // debug message
             Print.logInfo("Hex: 0x" + StringTools.toHexString(pktBytes)); // debug message			
-            return this.parseInsertRecord_lantrix(s);			
+            return this.parseInsertRecord_lantrix(pktBytes, s);
         }
         return null; // no return packets are expected
     }
@@ -132,7 +139,7 @@ public class TrackClientPacketHandler
     // ------------------------------------------------------------------------
 
     /* parse and insert data record */
-    private byte[] parseInsertRecord_lantrix(String s)
+    private byte[] parseInsertRecord_lantrix(byte pktBytes[], String s)
     {   
         // ASCII Data:	
         // Example:
@@ -205,28 +212,34 @@ public class TrackClientPacketHandler
         }
 
         //Arming the ACK frame to remove the data sent from the tracker
-	    String tracker_ID = mobileID;
-		String frame_data_checksum = null;		
-		frame_data_checksum = ">ACK;ID=" + tracker_ID + ";#" + Sentence_number + ";*";
-		String chksum = getCheckSum(frame_data_checksum);
-		String frame_data_ACK = null;			
-		frame_data_ACK = frame_data_checksum  + chksum + "<\r\n";
-
-		/* parse */ 	
-        long    dmy       = StringTools.parseLong(T[0].substring( 3, 9), 0L);
-        long    hms       = StringTools.parseLong(T[0].substring( 9, 15), 0L);        
-        long    fixtime   = this._getUTCSeconds(dmy, hms);		
-        double latitude   = (double)StringTools.parseLong(T[0].substring( 15,23),0L) / 100000.0;
-        double longitude  = (double)StringTools.parseLong(T[0].substring(23,32),0L) / 100000.0;
-		double KPH        = StringTools.parseDouble(T[0].substring(32,35), 0.0);
+        // ">ACK;ID=<mobileID>;#<sentence>;*<checksum><\r\n"
+        PayloadBuffer ack = this.ackBuffer;
+        ack.clear();
+        ack.writeASCII(">ACK;ID=");
+        ack.writeASCII(mobileID);
+        ack.writeASCII(";#");
+        ack.writeASCII(Sentence_number);
+        ack.writeASCII(";*");
+        ack.writeHexASCII(ack.calcChecksumXOR(0, ack.getWrittenLength() - 1), 2); // excludes '*'
+        ack.writeASCII("<\r\n");
+        byte frame_data_ACK[] = ack.getBytes();
+
+		/* parse (fixed-length fields, directly from the packet bytes) */
+        int rgpOfs = 0;
+        while ((rgpOfs < pktBytes.length) && (pktBytes[rgpOfs] != '>')) { rgpOfs++; }
+        PayloadBuffer p = this.payload.wrap(pktBytes, rgpOfs + 1, T[0].length());
+        p.readSkip(3);  // "RGP"
+        long    dmy       = p.readDecimalLong(6, 0L);                   // [ 3, 9]
+        long    hms       = p.readDecimalLong(6, 0L);                   // [ 9,15]
+        long    fixtime   = this._getUTCSeconds(dmy, hms);
+        double latitude   = (double)p.readDecimalLong(8, 0L) / 100000.0; // [15,23]
+        double longitude  = (double)p.readDecimalLong(9, 0L) / 100000.0; // [23,32]
+		double KPH        = (double)p.readDecimalLong(3, 0L);           // [32,35]
         double speedKPH   = KPH; 
-        double headingDeg = StringTools.parseDouble(T[0].substring(35,38), 0.0);
-		int    age_data   = Integer.parseInt(T[0].substring(39,41),16);
-        String decimal    = Integer.toString(age_data);
-        long   inout      = Long.parseLong(T[0].substring(41,43),16);
-        String binary_io  = Long.toBinaryString(inout);
-		String srcStr     = T[0].substring(38,39);
-        String ageStr     = decimal;
+        double headingDeg = (double)p.readDecimalLong(3, 0L);           // [35,38]
+        p.readSkip(1);  // GPS source                                      [38,39]
+		int    age_data   = (int)p.readHexLong(2, 0L);                  // [39,41]
+        long   inout      = p.readHexLong(2, 0L);                       // [41,43]
         double altitudeM  = 0.0;
         double odomKM     = 0.0;
         long   gpioInput  = 0L;        
@@ -369,8 +382,8 @@ public class TrackClientPacketHandler
         } finally {
             //
         }
-        Print.logInfo("ACK: " + frame_data_ACK);
-		return frame_data_ACK.getBytes();// //return required acknowledgement (ACK) back to the device
+        Print.logInfo("ACK: " + StringTools.toStringValue(frame_data_ACK).trim());
+		return frame_data_ACK;// //return required acknowledgement (ACK) back to the device
 
     }
 
@@ -470,34 +483,6 @@ public class TrackClientPacketHandler
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
-    /**
-    *** Calculates/Returns the checksum for a TAIP (Trimble ASCII Interface Protocol) formatted String.
-    *** Implements TAIP checksum algorithm.
-    *** Using ASCII 7 bits 2^7 = 128 characters.
-    *** @param msg TAIP protocol formatted String to be checksummed.
-    *** @return Checksum computed from input.
-    **/ 
-    private static String getCheckSum(String msg)
-    {
-        byte y = 0;
-        String chk = null;
-        for (int x = 0; x < msg.length() - 1; x++) {		
-            if (msg.charAt(x) == '*') { // Detect the asterisk    
-                break;
-            } else {
-                y ^= (msg.charAt(x) & 0X7F); // Buffer 127 bit	        		
-            }
-        }
-        chk = Integer.toHexString(y).toUpperCase();
-        if (chk.length() == 1) {
-            chk = "0" + chk;
-        }		
-        return chk;
-    }
-
-    // ------------------------------------------------------------------------
-    // ------------------------------------------------------------------------
-
     private EventData createEventRecord(Device device, 
         long     fixtime,
         int      statusCode,
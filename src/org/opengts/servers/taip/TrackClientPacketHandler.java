@@ -105,6 +105,10 @@ public class TrackClientPacketHandler
     public void sessionTerminated(Throwable err, long readCount, long writeCount)
     {
         super.sessionTerminated(err, readCount, writeCount);
+
+        /* write pending Device updates */
+        Device.flushWriteBehind(this.device);
+
     }
 
     // ------------------------------------------------------------------------
@@ -312,6 +316,7 @@ public class TrackClientPacketHandler
         if (device == null) {
             return false; // errors already displayed
         } else {
+            this.device = device;
             accountID = device.getAccountID();
             deviceID  = device.getDeviceID();
             uniqueID  = device.getUniqueID();
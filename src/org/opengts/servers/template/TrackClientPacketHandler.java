@@ -293,6 +293,10 @@ public class TrackClientPacketHandler
     public void sessionTerminated(Throwable err, long readCount, long writeCount)
     {
         super.sessionTerminated(err, readCount, writeCount);
+
+        /* write pending Device updates */
+        Device.flushWriteBehind(this.gpsDevice);
+
     }
 
     // ------------------------------------------------------------------------
@@ -256,6 +256,9 @@ public class TrackClientPacketHandler
     {
         super.sessionTerminated(err, readCount, writeCount);
 
+        /* write pending Device updates */
+        Device.flushWriteBehind(this.tkDevice);
+
         /* save session statistics */
         if (SAVE_SESSION_STATISTICS && (this.tkDevice != null)) {
             this.tkDevice.insertSessionStatistic(this.getSessionStartTime(),this.getIPAddress(),
@@ -0,0 +1,786 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Device Communication Server (DCS) load generator and replay harness
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Simulates a number of tracking devices sending position reports to a
+//    running DCS over TCP, UDP, or both (even numbered devices use TCP, odd
+//    numbered devices use UDP).
+//  - Synthetic tracks are read from a sample EventData file (ie. the file
+//    "sampleData/EventData.txt"), or generated if no sample file is specified.
+//    Each device starts at a different point along the track.
+//  - Recorded traffic may be replayed with "-replay=<file>" (one packet per line).
+//  - The DCS under test may use MySQL, or an embedded database stand-in (ie.
+//    "db.sql.provider=derby"), as configured in the DCS runtime config file.
+//    This tool does not access the database.
+//  - Example:
+//      bin/exeJava org.opengts.tools.DCSLoadGenerator -port=31272 -format=tk103 \
+//          -devices=500 -interval=30 -duration=300 -sample=sampleData/EventData.txt
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.tools;
+
+import java.lang.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.io.*;
+import java.net.*;
+import java.text.*;
+
+import org.opengts.util.*;
+
+/**
+*** DCS load generator and replay harness
+**/
+
+public class DCSLoadGenerator
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int    FORMAT_REPLAY           = 0;
+    public  static final int    FORMAT_ASCII_01         = 1;    // template "ASCII_01"
+    public  static final int    FORMAT_ASCII_02         = 2;    // template "ASCII_02" ($GPRMC)
+    public  static final int    FORMAT_ASCII_03         = 3;    // template "ASCII_03"
+    public  static final int    FORMAT_TAIP             = 4;    // TAIP ">RPV"
+    public  static final int    FORMAT_TK103            = 5;    // tk10x "TK103-3" (BP05)
+
+    /* burst shapes */
+    public  static final int    SHAPE_STEADY            = 0;    // device reports spread evenly over interval
+    public  static final int    SHAPE_ALIGNED           = 1;    // all devices report at the same time
+    public  static final int    SHAPE_RAMP              = 2;    // devices start over a ramp period
+    public  static final int    SHAPE_BURST             = 3;    // devices report only during "on" periods
+
+    private static final int    MAX_LATENCY_SAMPLES     = 200000;
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Track point
+    **/
+    private static class TrackPoint
+    {
+        public double latitude  = 0.0;
+        public double longitude = 0.0;
+        public double speedKPH  = 0.0;
+        public double heading   = 0.0;
+        public double altitudeM = 0.0;
+        public TrackPoint(double lat, double lon, double kph, double hdg, double alt) {
+            this.latitude  = lat;
+            this.longitude = lon;
+            this.speedKPH  = kph;
+            this.heading   = hdg;
+            this.altitudeM = alt;
+        }
+    }
+
+    /**
+    *** Loads the track points from a sample EventData file
+    *** (accountID, deviceID, timestamp, statusCode, latitude, longitude, gpsAge,
+    *** speedKPH, heading, altitude, ...)
+    **/
+    private static TrackPoint[] loadSampleTrack(File file)
+        throws IOException
+    {
+        java.util.List<TrackPoint> track = new Vector<TrackPoint>();
+        BufferedReader br = new BufferedReader(new FileReader(file));
+        try {
+            for (String line = br.readLine(); line != null; line = br.readLine()) {
+                // -- the first 10 fields do not contain embedded commas
+                String f[] = line.split(",", 11);
+                if (f.length < 10) { continue; }
+                double lat = StringTools.parseDouble(f[4].trim(), 0.0);
+                double lon = StringTools.parseDouble(f[5].trim(), 0.0);
+                if (!GeoPoint.isValid(lat,lon)) { continue; }
+                track.add(new TrackPoint(lat, lon,
+                    StringTools.parseDouble(f[7].trim(), 0.0),
+                    StringTools.parseDouble(f[8].trim(), 0.0),
+                    StringTools.parseDouble(f[9].trim(), 0.0)));
+            }
+        } finally {
+            br.close();
+        }
+        return track.toArray(new TrackPoint[track.size()]);
+    }
+
+    /**
+    *** Creates a synthetic (circular) track
+    **/
+    private static TrackPoint[] syntheticTrack()
+    {
+        int N = 360;
+        TrackPoint track[] = new TrackPoint[N];
+        for (int i = 0; i < N; i++) {
+            double a = Math.toRadians((double)i);
+            track[i] = new TrackPoint(
+                38.60 + 0.10 * Math.sin(a),
+                -121.40 + 0.12 * Math.cos(a),
+                60.0 + 20.0 * Math.sin(3.0 * a),
+                (double)((i + 90) % 360),
+                20.0);
+        }
+        return track;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Collected statistics
+    **/
+    private static class Stats
+    {
+        public AtomicLong sent          = new AtomicLong(0L);
+        public AtomicLong acked         = new AtomicLong(0L);
+        public AtomicLong ackTimeouts   = new AtomicLong(0L);
+        public AtomicLong connects      = new AtomicLong(0L);
+        public AtomicLong connectErrors = new AtomicLong(0L);
+        public AtomicLong sendErrors    = new AtomicLong(0L);
+        private long      latency[]     = new long[1024];
+        private int       latencyCount  = 0;
+        private long      latencySeen   = 0L;
+        private Random    random        = new Random(1L);
+        /* record ACK latency (reservoir sampled) */
+        public synchronized void addLatency(long nanos) {
+            this.latencySeen++;
+            if (this.latencyCount < MAX_LATENCY_SAMPLES) {
+                if (this.latencyCount >= this.latency.length) {
+                    this.latency = Arrays.copyOf(this.latency, this.latency.length * 2);
+                }
+                this.latency[this.latencyCount++] = nanos;
+            } else {
+                long r = (long)(this.random.nextDouble() * (double)this.latencySeen);
+                if (r < MAX_LATENCY_SAMPLES) {
+                    this.latency[(int)r] = nanos;
+                }
+            }
+        }
+        /* ACK latency percentiles (milliseconds) */
+        public synchronized double[] getLatencyPercentilesMS(double pct[]) {
+            double rtn[] = new double[pct.length];
+            if (this.latencyCount > 0) {
+                long s[] = Arrays.copyOf(this.latency, this.latencyCount);
+                Arrays.sort(s);
+                for (int i = 0; i < pct.length; i++) {
+                    int ndx = (int)Math.ceil(pct[i] / 100.0 * (double)s.length) - 1;
+                    ndx = Math.max(0, Math.min(ndx, s.length - 1));
+                    rtn[i] = (double)s[ndx] / 1000000.0;
+                }
+            }
+            return rtn;
+        }
+        public long getErrorCount() {
+            return this.connectErrors.get() + this.sendErrors.get() + this.ackTimeouts.get();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Simulated device
+    **/
+    private static class SimDevice
+    {
+        public int              index       = 0;
+        public String           mobileID    = null;
+        public boolean          udp         = false;
+        public int              trackPos    = 0;
+        public long             sequence    = 0L;
+        public long             nextSendMS  = 0L;
+        public int              sentOnConn  = 0;
+        public Socket           socket      = null;
+        public DatagramSocket   datagram    = null;
+        public SimDevice(int index, String mobileID, boolean udp) {
+            this.index    = index;
+            this.mobileID = mobileID;
+            this.udp      = udp;
+        }
+        public void close() {
+            if (this.socket != null) {
+                try { this.socket.close(); } catch (IOException ioe) {/*ignore*/}
+                this.socket = null;
+            }
+            if (this.datagram != null) {
+                this.datagram.close();
+                this.datagram = null;
+            }
+            this.sentOnConn = 0;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private InetAddress     host            = null;
+    private int             port            = 0;
+    private int             format          = FORMAT_ASCII_01;
+    private int             shape           = SHAPE_STEADY;
+    private long            rampMS          = 0L;
+    private long            burstOnMS       = 0L;
+    private long            burstOffMS      = 0L;
+    private long            intervalMS      = 60000L;
+    private int             churn           = 0;
+    private boolean         waitAck         = false;
+    private int             ackTimeoutMS    = 5000;
+    private TrackPoint      track[]         = null;
+    private String          replay[]        = null;
+    private AtomicLong      replayCursor    = new AtomicLong(0L);
+    private Stats           stats           = new Stats();
+    private long            startMS         = 0L;
+    private long            endMS           = 0L;
+
+    /**
+    *** Constructor
+    **/
+    private DCSLoadGenerator()
+    {
+        super();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns the time at which the specified device first reports
+    **/
+    private long _getFirstSendMS(SimDevice dev, int devCount)
+    {
+        switch (this.shape) {
+            case SHAPE_ALIGNED:
+                return this.startMS;
+            case SHAPE_RAMP:
+                return this.startMS + ((this.rampMS * dev.index) / devCount);
+            default:
+                return this.startMS + ((this.intervalMS * dev.index) / devCount);
+        }
+    }
+
+    /**
+    *** Adjusts the specified send time to the next "on" period (burst shape)
+    **/
+    private long _adjustSendMS(long sendMS)
+    {
+        if (this.shape == SHAPE_BURST) {
+            long period = this.burstOnMS + this.burstOffMS;
+            long phase  = (sendMS - this.startMS) % period;
+            if (phase >= this.burstOnMS) {
+                return sendMS + (period - phase);
+            }
+        }
+        return sendMS;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Date/Time formatters (one set per worker thread)
+    **/
+    private static class Formatters
+    {
+        public SimpleDateFormat ymdSlash = _gmt("yyyy/MM/dd");
+        public SimpleDateFormat hmsColon = _gmt("HH:mm:ss");
+        public SimpleDateFormat ymd      = _gmt("yyyyMMdd");
+        public SimpleDateFormat yymmdd   = _gmt("yyMMdd");
+        public SimpleDateFormat ddmmyy   = _gmt("ddMMyy");
+        public SimpleDateFormat hms      = _gmt("HHmmss");
+        private static SimpleDateFormat _gmt(String fmt) {
+            SimpleDateFormat sdf = new SimpleDateFormat(fmt);
+            sdf.setTimeZone(DateTime.getGMTTimeZone());
+            return sdf;
+        }
+    }
+
+    /* NMEA latitude/longitude "DDDmm.mmmm" */
+    private static String _nmea(double deg, String dFmt)
+    {
+        deg = Math.abs(deg);
+        int d = (int)deg;
+        double m = (deg - (double)d) * 60.0;
+        return StringTools.format((long)d, dFmt) + StringTools.format(m, "00.0000");
+    }
+
+    /**
+    *** Creates the next packet for the specified device
+    **/
+    private String _createPacket(SimDevice dev, Formatters fmt)
+    {
+
+        /* replay */
+        if (this.format == FORMAT_REPLAY) {
+            int n = (int)(this.replayCursor.getAndIncrement() % (long)this.replay.length);
+            return this.replay[n] + "\r\n";
+        }
+
+        /* next track point */
+        TrackPoint tp = this.track[dev.trackPos];
+        dev.trackPos = (dev.trackPos + 1) % this.track.length;
+        dev.sequence++;
+        java.util.Date now = new java.util.Date();
+        double lat = tp.latitude, lon = tp.longitude;
+        switch (this.format) {
+            case FORMAT_ASCII_01: {
+                // -- <MobileID>,<YYYY/MM/DD>,<HH:MM:SS>,<Latitude>,<Longitude>,<Speed>,<Heading>,<AltitudeM>
+                return dev.mobileID + "," + fmt.ymdSlash.format(now) + "," + fmt.hmsColon.format(now) + "," +
+                    StringTools.format(lat,"0.00000") + "," + StringTools.format(lon,"0.00000") + "," +
+                    StringTools.format(tp.speedKPH,"0.0") + "," + StringTools.format(tp.heading,"0") + "," +
+                    StringTools.format(tp.altitudeM,"0") + "\r\n";
+            }
+            case FORMAT_ASCII_02: {
+                // -- /<MobileID>/$GPRMC,025423.494,A,3709.0642,N,14207.8315,W,0.094824,108.52,200505,,*12
+                String rmc = "$GPRMC," + fmt.hms.format(now) + ".000,A," +
+                    _nmea(lat,"00") + "," + ((lat >= 0.0)? "N" : "S") + "," +
+                    _nmea(lon,"000") + "," + ((lon >= 0.0)? "E" : "W") + "," +
+                    StringTools.format(tp.speedKPH / 1.852,"0.00") + "," + StringTools.format(tp.heading,"0.00") + "," +
+                    fmt.ddmmyy.format(now) + ",,";
+                int cs = Nmea0183.calcXORChecksum(rmc, false);
+                return "/" + dev.mobileID + "/" + rmc + "*" + StringTools.toHexString(cs,8) + "\r\n";
+            }
+            case FORMAT_ASCII_03: {
+                // -- <Seq>,<Code>,<MobileID>,<Format>,<YYYYMMDD>,<HHMMSS>,<GPSValid>,<HDOP>,<Lat>,<Lon>,<Heading>,<Speed>,<Alt>
+                return dev.sequence + ",0," + dev.mobileID + ",11," + fmt.ymd.format(now) + "," + fmt.hms.format(now) +
+                    ",1,1.00," + StringTools.format(lat,"0.00000") + "," + StringTools.format(lon,"0.00000") + "," +
+                    StringTools.format(tp.heading,"0") + "," + StringTools.format(tp.speedKPH,"0.0") + "," +
+                    StringTools.format(tp.altitudeM,"0") + "\r\n";
+            }
+            case FORMAT_TAIP: {
+                // -- >RPV15714+3739438-1420384601512612;ID=1234<
+                long tod = (now.getTime() / 1000L) % DateTime.DaySeconds(1);
+                long latI = Math.round(lat * 100000.0);
+                long lonI = Math.round(lon * 100000.0);
+                return ">RPV" + StringTools.format(tod,"00000") +
+                    ((latI >= 0L)? "+" : "-") + StringTools.format(Math.abs(latI),"0000000") +
+                    ((lonI >= 0L)? "+" : "-") + StringTools.format(Math.abs(lonI),"00000000") +
+                    StringTools.format(Math.round(tp.speedKPH / GeoPoint.KILOMETERS_PER_MILE),"000") +
+                    StringTools.format(Math.round(tp.heading) % 360L,"000") + "12" +
+                    ";ID=" + dev.mobileID + "<\r\n";
+            }
+            case FORMAT_TK103: {
+                // -- (<RunNum:12>BP05<IMEI:15><YYMMDD>A<DDmm.mmmm><N|S><DDDmm.mmmm><E|W><Speed:5><HHMMSS><Heading:6><GPIO:8>L<Odom:8>)
+                String runNum = StringTools.format(dev.sequence % 1000000000000L,"000000000000");
+                return "(" + runNum + "BP05" + dev.mobileID + fmt.yymmdd.format(now) + "A" +
+                    _nmea(lat,"00") + ((lat >= 0.0)? "N" : "S") +
+                    _nmea(lon,"000") + ((lon >= 0.0)? "E" : "W") +
+                    StringTools.format(Math.min(tp.speedKPH,999.9),"000.0") + fmt.hms.format(now) +
+                    StringTools.format(tp.heading,"000.00") + "00000000L00000000)";
+            }
+        }
+        return null;
+
+    }
+
+    /**
+    *** Returns the mobile-id for the specified device index
+    **/
+    private String _getMobileID(String prefix, int index)
+    {
+        if (this.format == FORMAT_TK103) {
+            // -- 15 digit IMEI
+            return "86" + StringTools.format((long)index,"0000000000000");
+        } else {
+            return prefix + index;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Sends the next packet for the specified device
+    **/
+    private void _send(SimDevice dev, Formatters fmt, byte ackBuf[])
+    {
+        String pkt = this._createPacket(dev, fmt);
+        if (pkt == null) {
+            return;
+        }
+        byte b[] = pkt.getBytes();
+        long sendNanos = 0L;
+        try {
+            if (dev.udp) {
+                if (dev.datagram == null) {
+                    dev.datagram = new DatagramSocket();
+                    dev.datagram.connect(this.host, this.port);
+                    dev.datagram.setSoTimeout(this.ackTimeoutMS);
+                    this.stats.connects.incrementAndGet();
+                }
+                sendNanos = System.nanoTime();
+                dev.datagram.send(new DatagramPacket(b, b.length));
+                this.stats.sent.incrementAndGet();
+                if (this.waitAck) {
+                    DatagramPacket ack = new DatagramPacket(ackBuf, ackBuf.length);
+                    dev.datagram.receive(ack);
+                    this.stats.acked.incrementAndGet();
+                    this.stats.addLatency(System.nanoTime() - sendNanos);
+                }
+            } else {
+                if (dev.socket == null) {
+                    try {
+                        Socket s = new Socket();
+                        s.connect(new InetSocketAddress(this.host, this.port), this.ackTimeoutMS);
+                        s.setSoTimeout(this.ackTimeoutMS);
+                        s.setTcpNoDelay(true);
+                        dev.socket = s;
+                        this.stats.connects.incrementAndGet();
+                    } catch (IOException ioe) {
+                        this.stats.connectErrors.incrementAndGet();
+                        return;
+                    }
+                }
+                sendNanos = System.nanoTime();
+                OutputStream out = dev.socket.getOutputStream();
+                out.write(b);
+                out.flush();
+                this.stats.sent.incrementAndGet();
+                if (this.waitAck) {
+                    int len = dev.socket.getInputStream().read(ackBuf);
+                    if (len < 0) {
+                        throw new EOFException("Connection closed by server");
+                    }
+                    this.stats.acked.incrementAndGet();
+                    this.stats.addLatency(System.nanoTime() - sendNanos);
+                }
+            }
+            dev.sentOnConn++;
+            if ((this.churn > 0) && (dev.sentOnConn >= this.churn)) {
+                dev.close();
+            }
+        } catch (SocketTimeoutException ste) {
+            this.stats.ackTimeouts.incrementAndGet();
+            dev.close();
+        } catch (IOException ioe) {
+            this.stats.sendErrors.incrementAndGet();
+            dev.close();
+        }
+    }
+
+    /**
+    *** Worker thread, sends packets for a subset of the simulated devices
+    **/
+    private class Worker
+        extends Thread
+    {
+        private java.util.List<SimDevice> devices = new Vector<SimDevice>();
+        public Worker(int ndx) {
+            super("LoadWorker_" + ndx);
+            this.setDaemon(true);
+        }
+        public void addDevice(SimDevice dev) {
+            this.devices.add(dev);
+        }
+        public void run() {
+            DCSLoadGenerator LG = DCSLoadGenerator.this;
+            Formatters fmt = new Formatters();
+            byte ackBuf[] = new byte[2048];
+            for (;;) {
+                long nowMS = System.currentTimeMillis();
+                if (nowMS >= LG.endMS) {
+                    break;
+                }
+                long nextMS = LG.endMS;
+                for (SimDevice dev : this.devices) {
+                    if (dev.nextSendMS <= nowMS) {
+                        LG._send(dev, fmt, ackBuf);
+                        dev.nextSendMS = LG._adjustSendMS(dev.nextSendMS + LG.intervalMS);
+                        if (dev.nextSendMS <= nowMS) {
+                            // -- falling behind, do not try to catch up
+                            dev.nextSendMS = LG._adjustSendMS(nowMS + LG.intervalMS);
+                        }
+                    }
+                    if (dev.nextSendMS < nextMS) {
+                        nextMS = dev.nextSendMS;
+                    }
+                }
+                long sleepMS = nextMS - System.currentTimeMillis();
+                if (sleepMS > 0L) {
+                    try { Thread.sleep(Math.min(sleepMS, 1000L)); } catch (InterruptedException ie) { break; }
+                }
+            }
+            for (SimDevice dev : this.devices) {
+                dev.close();
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Prints the current statistics
+    **/
+    private void _printStats(String title, long elapsedMS, long lastSent, long lastMS)
+    {
+        long   sent   = this.stats.sent.get();
+        double sec    = (double)Math.max(elapsedMS,1L) / 1000.0;
+        double rate   = (double)sent / sec;
+        double irate  = (double)(sent - lastSent) / ((double)Math.max(elapsedMS - lastMS,1L) / 1000.0);
+        StringBuffer sb = new StringBuffer();
+        sb.append(title);
+        sb.append(" elapsed=").append(StringTools.format(sec,"0.0")).append("s");
+        sb.append(" sent=").append(sent);
+        sb.append(" events/sec=").append(StringTools.format(rate,"0.0"));
+        sb.append(" (interval ").append(StringTools.format(irate,"0.0")).append(")");
+        sb.append(" acked=").append(this.stats.acked.get());
+        sb.append(" errors=").append(this.stats.getErrorCount());
+        Print.sysPrintln(sb.toString());
+    }
+
+    /**
+    *** Prints the final summary
+    **/
+    private void _printSummary(long elapsedMS)
+    {
+        double sec = (double)Math.max(elapsedMS,1L) / 1000.0;
+        Print.sysPrintln("");
+        Print.sysPrintln("DCS Load Summary:");
+        Print.sysPrintln("  Elapsed time      : " + StringTools.format(sec,"0.0") + " sec");
+        Print.sysPrintln("  Events sent       : " + this.stats.sent.get());
+        Print.sysPrintln("  Sustained rate    : " + StringTools.format((double)this.stats.sent.get() / sec,"0.0") + " events/sec");
+        Print.sysPrintln("  Connections       : " + this.stats.connects.get());
+        if (this.waitAck) {
+            double p[] = this.stats.getLatencyPercentilesMS(new double[] { 50.0, 90.0, 99.0, 99.9, 100.0 });
+            Print.sysPrintln("  ACKs received     : " + this.stats.acked.get());
+            Print.sysPrintln("  ACK latency (ms)  : p50=" + StringTools.format(p[0],"0.00") +
+                " p90=" + StringTools.format(p[1],"0.00") + " p99=" + StringTools.format(p[2],"0.00") +
+                " p99.9=" + StringTools.format(p[3],"0.00") + " max=" + StringTools.format(p[4],"0.00"));
+            Print.sysPrintln("  ACK timeouts      : " + this.stats.ackTimeouts.get());
+        }
+        Print.sysPrintln("  Connect errors    : " + this.stats.connectErrors.get());
+        Print.sysPrintln("  Send errors       : " + this.stats.sendErrors.get());
+        Print.sysPrintln("");
+    }
+
+    /**
+    *** Runs the load test
+    **/
+    private void run(int devCount, int threadCount, String protocol, String prefix, long durationMS, long reportMS)
+    {
+
+        /* create workers/devices */
+        this.startMS = System.currentTimeMillis() + 500L;
+        this.endMS   = this.startMS + durationMS;
+        Worker workers[] = new Worker[Math.max(1,Math.min(threadCount,devCount))];
+        for (int w = 0; w < workers.length; w++) {
+            workers[w] = new Worker(w);
+        }
+        for (int d = 0; d < devCount; d++) {
+            boolean udp = protocol.equalsIgnoreCase("udp") || (protocol.equalsIgnoreCase("both") && ((d & 1) == 1));
+            SimDevice dev = new SimDevice(d, this._getMobileID(prefix, d), udp);
+            if (this.track != null) {
+                dev.trackPos = (int)(((long)d * (long)this.track.length) / (long)devCount);
+            }
+            dev.nextSendMS = this._adjustSendMS(this._getFirstSendMS(dev, devCount));
+            workers[d % workers.length].addDevice(dev);
+        }
+
+        /* start */
+        Print.sysPrintln("Starting " + devCount + " devices on " + workers.length + " threads [" +
+            protocol + " " + this.host.getHostAddress() + ":" + this.port + "] ...");
+        for (Worker w : workers) {
+            w.start();
+        }
+
+        /* periodic report */
+        long lastSent = 0L, lastMS = 0L;
+        for (;;) {
+            boolean alive = false;
+            for (Worker w : workers) {
+                try { w.join(Math.max(reportMS,100L)); } catch (InterruptedException ie) {/*ignore*/}
+                if (w.isAlive()) { alive = true; break; }
+            }
+            long elapsedMS = System.currentTimeMillis() - this.startMS;
+            if (!alive) {
+                this._printSummary(Math.min(elapsedMS, durationMS));
+                break;
+            }
+            if ((elapsedMS - lastMS) >= reportMS) {
+                this._printStats("[load]", elapsedMS, lastSent, lastMS);
+                lastSent = this.stats.sent.get();
+                lastMS   = elapsedMS;
+            }
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static final String ARG_HELP[]          = new String[] { "help"         , "h"               };
+    private static final String ARG_HOST[]          = new String[] { "host"                             };
+    private static final String ARG_PORT[]          = new String[] { "port"                             };
+    private static final String ARG_PROTOCOL[]      = new String[] { "protocol"     , "proto"           };
+    private static final String ARG_FORMAT[]        = new String[] { "format"       , "fmt"             };
+    private static final String ARG_DEVICES[]       = new String[] { "devices"      , "count"           };
+    private static final String ARG_PREFIX[]        = new String[] { "mobilePrefix" , "prefix"          };
+    private static final String ARG_INTERVAL[]      = new String[] { "interval"     , "intervalSec"     };
+    private static final String ARG_DURATION[]      = new String[] { "duration"     , "durationSec"     };
+    private static final String ARG_CHURN[]         = new String[] { "churn"                            };
+    private static final String ARG_SHAPE[]         = new String[] { "shape"                            };
+    private static final String ARG_SAMPLE[]        = new String[] { "sample"       , "track"           };
+    private static final String ARG_REPLAY[]        = new String[] { "replay"                           };
+    private static final String ARG_ACK[]           = new String[] { "ack"                              };
+    private static final String ARG_ACK_TIMEOUT[]   = new String[] { "ackTimeoutMS" , "timeoutMS"       };
+    private static final String ARG_THREADS[]       = new String[] { "threads"                          };
+    private static final String ARG_REPORT[]        = new String[] { "reportSec"                        };
+
+    private static void usage()
+    {
+        String n = DCSLoadGenerator.class.getName();
+        Print.sysPrintln("");
+        Print.sysPrintln("Description:");
+        Print.sysPrintln("   DCS load generator ...");
+        Print.sysPrintln("");
+        Print.sysPrintln("Usage:");
+        Print.sysPrintln("   java ... " + n + " -port=<port> -format=<fmt> [options]");
+        Print.sysPrintln("");
+        Print.sysPrintln("Options:");
+        Print.sysPrintln("   -host=<host>        DCS host [default 'localhost']");
+        Print.sysPrintln("   -port=<port>        DCS port");
+        Print.sysPrintln("   -protocol=<proto>   'tcp', 'udp', or 'both' [default 'tcp']");
+        Print.sysPrintln("   -format=<fmt>       'ascii1', 'ascii2', 'ascii3', 'taip', or 'tk103'");
+        Print.sysPrintln("   -replay=<file>      Replay recorded packets (one per line) instead of '-format'");
+        Print.sysPrintln("   -sample=<file>      Sample EventData file for synthetic tracks (ie. 'sampleData/EventData.txt')");
+        Print.sysPrintln("   -devices=<count>    Number of simulated devices [default 10]");
+        Print.sysPrintln("   -prefix=<id>        MobileID prefix [default 'load']");
+        Print.sysPrintln("   -interval=<sec>     Reporting interval per device [default 60]");
+        Print.sysPrintln("   -duration=<sec>     Test duration [default 60]");
+        Print.sysPrintln("   -churn=<count>      TCP packets per connection (0 for persistent) [default 0]");
+        Print.sysPrintln("   -shape=<shape>      'steady', 'aligned', 'ramp:<sec>', 'burst:<onSec>/<offSec>'");
+        Print.sysPrintln("   -ack=true           Wait for an ACK after each packet, and report ACK latency");
+        Print.sysPrintln("   -ackTimeoutMS=<ms>  Connect/ACK timeout [default 5000]");
+        Print.sysPrintln("   -threads=<count>    Number of sending threads [default 50]");
+        Print.sysPrintln("   -reportSec=<sec>    Progress report interval [default 10]");
+        Print.sysPrintln("");
+        System.exit(1);
+    }
+
+    /**
+    *** Main entry point
+    **/
+    public static void main(String argv[])
+    {
+        RTConfig.setCommandLineArgs(argv);
+        Print.setLogLevel(Print.LOG_WARN, false/*inclDate*/, false/*inclFrame*/);
+        if (RTConfig.getBoolean(ARG_HELP,false)) {
+            DCSLoadGenerator.usage();
+        }
+        DCSLoadGenerator LG = new DCSLoadGenerator();
+
+        /* host/port */
+        try {
+            LG.host = InetAddress.getByName(RTConfig.getString(ARG_HOST,"localhost"));
+        } catch (UnknownHostException uhe) {
+            Print.sysPrintln("ERROR: Unknown host: " + uhe.getMessage());
+            System.exit(99);
+        }
+        LG.port = RTConfig.getInt(ARG_PORT,0);
+        if ((LG.port <= 0) || (LG.port > 65535)) {
+            Print.sysPrintln("ERROR: Missing/invalid '-port'");
+            DCSLoadGenerator.usage();
+        }
+
+        /* format/replay */
+        if (RTConfig.hasProperty(ARG_REPLAY)) {
+            File replayFile = RTConfig.getFile(ARG_REPLAY,null);
+            try {
+                java.util.List<String> lines = new Vector<String>();
+                for (String s : StringTools.split(StringTools.toStringValue(FileTools.readFile(replayFile)),'\n')) {
+                    s = StringTools.trim(s);
+                    if (!s.equals("")) { lines.add(s); }
+                }
+                LG.replay = lines.toArray(new String[lines.size()]);
+            } catch (Throwable th) {
+                LG.replay = null;
+            }
+            if (ListTools.isEmpty(LG.replay)) {
+                Print.sysPrintln("ERROR: No packets to replay: " + replayFile);
+                System.exit(99);
+            }
+            LG.format = FORMAT_REPLAY;
+        } else {
+            String fmt = RTConfig.getString(ARG_FORMAT,"ascii1").toLowerCase();
+            if (fmt.equals("ascii1") || fmt.equals("ascii_01")) {
+                LG.format = FORMAT_ASCII_01;
+            } else
+            if (fmt.equals("ascii2") || fmt.equals("ascii_02")) {
+                LG.format = FORMAT_ASCII_02;
+            } else
+            if (fmt.equals("ascii3") || fmt.equals("ascii_03")) {
+                LG.format = FORMAT_ASCII_03;
+            } else
+            if (fmt.equals("taip")) {
+                LG.format = FORMAT_TAIP;
+            } else
+            if (fmt.equals("tk103") || fmt.equals("tk10x")) {
+                LG.format = FORMAT_TK103;
+            } else {
+                Print.sysPrintln("ERROR: Invalid '-format': " + fmt);
+                DCSLoadGenerator.usage();
+            }
+            File sample = RTConfig.getFile(ARG_SAMPLE,null);
+            if (sample != null) {
+                try {
+                    LG.track = loadSampleTrack(sample);
+                } catch (IOException ioe) {
+                    Print.sysPrintln("ERROR: Unable to read sample file: " + ioe);
+                    System.exit(99);
+                }
+            }
+            if (ListTools.isEmpty(LG.track)) {
+                LG.track = syntheticTrack();
+            }
+        }
+
+        /* shape */
+        String shape = RTConfig.getString(ARG_SHAPE,"steady").toLowerCase();
+        if (shape.equals("aligned")) {
+            LG.shape = SHAPE_ALIGNED;
+        } else
+        if (shape.startsWith("ramp:")) {
+            LG.shape  = SHAPE_RAMP;
+            LG.rampMS = StringTools.parseLong(shape.substring(5),60L) * 1000L;
+        } else
+        if (shape.startsWith("burst:")) {
+            String oo[] = StringTools.split(shape.substring(6),'/');
+            LG.shape      = SHAPE_BURST;
+            LG.burstOnMS  = Math.max(StringTools.parseLong(oo[0],10L),1L) * 1000L;
+            LG.burstOffMS = ((oo.length > 1)? Math.max(StringTools.parseLong(oo[1],10L),0L) : 10L) * 1000L;
+        } else {
+            LG.shape = SHAPE_STEADY;
+        }
+
+        /* other options */
+        LG.intervalMS   = Math.max(RTConfig.getLong(ARG_INTERVAL,60L) * 1000L, 10L);
+        LG.churn        = Math.max(RTConfig.getInt(ARG_CHURN,0), 0);
+        LG.waitAck      = RTConfig.getBoolean(ARG_ACK,false);
+        LG.ackTimeoutMS = Math.max(RTConfig.getInt(ARG_ACK_TIMEOUT,5000), 100);
+        int    devCount = Math.max(RTConfig.getInt(ARG_DEVICES,10), 1);
+        int    threads  = Math.max(RTConfig.getInt(ARG_THREADS,50), 1);
+        String protocol = RTConfig.getString(ARG_PROTOCOL,"tcp");
+        String prefix   = RTConfig.getString(ARG_PREFIX,"load");
+        long   duration = Math.max(RTConfig.getLong(ARG_DURATION,60L), 1L) * 1000L;
+        long   reportMS = Math.max(RTConfig.getLong(ARG_REPORT,10L), 1L) * 1000L;
+
+        /* run */
+        LG.run(devCount, threads, protocol, prefix, duration, reportMS);
+        System.exit(0);
+
+    }
+
+}
@@ -84,6 +84,7 @@
 package org.opengts.util;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.io.*;
 //import java.math.BigIngeter;
 
@@ -101,6 +102,13 @@ public class DateTime
 
     // ------------------------------------------------------------------------
 
+    /* resolved TimeZone cache (must be initialized before "GMT"/"PST" below) */
+    private static final int     MAX_TIMEZONE_CACHE_SIZE    = 1000;
+    private static final TimeZone NO_TIMEZONE               = new SimpleTimeZone(0, "?");
+    private static ConcurrentHashMap<String,TimeZone> TimeZoneCache = new ConcurrentHashMap<String,TimeZone>();
+
+    // ------------------------------------------------------------------------
+
     public static final String   GMT_TIMEZONE               = "GMT";
     public static final TimeZone GMT                        = DateTime.getGMTTimeZone();
     public static final TimeZone PST                        = DateTime.getTimeZone("US/Pacific");
@@ -2332,7 +2340,29 @@ public class DateTime
     **/
     private int _get(TimeZone tz, int value)
     {
-        return this.getCalendar(tz).get(value);
+        return DateTime._threadCalendar(this._timeZone(tz), this.getTimeMillis()).get(value);
+    }
+
+    /* per-thread reusable Calendar (only used internally, never returned to the caller) */
+    private static final ThreadLocal<GregorianCalendar> ThreadCalendar = new ThreadLocal<GregorianCalendar>() {
+        protected GregorianCalendar initialValue() {
+            return new GregorianCalendar();
+        }
+    };
+
+    /**
+    *** Returns the per-thread Calendar, set to the specified TimeZone and time.
+    *** The returned Calendar must not be retained, or used after calling any other 
+    *** DateTime method.
+    **/
+    private static Calendar _threadCalendar(TimeZone tz, long timeMillis)
+    {
+        GregorianCalendar cal = ThreadCalendar.get();
+        if (cal.getTimeZone() != tz) {
+            cal.setTimeZone(tz);
+        }
+        cal.setTimeInMillis(timeMillis);
+        return cal;
     }
 
     /**
@@ -2489,7 +2519,7 @@ public class DateTime
     **/
     public boolean isLeapYear(TimeZone tz)
     {
-        GregorianCalendar gc = (GregorianCalendar)this.getCalendar(tz);
+        GregorianCalendar gc = (GregorianCalendar)DateTime._threadCalendar(this._timeZone(tz), this.getTimeMillis());
         return gc.isLeapYear(gc.get(Calendar.YEAR));
     }
  
@@ -2755,10 +2785,7 @@ public class DateTime
     public long getDayStart(TimeZone tz)
     {
         if (tz == null) { tz = _timeZone(tz); }
-        Calendar c  = this.getCalendar(tz);
-        Calendar nc = new GregorianCalendar(tz);
-        nc.set(c.get(Calendar.YEAR), c.get(Calendar.MONTH), c.get(Calendar.DAY_OF_MONTH), 0, 0, 0);
-        return nc.getTime().getTime() / 1000L;
+        return this._getDayRange(tz).dayStartSec;
     }
     
     /**
@@ -2782,10 +2809,52 @@ public class DateTime
     public long getDayEnd(TimeZone tz)
     {
         if (tz == null) { tz = _timeZone(tz); }
-        Calendar c  = this.getCalendar(tz);
-        Calendar nc = new GregorianCalendar(tz);
-        nc.set(c.get(Calendar.YEAR), c.get(Calendar.MONTH), c.get(Calendar.DAY_OF_MONTH), 23, 59, 59);
-        return nc.getTime().getTime() / 1000L;
+        return this._getDayRange(tz).dayEndSec;
+    }
+
+    /**
+    *** Day start/end Epoch times for a specific TimeZone
+    **/
+    private static class DayRange
+    {
+        private TimeZone timeZone    = null;
+        private long     dayStartSec = 0L;
+        private long     dayEndSec   = 0L;
+        public DayRange(TimeZone tz, long startSec, long endSec) {
+            this.timeZone    = tz;
+            this.dayStartSec = startSec;
+            this.dayEndSec   = endSec;
+        }
+        public boolean contains(TimeZone tz, long timeSec) {
+            return (timeSec >= this.dayStartSec) && (timeSec <= this.dayEndSec) && this.timeZone.equals(tz);
+        }
+    }
+
+    /* most recent day range, per TimeZone ID */
+    private static ConcurrentHashMap<String,DayRange> DayRangeCache = new ConcurrentHashMap<String,DayRange>();
+
+    /* get the day start/end for this instance */
+    private DayRange _getDayRange(TimeZone tz)
+    {
+        long    timeSec = this.getTimeSec();
+        String  tzID    = tz.getID();
+        DayRange dr     = DayRangeCache.get(tzID);
+        if ((dr != null) && dr.contains(tz, timeSec)) {
+            return dr;
+        }
+        Calendar c = DateTime._threadCalendar(tz, this.getTimeMillis());
+        int YY = c.get(Calendar.YEAR), MM = c.get(Calendar.MONTH), DD = c.get(Calendar.DAY_OF_MONTH);
+        c.clear();
+        c.set(YY, MM, DD,  0,  0,  0);
+        long startSec = c.getTimeInMillis() / 1000L;
+        c.set(YY, MM, DD, 23, 59, 59);
+        long endSec   = c.getTimeInMillis() / 1000L;
+        dr = new DayRange((TimeZone)tz.clone(), startSec, endSec);
+        if ((timeSec >= startSec) && (timeSec <= endSec)) {
+            if (DayRangeCache.size() >= MAX_TIMEZONE_CACHE_SIZE) { DayRangeCache.clear(); }
+            DayRangeCache.put(tzID, dr);
+        }
+        return dr;
     }
     
     /**
@@ -3355,6 +3424,23 @@ public class DateTime
             return dft;
         }
 
+        /* previously resolved TimeZone ID */
+        TimeZone tmz = TimeZoneCache.get(tzid);
+        if (tmz == null) {
+            tmz = DateTime._resolveTimeZone(tzid);
+            if (tmz == null) { tmz = NO_TIMEZONE; }
+            if (TimeZoneCache.size() >= MAX_TIMEZONE_CACHE_SIZE) { TimeZoneCache.clear(); }
+            TimeZoneCache.put(tzid, tmz);
+        }
+
+        /* return a copy (TimeZone is mutable) */
+        return (tmz != NO_TIMEZONE)? (TimeZone)tmz.clone() : dft;
+
+    }
+
+    private static TimeZone _resolveTimeZone(String tzid)
+    {
+
         /* GMT/UTC/Zulu timezones */
         if (tzid.equalsIgnoreCase(GMT_TIMEZONE) || 
             tzid.equalsIgnoreCase("UTC")        || 
@@ -3397,7 +3483,7 @@ public class DateTime
         // non-DST ID.
         String dstTmzID = _GetTimeZoneDSTMap().get(LOWERCASE_TIMEZONE_LOOKUP? tzid.toLowerCase() : tzid);
         TimeZone dstTmz = (dstTmzID != null)? TimeZone.getTimeZone(dstTmzID) : null; // case sensitive
-        return ((dstTmz != null) && (dstTmz.getRawOffset() != 0))? dstTmz : dft;
+        return ((dstTmz != null) && (dstTmz.getRawOffset() != 0))? dstTmz : null;
 
     }
 
@@ -3504,6 +3590,55 @@ public class DateTime
 
     // ------------------------------------------------------------------------
 
+    private static final int MAX_THREAD_DATE_FORMATS = 32;
+
+    /**
+    *** Per-thread cache of compiled SimpleDateFormat instances, keyed by format pattern
+    **/
+    private static class ThreadDateFormats
+        extends LinkedHashMap<String,SimpleDateFormat>
+    {
+        private Locale        locale   = null;
+        private Date          date     = new Date();
+        private FieldPosition fieldPos = new FieldPosition(0);
+        public ThreadDateFormats() {
+            super(16, 0.75F, true); // LRU
+        }
+        protected boolean removeEldestEntry(Map.Entry<String,SimpleDateFormat> eldest) {
+            return (this.size() > MAX_THREAD_DATE_FORMATS);
+        }
+    }
+
+    private static final ThreadLocal<ThreadDateFormats> ThreadDateFormats_local = new ThreadLocal<ThreadDateFormats>() {
+        protected ThreadDateFormats initialValue() {
+            return new ThreadDateFormats();
+        }
+    };
+
+    /**
+    *** Returns the per-thread SimpleDateFormat for the specified pattern (default Locale).
+    *** The caller must set the TimeZone before each use.
+    *** @throws IllegalArgumentException if the format pattern is invalid
+    **/
+    private static SimpleDateFormat _threadDateFormat(String fmt)
+    {
+        ThreadDateFormats tdf = ThreadDateFormats_local.get();
+        Locale loc = Locale.getDefault(Locale.Category.FORMAT);
+        if (!loc.equals(tdf.locale)) {
+            // -- default locale changed
+            tdf.clear();
+            tdf.locale = loc;
+        }
+        SimpleDateFormat sdf = tdf.get(fmt);
+        if (sdf == null) {
+            sdf = new SimpleDateFormat(fmt, loc);
+            tdf.put(fmt, sdf);
+        }
+        return sdf;
+    }
+
+    // ------------------------------------------------------------------------
+
     /** 
     *** Formats the specified Date instance.
     *** @param date The Date instance
@@ -3517,10 +3652,10 @@ public class DateTime
         SimpleDateFormat sdf = null;
         try {
             String f = (dtFmt != null)? dtFmt : DEFAULT_DATETIME_FORMAT;
-            sdf = new SimpleDateFormat(f);
+            sdf = DateTime._threadDateFormat(f);
         } catch (IllegalArgumentException iae) {
             Print.logException("Invalid date/time format: " + dtFmt, iae);
-            sdf = new SimpleDateFormat(DEFAULT_DATETIME_FORMAT); // assumed to be valid
+            sdf = DateTime._threadDateFormat(DEFAULT_DATETIME_FORMAT); // assumed to be valid
         }
         sdf.setTimeZone((tz != null)? tz : DateTime.getDefaultTimeZone()); 
         sdf.format(date, sb, new FieldPosition(0));
@@ -3540,13 +3675,17 @@ public class DateTime
         SimpleDateFormat sdf = null;
         try {
             String f = (dtFmt != null)? dtFmt : DEFAULT_DATETIME_FORMAT;
-            sdf = new SimpleDateFormat(f);
+            sdf = DateTime._threadDateFormat(f);
         } catch (IllegalArgumentException iae) {
             Print.logError("Invalid date/time format: " + dtFmt + " [" + iae.getMessage() + "]");
-            sdf = new SimpleDateFormat(DEFAULT_DATETIME_FORMAT); // assumed to be valid
+            sdf = DateTime._threadDateFormat(DEFAULT_DATETIME_FORMAT); // assumed to be valid
         }
+        ThreadDateFormats tdf = ThreadDateFormats_local.get();
+        tdf.date.setTime(this.getTimeMillis());
+        tdf.fieldPos.setBeginIndex(0);
+        tdf.fieldPos.setEndIndex(0);
         sdf.setTimeZone(this._timeZone(tz)); 
-        sdf.format(this.getDate(), sb, new FieldPosition(0));
+        sdf.format(tdf.date, sb, tdf.fieldPos);
         return sb.toString();
     }
 
@@ -0,0 +1,453 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Thread-safe precompiled fixed-decimal number formatter.
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Simple DecimalFormat patterns consisting only of '#', '0', ',', and a
+//    single '.' (ie. "0", "#0.0", "0.000000", "#,##0.00") are compiled into a
+//    fixed-decimal formatter which appends the formatted digits directly into
+//    the specified StringBuilder/StringBuffer/Appendable.
+//  - Output is identical to "new DecimalFormat(fmt,DecimalFormatSymbols(Locale.US))"
+//    (HALF_EVEN rounding of the shortest decimal representation of the double
+//    value).  Values near a rounding tie, or too large to be scaled exactly, are
+//    rounded using BigDecimal, and exact decimal ties are left to DecimalFormat.
+//  - All other patterns (prefix/suffix, percent, exponent, etc) are formatted
+//    using a DecimalFormat instance synchronized on the formatter.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class FixedDecimalFormat
+{
+
+    // ------------------------------------------------------------------------
+
+    private static final int    MAX_FRACTION_DIGITS     = 15;
+    private static final int    MAX_INTEGER_DIGITS      = 18;
+    private static final int    MAX_CACHED_FORMATS      = 1000;
+
+    /* largest scaled value which can be rounded directly (2^52) */
+    private static final double MAX_SCALED_VALUE        = 4503599627370496.0;
+
+    private static final BigDecimal HALF                = new BigDecimal("5");
+
+    private static final long   POW10[]                 = new long[19];
+    static {
+        POW10[0] = 1L;
+        for (int i = 1; i < POW10.length; i++) { POW10[i] = POW10[i - 1] * 10L; }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static ConcurrentHashMap<String,FixedDecimalFormat> formatCache =
+        new ConcurrentHashMap<String,FixedDecimalFormat>();
+
+    /**
+    *** Gets the cached formatter for the specified DecimalFormat pattern
+    *** @param fmt  The format pattern (blank is equivalent to "0")
+    *** @return The FixedDecimalFormat instance
+    **/
+    public static FixedDecimalFormat getInstance(String fmt)
+    {
+        if (StringTools.isBlank(fmt)) { fmt = "0"; }
+        FixedDecimalFormat fdf = formatCache.get(fmt);
+        if (fdf == null) {
+            if (formatCache.size() >= MAX_CACHED_FORMATS) {
+                // -- dynamically generated patterns, do not grow without bound
+                return new FixedDecimalFormat(fmt);
+            }
+            FixedDecimalFormat newFDF = new FixedDecimalFormat(fmt);
+            fdf = formatCache.putIfAbsent(fmt, newFDF);
+            if (fdf == null) { fdf = newFDF; }
+        }
+        return fdf;
+    }
+
+    // ------------------------------------------------------------------------
+
+    private String          pattern         = null;
+    private boolean         isFixed         = false;
+    private int             minIntDigits    = 0;
+    private int             groupSize       = 0;
+    private int             minFracDigits   = 0;
+    private int             maxFracDigits   = 0;
+    private DecimalFormat   decFormat       = null; // synchronized on 'this'
+
+    /**
+    *** Constructor
+    *** @param fmt  The DecimalFormat pattern
+    **/
+    public FixedDecimalFormat(String fmt)
+    {
+        this.pattern = StringTools.isBlank(fmt)? "0" : fmt;
+        this.isFixed = this._compile(this.pattern);
+        if (!this.isFixed) {
+            // -- may throw IllegalArgumentException
+            this.decFormat = new DecimalFormat(this.pattern, new DecimalFormatSymbols(Locale.US));
+        }
+    }
+
+    /* parse a simple fixed-decimal pattern, return false if not supported */
+    private boolean _compile(String fmt)
+    {
+        int len = fmt.length(), p = 0;
+        // -- integer part: [#,]*[0,]*
+        int intZeros = 0, lastComma = -1, intDigits = 0;
+        boolean seenZero = false;
+        for (; (p < len) && (fmt.charAt(p) != '.'); p++) {
+            char ch = fmt.charAt(p);
+            if (ch == '#') {
+                if (seenZero) { return false; }
+                intDigits++;
+            } else
+            if (ch == '0') {
+                seenZero = true;
+                intZeros++;
+                intDigits++;
+            } else
+            if (ch == ',') {
+                lastComma = intDigits;
+            } else {
+                return false;
+            }
+        }
+        int grpSize = (lastComma >= 0)? (intDigits - lastComma) : 0;
+        if ((lastComma >= 0) && (grpSize <= 0)) { return false; } // "0,"/"0,.0"
+        if (intZeros > MAX_INTEGER_DIGITS) { return false; }
+        // -- fraction part: [0]*[#]*
+        int fracZeros = 0, fracHash = 0;
+        if (p < len) {
+            p++; // skip '.'
+            if (p >= len) { return false; } // "0." (decimal separator always shown)
+            for (; p < len; p++) {
+                char ch = fmt.charAt(p);
+                if (ch == '0') {
+                    if (fracHash > 0) { return false; }
+                    fracZeros++;
+                } else
+                if (ch == '#') {
+                    fracHash++;
+                } else {
+                    return false;
+                }
+            }
+        }
+        if ((intDigits == 0) && (fracZeros == 0)) { return false; } // "#", ".##"
+        if ((fracZeros + fracHash) > MAX_FRACTION_DIGITS) { return false; }
+        if ((intZeros == 0) && (fracZeros == 0)) { intZeros = 1; } // "#.##" is "0.##"
+        this.minIntDigits  = intZeros;
+        this.groupSize     = grpSize;
+        this.minFracDigits = fracZeros;
+        this.maxFracDigits = fracZeros + fracHash;
+        return true;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the format pattern
+    *** @return The format pattern
+    **/
+    public String getPattern()
+    {
+        return this.pattern;
+    }
+
+    /**
+    *** Returns true if this pattern is formatted by the fixed-decimal fast path
+    *** @return True if fixed-decimal, false if formatted by DecimalFormat
+    **/
+    public boolean isFixedDecimal()
+    {
+        return this.isFixed;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Formats the specified double value
+    *** @param val  The value to format
+    *** @return The formatted String
+    **/
+    public String format(double val)
+    {
+        if (!this.isFixed) {
+            return this._decimalFormat(val);
+        }
+        return this.format(val, new StringBuilder(24)).toString();
+    }
+
+    /**
+    *** Formats the specified long value
+    *** @param val  The value to format
+    *** @return The formatted String
+    **/
+    public String format(long val)
+    {
+        if (!this.isFixed) {
+            return this._decimalFormat(val);
+        }
+        return this.format(val, new StringBuilder(24)).toString();
+    }
+
+    /**
+    *** Formats the specified BigInteger value
+    *** @param val  The value to format
+    *** @return The formatted String
+    **/
+    public String format(BigInteger val)
+    {
+        if (this.isFixed && (val != null) && (val.bitLength() < 63)) {
+            return this.format(val.longValue(), new StringBuilder(24)).toString();
+        }
+        return this._decimalFormat(val);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Appends the formatted double value to the specified StringBuilder
+    *** @param val  The value to format
+    *** @param sb   The StringBuilder
+    *** @return The StringBuilder
+    **/
+    public StringBuilder format(double val, StringBuilder sb)
+    {
+        try {
+            this._append(val, sb);
+        } catch (IOException ioe) {
+            // -- will not occur
+        }
+        return sb;
+    }
+
+    /**
+    *** Appends the formatted double value to the specified StringBuffer
+    *** @param val  The value to format
+    *** @param sb   The StringBuffer
+    *** @return The StringBuffer
+    **/
+    public StringBuffer format(double val, StringBuffer sb)
+    {
+        try {
+            this._append(val, sb);
+        } catch (IOException ioe) {
+            // -- will not occur
+        }
+        return sb;
+    }
+
+    /**
+    *** Appends the formatted double value to the specified Appendable (ie. Writer)
+    *** @param val  The value to format
+    *** @param out  The Appendable
+    *** @throws IOException If thrown by the Appendable
+    **/
+    public void format(double val, Appendable out)
+        throws IOException
+    {
+        this._append(val, out);
+    }
+
+    /**
+    *** Appends the formatted long value to the specified StringBuilder
+    *** @param val  The value to format
+    *** @param sb   The StringBuilder
+    *** @return The StringBuilder
+    **/
+    public StringBuilder format(long val, StringBuilder sb)
+    {
+        try {
+            this._append(val, sb);
+        } catch (IOException ioe) {
+            // -- will not occur
+        }
+        return sb;
+    }
+
+    /**
+    *** Appends the formatted long value to the specified StringBuffer
+    *** @param val  The value to format
+    *** @param sb   The StringBuffer
+    *** @return The StringBuffer
+    **/
+    public StringBuffer format(long val, StringBuffer sb)
+    {
+        try {
+            this._append(val, sb);
+        } catch (IOException ioe) {
+            // -- will not occur
+        }
+        return sb;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* append formatted double */
+    private void _append(double val, Appendable out)
+        throws IOException
+    {
+
+        /* non-fixed pattern, or Infinity/NaN */
+        if (!this.isFixed || Double.isNaN(val) || Double.isInfinite(val)) {
+            out.append(this._decimalFormat(val));
+            return;
+        }
+
+        /* scale/round (HALF_EVEN) */
+        boolean neg  = (val < 0.0) || ((val == 0.0) && ((1.0 / val) < 0.0)); // includes -0.0
+        double  absV = Math.abs(val);
+        int     frac = this.maxFracDigits;
+        double  x    = absV * (double)POW10[frac];
+        long    r;
+        if (x < MAX_SCALED_VALUE) {
+            double fl   = Math.floor(x);
+            double diff = x - fl;
+            double err  = Math.ulp(x) * 2.0; // scaling error bound
+            if (Math.abs(diff - 0.5) <= err) {
+                // -- near a tie, round the decimal value
+                r = this._roundDecimal(absV, frac);
+            } else {
+                r = (long)fl + ((diff > 0.5)? 1L : 0L);
+            }
+        } else
+        if ((absV / (double)POW10[MAX_INTEGER_DIGITS - 1]) < 1.0) {
+            r = this._roundDecimal(absV, frac);
+        } else {
+            r = -1L;
+        }
+        if (r < 0L) {
+            // -- rounding tie, or too large for fixed-decimal formatting
+            out.append(this._decimalFormat(val));
+            return;
+        }
+
+        /* split integer/fraction */
+        long intPart  = r / POW10[frac];
+        long fracPart = r % POW10[frac];
+        while ((frac > this.minFracDigits) && ((fracPart % 10L) == 0L)) {
+            fracPart /= 10L;
+            frac--;
+        }
+
+        /* append */
+        if (neg) {
+            out.append('-');
+        }
+        if ((intPart > 0L) || (this.minIntDigits > 0) || (frac == 0)) {
+            this._appendInteger(intPart, out);
+        }
+        if (frac > 0) {
+            out.append('.');
+            for (int d = frac - 1; d >= 0; d--) {
+                out.append((char)('0' + (int)((fracPart / POW10[d]) % 10L)));
+            }
+        }
+
+    }
+
+    /* append formatted long */
+    private void _append(long val, Appendable out)
+        throws IOException
+    {
+        if (!this.isFixed || (val == Long.MIN_VALUE)) {
+            out.append(this._decimalFormat(val));
+            return;
+        }
+        if (val < 0L) {
+            out.append('-');
+            val = -val;
+        }
+        if ((val > 0L) || (this.minIntDigits > 0) || (this.minFracDigits == 0)) {
+            this._appendInteger(val, out);
+        }
+        if (this.minFracDigits > 0) {
+            out.append('.');
+            for (int d = 0; d < this.minFracDigits; d++) {
+                out.append('0');
+            }
+        }
+    }
+
+    /* append integer digits (with leading zeros and grouping) */
+    private void _appendInteger(long v, Appendable out)
+        throws IOException
+    {
+        int n = 1;
+        while ((n < POW10.length) && (v >= POW10[n])) { n++; }
+        if (n < this.minIntDigits) { n = this.minIntDigits; }
+        for (int d = n - 1; d >= 0; d--) {
+            long digit = (d < POW10.length)? ((v / POW10[d]) % 10L) : 0L;
+            out.append((char)('0' + (int)digit));
+            if ((this.groupSize > 0) && (d > 0) && ((d % this.groupSize) == 0)) {
+                out.append(',');
+            }
+        }
+    }
+
+    /* round the shortest decimal representation (HALF_EVEN), returns -1 if tie or too large */
+    private long _roundDecimal(double absV, int frac)
+    {
+        // -- DecimalFormat rounds the "Double.toString" digits, ties are left to
+        // -  DecimalFormat, which resolves these based on the binary value
+        BigDecimal bd = BigDecimal.valueOf(absV);
+        if (bd.scale() > frac) {
+            BigDecimal rem = bd.subtract(bd.setScale(frac, RoundingMode.DOWN)).movePointRight(frac + 1);
+            if (rem.compareTo(HALF) == 0) {
+                return -1L;
+            }
+        }
+        BigInteger bi = bd.setScale(frac, RoundingMode.HALF_EVEN).unscaledValue();
+        return (bi.bitLength() < 63)? bi.longValue() : -1L;
+    }
+
+    /* format using the synchronized DecimalFormat */
+    private synchronized String _decimalFormat(Object val)
+    {
+        if (this.decFormat == null) {
+            this.decFormat = new DecimalFormat(this.pattern, new DecimalFormatSymbols(Locale.US));
+        }
+        return this.decFormat.format(val);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns the format pattern
+    *** @return The format pattern
+    **/
+    public String toString()
+    {
+        return this.pattern;
+    }
+
+}
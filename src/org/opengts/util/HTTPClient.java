@@ -0,0 +1,539 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Shared HTTP client for remote service providers (geocoders, cell-id, routing)
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Connections are kept alive and reused by the JVM HttpURLConnection
+//    keep-alive cache.  Unlike "HTMLTools.readPage_GET/POST", connections are
+//    not explicitly disconnected: the response body (or error body) is fully
+//    read and the stream closed, which returns the connection to the cache.
+//    The JVM keep-alive cache size is set with the "http.maxConnections" system
+//    property (default 5 idle connections per host).
+//  - The number of concurrent requests per host may be limited by the property
+//    "http.client.maxPerHost" (default 0, unlimited).  A request which cannot
+//    obtain a host slot within "http.client.hostWaitMS" milliseconds fails with
+//    an IOException.
+//  - Asynchronous requests are run on the "HTTPClient" ThreadPool, and return
+//    a java.util.concurrent.Future.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+import java.lang.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.io.*;
+import java.net.*;
+
+import org.w3c.dom.*;
+
+/**
+*** Shared HTTP client for remote service providers
+**/
+
+public class HTTPClient
+{
+
+    // ------------------------------------------------------------------------
+
+    /* HTTPClient ThreadPool */
+    // HTTPClient.ThreadPool.maximumPoolSize=20
+    // HTTPClient.ThreadPool.maximumIdleSeconds=60
+    // HTTPClient.ThreadPool.maximumQueueSize=500
+    private static final RTKey PROP_ThreadPool_HTTPClient_  = RTKey.valueOf(RTKey.ThreadPool_HTTPClient_);
+    private static final int   ThreadPool_HTTPClient_Size   =  20;  // max threads
+    private static final int   ThreadPool_HTTPClient_IdleSec=  60;  // trim idle threads
+    private static final int   ThreadPool_HTTPClient_QueSize= 500;  // max queue size
+
+    private static final int   DFT_MAX_PER_HOST             = 0; // unlimited
+    private static final long  DFT_HOST_WAIT_MS             = 5000L;
+
+    private static final int   MAX_DRAIN_BYTES              = 64 * 1024;
+
+    // ------------------------------------------------------------------------
+
+    private static HTTPClient httpClient = null;
+
+    /**
+    *** Gets the shared HTTPClient instance
+    **/
+    public static HTTPClient getInstance()
+    {
+        if (httpClient == null) {
+            synchronized (HTTPClient.class) {
+                if (httpClient == null) {
+                    HTTPClient H = new HTTPClient();
+                    H._registerMetrics();
+                    httpClient = H;
+                }
+            }
+        }
+        return httpClient;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private ThreadPool                          threadPool      = null;
+    private ConcurrentHashMap<String,Semaphore> hostSlots       = new ConcurrentHashMap<String,Semaphore>();
+
+    private AtomicLong                          requestCount    = new AtomicLong(0L);
+    private AtomicLong                          errorCount      = new AtomicLong(0L);
+    private AtomicLong                          rejectCount     = new AtomicLong(0L);
+    private AtomicLong                          requestNanos    = new AtomicLong(0L);
+
+    /**
+    *** Constructor
+    **/
+    private HTTPClient()
+    {
+        super();
+    }
+
+    /**
+    *** Gets the ThreadPool used for asynchronous requests
+    **/
+    private ThreadPool _getThreadPool()
+    {
+        if (this.threadPool == null) {
+            synchronized (this) {
+                if (this.threadPool == null) {
+                    this.threadPool = new ThreadPool(
+                        "HTTPClient",
+                        PROP_ThreadPool_HTTPClient_, // property allowing default override
+                        ThreadPool_HTTPClient_Size,
+                        ThreadPool_HTTPClient_IdleSec,
+                        ThreadPool_HTTPClient_QueSize);
+                }
+            }
+        }
+        return this.threadPool;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the concurrent request limiter for the specified host
+    **/
+    private Semaphore _getHostSlots(URL url)
+    {
+        String host = url.getHost() + ":" + url.getPort();
+        Semaphore slots = this.hostSlots.get(host);
+        if (slots == null) {
+            int max = RTConfig.getInt(RTKey.HTTP_CLIENT_MAX_PER_HOST, DFT_MAX_PER_HOST);
+            Semaphore newSlots = new Semaphore((max > 0)? max : Integer.MAX_VALUE);
+            slots = this.hostSlots.putIfAbsent(host, newSlots);
+            if (slots == null) { slots = newSlots; }
+        }
+        return slots;
+    }
+
+    /**
+    *** Acquires a request slot for the specified host
+    **/
+    private Semaphore _acquireHostSlot(URL url)
+        throws IOException
+    {
+        Semaphore slots = this._getHostSlots(url);
+        long waitMS = RTConfig.getLong(RTKey.HTTP_CLIENT_HOST_WAIT_MS, DFT_HOST_WAIT_MS);
+        try {
+            if (slots.tryAcquire(Math.max(waitMS,0L), TimeUnit.MILLISECONDS)) {
+                return slots;
+            }
+        } catch (InterruptedException ie) {
+            // -- restore interrupt status, and fail the request
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for host slot: " + url.getHost());
+        }
+        this.rejectCount.incrementAndGet();
+        throw new IOException("Too many concurrent requests to host: " + url.getHost());
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Response body handler
+    **/
+    private interface BodyHandler<T>
+    {
+        public T handleBody(InputStream input) throws IOException;
+    }
+
+    /**
+    *** Reads the response body into a byte array
+    **/
+    private static class ByteBodyHandler
+        implements BodyHandler<byte[]>
+    {
+        private int maxLen = -1;
+        public ByteBodyHandler(int maxLen) {
+            this.maxLen = maxLen;
+        }
+        public byte[] handleBody(InputStream input) throws IOException {
+            return FileTools.readStream(input, this.maxLen);
+        }
+    }
+
+    /**
+    *** Parses the response body as a JSON document
+    **/
+    private static class JSONBodyHandler
+        implements BodyHandler<JSON>
+    {
+        public JSON handleBody(InputStream input) throws IOException {
+            try {
+                return new JSON(input);
+            } catch (JSON.JSONParsingException jpe) {
+                throw new IOException("JSON parse error: " + jpe.getMessage(), jpe);
+            }
+        }
+    }
+
+    /**
+    *** Parses the response body as an XML document
+    **/
+    private static class XMLBodyHandler
+        implements BodyHandler<Document>
+    {
+        public Document handleBody(InputStream input) throws IOException {
+            Document doc = XMLTools.getDocument(input);
+            if (doc == null) {
+                throw new IOException("XML parse error");
+            }
+            return doc;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Reads and discards the remaining bytes of the specified stream, then closes
+    *** the stream.  Returns false if the stream could not be fully read (in which
+    *** case the connection should not be reused).
+    **/
+    private static boolean _drainAndClose(InputStream input)
+    {
+        if (input == null) {
+            return true;
+        }
+        boolean drained = false;
+        try {
+            byte buf[] = new byte[4096];
+            int total = 0;
+            for (;;) {
+                int len = input.read(buf);
+                if (len < 0) {
+                    drained = true;
+                    break;
+                }
+                total += len;
+                if (total > MAX_DRAIN_BYTES) {
+                    break;
+                }
+            }
+        } catch (IOException ioe) {
+            // -- not reusable
+        }
+        try { input.close(); } catch (IOException ioe) {/*ignore*/}
+        return drained;
+    }
+
+    /**
+    *** Sends the request and handles the response body
+    *** @param method       The request method ("GET" or "POST")
+    *** @param url          The request URL
+    *** @param headerProps  Additional request headers (may be null)
+    *** @param postData     The POST data (may be null)
+    *** @param timeoutMS    The connect/read timeout in milliseconds (<=0 for default)
+    *** @param handler      The response body handler
+    *** @return The handled response body
+    *** @throws HTMLTools.HttpIOException if the server returned an error response code
+    *** @throws IOException if an I/O error occurs
+    **/
+    private <T> T _send(String method, URL url, Properties headerProps, byte postData[],
+        int timeoutMS, BodyHandler<T> handler)
+        throws IOException
+    {
+
+        /* valid url? */
+        if (url == null) {
+            throw new IOException("URL is null");
+        }
+
+        /* acquire host slot */
+        Semaphore slots = this._acquireHostSlot(url);
+        this.requestCount.incrementAndGet();
+        long startNanos = System.nanoTime();
+        HttpURLConnection httpConnect = null;
+        InputStream input = null;
+        boolean reusable = false;
+        try {
+
+            /* init connection */
+            httpConnect = (HttpURLConnection)(url.openConnection());
+            httpConnect.setRequestMethod(method);
+            httpConnect.setAllowUserInteraction(false);
+            httpConnect.setDoInput(true);
+            httpConnect.setDoOutput(postData != null);
+            httpConnect.setUseCaches(false);
+            httpConnect.setRequestProperty(HTMLTools.PROP_User_Agent, HTMLTools.getHttpUserAgent());
+            if (timeoutMS > 0) {
+                httpConnect.setConnectTimeout(timeoutMS);
+                httpConnect.setReadTimeout(timeoutMS);
+            }
+            if (headerProps != null) {
+                for (Enumeration<?> pe = headerProps.propertyNames(); pe.hasMoreElements();) {
+                    String hk = (String)pe.nextElement();
+                    httpConnect.setRequestProperty(hk, headerProps.getProperty(hk));
+                }
+            }
+
+            /* write data */
+            if (postData != null) {
+                httpConnect.setFixedLengthStreamingMode(postData.length);
+                OutputStream output = httpConnect.getOutputStream();
+                try {
+                    output.write(postData);
+                    output.flush();
+                } finally {
+                    output.close();
+                }
+            }
+
+            /* read response */
+            try {
+                input = httpConnect.getInputStream();
+            } catch (IOException ioe) {
+                HTMLTools.HttpIOException hioe = new HTMLTools.HttpIOException(ioe, httpConnect);
+                // -- read the error body so that the connection may be reused
+                reusable = _drainAndClose(httpConnect.getErrorStream());
+                throw hioe;
+            }
+            T body = handler.handleBody(input);
+            reusable = _drainAndClose(input);
+            input = null;
+            return body;
+
+        } catch (IOException ioe) {
+            this.errorCount.incrementAndGet();
+            throw ioe;
+        } finally {
+            if (input != null) {
+                try { input.close(); } catch (IOException ioe) {/*ignore*/}
+            }
+            if ((httpConnect != null) && !reusable) {
+                httpConnect.disconnect();
+            }
+            this.requestNanos.addAndGet(System.nanoTime() - startNanos);
+            slots.release();
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Sends a GET request and returns the response body
+    *** @param url          The request URL
+    *** @param headerProps  Additional request headers (may be null)
+    *** @param timeoutMS    The connect/read timeout in milliseconds (<=0 for default)
+    *** @param maxLen       The maximum number of bytes to read (-1 to read all bytes)
+    *** @return The response body
+    *** @throws IOException if an I/O error occurs
+    **/
+    public byte[] readPage_GET(URL url, Properties headerProps, int timeoutMS, int maxLen)
+        throws IOException
+    {
+        return this._send(HTMLTools.REQUEST_GET, url, headerProps, null, timeoutMS, new ByteBodyHandler(maxLen));
+    }
+
+    /**
+    *** Sends a POST request and returns the response body
+    *** @param url          The request URL
+    *** @param headerProps  Additional request headers (may be null)
+    *** @param postData     The POST data
+    *** @param timeoutMS    The connect/read timeout in milliseconds (<=0 for default)
+    *** @param maxLen       The maximum number of bytes to read (-1 to read all bytes)
+    *** @return The response body
+    *** @throws IOException if an I/O error occurs
+    **/
+    public byte[] readPage_POST(URL url, Properties headerProps, byte postData[], int timeoutMS, int maxLen)
+        throws IOException
+    {
+        byte data[] = (postData != null)? postData : new byte[0];
+        return this._send(HTMLTools.REQUEST_POST, url, headerProps, data, timeoutMS, new ByteBodyHandler(maxLen));
+    }
+
+    /**
+    *** Sends a GET request and parses the response body as a JSON document
+    *** @param url          The request URL
+    *** @param headerProps  Additional request headers (may be null)
+    *** @param timeoutMS    The connect/read timeout in milliseconds (<=0 for default)
+    *** @return The JSON document
+    *** @throws IOException if an I/O or parse error occurs
+    **/
+    public JSON readJSON_GET(URL url, Properties headerProps, int timeoutMS)
+        throws IOException
+    {
+        return this._send(HTMLTools.REQUEST_GET, url, headerProps, null, timeoutMS, new JSONBodyHandler());
+    }
+
+    /**
+    *** Sends a GET request and parses the response body (as it is read) as an XML document
+    *** @param url          The request URL
+    *** @param headerProps  Additional request headers (may be null)
+    *** @param timeoutMS    The connect/read timeout in milliseconds (<=0 for default)
+    *** @return The XML document
+    *** @throws IOException if an I/O or parse error occurs
+    **/
+    public Document readXML_GET(URL url, Properties headerProps, int timeoutMS)
+        throws IOException
+    {
+        return this._send(HTMLTools.REQUEST_GET, url, headerProps, null, timeoutMS, new XMLBodyHandler());
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Runs the specified task on the HTTPClient ThreadPool
+    *** @param task  The task to run
+    *** @return The Future result of the task
+    *** @throws RejectedExecutionException if the ThreadPool queue is full
+    **/
+    public <T> Future<T> submit(Callable<T> task)
+    {
+        FutureTask<T> ft = new FutureTask<T>(task);
+        if (!this._getThreadPool().run(ft)) {
+            this.rejectCount.incrementAndGet();
+            throw new RejectedExecutionException("HTTPClient ThreadPool queue is full");
+        }
+        return ft;
+    }
+
+    /**
+    *** Asynchronously sends a GET request
+    *** @param url          The request URL
+    *** @param headerProps  Additional request headers (may be null)
+    *** @param timeoutMS    The connect/read timeout in milliseconds (<=0 for default)
+    *** @param maxLen       The maximum number of bytes to read (-1 to read all bytes)
+    *** @return The Future response body
+    **/
+    public Future<byte[]> readPage_GET_async(final URL url, final Properties headerProps,
+        final int timeoutMS, final int maxLen)
+    {
+        return this.submit(new Callable<byte[]>() {
+            public byte[] call() throws IOException {
+                return HTTPClient.this.readPage_GET(url, headerProps, timeoutMS, maxLen);
+            }
+        });
+    }
+
+    /**
+    *** Asynchronously sends a POST request
+    *** @param url          The request URL
+    *** @param headerProps  Additional request headers (may be null)
+    *** @param postData     The POST data
+    *** @param timeoutMS    The connect/read timeout in milliseconds (<=0 for default)
+    *** @param maxLen       The maximum number of bytes to read (-1 to read all bytes)
+    *** @return The Future response body
+    **/
+    public Future<byte[]> readPage_POST_async(final URL url, final Properties headerProps,
+        final byte postData[], final int timeoutMS, final int maxLen)
+    {
+        return this.submit(new Callable<byte[]>() {
+            public byte[] call() throws IOException {
+                return HTTPClient.this.readPage_POST(url, headerProps, postData, timeoutMS, maxLen);
+            }
+        });
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of requests sent
+    **/
+    public long getRequestCount()
+    {
+        return this.requestCount.get();
+    }
+
+    /**
+    *** Gets the number of failed requests
+    **/
+    public long getErrorCount()
+    {
+        return this.errorCount.get();
+    }
+
+    /**
+    *** Gets the number of requests rejected due to host or ThreadPool limits
+    **/
+    public long getRejectCount()
+    {
+        return this.rejectCount.get();
+    }
+
+    /**
+    *** Gets the average request time in milliseconds
+    **/
+    public double getAverageRequestMS()
+    {
+        long count = this.requestCount.get();
+        return (count > 0L)? ((double)this.requestNanos.get() / (double)count / 1000000.0) : 0.0;
+    }
+
+    /**
+    *** Registers the counters of this instance with Metrics
+    **/
+    private void _registerMetrics()
+    {
+        final HTTPClient H = this;
+        Metrics.registerCounter("gts_httpclient_requests_total", "HTTPClient requests sent", new Metrics.Gauge() {
+            public double getValue() { return H.getRequestCount(); }
+        });
+        Metrics.registerCounter("gts_httpclient_errors_total", "HTTPClient failed requests", new Metrics.Gauge() {
+            public double getValue() { return H.getErrorCount(); }
+        });
+        Metrics.registerCounter("gts_httpclient_rejected_total", "HTTPClient requests rejected due to host or ThreadPool limits", new Metrics.Gauge() {
+            public double getValue() { return H.getRejectCount(); }
+        });
+        Metrics.registerGauge("gts_httpclient_average_request_ms", "HTTPClient average request time (milliseconds)", new Metrics.Gauge() {
+            public double getValue() { return H.getAverageRequestMS(); }
+        });
+    }
+
+    /**
+    *** Returns a String representation of this instance
+    **/
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("HTTPClient: requests=").append(this.getRequestCount());
+        sb.append(" errors=").append(this.getErrorCount());
+        sb.append(" rejected=").append(this.getRejectCount());
+        sb.append(" avgMS=").append(StringTools.format(this.getAverageRequestMS(),"0.0"));
+        return sb.toString();
+    }
+
+}
@@ -55,6 +55,8 @@ import java.util.*;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.BufferedInputStream;
 import java.net.URL;
 import java.net.MalformedURLException;
 
@@ -318,6 +320,21 @@ public class JSON
 
     private static final boolean CASE_SENSITIVE = false;
 
+    /**
+    *** Returns the key used for hashed name lookups (see NameEquals)
+    **/
+    private static String NameKey(String n)
+    {
+        if (n == null) {
+            return null;
+        } else
+        if (CASE_SENSITIVE) {
+            return n;
+        } else {
+            return n.toLowerCase(Locale.ROOT);
+        }
+    }
+
     private static boolean NameEquals(String n1, String n2)
     {
         if ((n1 == null) || (n2 == null)) {
@@ -332,12 +349,12 @@ public class JSON
 
     // ------------------------------------------------------------------------
 
-    private static final String INDENT = "   ";
+    static final String INDENT = "   ";
 
     /**
     *** Return indent spaces
     **/
-    private static String indent(int count)
+    static String indent(int count)
     {
         return StringTools.replicateString(INDENT,count);
     }
@@ -548,8 +565,15 @@ public class JSON
         extends Vector<JSON._KeyValue>
     {
 
+        /* objects with at least this many keys use a hashed name lookup */
+        private static final int  MIN_INDEXED_SIZE = 8;
+
         private boolean formatIndent = true;
 
+        private Map<String,JSON._KeyValue> keyIndex = null;
+        private int  keyIndexModCount = -1;
+        private int  setCount = 0; // "set" does not change "modCount"
+
         // -----------------------------------------
 
         /**
@@ -680,15 +704,59 @@ public class JSON
         *** _Object: Gets the key/value pair for the specified name
         **/
         public JSON._KeyValue getKeyValue(String n) {
-            if (n != null) {
+            if (n == null) {
+                return null;
+            } else
+            if (this.size() >= MIN_INDEXED_SIZE) {
+                synchronized (this) {
+                    return this._getKeyIndex().get(JSON.NameKey(n));
+                }
+            } else {
                 for (JSON._KeyValue kv : this) {
                     String kvn = kv.getKey();
                     if (JSON.NameEquals(n,kvn)) {
                         return kv;
                     }
                 }
+                return null;
+            }
+        }
+
+        /**
+        *** _Object: Returns the name index, rebuilding it if this object has changed.
+        *** Must be called while synchronized on this object.
+        **/
+        private Map<String,JSON._KeyValue> _getKeyIndex() {
+            int modCnt = this.modCount + this.setCount;
+            if ((this.keyIndex == null) || (this.keyIndexModCount != modCnt)) {
+                Map<String,JSON._KeyValue> ndx = new HashMap<String,JSON._KeyValue>(this.size() * 2);
+                for (int i = 0; i < this.size(); i++) {
+                    JSON._KeyValue kv = this.get(i);
+                    String k = JSON.NameKey(kv.getKey());
+                    if ((k != null) && !ndx.containsKey(k)) {
+                        ndx.put(k, kv); // first match wins
+                    }
+                }
+                this.keyIndex = ndx;
+                this.keyIndexModCount = modCnt;
             }
-            return null;
+            return this.keyIndex;
+        }
+
+        /**
+        *** _Object: Replaces the key/value pair at the specified index
+        **/
+        public synchronized JSON._KeyValue set(int ndx, JSON._KeyValue kv) {
+            this.setCount++;
+            return super.set(ndx, kv);
+        }
+
+        /**
+        *** _Object: Replaces the key/value pair at the specified index
+        **/
+        public synchronized void setElementAt(JSON._KeyValue kv, int ndx) {
+            this.setCount++;
+            super.setElementAt(kv, ndx);
         }
 
         // --------------------------------------
@@ -968,6 +1036,13 @@ public class JSON
             return this;
         }
 
+        /**
+        *** _Object: Gets format indent state
+        **/
+        public boolean getFormatIndent() {
+            return this.formatIndent;
+        }
+
         /**
         *** _Object: Write a String representation of this instance to the StringBuffer
         **/
@@ -2571,6 +2646,13 @@ public class JSON
             return this;
         }
 
+        /**
+        *** _Array: Gets format indent state
+        **/
+        public boolean getFormatIndent() {
+            return this.formatIndent;
+        }
+
         /**
         *** _Array: Write a String representation of this instance to the StringBuffer
         **/
@@ -3008,8 +3090,25 @@ public class JSON
             throw new JSONParsingException("Invalid object/array", null, null);
         }
 
-        /* read JSON string */
-        this._parseJSON(StringTools.toStringValue(FileTools.readStream(input)));
+        /* parse directly from stream */
+        this._parseJSON(new JsonReader(input));
+
+    }
+
+    /**
+    *** JSON: Constructor 
+    **/
+    public JSON(JsonReader reader)
+        throws JSONParsingException, IOException
+    {
+
+        /* nothing to parse */
+        if (reader == null) {
+            throw new JSONParsingException("Invalid object/array", null, null);
+        }
+
+        /* parse from reader */
+        this._parseJSON(reader);
 
     }
 
@@ -3025,9 +3124,39 @@ public class JSON
             throw new JSONParsingException("Invalid object/array", null, null);
         }
 
-        /* read/parse JSON string */
-        this._parseJSON(StringTools.toStringValue(FileTools.readFile(file)));
+        /* file does not exist */
+        if (!file.isFile()) {
+            Print.logError("File does not exist: " + file);
+            throw new JSONParsingException("Invalid object/array", null, null);
+        }
+
+        /* parse directly from file */
+        InputStream input = null;
+        try {
+            input = new BufferedInputStream(new FileInputStream(file));
+            this._parseJSON(new JsonReader(input));
+        } finally {
+            if (input != null) { try { input.close(); } catch (IOException ioe) {/*ignore*/} }
+        }
+
+    }
 
+    /**
+    *** JSON: Common JSON Object/Array stream parser
+    **/
+    private void _parseJSON(JsonReader reader)
+        throws JSONParsingException, IOException
+    {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT :
+                this.object = reader.readObject();
+                break;
+            case BEGIN_ARRAY :
+                this.array = reader.readArray();
+                break;
+            default :
+                throw new JSONParsingException("Invalid object/array", new JSONParsingContext(0,1), null);
+        }
     }
 
     /**
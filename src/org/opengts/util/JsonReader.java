@@ -0,0 +1,764 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Pull-style streaming JSON parser.
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Reads tokens directly from a Reader/InputStream, without first reading the
+//    entire JSON source into a String.
+//  - Supports the same non-standard features as "JSON" ("/*...*/" comments,
+//    hexadecimal integers, leading '+', extraneous/trailing commas within
+//    arrays and objects).
+//  - Values may be bound directly into typed objects (see "ObjectBinder"), or
+//    read into a JSON._Object/JSON._Array/JSON._Value tree.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+
+public class JsonReader
+{
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** JSON token types
+    **/
+    public enum Token {
+        BEGIN_OBJECT,
+        END_OBJECT,
+        BEGIN_ARRAY,
+        END_ARRAY,
+        NAME,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT
+    };
+
+    /**
+    *** Binds JSON object values into a typed object
+    **/
+    public interface ObjectBinder
+    {
+        /**
+        *** Called for each name within the object.  The implementation should
+        *** consume the value (ie. "reader.nextString(null)") and return true, or
+        *** return false (without consuming the value) to have the value skipped.
+        **/
+        public boolean bindValue(String name, JsonReader reader)
+            throws IOException, JSON.JSONParsingException;
+    }
+
+    /**
+    *** Returns true if the specified name matches any of the specified tags
+    *** (case-insensitive, as with JSON._Object name lookups)
+    **/
+    public static boolean isName(String name, String... tags)
+    {
+        if ((name != null) && (tags != null)) {
+            for (String t : tags) {
+                if (name.equalsIgnoreCase(t)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static final int    SCOPE_EMPTY_DOCUMENT    = 0;
+    private static final int    SCOPE_DOCUMENT          = 1;
+    private static final int    SCOPE_EMPTY_ARRAY       = 2;
+    private static final int    SCOPE_ARRAY             = 3;
+    private static final int    SCOPE_EMPTY_OBJECT      = 4;
+    private static final int    SCOPE_DANGLING_NAME     = 5;
+    private static final int    SCOPE_OBJECT            = 6;
+
+    private static final int    BUFFER_SIZE             = 4096;
+
+    private Reader          reader          = null;
+    private char            buffer[]        = new char[BUFFER_SIZE];
+    private int             bufPos          = 0;
+    private int             bufLimit        = 0;
+    private int             bufStartIndex   = 0; // stream index of buffer[0]
+    private int             line            = 1;
+
+    private int             stack[]         = new int[32];
+    private int             stackSize       = 0;
+
+    private Token           peeked          = null;
+    private String          peekedValue     = null;
+    private StringBuilder   strBuf          = new StringBuilder();
+
+    /**
+    *** Constructor
+    *** @param reader  The source Reader
+    **/
+    public JsonReader(Reader reader)
+    {
+        if (reader == null) {
+            throw new NullPointerException("Reader is null");
+        }
+        this.reader = reader;
+        this.stack[this.stackSize++] = SCOPE_EMPTY_DOCUMENT;
+    }
+
+    /**
+    *** Constructor
+    *** @param input  The source InputStream (default character encoding)
+    **/
+    public JsonReader(InputStream input)
+    {
+        this(_toReader(input));
+    }
+
+    /**
+    *** Constructor
+    *** @param json  The source JSON String
+    **/
+    public JsonReader(String json)
+    {
+        this(new StringReader(StringTools.trim(json)));
+    }
+
+    private static Reader _toReader(InputStream input)
+    {
+        if (input == null) {
+            throw new NullPointerException("InputStream is null");
+        }
+        try {
+            return new InputStreamReader(input, StringTools.getCharacterEncoding());
+        } catch (UnsupportedEncodingException uee) {
+            return new InputStreamReader(input);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns the type of the next token, without consuming it
+    **/
+    public Token peek()
+        throws IOException, JSON.JSONParsingException
+    {
+        if (this.peeked == null) {
+            this.peeked = this._doPeek();
+        }
+        return this.peeked;
+    }
+
+    /**
+    *** Returns true if the current array/object has another element
+    **/
+    public boolean hasNext()
+        throws IOException, JSON.JSONParsingException
+    {
+        Token t = this.peek();
+        return (t != Token.END_OBJECT) && (t != Token.END_ARRAY) && (t != Token.END_DOCUMENT);
+    }
+
+    /**
+    *** Consumes the beginning of an object
+    **/
+    public void beginObject()
+        throws IOException, JSON.JSONParsingException
+    {
+        this._expect(Token.BEGIN_OBJECT);
+        this._push(SCOPE_EMPTY_OBJECT);
+    }
+
+    /**
+    *** Consumes the end of an object
+    **/
+    public void endObject()
+        throws IOException, JSON.JSONParsingException
+    {
+        this._expect(Token.END_OBJECT);
+        this.stackSize--;
+    }
+
+    /**
+    *** Consumes the beginning of an array
+    **/
+    public void beginArray()
+        throws IOException, JSON.JSONParsingException
+    {
+        this._expect(Token.BEGIN_ARRAY);
+        this._push(SCOPE_EMPTY_ARRAY);
+    }
+
+    /**
+    *** Consumes the end of an array
+    **/
+    public void endArray()
+        throws IOException, JSON.JSONParsingException
+    {
+        this._expect(Token.END_ARRAY);
+        this.stackSize--;
+    }
+
+    /**
+    *** Consumes and returns the next object name
+    **/
+    public String nextName()
+        throws IOException, JSON.JSONParsingException
+    {
+        this._expect(Token.NAME);
+        return this.peekedValue;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Consumes the next value and returns it as a String.  Numbers/Booleans are
+    *** returned as their String representation, and 'null' returns the default.
+    *** Objects/Arrays are skipped and the default is returned.
+    **/
+    public String nextString(String dft)
+        throws IOException, JSON.JSONParsingException
+    {
+        Token t = this.peek();
+        switch (t) {
+            case STRING:
+            case NUMBER:
+            case BOOLEAN:
+                this.peeked = null;
+                return this.peekedValue;
+            case NULL:
+                this.peeked = null;
+                return dft;
+            default:
+                this.skipValue();
+                return dft;
+        }
+    }
+
+    /**
+    *** Consumes the next value and returns it as a long
+    **/
+    public long nextLong(long dft)
+        throws IOException, JSON.JSONParsingException
+    {
+        Token t = this.peek();
+        switch (t) {
+            case NUMBER:
+                this.peeked = null;
+                return JsonReader._isDouble(this.peekedValue)?
+                    (long)JsonReader._parseDouble(this.peekedValue,(double)dft) :
+                    StringTools.parseLong(this.peekedValue,dft);
+            case STRING:
+                this.peeked = null;
+                return StringTools.parseLong(this.peekedValue,dft);
+            case BOOLEAN:
+                this.peeked = null;
+                return this.peekedValue.equals("true")? 1L : 0L;
+            case NULL:
+                this.peeked = null;
+                return dft;
+            default:
+                this.skipValue();
+                return dft;
+        }
+    }
+
+    /**
+    *** Consumes the next value and returns it as an int
+    **/
+    public int nextInt(int dft)
+        throws IOException, JSON.JSONParsingException
+    {
+        return (int)this.nextLong((long)dft);
+    }
+
+    /**
+    *** Consumes the next value and returns it as a double
+    **/
+    public double nextDouble(double dft)
+        throws IOException, JSON.JSONParsingException
+    {
+        Token t = this.peek();
+        switch (t) {
+            case NUMBER:
+                this.peeked = null;
+                return JsonReader._isDouble(this.peekedValue)?
+                    JsonReader._parseDouble(this.peekedValue,dft) :
+                    (double)StringTools.parseLong(this.peekedValue,(long)dft);
+            case STRING:
+                this.peeked = null;
+                return StringTools.parseDouble(this.peekedValue,dft);
+            case NULL:
+                this.peeked = null;
+                return dft;
+            case BOOLEAN:
+                this.peeked = null;
+                return dft;
+            default:
+                this.skipValue();
+                return dft;
+        }
+    }
+
+    /**
+    *** Consumes the next value and returns it as a boolean
+    **/
+    public boolean nextBoolean(boolean dft)
+        throws IOException, JSON.JSONParsingException
+    {
+        Token t = this.peek();
+        switch (t) {
+            case BOOLEAN:
+                this.peeked = null;
+                return this.peekedValue.equals("true");
+            case STRING:
+                this.peeked = null;
+                return StringTools.parseBoolean(this.peekedValue,dft);
+            case NUMBER:
+                this.peeked = null;
+                return (StringTools.parseLong(this.peekedValue,0L) != 0L);
+            case NULL:
+                this.peeked = null;
+                return dft;
+            default:
+                this.skipValue();
+                return dft;
+        }
+    }
+
+    /**
+    *** Skips the next value (including nested objects/arrays)
+    **/
+    public void skipValue()
+        throws IOException, JSON.JSONParsingException
+    {
+        int depth = 0;
+        do {
+            Token t = this.peek();
+            switch (t) {
+                case BEGIN_OBJECT: this.beginObject(); depth++; break;
+                case BEGIN_ARRAY : this.beginArray();  depth++; break;
+                case END_OBJECT  : this.endObject();   depth--; break;
+                case END_ARRAY   : this.endArray();    depth--; break;
+                case END_DOCUMENT: throw this._error("Incomplete Value");
+                default          : this.peeked = null; break; // NAME, or scalar value
+            }
+        } while (depth > 0);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Reads the next object, binding each name/value to the specified binder
+    **/
+    public void readObject(ObjectBinder binder)
+        throws IOException, JSON.JSONParsingException
+    {
+        this.beginObject();
+        while (this.hasNext()) {
+            String name = this.nextName();
+            if ((binder == null) || !binder.bindValue(name, this)) {
+                this.skipValue();
+            }
+        }
+        this.endObject();
+    }
+
+    /**
+    *** Reads the next value into a JSON._Value tree
+    **/
+    public JSON._Value readValue()
+        throws IOException, JSON.JSONParsingException
+    {
+        Token t = this.peek();
+        switch (t) {
+            case BEGIN_OBJECT:
+                return new JSON._Value(this.readObject());
+            case BEGIN_ARRAY:
+                return new JSON._Value(this.readArray());
+            case STRING:
+                this.peeked = null;
+                return new JSON._Value(this.peekedValue);
+            case NUMBER:
+                this.peeked = null;
+                if (JsonReader._isDouble(this.peekedValue)) {
+                    return new JSON._Value(new Double(JsonReader._parseDouble(this.peekedValue,0.0)));
+                } else {
+                    return new JSON._Value(new Long(StringTools.parseLong(this.peekedValue,0L)));
+                }
+            case BOOLEAN:
+                this.peeked = null;
+                return new JSON._Value(this.peekedValue.equals("true")? Boolean.TRUE : Boolean.FALSE);
+            case NULL:
+                this.peeked = null;
+                return new JSON._Value((JSON._Object)null); // null object
+            default:
+                throw this._error("Unexpected " + t);
+        }
+    }
+
+    /**
+    *** Reads the next object into a JSON._Object tree
+    **/
+    public JSON._Object readObject()
+        throws IOException, JSON.JSONParsingException
+    {
+        JSON._Object obj = new JSON._Object();
+        this.beginObject();
+        while (this.hasNext()) {
+            String name = this.nextName();
+            obj.addKeyValue(new JSON._KeyValue(name, this.readValue()));
+        }
+        this.endObject();
+        return obj;
+    }
+
+    /**
+    *** Reads the next array into a JSON._Array tree
+    **/
+    public JSON._Array readArray()
+        throws IOException, JSON.JSONParsingException
+    {
+        JSON._Array array = new JSON._Array();
+        this.beginArray();
+        while (this.hasNext()) {
+            array.addValue(this.readValue());
+        }
+        this.endArray();
+        return array;
+    }
+
+    /**
+    *** Closes the underlying Reader
+    **/
+    public void close()
+        throws IOException
+    {
+        this.reader.close();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* true if the numeric String represents a floating-point value */
+    private static boolean _isDouble(String num)
+    {
+        boolean dbl = false;
+        for (int i = 0; i < num.length(); i++) {
+            char ch = num.charAt(i);
+            if ((ch == 'x') || (ch == 'X')) {
+                return false; // hex
+            } else
+            if ((ch == '.') || (ch == 'e') || (ch == 'E')) {
+                dbl = true;
+            }
+        }
+        return dbl;
+    }
+
+    /* parse floating-point value (including exponent) */
+    private static double _parseDouble(String num, double dft)
+    {
+        try {
+            return Double.parseDouble(num);
+        } catch (NumberFormatException nfe) {
+            return dft;
+        }
+    }
+
+    /* consume the expected token */
+    private void _expect(Token t)
+        throws IOException, JSON.JSONParsingException
+    {
+        Token p = this.peek();
+        if (p != t) {
+            throw this._error("Expected " + t + " but found " + p);
+        }
+        this.peeked = null;
+    }
+
+    /* push scope */
+    private void _push(int scope)
+    {
+        if (this.stackSize >= this.stack.length) {
+            int newStack[] = new int[this.stack.length * 2];
+            System.arraycopy(this.stack, 0, newStack, 0, this.stackSize);
+            this.stack = newStack;
+        }
+        this.stack[this.stackSize++] = scope;
+    }
+
+    /* create parsing exception */
+    private JSON.JSONParsingException _error(String msg)
+    {
+        int index = this.bufStartIndex + this.bufPos;
+        return new JSON.JSONParsingException(msg, new JSON.JSONParsingContext(index, this.line), null);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* determine next token */
+    private Token _doPeek()
+        throws IOException, JSON.JSONParsingException
+    {
+        int scope = this.stack[this.stackSize - 1];
+        int ch;
+        switch (scope) {
+            case SCOPE_EMPTY_ARRAY:
+            case SCOPE_ARRAY:
+                // -- extraneous commas are ignored (non-standard JSON, as with "JSON")
+                this.stack[this.stackSize - 1] = SCOPE_ARRAY;
+                ch = this._nextNonSeparator("Incomplete Array");
+                if (ch == ']') { return Token.END_ARRAY; }
+                this.bufPos--; // push back
+                break;
+            case SCOPE_EMPTY_OBJECT:
+            case SCOPE_OBJECT:
+                // -- extraneous commas are ignored (non-standard JSON, as with "JSON")
+                ch = this._nextNonSeparator("Incomplete Object");
+                if (ch == '}') { return Token.END_OBJECT; }
+                if (ch != '\"') { throw this._error("Missing initial String quote"); }
+                this.stack[this.stackSize - 1] = SCOPE_DANGLING_NAME;
+                this.peekedValue = this._readString();
+                return Token.NAME;
+            case SCOPE_DANGLING_NAME:
+                this.stack[this.stackSize - 1] = SCOPE_OBJECT;
+                ch = this._nextNonWhitespace("Incomplete Object");
+                if (ch != ':') { throw this._error("Missing ':'"); }
+                break;
+            case SCOPE_EMPTY_DOCUMENT:
+                this.stack[this.stackSize - 1] = SCOPE_DOCUMENT;
+                break;
+            default: // SCOPE_DOCUMENT
+                ch = this._nextNonWhitespace(null);
+                if (ch < 0) { return Token.END_DOCUMENT; }
+                this.bufPos--; // push back (another value, ie. newline delimited JSON)
+                break;
+        }
+
+        /* value */
+        ch = this._nextNonWhitespace("Incomplete Value");
+        switch (ch) {
+            case '{' :
+                return Token.BEGIN_OBJECT;
+            case '[' :
+                return Token.BEGIN_ARRAY;
+            case '\"':
+                this.peekedValue = this._readString();
+                return Token.STRING;
+            case 't' :
+                this._readLiteral("rue", "Invalid Boolean 'true'");
+                this.peekedValue = "true";
+                return Token.BOOLEAN;
+            case 'f' :
+                this._readLiteral("alse", "Invalid Boolean 'false'");
+                this.peekedValue = "false";
+                return Token.BOOLEAN;
+            case 'n' :
+                this._readLiteral("ull", "Invalid 'null'");
+                this.peekedValue = null;
+                return Token.NULL;
+            default  :
+                if ((ch == '-') || (ch == '+') || ((ch >= '0') && (ch <= '9'))) {
+                    this.peekedValue = this._readNumber((char)ch);
+                    return Token.NUMBER;
+                }
+                throw this._error("Unexpected character");
+        }
+
+    }
+
+    /* fill buffer, return false if EOF */
+    private boolean _fill()
+        throws IOException
+    {
+        if (this.bufPos < this.bufLimit) {
+            return true;
+        }
+        this.bufStartIndex += this.bufLimit;
+        this.bufPos   = 0;
+        this.bufLimit = 0;
+        int n = this.reader.read(this.buffer, 0, this.buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        this.bufLimit = n;
+        return true;
+    }
+
+    /* read next character, or -1 if EOF */
+    private int _read()
+        throws IOException
+    {
+        if ((this.bufPos >= this.bufLimit) && !this._fill()) {
+            return -1;
+        }
+        return this.buffer[this.bufPos++];
+    }
+
+    /* read next character, throw exception if EOF */
+    private char _readRequired(String eofMsg)
+        throws IOException, JSON.JSONParsingException
+    {
+        int ch = this._read();
+        if (ch < 0) { throw this._error(eofMsg); }
+        return (char)ch;
+    }
+
+    /* skip whitespace/comments, return next character (or -1 if EOF and eofMsg is null) */
+    private int _nextNonWhitespace(String eofMsg)
+        throws IOException, JSON.JSONParsingException
+    {
+        for (;;) {
+            int ch = this._read();
+            if (ch < 0) {
+                if (eofMsg != null) { throw this._error(eofMsg); }
+                return -1;
+            } else
+            if (ch == '\n') {
+                this.line++;
+            } else
+            if (Character.isWhitespace((char)ch)) {
+                // -- skip
+            } else
+            if (ch == '/') {
+                // -- "/*...*/" comment
+                if (this._readRequired("Overflow") != '*') {
+                    throw this._error("Invalid beginning of comment");
+                }
+                int last = 0;
+                for (;;) {
+                    char c = this._readRequired("Incomplete comment");
+                    if (c == '\n') { this.line++; }
+                    if ((last == '*') && (c == '/')) { break; }
+                    last = c;
+                }
+            } else {
+                return ch;
+            }
+        }
+    }
+
+    /* next non-whitespace character, skipping ',' separators */
+    private int _nextNonSeparator(String eofMsg)
+        throws IOException, JSON.JSONParsingException
+    {
+        for (;;) {
+            int ch = this._nextNonWhitespace(eofMsg);
+            if (ch != ',') {
+                return ch;
+            }
+        }
+    }
+
+    /* read the remaining characters of a literal */
+    private void _readLiteral(String rest, String errMsg)
+        throws IOException, JSON.JSONParsingException
+    {
+        for (int i = 0; i < rest.length(); i++) {
+            if (this._read() != rest.charAt(i)) {
+                throw this._error(errMsg);
+            }
+        }
+    }
+
+    /* read quoted String (initial quote already consumed) */
+    private String _readString()
+        throws IOException, JSON.JSONParsingException
+    {
+        StringBuilder sb = this.strBuf;
+        sb.setLength(0);
+        for (;;) {
+            // -- copy unescaped runs directly from the buffer
+            int start = this.bufPos;
+            while (this.bufPos < this.bufLimit) {
+                char c = this.buffer[this.bufPos];
+                if ((c == '\"') || (c == '\\') || (c < ' ')) { break; }
+                this.bufPos++;
+            }
+            sb.append(this.buffer, start, this.bufPos - start);
+            char ch = this._readRequired("Incomplete String");
+            if (ch == '\"') {
+                return sb.toString();
+            } else
+            if (ch == '\\') {
+                ch = this._readRequired("Overflow");
+                switch (ch) {
+                    case 'b' : sb.append('\b'); break;
+                    case 'f' : sb.append('\f'); break;
+                    case 'n' : sb.append('\n'); break;
+                    case 'r' : sb.append('\r'); break;
+                    case 't' : sb.append('\t'); break;
+                    case 'u' : {
+                        int uch = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int h = Character.digit(this._readRequired("Overflow"), 16);
+                            if (h < 0) { throw this._error("Invalid unicode escape"); }
+                            uch = (uch << 4) | h;
+                        }
+                        sb.append((char)uch);
+                        break;
+                    }
+                    default  : sb.append(ch); break; // '"', '\\', '/', etc
+                }
+            } else
+            if (ch < ' ') { // includes \n \r
+                throw this._error("Invalid character in String");
+            }
+        }
+    }
+
+    /* read number (first character already consumed) */
+    private String _readNumber(char first)
+        throws IOException, JSON.JSONParsingException
+    {
+        StringBuilder sb = this.strBuf;
+        sb.setLength(0);
+        sb.append(first);
+        for (;;) {
+            if ((this.bufPos >= this.bufLimit) && !this._fill()) {
+                break; // EOF
+            }
+            char c = this.buffer[this.bufPos];
+            if (((c >= '0') && (c <= '9')) || (c == '.') || (c == '-') || (c == '+') ||
+                ((c >= 'a') && (c <= 'f')) || ((c >= 'A') && (c <= 'F')) ||
+                (c == 'x') || (c == 'X')) {
+                sb.append(c);
+                this.bufPos++;
+            } else {
+                break;
+            }
+        }
+        String num = sb.toString();
+        if (num.equals("-") || num.equals("+")) {
+            throw this._error("Invalid numeric value");
+        }
+        return num.startsWith("+")? num.substring(1) : num;
+    }
+
+}
@@ -0,0 +1,486 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Streaming JSON writer.
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Writes JSON directly to a Writer/OutputStream, without first building a
+//    JSON._Object tree or the entire output String.
+//  - Output (indented and compact) is identical to that produced by
+//    "JSON._Object.toString(boolean)", including character escaping.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+
+public class JsonWriter
+{
+
+    // ------------------------------------------------------------------------
+
+    private static final char   HEX[]           = "0123456789ABCDEF".toCharArray();
+
+    /* scope state */
+    private static class Scope
+    {
+        public boolean isObject     = false;
+        public boolean fullFormat   = false;
+        public int     prefix       = -1;
+        public int     count        = 0;
+        public boolean hasName      = false;
+        public Scope(boolean isObj, boolean full, int pfx) {
+            this.isObject   = isObj;
+            this.fullFormat = full;
+            this.prefix     = pfx;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private Writer          out         = null;
+    private boolean         indent      = false;
+    private Scope           stack[]     = new Scope[32];
+    private int             stackSize   = 0;
+    private boolean         topWritten  = false;
+
+    /**
+    *** Constructor
+    *** @param out     The output Writer
+    *** @param indent  True to produce indented output, false for compact output
+    **/
+    public JsonWriter(Writer out, boolean indent)
+    {
+        if (out == null) {
+            throw new NullPointerException("Writer is null");
+        }
+        this.out    = out;
+        this.indent = indent;
+    }
+
+    /**
+    *** Constructor
+    *** @param out     The output stream (default character encoding)
+    *** @param indent  True to produce indented output, false for compact output
+    **/
+    public JsonWriter(OutputStream out, boolean indent)
+    {
+        this(_toWriter(out), indent);
+    }
+
+    private static Writer _toWriter(OutputStream out)
+    {
+        if (out == null) {
+            throw new NullPointerException("OutputStream is null");
+        }
+        try {
+            return new OutputStreamWriter(out, StringTools.getCharacterEncoding());
+        } catch (UnsupportedEncodingException uee) {
+            return new OutputStreamWriter(out);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Begins a new object
+    **/
+    public JsonWriter beginObject()
+        throws IOException
+    {
+        return this._begin(true, true);
+    }
+
+    /**
+    *** Ends the current object
+    **/
+    public JsonWriter endObject()
+        throws IOException
+    {
+        return this._end(true);
+    }
+
+    /**
+    *** Begins a new array
+    **/
+    public JsonWriter beginArray()
+        throws IOException
+    {
+        return this._begin(false, true);
+    }
+
+    /**
+    *** Ends the current array
+    **/
+    public JsonWriter endArray()
+        throws IOException
+    {
+        return this._end(false);
+    }
+
+    /**
+    *** Writes the name of the next object member
+    **/
+    public JsonWriter name(String name)
+        throws IOException
+    {
+        Scope s = this._scope();
+        if ((s == null) || !s.isObject || s.hasName) {
+            throw new IllegalStateException("Name not allowed here: " + name);
+        }
+        this._separator(s);
+        this.out.write('\"');
+        this._writeEscaped(name);
+        this.out.write('\"');
+        this.out.write(':');
+        if (s.fullFormat) {
+            this.out.write(' ');
+        }
+        s.hasName = true;
+        return this;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Writes a String value (null values are written as 'null')
+    **/
+    public JsonWriter value(String value)
+        throws IOException
+    {
+        this._beforeValue();
+        if (value == null) {
+            this.out.write("null");
+        } else {
+            this.out.write('\"');
+            this._writeEscaped(value);
+            this.out.write('\"');
+        }
+        return this;
+    }
+
+    /**
+    *** Writes a long value
+    **/
+    public JsonWriter value(long value)
+        throws IOException
+    {
+        this._beforeValue();
+        this.out.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+    *** Writes a double value
+    **/
+    public JsonWriter value(double value)
+        throws IOException
+    {
+        this._beforeValue();
+        this.out.write(Double.toString(value));
+        return this;
+    }
+
+    /**
+    *** Writes a boolean value
+    **/
+    public JsonWriter value(boolean value)
+        throws IOException
+    {
+        this._beforeValue();
+        this.out.write(value? "true" : "false");
+        return this;
+    }
+
+    /**
+    *** Writes a 'null' value
+    **/
+    public JsonWriter nullValue()
+        throws IOException
+    {
+        this._beforeValue();
+        this.out.write("null");
+        return this;
+    }
+
+    /**
+    *** Writes a generic value.  Value must be one of the types supported by
+    *** "JSON._Value(Object)".  Unrecognized types are written as Strings.
+    **/
+    public JsonWriter value(Object value)
+        throws IOException
+    {
+        if (value == null) {
+            return this.nullValue();
+        } else
+        if (value instanceof String) {
+            return this.value((String)value);
+        } else
+        if ((value instanceof Double) || (value instanceof Float)) {
+            return this.value(((Number)value).doubleValue());
+        } else
+        if ((value instanceof Long) || (value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+            return this.value(((Number)value).longValue());
+        } else
+        if (value instanceof Boolean) {
+            return this.value(((Boolean)value).booleanValue());
+        } else
+        if (value instanceof JSON._Value) {
+            return this.value((JSON._Value)value);
+        } else
+        if (value instanceof JSON._Object) {
+            return this.value((JSON._Object)value);
+        } else
+        if (value instanceof JSON._Array) {
+            return this.value((JSON._Array)value);
+        } else {
+            return this.value(value.toString());
+        }
+    }
+
+    /**
+    *** Writes a JSON._Value
+    **/
+    public JsonWriter value(JSON._Value value)
+        throws IOException
+    {
+        Object v = (value != null)? value.getJavaObject() : null;
+        if (v instanceof JSON._Value) {
+            return this.nullValue(); // not expected
+        }
+        return this.value(v);
+    }
+
+    /**
+    *** Writes a JSON._Object (honors the object "formatIndent" state)
+    **/
+    public JsonWriter value(JSON._Object obj)
+        throws IOException
+    {
+        if (obj == null) {
+            return this.nullValue();
+        }
+        this._begin(true, obj.getFormatIndent());
+        for (int i = 0; i < obj.size(); i++) {
+            JSON._KeyValue kv = obj.get(i);
+            this.name(kv.getKey());
+            this.value(kv.getValue());
+        }
+        return this._end(true);
+    }
+
+    /**
+    *** Writes a JSON._Array (honors the array "formatIndent" state)
+    **/
+    public JsonWriter value(JSON._Array array)
+        throws IOException
+    {
+        if (array == null) {
+            return this.nullValue();
+        }
+        this._begin(false, array.getFormatIndent());
+        for (int i = 0; i < array.size(); i++) {
+            this.value(array.get(i));
+        }
+        return this._end(false);
+    }
+
+    /**
+    *** Writes the main object/array of the specified JSON instance
+    **/
+    public JsonWriter value(JSON json)
+        throws IOException
+    {
+        if (json == null) {
+            return this.nullValue();
+        } else
+        if (json.hasObject()) {
+            return this.value(json.getObject());
+        } else
+        if (json.hasArray()) {
+            return this.value(json.getArray());
+        } else {
+            return this.nullValue();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Flushes the underlying Writer
+    **/
+    public void flush()
+        throws IOException
+    {
+        this.out.flush();
+    }
+
+    /**
+    *** Closes the underlying Writer
+    **/
+    public void close()
+        throws IOException
+    {
+        this.out.close();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* current scope */
+    private Scope _scope()
+    {
+        return (this.stackSize > 0)? this.stack[this.stackSize - 1] : null;
+    }
+
+    /* write separator/indent for the next member of the specified scope */
+    private void _separator(Scope s)
+        throws IOException
+    {
+        if (s.count > 0) {
+            this.out.write(',');
+            if (s.fullFormat) {
+                this.out.write('\n');
+            }
+        }
+        if (s.fullFormat) {
+            this._writeIndent(s.prefix + 1);
+        }
+        s.count++;
+    }
+
+    /* prepare for a value, returns the indent prefix for the value (-1 if compact) */
+    private int _beforeValue()
+        throws IOException
+    {
+        Scope s = this._scope();
+        if (s == null) {
+            if (this.topWritten) {
+                throw new IllegalStateException("JSON document already written");
+            }
+            this.topWritten = true;
+            return this.indent? 0 : -1;
+        } else
+        if (s.isObject) {
+            if (!s.hasName) {
+                throw new IllegalStateException("Object value requires a name");
+            }
+            s.hasName = false;
+            return s.fullFormat? (s.prefix + 1) : -1;
+        } else {
+            this._separator(s);
+            return s.fullFormat? (s.prefix + 1) : -1;
+        }
+    }
+
+    /* begin object/array */
+    private JsonWriter _begin(boolean isObj, boolean formatIndent)
+        throws IOException
+    {
+        int prefix = this._beforeValue();
+        boolean fullFormat = formatIndent && (prefix >= 0);
+        this.out.write(isObj? '{' : '[');
+        if (fullFormat) {
+            this.out.write('\n');
+        }
+        if (this.stackSize >= this.stack.length) {
+            Scope newStack[] = new Scope[this.stack.length * 2];
+            System.arraycopy(this.stack, 0, newStack, 0, this.stackSize);
+            this.stack = newStack;
+        }
+        this.stack[this.stackSize++] = new Scope(isObj, fullFormat, prefix);
+        return this;
+    }
+
+    /* end object/array */
+    private JsonWriter _end(boolean isObj)
+        throws IOException
+    {
+        Scope s = this._scope();
+        if ((s == null) || (s.isObject != isObj) || s.hasName) {
+            throw new IllegalStateException("Unexpected end of " + (isObj?"object":"array"));
+        }
+        this.stackSize--;
+        if (s.fullFormat && (s.count > 0)) {
+            this.out.write('\n');
+        }
+        if (s.fullFormat) {
+            this._writeIndent(s.prefix);
+        }
+        this.out.write(isObj? '}' : ']');
+        if (isObj && s.fullFormat && (s.prefix == 0)) {
+            this.out.write('\n');
+        }
+        return this;
+    }
+
+    /* write indent */
+    private void _writeIndent(int count)
+        throws IOException
+    {
+        for (int i = 0; i < count; i++) {
+            this.out.write(JSON.INDENT);
+        }
+    }
+
+    /* write JSON escaped String (see "JSON.escapeJSON") */
+    private void _writeEscaped(String s)
+        throws IOException
+    {
+        int len = s.length();
+        int start = 0;
+        for (int i = 0; i < len; i++) {
+            char ch = s.charAt(i);
+            if ((ch >= 0x0020) && (ch <= 0x007e) && (ch != '\\') && (ch != '\"')) {
+                continue; // ASCII, written in runs below
+            }
+            if (i > start) {
+                this.out.write(s, start, i - start);
+            }
+            start = i + 1;
+            switch (ch) {
+                case '\\': this.out.write("\\\\"); break;
+                case '\"': this.out.write("\\\""); break;
+                case '\n': this.out.write("\\n");  break;
+                case '\r': this.out.write("\\r");  break;
+                case '\t': this.out.write("\\t");  break;
+                case '\b': this.out.write("\\b");  break;
+                case '\f': this.out.write("\\f");  break;
+                default  :
+                    this.out.write('\\');
+                    this.out.write('u');
+                    this.out.write(HEX[(ch >> 12) & 0xF]);
+                    this.out.write(HEX[(ch >>  8) & 0xF]);
+                    this.out.write(HEX[(ch >>  4) & 0xF]);
+                    this.out.write(HEX[ ch        & 0xF]);
+                    break;
+            }
+        }
+        if (len > start) {
+            this.out.write(s, start, len - start);
+        }
+    }
+
+}
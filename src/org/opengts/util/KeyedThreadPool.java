@@ -0,0 +1,361 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Keyed thread pool manager (jobs with the same key are run in order)
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Jobs are assigned to one of N "lanes" based on the hash of the job key.
+//    Each lane is a single-thread ThreadPool, so jobs with the same key are
+//    run sequentially in the order in which they were queued.
+//  - Each lane has its own bounded job queue, so a burst of jobs for one key
+//    only delays the other keys assigned to the same lane.
+//  - Lanes are registered ThreadPools, and are included in the output of
+//    "ThreadPool.GetThreadPoolState" and stopped by "ThreadPool.StopThreads".
+//  - Properties (where PREFIX is the specified property key prefix):
+//      PREFIX.maximumPoolSize=LANES        (number of lanes/threads)
+//      PREFIX.maximumIdleSeconds=SECONDS   (lane thread maximum idle time)
+//      PREFIX.maximumQueueSize=SIZE        (per lane, 0 for unbounded)
+//      PREFIX.rejectPolicy=POLICY          (REJECT, WAIT, CALLER_RUNS, SPILL)
+//      PREFIX.maximumWaitMS=MILLIS         (maximum wait for "WAIT" policy)
+//      PREFIX.maximumOverflowSize=SIZE     (per lane, jobs allowed beyond "maximumQueueSize")
+//  - A job queued from a lane's own thread (ie. a job queueing a follow-up job
+//    for the same key) is added to the lane without waiting, regardless of the
+//    policy, since waiting for its own lane to drain would deadlock.
+//  - Jobs queued beyond the maximum queue size (SPILL policy, or from a lane's
+//    own thread) are limited to "maximumOverflowSize" per lane.  Beyond that
+//    limit the job is dropped (counted and logged).
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+import java.util.*;
+
+/**
+*** Keyed thread pool manager (jobs with the same key are run in order)
+**/
+
+public class KeyedThreadPool
+{
+
+    // ------------------------------------------------------------------------
+
+    private static final int    DFT_LANE_COUNT          = 20;
+    private static final long   DFT_MAX_WAIT_MS         = 30000L;
+
+    /**
+    *** Policy applied when a lane job queue is full
+    **/
+    public enum RejectPolicy {
+        REJECT,         // do not queue the job, return false
+        WAIT,           // wait for queue space (up to "maximumWaitMS"), then reject
+        CALLER_RUNS,    // run the job in the calling thread (jobs may run out of order)
+        SPILL;          // queue the job beyond the maximum queue size (never blocks)
+        public static RejectPolicy parse(String v, RejectPolicy dft) {
+            if (!StringTools.isBlank(v)) {
+                for (RejectPolicy rp : RejectPolicy.values()) {
+                    if (rp.name().equalsIgnoreCase(v.trim())) {
+                        return rp;
+                    }
+                }
+            }
+            return dft;
+        }
+    };
+
+    // ------------------------------------------------------------------------
+
+    private String          name            = null;
+    private ThreadPool      lanes[]         = null;
+    private RejectPolicy    rejectPolicy    = RejectPolicy.WAIT;
+    private long            maxWaitMS       = DFT_MAX_WAIT_MS;
+    private int             maxOverflow     = 0;
+    private long            spillCount      = 0L;
+    private long            rejectCount     = 0L;
+    private long            dropCount       = 0L;
+
+    /**
+    *** Constructor
+    *** @param name          The name of the keyed thread pool
+    *** @param propPfx_      The property key prefix from which the default attributes
+    ***                      for this pool will be obtained (may be null)
+    *** @param laneCount     The number of lanes ("maximumPoolSize")
+    *** @param maxIdleSec    The maximum number of seconds a lane thread is allowed to
+    ***                      remain idle before it self-terminates ("maximumIdleSeconds")
+    *** @param maxQueueSize  The maximum number of jobs allowed in each lane queue ("maximumQueueSize")
+    *** @param policy        The policy applied when a lane queue is full ("rejectPolicy")
+    *** @param maxWaitMS     The maximum time to wait for queue space for the WAIT policy ("maximumWaitMS")
+    **/
+    public KeyedThreadPool(String name,
+        RTKey propPfx_,
+        int laneCount, int maxIdleSec, int maxQueueSize,
+        RejectPolicy policy, long maxWaitMS)
+    {
+        super();
+        this.name = !StringTools.isBlank(name)? name.trim() : "KeyedThreadPool";
+
+        /* property overrides */
+        if (!RTKey.isBlank(propPfx_)) {
+            // IE:
+            //  PREFIX.maximumPoolSize=50
+            //  PREFIX.maximumIdleSeconds=0
+            //  PREFIX.maximumQueueSize=1000
+            //  PREFIX.rejectPolicy=WAIT
+            //  PREFIX.maximumWaitMS=30000
+            //  PREFIX.maximumOverflowSize=1000
+            laneCount    = RTConfig.getInt(   propPfx_.rtSuffix("maximumPoolSize"   ).toString(), laneCount   );
+            maxIdleSec   = RTConfig.getInt(   propPfx_.rtSuffix("maximumIdleSeconds").toString(), maxIdleSec  );
+            maxQueueSize = RTConfig.getInt(   propPfx_.rtSuffix("maximumQueueSize"  ).toString(), maxQueueSize);
+            policy       = RejectPolicy.parse(RTConfig.getString(propPfx_.rtSuffix("rejectPolicy").toString(),null), policy);
+            maxWaitMS    = RTConfig.getLong(  propPfx_.rtSuffix("maximumWaitMS"     ).toString(), maxWaitMS   );
+        }
+        this.rejectPolicy = (policy != null)? policy : RejectPolicy.WAIT;
+        this.maxWaitMS    = (maxWaitMS >= 0L)? maxWaitMS : DFT_MAX_WAIT_MS;
+        this.maxOverflow  = Math.max(maxQueueSize, 0); // default: same as the queue size
+        if (!RTKey.isBlank(propPfx_)) {
+            this.maxOverflow = RTConfig.getInt(propPfx_.rtSuffix("maximumOverflowSize").toString(), this.maxOverflow);
+        }
+
+        /* create lanes (lane threads are started on demand) */
+        int count = (laneCount > 0)? laneCount : DFT_LANE_COUNT;
+        this.lanes = new ThreadPool[count];
+        for (int i = 0; i < count; i++) {
+            String laneName = this.name + "_" + StringTools.format(i,"00");
+            this.lanes[i] = new ThreadPool(laneName, null, 1, maxIdleSec, maxQueueSize);
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the name of this keyed thread pool
+    *** @return The name of this keyed thread pool
+    **/
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+    *** Returns the name of this keyed thread pool
+    *** @return The name of this keyed thread pool
+    **/
+    public String toString()
+    {
+        return this.getName();
+    }
+
+    /**
+    *** Gets the number of lanes
+    *** @return The number of lanes
+    **/
+    public int getLaneCount()
+    {
+        return this.lanes.length;
+    }
+
+    /**
+    *** Gets the policy applied when a lane job queue is full
+    *** @return The RejectPolicy
+    **/
+    public RejectPolicy getRejectPolicy()
+    {
+        return this.rejectPolicy;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the lane ThreadPool for the specified key
+    *** @param key  The job key
+    *** @return The lane ThreadPool
+    **/
+    protected ThreadPool getLane(String key)
+    {
+        int h = (key != null)? key.hashCode() : 0;
+        return this.lanes[(h & 0x7FFFFFFF) % this.lanes.length];
+    }
+
+    /**
+    *** Adds a new job to the lane assigned to the specified key.  Jobs with the same
+    *** key are run in the order in which they were added.
+    *** @param key  The job key (ie. "account/device")
+    *** @param job  The job to run
+    *** @return True if the job was queued (or run in the calling thread per the
+    ***     CALLER_RUNS policy), false if the job was rejected/dropped, or the lane
+    ***     is stopping (see "isStopping")
+    **/
+    public boolean run(String key, Runnable job)
+    {
+        if (job == null) {
+            return false;
+        }
+        ThreadPool lane = this.getLane(key);
+        boolean queued;
+        if (lane.isPoolThread()) {
+            // -- called from this lane's own thread, never wait
+            queued = lane.run(job) || this._spill(lane, job);
+        } else {
+            switch (this.rejectPolicy) {
+                case REJECT :
+                    queued = lane.run(job);
+                    break;
+                case CALLER_RUNS :
+                    if (!lane.run(job)) {
+                        job.run();
+                    }
+                    queued = true;
+                    break;
+                case SPILL :
+                    queued = lane.run(job) || this._spill(lane, job);
+                    break;
+                case WAIT :
+                default :
+                    queued = lane.run(job, this.maxWaitMS);
+                    break;
+            }
+        }
+        if (!queued && !lane.isStopping()) {
+            synchronized (this) {
+                if ((this.rejectCount++ % 1000L) == 0L) {
+                    Print.logWarn("["+this.getName()+"] Lane queue full, job rejected ("+this.rejectPolicy+"): " + lane.getName());
+                }
+            }
+        }
+        return queued;
+    }
+
+    /**
+    *** Returns true if the lane assigned to the specified key is stopping
+    *** @param key  The job key (ie. "account/device")
+    *** @return True if the lane is stopping
+    **/
+    public boolean isStopping(String key)
+    {
+        return this.getLane(key).isStopping();
+    }
+
+    /**
+    *** Adds a job to the specified lane beyond the maximum queue size, up to the
+    *** maximum overflow size.  Beyond the maximum overflow size the job is dropped.
+    **/
+    private boolean _spill(ThreadPool lane, Runnable job)
+    {
+        int maxQueueSize = lane.getMaxQueueSize();
+        if ((maxQueueSize > 0) && (lane.getQueueSize() >= (maxQueueSize + this.maxOverflow))) {
+            // -- hard limit
+            synchronized (this) {
+                if ((this.dropCount++ % 1000L) == 0L) {
+                    Print.logError("["+this.getName()+"] Lane overflow limit reached, job dropped: " + lane.getName());
+                }
+            }
+            return false;
+        } else
+        if (lane.runOverflow(job)) {
+            synchronized (this) {
+                if ((this.spillCount++ % 1000L) == 0L) {
+                    Print.logWarn("["+this.getName()+"] Lane queue full, job queued beyond maximum: " + lane.getName());
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+    *** Gets the number of jobs queued beyond the maximum lane queue size
+    *** @return The number of spilled jobs
+    **/
+    public synchronized long getSpillCount()
+    {
+        return this.spillCount;
+    }
+
+    /**
+    *** Gets the number of jobs rejected (or dropped) because the lane queue was full
+    *** @return The number of rejected jobs
+    **/
+    public synchronized long getRejectCount()
+    {
+        return this.rejectCount;
+    }
+
+    /**
+    *** Gets the number of jobs dropped because the lane overflow limit was reached
+    *** @return The number of dropped jobs
+    **/
+    public synchronized long getDropCount()
+    {
+        return this.dropCount;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the total number of threads in all lanes
+    *** @return The total number of threads
+    **/
+    public int getPoolSize()
+    {
+        int size = 0;
+        for (ThreadPool lane : this.lanes) {
+            size += lane.getPoolSize();
+        }
+        return size;
+    }
+
+    /**
+    *** Gets the total number of queued jobs in all lanes
+    *** @return The total number of queued jobs
+    **/
+    public int getQueueSize()
+    {
+        int size = 0;
+        for (ThreadPool lane : this.lanes) {
+            size += lane.getQueueSize();
+        }
+        return size;
+    }
+
+    /**
+    *** Stops all lane threads once queued jobs are complete
+    **/
+    public void stopThreads()
+    {
+        this.stopThreads(false);
+    }
+
+    /**
+    *** Stops all lane threads
+    *** @param stopNow  True to stop threads, even if jobs are still queued.  False
+    ***                 to stop only after all jobs have been processed.
+    **/
+    public void stopThreads(boolean stopNow)
+    {
+        for (ThreadPool lane : this.lanes) {
+            lane.stopThreads(stopNow);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+}
@@ -0,0 +1,515 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Process-wide registry of lock-free counters, gauges, and latency timers,
+//  exported in the Prometheus text exposition format.
+// Example:
+//  private static final Metrics.Timer TIMER = Metrics.getTimer("gts_example_seconds", "Example");
+//  long startNS = TIMER.start();
+//  try { ... } finally { TIMER.stop(startNS); }
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Counters and timers are only updated when "Metrics.enable" is true.  When
+//    disabled, "Timer.start()" returns 0 without reading the clock, and
+//    "Timer.stop(0)" returns immediately.
+//  - Gauges (and externally maintained counters) are read only when exported.
+//  - Timers record nanoseconds into log-linear buckets (8 sub-buckets per power
+//    of 2, ~12% relative precision) for local quantiles (ie. SQLProfiler), and
+//    into fixed cumulative buckets which are exported as a Prometheus
+//    "histogram" in seconds.  Quantiles over any time window are computed by
+//    the scraper (ie. "histogram_quantile(0.99, rate(name_bucket[5m]))"), 
+//    rather than exported over the lifetime of the process.
+//  - Metric names may include Prometheus labels (ie. 'name{label="value"}').
+//    All metrics with the same base name must be of the same type.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class Metrics
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final String CONTENT_TYPE            = "text/plain; version=0.0.4";
+
+    private static final RTConfigSnapshot.BooleanSetting Enable_setting =
+        RTConfigSnapshot.registerBoolean(RTKey.METRICS_ENABLE, false);
+
+    /**
+    *** Returns true if counter/timer metrics collection is enabled
+    *** @return True if enabled
+    **/
+    public static boolean IsEnabled()
+    {
+        return Enable_setting.get();
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static final String TYPE_COUNTER            = "counter";
+    private static final String TYPE_GAUGE              = "gauge";
+    private static final String TYPE_HISTOGRAM          = "histogram";
+
+    /* exported histogram bucket upper bounds (seconds) */
+    private static final String HISTOGRAM_LE[]          = {
+        "0.0001", "0.00025", "0.0005", 
+        "0.001" , "0.0025" , "0.005" , 
+        "0.01"  , "0.025"  , "0.05"  , 
+        "0.1"   , "0.25"   , "0.5"   , 
+        "1"     , "2.5"    , "5"     , 
+        "10"    , "30"
+    };
+    private static final long   HISTOGRAM_LE_NS[]       = new long[HISTOGRAM_LE.length];
+    static {
+        for (int i = 0; i < HISTOGRAM_LE.length; i++) {
+            HISTOGRAM_LE_NS[i] = Math.round(Double.parseDouble(HISTOGRAM_LE[i]) * 1.0E9);
+        }
+    }
+
+    /**
+    *** Metric base class
+    **/
+    public static abstract class Metric
+    {
+        private String name   = null;
+        private String help   = null;
+        private String type   = null;
+        protected Metric(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+        public String getName() {
+            return this.name;
+        }
+        public String getHelp() {
+            return this.help;
+        }
+        public String getType() {
+            return this.type;
+        }
+        /* base name (without labels) */
+        public String getBaseName() {
+            int p = this.name.indexOf('{');
+            return (p >= 0)? this.name.substring(0,p) : this.name;
+        }
+        /* labels (without braces), or "" */
+        public String getLabels() {
+            int p = this.name.indexOf('{');
+            return (p >= 0)? this.name.substring(p + 1, this.name.length() - 1) : "";
+        }
+        protected abstract void writeSamples(StringBuffer sb);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Monotonic counter maintained by this registry
+    **/
+    public static class Counter
+        extends Metric
+    {
+        private AtomicLong count = new AtomicLong(0L);
+        protected Counter(String name, String help) {
+            super(name, help, TYPE_COUNTER);
+        }
+        public void increment() {
+            if (Metrics.IsEnabled()) {
+                this.count.incrementAndGet();
+            }
+        }
+        public void add(long n) {
+            if (Metrics.IsEnabled()) {
+                this.count.addAndGet(n);
+            }
+        }
+        public long get() {
+            return this.count.get();
+        }
+        protected void writeSamples(StringBuffer sb) {
+            Metrics._sample(sb, this.getName(), null, (double)this.get());
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gauge whose value is read from the instrumented component when exported.
+    *** (also used for counters maintained by the instrumented component)
+    **/
+    public static abstract class Gauge
+        extends Metric
+    {
+        public Gauge() {
+            super(null, null, null);
+        }
+        private Gauge _init(String name, String help, String type) {
+            Metric m = this;
+            m.name = name;
+            m.help = help;
+            m.type = type;
+            return this;
+        }
+        public abstract double getValue();
+        protected void writeSamples(StringBuffer sb) {
+            double v;
+            try {
+                v = this.getValue();
+            } catch (Throwable th) {
+                v = Double.NaN;
+            }
+            Metrics._sample(sb, this.getName(), null, v);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static final int    SUB_BUCKET_BITS     = 3;
+    private static final int    SUB_BUCKET_COUNT    = 1 << SUB_BUCKET_BITS;
+    private static final int    BUCKET_COUNT        = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    /**
+    *** Latency timer (log-linear histogram of nanosecond durations)
+    **/
+    public static class Timer
+        extends Metric
+    {
+        private AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private AtomicLongArray histo   = new AtomicLongArray(HISTOGRAM_LE.length + 1); // last is "+Inf"
+        private AtomicLong      count   = new AtomicLong(0L);
+        private AtomicLong      sumNS   = new AtomicLong(0L);
+        public Timer(String name, String help) {
+            super(name, help, TYPE_HISTOGRAM);
+        }
+        /* start time (nanoseconds), or 0 if disabled */
+        public long start() {
+            return Metrics.IsEnabled()? System.nanoTime() : 0L;
+        }
+        /* record elapsed time since "start()" */
+        public void stop(long startNS) {
+            if (startNS != 0L) {
+                this.record(System.nanoTime() - startNS);
+            }
+        }
+        /* record a duration (nanoseconds) */
+        public void record(long nanos) {
+            long v = (nanos > 0L)? nanos : 0L;
+            this.buckets.incrementAndGet(Timer._bucketIndex(v));
+            int h = Arrays.binarySearch(HISTOGRAM_LE_NS, v); // first bound >= v
+            this.histo.incrementAndGet((h >= 0)? h : (-h - 1));
+            this.count.incrementAndGet();
+            this.sumNS.addAndGet(v);
+        }
+        public long getCount() {
+            return this.count.get();
+        }
+        public long getSumNanos() {
+            return this.sumNS.get();
+        }
+        /* value at the specified quantile (nanoseconds, upper bound of bucket) */
+        public long getQuantileNanos(double q) {
+            long total = 0L;
+            long counts[] = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] = this.buckets.get(i);
+                total += counts[i];
+            }
+            if (total <= 0L) {
+                return 0L;
+            }
+            long rank = (long)Math.ceil(q * (double)total);
+            if (rank < 1L) { rank = 1L; }
+            long cum = 0L;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                cum += counts[i];
+                if (cum >= rank) {
+                    return Timer._bucketUpperBound(i);
+                }
+            }
+            return Timer._bucketUpperBound(BUCKET_COUNT - 1);
+        }
+        private static int _bucketIndex(long v) {
+            if (v < SUB_BUCKET_COUNT) {
+                return (int)v;
+            }
+            int e = 63 - Long.numberOfLeadingZeros(v); // >= SUB_BUCKET_BITS
+            int s = (int)(v >>> (e - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+            return ((e - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT) + s;
+        }
+        private static long _bucketUpperBound(int ndx) {
+            if (ndx < SUB_BUCKET_COUNT) {
+                return ndx;
+            }
+            int e = (ndx / SUB_BUCKET_COUNT) + SUB_BUCKET_BITS - 1;
+            int s = ndx % SUB_BUCKET_COUNT;
+            long lo = (long)(SUB_BUCKET_COUNT + s) << (e - SUB_BUCKET_BITS);
+            return lo + (1L << (e - SUB_BUCKET_BITS)) - 1L;
+        }
+        protected void writeSamples(StringBuffer sb) {
+            String bucketName = Metrics._suffix(this,"_bucket");
+            long cum = 0L;
+            for (int i = 0; i < HISTOGRAM_LE.length; i++) {
+                cum += this.histo.get(i);
+                Metrics._sample(sb, bucketName, "le=\"" + HISTOGRAM_LE[i] + "\"", (double)cum);
+            }
+            cum += this.histo.get(HISTOGRAM_LE.length);
+            Metrics._sample(sb, bucketName, "le=\"+Inf\"", (double)cum);
+            Metrics._sample(sb, Metrics._suffix(this,"_sum")  , null, (double)this.getSumNanos() / 1.0E9);
+            Metrics._sample(sb, Metrics._suffix(this,"_count"), null, (double)cum); // same as "+Inf"
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static final Map<String,Metric> MetricMap = new ConcurrentHashMap<String,Metric>();
+
+    /**
+    *** Gets (creates) the named counter
+    *** @param name  The metric name (may include labels)
+    *** @param help  The metric description
+    *** @return The counter
+    **/
+    public static Counter getCounter(String name, String help)
+    {
+        Metric m = MetricMap.get(name);
+        if (m == null) {
+            synchronized (MetricMap) {
+                m = MetricMap.get(name);
+                if (m == null) {
+                    m = new Counter(name, help);
+                    MetricMap.put(name, m);
+                }
+            }
+        }
+        if (!(m instanceof Counter)) {
+            throw new IllegalArgumentException("Metric is not a Counter: " + name);
+        }
+        return (Counter)m;
+    }
+
+    /**
+    *** Gets (creates) the named timer
+    *** @param name  The metric name (may include labels)
+    *** @param help  The metric description
+    *** @return The timer
+    **/
+    public static Timer getTimer(String name, String help)
+    {
+        Metric m = MetricMap.get(name);
+        if (m == null) {
+            synchronized (MetricMap) {
+                m = MetricMap.get(name);
+                if (m == null) {
+                    m = new Timer(name, help);
+                    MetricMap.put(name, m);
+                }
+            }
+        }
+        if (!(m instanceof Timer)) {
+            throw new IllegalArgumentException("Metric is not a Timer: " + name);
+        }
+        return (Timer)m;
+    }
+
+    /**
+    *** Registers a gauge.  A previously registered metric with the same name is replaced.
+    *** @param name   The metric name (may include labels)
+    *** @param help   The metric description
+    *** @param gauge  The gauge
+    **/
+    public static void registerGauge(String name, String help, Gauge gauge)
+    {
+        if ((name != null) && (gauge != null)) {
+            MetricMap.put(name, gauge._init(name, help, TYPE_GAUGE));
+        }
+    }
+
+    /**
+    *** Registers a counter maintained by the instrumented component (the gauge
+    *** value must be monotonically increasing).  A previously registered metric
+    *** with the same name is replaced.
+    *** @param name   The metric name (may include labels)
+    *** @param help   The metric description
+    *** @param gauge  The gauge returning the current counter value
+    **/
+    public static void registerCounter(String name, String help, Gauge gauge)
+    {
+        if ((name != null) && (gauge != null)) {
+            MetricMap.put(name, gauge._init(name, help, TYPE_COUNTER));
+        }
+    }
+
+    /**
+    *** Removes the named metric
+    *** @param name  The metric name (including labels)
+    **/
+    public static void unregister(String name)
+    {
+        if (name != null) {
+            MetricMap.remove(name);
+        }
+    }
+
+    /**
+    *** Returns a label value with Prometheus special characters escaped
+    **/
+    public static String escapeLabel(String v)
+    {
+        if (v == null) {
+            return "";
+        }
+        StringBuffer sb = new StringBuffer(v.length());
+        for (int i = 0; i < v.length(); i++) {
+            char ch = v.charAt(i);
+            switch (ch) {
+                case '\\': sb.append("\\\\"); break;
+                case '\"': sb.append("\\\""); break;
+                case '\n': sb.append("\\n");  break;
+                default  : sb.append(ch);     break;
+            }
+        }
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Writes all registered metrics in the Prometheus text exposition format
+    *** @param sb  The output StringBuffer (created if null)
+    *** @return The StringBuffer
+    **/
+    public static StringBuffer writePrometheus(StringBuffer sb)
+    {
+        if (sb == null) { sb = new StringBuffer(); }
+
+        /* group by base name (sorted) */
+        Map<String,java.util.List<Metric>> families = new TreeMap<String,java.util.List<Metric>>();
+        for (Metric m : MetricMap.values()) {
+            String bn = m.getBaseName();
+            java.util.List<Metric> fam = families.get(bn);
+            if (fam == null) {
+                fam = new Vector<Metric>();
+                families.put(bn, fam);
+            }
+            fam.add(m);
+        }
+
+        /* write */
+        for (String bn : families.keySet()) {
+            java.util.List<Metric> fam = families.get(bn);
+            Metric first = fam.get(0);
+            if (!StringTools.isBlank(first.getHelp())) {
+                sb.append("# HELP ").append(bn).append(" ").append(first.getHelp().replace('\n',' ')).append("\n");
+            }
+            sb.append("# TYPE ").append(bn).append(" ").append(first.getType()).append("\n");
+            for (Metric m : fam) {
+                m.writeSamples(sb);
+            }
+        }
+
+        return sb;
+    }
+
+    /**
+    *** Returns all registered metrics in the Prometheus text exposition format
+    **/
+    public static String toPrometheusString()
+    {
+        return Metrics.writePrometheus(null).toString();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* name with suffix inserted before labels */
+    private static String _suffix(Metric m, String suffix)
+    {
+        String labels = m.getLabels();
+        return m.getBaseName() + suffix + (labels.equals("")? "" : ("{" + labels + "}"));
+    }
+
+    /* write a single sample line */
+    private static void _sample(StringBuffer sb, String name, String extraLabel, double value)
+    {
+        if (extraLabel == null) {
+            sb.append(name);
+        } else {
+            int p = name.indexOf('{');
+            if (p >= 0) {
+                sb.append(name, 0, name.length() - 1).append(",").append(extraLabel).append("}");
+            } else {
+                sb.append(name).append("{").append(extraLabel).append("}");
+            }
+        }
+        sb.append(" ");
+        if (Double.isNaN(value)) {
+            sb.append("NaN");
+        } else
+        if (Double.isInfinite(value)) {
+            sb.append((value > 0.0)? "+Inf" : "-Inf");
+        } else
+        if ((value == Math.rint(value)) && (Math.abs(value) < 1.0E15)) {
+            sb.append((long)value);
+        } else {
+            sb.append(value);
+        }
+        sb.append("\n");
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* process gauges */
+    static {
+        Metrics.registerGauge("gts_jvm_memory_used_bytes", "JVM heap memory in use", new Gauge() {
+            public double getValue() {
+                Runtime rt = Runtime.getRuntime();
+                return (double)(rt.totalMemory() - rt.freeMemory());
+            }
+        });
+        Metrics.registerGauge("gts_jvm_memory_max_bytes", "JVM maximum heap memory", new Gauge() {
+            public double getValue() { return (double)Runtime.getRuntime().maxMemory(); }
+        });
+        Metrics.registerGauge("gts_jvm_threads", "JVM live thread count", new Gauge() {
+            public double getValue() { return (double)Thread.activeCount(); }
+        });
+        Metrics.registerCounter("gts_rtconfig_snapshots_total", "RTConfig snapshots created", new Gauge() {
+            public double getValue() { return (double)RTConfigSnapshot.getSnapshotCount(); }
+        });
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Main entry point (prints the current metrics)
+    **/
+    public static void main(String argv[])
+    {
+        RTConfig.setCommandLineArgs(argv);
+        Print.sysPrintln(Metrics.toPrometheusString());
+    }
+
+}
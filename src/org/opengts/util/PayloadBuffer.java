@@ -0,0 +1,1087 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Read/Write binary fields (zero-copy, over a reusable ByteBuffer view)
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Unlike "Payload", this class does not copy the packet bytes.  An instance
+//    is intended to be reused for the life of a client session by calling one
+//    of the "wrap" methods for each packet (or sub-record within a packet).
+//  - Field readers decode directly from the wrapped bytes/ByteBuffer and do
+//    not allocate (except for those which return a String/byte[]/GeoPoint).
+//  - Read overflow semantics match "Payload": the available bytes are decoded,
+//    an overflow warning is logged, and the overflow flag is set.
+//  - Instances are not thread-safe.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+import java.lang.*;
+import java.util.*;
+import java.nio.*;
+
+/**
+*** Zero-copy binary field reader/writer over a reusable ByteBuffer view
+**/
+
+public class PayloadBuffer
+{
+
+    // ------------------------------------------------------------------------
+
+    private static final byte   HEX_ASCII[]     = "0123456789ABCDEF".getBytes();
+
+    // ------------------------------------------------------------------------
+
+    private ByteBuffer  buffer      = null;     // wrapped buffer
+    private byte        array[]     = null;     // backing array (null if direct/read-only)
+    private int         arrayOfs    = 0;        // backing array offset
+    private int         start       = 0;        // absolute start index
+    private int         limit       = 0;        // absolute limit index (exclusive)
+    private int         index       = 0;        // absolute read/write index
+    private int         savedIndex  = -1;
+    private boolean     bigEndian   = true;
+    private boolean     overflow    = false;
+    private byte        scratch[]   = null;     // GeoPoint decode/encode (direct buffers)
+
+    /**
+    *** Constructor (use one of the "wrap" methods to set the buffer)
+    **/
+    public PayloadBuffer()
+    {
+        super();
+    }
+
+    /**
+    *** Constructor
+    *** @param bigEndian True for big-endian default byte order
+    **/
+    public PayloadBuffer(boolean bigEndian)
+    {
+        this();
+        this.bigEndian = bigEndian;
+    }
+
+    /**
+    *** Constructor for a writable PayloadBuffer with the specified capacity
+    *** @param capacity  The maximum number of bytes which may be written
+    *** @param bigEndian True for big-endian default byte order
+    **/
+    public PayloadBuffer(int capacity, boolean bigEndian)
+    {
+        this(bigEndian);
+        this.wrap(new byte[(capacity > 0)? capacity : 0]);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Wraps the specified byte array (no copy)
+    *** @param b  The byte array
+    *** @return This PayloadBuffer
+    **/
+    public PayloadBuffer wrap(byte b[])
+    {
+        return this.wrap(b, 0, ((b != null)? b.length : 0));
+    }
+
+    /**
+    *** Wraps the specified byte array range (no copy).  The offset/length are
+    *** clipped to the bounds of the array.
+    *** @param b    The byte array
+    *** @param ofs  The offset of the first byte
+    *** @param len  The number of bytes
+    *** @return This PayloadBuffer
+    **/
+    public PayloadBuffer wrap(byte b[], int ofs, int len)
+    {
+        if (b == null) {
+            b = new byte[0];
+        }
+        if (ofs < 0) { ofs = 0; } else if (ofs > b.length) { ofs = b.length; }
+        if (len < 0) { len = 0; } else if ((ofs + len) > b.length) { len = b.length - ofs; }
+        this.buffer     = null;
+        this.array      = b;
+        this.arrayOfs   = 0;
+        this._reset(ofs, ofs + len);
+        return this;
+    }
+
+    /**
+    *** Wraps the bytes between the current position and limit of the specified
+    *** ByteBuffer (heap or direct).  The position/limit of the ByteBuffer are not
+    *** modified.
+    *** @param bb  The ByteBuffer
+    *** @return This PayloadBuffer
+    **/
+    public PayloadBuffer wrap(ByteBuffer bb)
+    {
+        if (bb == null) {
+            return this.wrap((byte[])null);
+        }
+        if (bb.hasArray()) {
+            // -- heap (writable) buffer, read from the backing array directly
+            this.buffer   = null;
+            this.array    = bb.array();
+            this.arrayOfs = bb.arrayOffset();
+        } else {
+            // -- direct or read-only buffer
+            this.buffer   = bb;
+            this.array    = null;
+            this.arrayOfs = 0;
+        }
+        this._reset(bb.position(), bb.limit());
+        return this;
+    }
+
+    /**
+    *** Resets the view to the specified absolute range
+    **/
+    private void _reset(int start, int limit)
+    {
+        this.start      = start;
+        this.limit      = limit;
+        this.index      = start;
+        this.savedIndex = -1;
+        this.overflow   = false;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the byte at the specified absolute index
+    **/
+    private int _get(int ndx)
+    {
+        return (this.array != null)? (this.array[this.arrayOfs + ndx] & 0xFF) : (this.buffer.get(ndx) & 0xFF);
+    }
+
+    /**
+    *** Sets the byte at the specified absolute index
+    **/
+    private void _put(int ndx, int b)
+    {
+        if (this.array != null) {
+            this.array[this.arrayOfs + ndx] = (byte)b;
+        } else {
+            this.buffer.put(ndx, (byte)b); // ReadOnlyBufferException if read-only
+        }
+    }
+
+    /**
+    *** Checks the requested length against the available length, and sets the
+    *** overflow flag if the request cannot be fully satisfied.
+    **/
+    private int _checkRead(int length, String msg)
+    {
+        int maxLen = this.getMaximumReadLength(length);
+        if (maxLen < length) {
+            this.overflow = true;
+            Payload.checkOverflow(length, maxLen, 3, msg);
+        }
+        return maxLen;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Sets the default byte order to big-endian
+    *** @param bigEndFirst True for big-endian, false for little-endian
+    **/
+    public void setBigEndian(boolean bigEndFirst)
+    {
+        this.bigEndian = bigEndFirst;
+    }
+
+    /**
+    *** Returns true if the default byte order is big-endian
+    *** @return True if big-endian
+    **/
+    public boolean isBigEndian()
+    {
+        return this.bigEndian;
+    }
+
+    /**
+    *** Returns true if a read/write was attempted past the end of the buffer
+    *** since the last "wrap"/"clearOverflow"
+    *** @return True if an overflow occurred
+    **/
+    public boolean hasOverflow()
+    {
+        return this.overflow;
+    }
+
+    /**
+    *** Clears the overflow flag
+    **/
+    public void clearOverflow()
+    {
+        this.overflow = false;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the size of the wrapped view
+    *** @return The number of bytes in the wrapped view
+    **/
+    public int getSize()
+    {
+        return this.limit - this.start;
+    }
+
+    /**
+    *** Gets the current read/write index (relative to the start of the view)
+    *** @return The current index
+    **/
+    public int getIndex()
+    {
+        return this.index - this.start;
+    }
+
+    /**
+    *** Resets the read/write index to the start of the view
+    **/
+    public void resetIndex()
+    {
+        this.resetIndex(0);
+    }
+
+    /**
+    *** Sets the read/write index (relative to the start of the view)
+    *** @param ndx  The new index
+    **/
+    public void resetIndex(int ndx)
+    {
+        int n = this.start + ((ndx > 0)? ndx : 0);
+        this.index = (n <= this.limit)? n : this.limit;
+    }
+
+    /**
+    *** Saves the current read/write index
+    **/
+    public void saveIndex()
+    {
+        this.savedIndex = this.index;
+    }
+
+    /**
+    *** Restores the previously saved read/write index
+    *** @return True if the index was restored
+    **/
+    public boolean restoreIndex()
+    {
+        if (this.savedIndex >= this.start) {
+            this.index      = this.savedIndex;
+            this.savedIndex = -1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+    *** Gets the number of bytes available to read for the requested length
+    *** @param length  The requested length
+    *** @return The number of bytes which may actually be read
+    **/
+    public int getMaximumReadLength(int length)
+    {
+        int avail = this.limit - this.index;
+        return (length <= avail)? length : avail;
+    }
+
+    /**
+    *** Gets the number of remaining bytes available to read
+    *** @return The number of remaining bytes
+    **/
+    public int getAvailableReadLength()
+    {
+        return this.limit - this.index;
+    }
+
+    /**
+    *** Returns true if there are bytes remaining to read
+    *** @return True if there are bytes remaining to read
+    **/
+    public boolean hasAvailableRead()
+    {
+        return (this.index < this.limit);
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Skips the specified number of bytes
+    *** @param length  The number of bytes to skip
+    **/
+    public void readSkip(int length)
+    {
+        int maxLen = this._checkRead(length, null);
+        if (maxLen > 0) {
+            this.index += maxLen;
+        }
+    }
+
+    /**
+    *** Returns the next byte, without advancing the index
+    *** @return The next byte (0..255), or -1 if no bytes remain
+    **/
+    public int peekByte()
+    {
+        return (this.index < this.limit)? this._get(this.index) : -1;
+    }
+
+    /**
+    *** Reads the next byte
+    *** @param dft  The default value if no bytes remain
+    *** @return The next byte (0..255), or the default value
+    **/
+    public int readByte(int dft)
+    {
+        int maxLen = this._checkRead(1, null);
+        return (maxLen > 0)? this._get(this.index++) : dft;
+    }
+
+    /**
+    *** Reads bytes into the specified (caller owned) byte array
+    *** @param length  The number of bytes to read
+    *** @param dest    The destination byte array
+    *** @param destOfs The offset into the destination byte array
+    *** @return The number of bytes read
+    **/
+    public int readBytes(int length, byte dest[], int destOfs)
+    {
+        int maxLen = this._checkRead(length, null);
+        if ((dest == null) || (destOfs < 0)) {
+            maxLen = 0;
+        } else
+        if ((destOfs + maxLen) > dest.length) {
+            maxLen = dest.length - destOfs;
+        }
+        if (maxLen > 0) {
+            if (this.array != null) {
+                System.arraycopy(this.array, this.arrayOfs + this.index, dest, destOfs, maxLen);
+            } else {
+                for (int i = 0; i < maxLen; i++) {
+                    dest[destOfs + i] = this.buffer.get(this.index + i);
+                }
+            }
+            this.index += maxLen;
+            return maxLen;
+        }
+        return 0;
+    }
+
+    /**
+    *** Reads bytes into a new byte array
+    *** @param length  The number of bytes to read
+    *** @return The byte array
+    **/
+    public byte[] readBytes(int length)
+    {
+        int maxLen = this.getMaximumReadLength(length);
+        byte b[] = new byte[(maxLen > 0)? maxLen : 0];
+        this.readBytes(length, b, 0);
+        return b;
+    }
+
+    /**
+    *** Sets the specified PayloadBuffer to a view of the next <code>length</code>
+    *** bytes of this buffer (no copy), and advances the index of this buffer.
+    *** @param length  The number of bytes in the slice
+    *** @param dest    The PayloadBuffer to reuse for the slice
+    *** @return The destination PayloadBuffer
+    **/
+    public PayloadBuffer readSlice(int length, PayloadBuffer dest)
+    {
+        int maxLen = this._checkRead(length, null);
+        if (maxLen < 0) { maxLen = 0; }
+        dest.buffer     = this.buffer;
+        dest.array      = this.array;
+        dest.arrayOfs   = this.arrayOfs;
+        dest.bigEndian  = this.bigEndian;
+        dest._reset(this.index, this.index + maxLen);
+        this.index += maxLen;
+        return dest;
+    }
+
+    /**
+    *** Reads an unsigned length prefix, then sets the specified PayloadBuffer to
+    *** a view of the following length-prefixed field (no copy)
+    *** @param prefixLen The number of bytes in the length prefix
+    *** @param dest      The PayloadBuffer to reuse for the field
+    *** @return The destination PayloadBuffer
+    **/
+    public PayloadBuffer readLengthPrefixedSlice(int prefixLen, PayloadBuffer dest)
+    {
+        int length = (int)this.readULong(prefixLen, 0L);
+        return this.readSlice(length, dest);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Decodes a long value from the specified absolute range
+    **/
+    private long _decodeLong(int ndx, int len, boolean bigEndian, boolean signed)
+    {
+        long val = 0L;
+        if (bigEndian) {
+            for (int i = ndx; i < (ndx + len); i++) {
+                val = (val << 8) | (long)this._get(i);
+            }
+        } else {
+            for (int i = (ndx + len - 1); i >= ndx; i--) {
+                val = (val << 8) | (long)this._get(i);
+            }
+        }
+        if (signed && (len < 8)) {
+            val = Payload.extendSignBit(val, len * 8);
+        }
+        return val;
+    }
+
+    /**
+    *** Reads a <code>long</code> value
+    *** @param length    The number of bytes to decode the value from
+    *** @param dft       The default value if a value could not be decoded
+    *** @param bigEndian True to read bytes in big-endian order, otherwise little-endian
+    *** @param signed    True to sign-extend the decoded value
+    *** @param msg       Overflow warning message (may be null)
+    *** @return The decoded value, or the default value
+    **/
+    private long _readLong(int length, long dft, boolean bigEndian, boolean signed, String msg)
+    {
+        int maxLen = this._checkRead(length, msg);
+        if (maxLen <= 0) {
+            return dft;
+        }
+        long val = this._decodeLong(this.index, maxLen, bigEndian, signed);
+        this.index += maxLen;
+        return val;
+    }
+
+    /**
+    *** Read a signed <code>long</code> value (with default)
+    *** @param length    The number of bytes to decode the value from
+    *** @param dft       The default value if a value could not be decoded
+    *** @param bigEndian True to read bytes in big-endian order, otherwise little-endian
+    *** @return The decoded value, or the default value
+    **/
+    public long readLong(int length, long dft, boolean bigEndian)
+    {
+        return this._readLong(length, dft, bigEndian, true, null);
+    }
+
+    /**
+    *** Read a signed <code>long</code> value (with default)
+    *** @param length The number of bytes to decode the value from
+    *** @param dft    The default value if a value could not be decoded
+    *** @return The decoded value, or the default value
+    **/
+    public long readLong(int length, long dft)
+    {
+        return this._readLong(length, dft, this.bigEndian, true, null);
+    }
+
+    /**
+    *** Read a signed <code>int</code> value (with default)
+    *** @param length    The number of bytes to decode the value from
+    *** @param dft       The default value if a value could not be decoded
+    *** @param bigEndian True to read bytes in big-endian order, otherwise little-endian
+    *** @return The decoded value, or the default value
+    **/
+    public int readInt(int length, int dft, boolean bigEndian)
+    {
+        return (int)this._readLong(length, (long)dft, bigEndian, true, null);
+    }
+
+    /**
+    *** Read a signed <code>int</code> value (with default)
+    *** @param length The number of bytes to decode the value from
+    *** @param dft    The default value if a value could not be decoded
+    *** @return The decoded value, or the default value
+    **/
+    public int readInt(int length, int dft)
+    {
+        return (int)this._readLong(length, (long)dft, this.bigEndian, true, null);
+    }
+
+    /**
+    *** Read an unsigned <code>long</code> value (with default)
+    *** @param length    The number of bytes to decode the value from
+    *** @param dft       The default value if a value could not be decoded
+    *** @param bigEndian True to read bytes in big-endian order, otherwise little-endian
+    *** @return The decoded value, or the default value
+    **/
+    public long readULong(int length, long dft, boolean bigEndian)
+    {
+        return this._readLong(length, dft, bigEndian, false, null);
+    }
+
+    /**
+    *** Read an unsigned <code>long</code> value (with default)
+    *** @param length The number of bytes to decode the value from
+    *** @param dft    The default value if a value could not be decoded
+    *** @return The decoded value, or the default value
+    **/
+    public long readULong(int length, long dft)
+    {
+        return this._readLong(length, dft, this.bigEndian, false, null);
+    }
+
+    /**
+    *** Read an unsigned <code>int</code> value (with default)
+    *** @param length    The number of bytes to decode the value from
+    *** @param dft       The default value if a value could not be decoded
+    *** @param bigEndian True to read bytes in big-endian order, otherwise little-endian
+    *** @return The decoded value, or the default value
+    **/
+    public int readUInt(int length, int dft, boolean bigEndian)
+    {
+        return (int)this._readLong(length, (long)dft, bigEndian, false, null);
+    }
+
+    /**
+    *** Read an unsigned <code>int</code> value (with default)
+    *** @param length The number of bytes to decode the value from
+    *** @param dft    The default value if a value could not be decoded
+    *** @return The decoded value, or the default value
+    **/
+    public int readUInt(int length, int dft)
+    {
+        return (int)this._readLong(length, (long)dft, this.bigEndian, false, null);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Read an unsigned BCD encoded <code>long</code> value
+    *** @param length The number of bytes from which to decode the value
+    *** @param dft    The default value if a value could not be decoded
+    *** @return The decoded value, or the default value (if a non-BCD nybble is found)
+    **/
+    public long readLongBCD(int length, long dft)
+    {
+        int maxLen = this._checkRead(length, null);
+        if (maxLen <= 0) {
+            return dft;
+        }
+        long val = 0L;
+        for (int n = 0; n < maxLen; n++) {
+            int  b  = this._get(this.bigEndian? (this.index + n) : (this.index + maxLen - 1 - n));
+            long N1 = (long)(b >> 4) & 0xF;
+            long N2 = (long)(b >> 0) & 0xF;
+            if ((N1 > 9) || (N2 > 9)) {
+                // -- stop at first non BCD digit
+                val = dft;
+                break;
+            }
+            val = (val * 100L) + (N1 * 10L) + N2;
+        }
+        this.index += maxLen;
+        return val;
+    }
+
+    /**
+    *** Read an unsigned BCD encoded <code>int</code> value
+    *** @param length The number of bytes from which to decode the value
+    *** @param dft    The default value if a value could not be decoded
+    *** @return The decoded value, or the default value (if a non-BCD nybble is found)
+    **/
+    public int readIntBCD(int length, int dft)
+    {
+        return (int)this.readLongBCD(length, (long)dft);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Reads an encoded GPS point (latitude,longitude)
+    *** @param length The number of bytes to decode the GeoPoint from (6 or 8)
+    *** @return The decoded GeoPoint (does not return null)
+    *** @see GeoPoint#decodeGeoPoint
+    **/
+    public GeoPoint readGPS(int length)
+    {
+        int maxLen = this._checkRead(length, null);
+        GeoPoint gp = null;
+        if (maxLen >= 6) {
+            int len = (maxLen >= 8)? 8 : 6;
+            if (this.array != null) {
+                gp = GeoPoint.decodeGeoPoint(this.array, this.arrayOfs + this.index, len);
+            } else {
+                byte b[] = this._getScratch();
+                for (int i = 0; i < len; i++) { b[i] = this.buffer.get(this.index + i); }
+                gp = GeoPoint.decodeGeoPoint(b, 0, len);
+            }
+        }
+        if (maxLen > 0) {
+            this.index += maxLen;
+        }
+        return (gp != null)? gp : new GeoPoint();
+    }
+
+    /**
+    *** Gets the scratch array used for GeoPoint encoding/decoding on direct buffers
+    **/
+    private byte[] _getScratch()
+    {
+        if (this.scratch == null) {
+            this.scratch = new byte[8];
+        }
+        return this.scratch;
+    }
+
+    // ------------------------------------------------------------------------
+    // ASCII field readers (fixed-length and delimited text protocols)
+
+    /**
+    *** Returns the number of bytes from the current index to the next occurrence
+    *** of the specified delimiter (or to the end of the buffer, if not found)
+    *** @param delim  The delimiter byte
+    *** @return The field length
+    **/
+    public int getFieldLength(int delim)
+    {
+        for (int i = this.index; i < this.limit; i++) {
+            if (this._get(i) == (delim & 0xFF)) {
+                return i - this.index;
+            }
+        }
+        return this.limit - this.index;
+    }
+
+    /**
+    *** Skips the next byte if it matches the specified delimiter
+    *** @param delim  The delimiter byte
+    *** @return True if the delimiter was found and skipped
+    **/
+    public boolean readDelimiter(int delim)
+    {
+        if ((this.index < this.limit) && (this._get(this.index) == (delim & 0xFF))) {
+            this.index++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+    *** Returns true if the next bytes match the specified ASCII String (the index
+    *** is not advanced)
+    *** @param s  The String to match
+    *** @return True if the next bytes match
+    **/
+    public boolean isMatchASCII(String s)
+    {
+        int len = (s != null)? s.length() : 0;
+        if ((len == 0) || (len > (this.limit - this.index))) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (this._get(this.index + i) != (s.charAt(i) & 0xFF)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+    *** Reads an ASCII decimal <code>long</code> value (optional leading sign)
+    *** @param length The number of ASCII characters to parse
+    *** @param dft    The default value if a value could not be parsed
+    *** @return The parsed value, or the default value if the field contains
+    ***         non-digit characters
+    **/
+    public long readDecimalLong(int length, long dft)
+    {
+        int maxLen = this._checkRead(length, null);
+        if (maxLen <= 0) {
+            return dft;
+        }
+        long    val  = 0L;
+        boolean neg  = false;
+        int     digs = 0;
+        for (int i = this.index; i < (this.index + maxLen); i++) {
+            int c = this._get(i);
+            if ((c >= '0') && (c <= '9')) {
+                val = (val * 10L) + (long)(c - '0');
+                digs++;
+            } else
+            if ((i == this.index) && ((c == '-') || (c == '+'))) {
+                neg = (c == '-');
+            } else
+            if ((c == ' ') && (digs == 0)) {
+                // -- leading space
+            } else {
+                digs = -1;
+                break;
+            }
+        }
+        this.index += maxLen;
+        return (digs > 0)? (neg? -val : val) : dft;
+    }
+
+    /**
+    *** Reads an ASCII decimal <code>double</code> value (optional leading sign,
+    *** optional decimal point, no exponent)
+    *** @param length The number of ASCII characters to parse
+    *** @param dft    The default value if a value could not be parsed
+    *** @return The parsed value, or the default value
+    **/
+    public double readDecimalDouble(int length, double dft)
+    {
+        int maxLen = this._checkRead(length, null);
+        if (maxLen <= 0) {
+            return dft;
+        }
+        long    mant = 0L;
+        long    scal = 1L;
+        boolean neg  = false;
+        boolean frac = false;
+        int     digs = 0;
+        for (int i = this.index; i < (this.index + maxLen); i++) {
+            int c = this._get(i);
+            if ((c >= '0') && (c <= '9')) {
+                if (mant < 100000000000000000L) {
+                    mant = (mant * 10L) + (long)(c - '0');
+                    if (frac) { scal *= 10L; }
+                } else
+                if (!frac) {
+                    // -- too many integer digits
+                    digs = -1;
+                    break;
+                }
+                digs++;
+            } else
+            if ((c == '.') && !frac) {
+                frac = true;
+            } else
+            if ((i == this.index) && ((c == '-') || (c == '+'))) {
+                neg = (c == '-');
+            } else {
+                digs = -1;
+                break;
+            }
+        }
+        this.index += maxLen;
+        if (digs <= 0) {
+            return dft;
+        }
+        double val = (double)mant / (double)scal;
+        return neg? -val : val;
+    }
+
+    /**
+    *** Reads an ASCII hex <code>long</code> value
+    *** @param length The number of ASCII hex characters to parse
+    *** @param dft    The default value if a value could not be parsed
+    *** @return The parsed value, or the default value if the field contains
+    ***         non-hex characters
+    **/
+    public long readHexLong(int length, long dft)
+    {
+        int maxLen = this._checkRead(length, null);
+        if (maxLen <= 0) {
+            return dft;
+        }
+        long val = 0L;
+        boolean ok = true;
+        for (int i = this.index; i < (this.index + maxLen); i++) {
+            int n = StringTools.hexIndex((char)this._get(i));
+            if (n < 0) {
+                ok = false;
+                break;
+            }
+            val = (val << 4) | (long)n;
+        }
+        this.index += maxLen;
+        return ok? val : dft;
+    }
+
+    /**
+    *** Appends the next <code>length</code> bytes as ASCII characters to the
+    *** specified StringBuilder
+    *** @param length The number of bytes
+    *** @param sb     The destination StringBuilder
+    *** @return The destination StringBuilder
+    **/
+    public StringBuilder appendASCII(int length, StringBuilder sb)
+    {
+        int maxLen = this._checkRead(length, null);
+        for (int i = 0; i < maxLen; i++) {
+            sb.append((char)this._get(this.index + i));
+        }
+        if (maxLen > 0) {
+            this.index += maxLen;
+        }
+        return sb;
+    }
+
+    /**
+    *** Reads the next <code>length</code> bytes as an ASCII String
+    *** @param length The number of bytes
+    *** @return The String
+    **/
+    public String readStringASCII(int length)
+    {
+        int maxLen = this.getMaximumReadLength(length);
+        return this.appendASCII(length, new StringBuilder((maxLen > 0)? maxLen : 0)).toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // Writers (ACK/command encoding)
+
+    /**
+    *** Gets the number of bytes written since the start of the view
+    *** @return The number of bytes written
+    **/
+    public int getWrittenLength()
+    {
+        return this.index - this.start;
+    }
+
+    /**
+    *** Resets the write index to the start of the view
+    **/
+    public void clear()
+    {
+        this._reset(this.start, this.limit);
+    }
+
+    /**
+    *** Checks the requested write length against the available length
+    **/
+    private int _checkWrite(int length)
+    {
+        int avail = this.limit - this.index;
+        if (length > avail) {
+            this.overflow = true;
+            Payload.checkOverflow(length, avail, 3, null);
+            return avail;
+        }
+        return length;
+    }
+
+    /**
+    *** Writes a single byte
+    *** @param b  The byte to write
+    *** @return True if the byte was written
+    **/
+    public boolean writeByte(int b)
+    {
+        if (this._checkWrite(1) < 1) {
+            return false;
+        }
+        this._put(this.index++, b);
+        return true;
+    }
+
+    /**
+    *** Writes a <code>long</code> value
+    *** @param val       The value to write
+    *** @param length    The number of bytes to encode the value into
+    *** @param bigEndian True to write bytes in big-endian order, otherwise little-endian
+    *** @return The number of bytes written
+    **/
+    public int writeULong(long val, int length, boolean bigEndian)
+    {
+        int len = this._checkWrite(length);
+        if (len < length) {
+            return 0;
+        }
+        for (int i = 0; i < len; i++) {
+            int shift = bigEndian? ((len - 1 - i) * 8) : (i * 8);
+            this._put(this.index + i, (int)((val >>> shift) & 0xFFL));
+        }
+        this.index += len;
+        return len;
+    }
+
+    /**
+    *** Writes a <code>long</code> value in the default byte order
+    *** @param val       The value to write
+    *** @param length    The number of bytes to encode the value into
+    *** @return The number of bytes written
+    **/
+    public int writeULong(long val, int length)
+    {
+        return this.writeULong(val, length, this.bigEndian);
+    }
+
+    /**
+    *** Writes an unsigned BCD encoded value (big-endian)
+    *** @param val    The value to write
+    *** @param length The number of bytes to encode the value into
+    *** @return The number of bytes written
+    **/
+    public int writeBCD(long val, int length)
+    {
+        int len = this._checkWrite(length);
+        if ((len < length) || (val < 0L)) {
+            return 0;
+        }
+        for (int i = len - 1; i >= 0; i--) {
+            int N2 = (int)(val % 10L); val /= 10L;
+            int N1 = (int)(val % 10L); val /= 10L;
+            this._put(this.index + i, (N1 << 4) | N2);
+        }
+        this.index += len;
+        return len;
+    }
+
+    /**
+    *** Writes the specified bytes
+    *** @param b    The bytes to write
+    *** @param ofs  The offset of the first byte to write
+    *** @param len  The number of bytes to write
+    *** @return The number of bytes written
+    **/
+    public int writeBytes(byte b[], int ofs, int len)
+    {
+        if ((b == null) || (ofs < 0) || (len <= 0) || ((ofs + len) > b.length)) {
+            return 0;
+        }
+        int wlen = this._checkWrite(len);
+        for (int i = 0; i < wlen; i++) {
+            this._put(this.index + i, b[ofs + i]);
+        }
+        this.index += wlen;
+        return wlen;
+    }
+
+    /**
+    *** Writes the specified ASCII characters
+    *** @param s  The characters to write
+    *** @return The number of bytes written
+    **/
+    public int writeASCII(CharSequence s)
+    {
+        int len  = (s != null)? s.length() : 0;
+        int wlen = this._checkWrite(len);
+        for (int i = 0; i < wlen; i++) {
+            this._put(this.index + i, s.charAt(i) & 0x7F);
+        }
+        this.index += wlen;
+        return wlen;
+    }
+
+    /**
+    *** Writes the specified value as ASCII hex characters (upper-case)
+    *** @param val     The value to write
+    *** @param digits  The number of hex digits to write
+    *** @return The number of bytes written
+    **/
+    public int writeHexASCII(long val, int digits)
+    {
+        int len = this._checkWrite(digits);
+        if (len < digits) {
+            return 0;
+        }
+        for (int i = len - 1; i >= 0; i--) {
+            this._put(this.index + i, HEX_ASCII[(int)(val & 0xFL)]);
+            val >>>= 4;
+        }
+        this.index += len;
+        return len;
+    }
+
+    /**
+    *** Writes an encoded GPS point (latitude,longitude)
+    *** @param gp     The GeoPoint to write
+    *** @param length The number of bytes to encode the GeoPoint into (6 or 8)
+    *** @return The number of bytes written
+    *** @see GeoPoint#encodeGeoPoint
+    **/
+    public int writeGPS(GeoPoint gp, int length)
+    {
+        int len = (length >= 8)? 8 : 6;
+        if ((length < 6) || (this._checkWrite(len) < len)) {
+            return 0;
+        }
+        byte b[] = this._getScratch();
+        GeoPoint.encodeGeoPoint(gp, b, 0, len);
+        for (int i = 0; i < len; i++) {
+            this._put(this.index + i, b[i]);
+        }
+        this.index += len;
+        return len;
+    }
+
+    /**
+    *** Calculates the XOR checksum of the specified range (relative to the start of the view)
+    *** @param ofs  The offset of the first byte
+    *** @param len  The number of bytes
+    *** @return The XOR checksum
+    **/
+    public int calcChecksumXOR(int ofs, int len)
+    {
+        int cs = 0;
+        int s  = this.start + ((ofs > 0)? ofs : 0);
+        int e  = Math.min(s + len, this.limit);
+        for (int i = s; i < e; i++) {
+            cs ^= this._get(i);
+        }
+        return cs & 0xFF;
+    }
+
+    /**
+    *** Returns a copy of the bytes written (from the start of the view to the
+    *** current index)
+    *** @return A copy of the written bytes
+    **/
+    public byte[] getBytes()
+    {
+        int len = this.index - this.start;
+        byte b[] = new byte[len];
+        if (this.array != null) {
+            System.arraycopy(this.array, this.arrayOfs + this.start, b, 0, len);
+        } else {
+            for (int i = 0; i < len; i++) {
+                b[i] = this.buffer.get(this.start + i);
+            }
+        }
+        return b;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns a String representation of the remaining (unread) bytes (hex)
+    *** @return A String representation
+    **/
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = this.index; i < this.limit; i++) {
+            int b = this._get(i);
+            sb.append((char)HEX_ASCII[(b >> 4) & 0xF]).append((char)HEX_ASCII[b & 0xF]);
+        }
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+
+}
@@ -544,6 +544,30 @@ public class RTConfig
     *** @return The RTProperties
     **/
     public static RTProperties getPropertiesForKey(String key, boolean dftOk)
+    {
+        return RTConfig._getPropertiesForKey(key, true/*thread*/, dftOk);
+    }
+
+    /**
+    *** Returns the global RTProperties for the specified key, ignoring any
+    *** thread-local temporary properties
+    *** @param key    The key
+    *** @param dftOk  True to check defaults, if not found elsewhere
+    *** @return The RTProperties
+    **/
+    public static RTProperties getGlobalPropertiesForKey(String key, boolean dftOk)
+    {
+        return RTConfig._getPropertiesForKey(key, false/*thread*/, dftOk);
+    }
+
+    /**
+    *** Returns the RTProperties for the specified key
+    *** @param key         The key
+    *** @param threadOk    True to check the thread-local temporary properties first
+    *** @param dftOk       True to check defaults, if not found elsewhere
+    *** @return The RTProperties
+    **/
+    private static RTProperties _getPropertiesForKey(String key, boolean threadOk, boolean dftOk)
     {
         if (key != null) {
 
@@ -556,10 +580,12 @@ public class RTConfig
             }
 
             /* first try the thread local temporary properties */
-            RTProperties tempProps = RTConfig.getThreadProperties(key);
-            if (tempProps != null) {
-                //if (key.equals(testKey)) System.out.println("RTConfig.getPropertiesForKey: Found "+testKey+" @ " + getThreadProperties());
-                return tempProps;
+            if (threadOk) {
+                RTProperties tempProps = RTConfig.getThreadProperties(key);
+                if (tempProps != null) {
+                    //if (key.equals(testKey)) System.out.println("RTConfig.getPropertiesForKey: Found "+testKey+" @ " + getThreadProperties());
+                    return tempProps;
+                }
             }
 
             /* look for key in our property list stack */
@@ -758,6 +784,7 @@ public class RTConfig
                 CFG_PROPERTIES[COMMAND_LINE].setProperties(cmdLineProps);
                 CFG_PROPERTIES[COMMAND_LINE].setDebugName("CommandLine[external]");
             }
+            RTConfigSnapshot.invalidate();
         } else {
             _startupInit(true);
         }
@@ -820,6 +847,7 @@ public class RTConfig
     {
         CFG_PROPERTIES[SERVLET_CONTEXT] = props;
         CFG_PROPERTIES[SERVLET_CONTEXT].setDebugName("ServletContext[external]");
+        RTConfigSnapshot.invalidate();
     }
 
     /** 
@@ -1434,6 +1462,11 @@ public class RTConfig
             }
         }
         CFG_PROPERTIES[CONFIG_FILE].setKeyReplacementMode(RTProperties.KEY_REPLACEMENT_GLOBAL);
+        CFG_PROPERTIES[CONFIG_FILE].addChangeListener(new RTProperties.PropertyChangeListener() {
+            public void propertyChange(RTProperties.PropertyChangeEvent pce) {
+                RTConfigSnapshot.invalidate(); // config file property changed
+            }
+        });
 
         /* initialize http proxy */
         // http.proxyHost
@@ -1485,6 +1518,7 @@ public class RTConfig
 
         /* now initialized */
         _didStartupInit = 2;
+        RTConfigSnapshot.invalidate(); // rebuild typed snapshot on next access
         //Print.logInfo("DebugMode: " + RTConfig.isDebugMode());
 
         /* set all of the Print configuration */
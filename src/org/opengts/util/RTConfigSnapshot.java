@@ -0,0 +1,461 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Compiled/typed snapshot of selected runtime configuration properties
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Intended for properties which are read on "hot" code paths (ie. per event
+//    during DCS event insertion).  A registered setting is parsed once when the
+//    snapshot is built, after which reading the value is a simple array load.
+//  - The snapshot is discarded whenever RTConfig is (re)loaded, or when the
+//    config-file properties are modified (ie. RTConfig.setProperty), and is
+//    lazily rebuilt on the next access.
+//  - Thread-local (temporary) RTConfig properties are NOT reflected in the
+//    snapshot values.  Settings which must honor thread-local overrides should
+//    continue to use the RTConfig.getXXX methods directly.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+*** Provides an immutable, typed snapshot of registered runtime configuration properties
+**/
+
+public class RTConfigSnapshot
+{
+
+    // ------------------------------------------------------------------------
+
+    private static final Object                 SettingsLock    = new Object();
+    private static final Vector<Setting>        SettingsList    = new Vector<Setting>();
+
+    private static final AtomicLong             Generation      = new AtomicLong(0L);
+    private static volatile RTConfigSnapshot    CurrentSnapshot = null;
+    private static volatile long                SnapshotCount   = 0L;
+
+    /**
+    *** Discards the current snapshot.  The snapshot will be rebuilt on the next
+    *** access to any registered setting.  Called by RTConfig when the runtime
+    *** configuration has been (re)loaded or modified.
+    **/
+    public static void invalidate()
+    {
+        // -- a snapshot built from an older generation is never returned once this 
+        // -  returns, including one which is currently being built by another thread.
+        Generation.incrementAndGet();
+    }
+
+    /**
+    *** Gets the current snapshot, building a new snapshot if necessary
+    *** @return The current snapshot
+    **/
+    public static RTConfigSnapshot getSnapshot()
+    {
+        RTConfigSnapshot snap = CurrentSnapshot;
+        if ((snap == null) || (snap.generation != Generation.get())) {
+            synchronized (SettingsLock) {
+                snap = CurrentSnapshot;
+                long gen = Generation.get();
+                if ((snap == null) || (snap.generation != gen)) {
+                    snap = new RTConfigSnapshot(gen, SettingsList.toArray(new Setting[SettingsList.size()]));
+                    CurrentSnapshot = snap; // stale if 'gen' changed while building, rebuilt on next access
+                    SnapshotCount++;
+                }
+            }
+        }
+        return snap;
+    }
+
+    /**
+    *** Gets the number of times the snapshot has been (re)built
+    *** @return The number of times the snapshot has been built
+    **/
+    public static long getSnapshotCount()
+    {
+        return SnapshotCount;
+    }
+
+    /**
+    *** Registers the specified setting.
+    *** @param setting  The setting to register
+    *** @return The registered setting
+    **/
+    protected static <S extends Setting> S register(S setting)
+    {
+        if (setting != null) {
+            Setting stg = setting;
+            synchronized (SettingsLock) {
+                if (stg.index < 0) {
+                    stg.index = SettingsList.size();
+                    SettingsList.add(stg);
+                    Generation.incrementAndGet(); // force rebuild to include new setting
+                }
+            }
+        }
+        return setting;
+    }
+
+    /**
+    *** Gets a list of all registered settings
+    *** @return A list of all registered settings
+    **/
+    public static java.util.List<Setting> getRegisteredSettings()
+    {
+        synchronized (SettingsLock) {
+            return new Vector<Setting>(SettingsList);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Registers an <code>int</code> setting
+    *** @param key  The property key
+    *** @param dft  The default value
+    *** @return The registered setting
+    **/
+    public static IntSetting registerInt(String key, int dft)
+    {
+        return RTConfigSnapshot.register(new IntSetting(key, dft));
+    }
+
+    /**
+    *** Registers a <code>long</code> setting
+    *** @param key  The property key
+    *** @param dft  The default value
+    *** @return The registered setting
+    **/
+    public static LongSetting registerLong(String key, long dft)
+    {
+        return RTConfigSnapshot.register(new LongSetting(key, dft));
+    }
+
+    /**
+    *** Registers a <code>double</code> setting
+    *** @param key  The property key
+    *** @param dft  The default value
+    *** @return The registered setting
+    **/
+    public static DoubleSetting registerDouble(String key, double dft)
+    {
+        return RTConfigSnapshot.register(new DoubleSetting(key, dft));
+    }
+
+    /**
+    *** Registers a <code>boolean</code> setting
+    *** @param key  The property key
+    *** @param dft  The default value
+    *** @return The registered setting
+    **/
+    public static BooleanSetting registerBoolean(String key, boolean dft)
+    {
+        return RTConfigSnapshot.register(new BooleanSetting(key, dft));
+    }
+
+    /**
+    *** Registers an <code>Enum</code> setting.  The property value is matched
+    *** (case insensitive) against the enum constant names.
+    *** @param key  The property key
+    *** @param enumClass  The Enum class
+    *** @param dft  The default value
+    *** @return The registered setting
+    **/
+    public static <E extends Enum<E>> EnumSetting<E> registerEnum(String key, Class<E> enumClass, E dft)
+    {
+        return RTConfigSnapshot.register(new EnumSetting<E>(key, enumClass, dft));
+    }
+
+    /**
+    *** Registers a custom setting
+    *** @param setting  The custom setting
+    *** @return The registered setting
+    **/
+    public static <S extends Setting> S registerSetting(S setting)
+    {
+        return RTConfigSnapshot.register(setting);
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Setting base class
+    **/
+    public static abstract class Setting
+    {
+        private String  key     = null;
+        private int     index   = -1;
+        private boolean dftOK   = false;
+        public Setting(String key) {
+            this.key = StringTools.trim(key);
+        }
+        public String getKey() {
+            return this.key;
+        }
+        public void setCheckRTKeyDefault(boolean dftOK) {
+            // -- true to use the RTKey default value, if the key is not otherwise defined
+            this.dftOK = dftOK;
+        }
+        public boolean getCheckRTKeyDefault() {
+            return this.dftOK;
+        }
+        protected int getIndex() {
+            return this.index;
+        }
+        /* loads the value for this setting into the specified snapshot */
+        protected abstract void _load(RTConfigSnapshot snap);
+        /* loads the default value for this setting into the specified snapshot */
+        protected abstract void _loadDefault(RTConfigSnapshot snap);
+        /* returns the current snapshot value as an Object (debug use only) */
+        public abstract Object getValue();
+        // --
+        protected RTProperties getProperties() {
+            // -- bypass thread-local temporary properties
+            return RTConfig.getGlobalPropertiesForKey(this.getKey(), this.getCheckRTKeyDefault());
+        }
+        protected String getString(String dft) {
+            RTProperties rtp = this.getProperties();
+            return (rtp != null)? rtp.getString(this.getKey(), dft) : dft;
+        }
+        public String toString() {
+            return this.getKey() + "=" + this.getValue();
+        }
+    }
+
+    /**
+    *** <code>int</code> valued setting.
+    *** Subclasses may override <code>parse</code> to perform custom value parsing.
+    **/
+    public static class IntSetting
+        extends Setting
+    {
+        private int dft = 0;
+        public IntSetting(String key, int dft) {
+            super(key);
+            this.dft = dft;
+        }
+        public int getDefault() {
+            return this.dft;
+        }
+        protected int parse() {
+            RTProperties rtp = this.getProperties();
+            return (rtp != null)? rtp.getInt(this.getKey(), this.getDefault()) : this.getDefault();
+        }
+        protected void _load(RTConfigSnapshot snap) {
+            snap.longValues[this.getIndex()] = (long)this.parse();
+        }
+        protected void _loadDefault(RTConfigSnapshot snap) {
+            snap.longValues[this.getIndex()] = (long)this.getDefault();
+        }
+        public int get() {
+            return (int)RTConfigSnapshot.getSnapshot().longValues[this.getIndex()];
+        }
+        public Object getValue() {
+            return new Integer(this.get());
+        }
+    }
+
+    /**
+    *** <code>long</code> valued setting.
+    *** Subclasses may override <code>parse</code> to perform custom value parsing.
+    **/
+    public static class LongSetting
+        extends Setting
+    {
+        private long dft = 0L;
+        public LongSetting(String key, long dft) {
+            super(key);
+            this.dft = dft;
+        }
+        public long getDefault() {
+            return this.dft;
+        }
+        protected long parse() {
+            RTProperties rtp = this.getProperties();
+            return (rtp != null)? rtp.getLong(this.getKey(), this.getDefault()) : this.getDefault();
+        }
+        protected void _load(RTConfigSnapshot snap) {
+            snap.longValues[this.getIndex()] = this.parse();
+        }
+        protected void _loadDefault(RTConfigSnapshot snap) {
+            snap.longValues[this.getIndex()] = this.getDefault();
+        }
+        public long get() {
+            return RTConfigSnapshot.getSnapshot().longValues[this.getIndex()];
+        }
+        public Object getValue() {
+            return new Long(this.get());
+        }
+    }
+
+    /**
+    *** <code>double</code> valued setting.
+    *** Subclasses may override <code>parse</code> to perform custom value parsing.
+    **/
+    public static class DoubleSetting
+        extends Setting
+    {
+        private double dft = 0.0;
+        public DoubleSetting(String key, double dft) {
+            super(key);
+            this.dft = dft;
+        }
+        public double getDefault() {
+            return this.dft;
+        }
+        protected double parse() {
+            RTProperties rtp = this.getProperties();
+            return (rtp != null)? rtp.getDouble(this.getKey(), this.getDefault()) : this.getDefault();
+        }
+        protected void _load(RTConfigSnapshot snap) {
+            snap.doubleValues[this.getIndex()] = this.parse();
+        }
+        protected void _loadDefault(RTConfigSnapshot snap) {
+            snap.doubleValues[this.getIndex()] = this.getDefault();
+        }
+        public double get() {
+            return RTConfigSnapshot.getSnapshot().doubleValues[this.getIndex()];
+        }
+        public Object getValue() {
+            return new Double(this.get());
+        }
+    }
+
+    /**
+    *** <code>boolean</code> valued setting.
+    *** Subclasses may override <code>parse</code> to perform custom value parsing.
+    **/
+    public static class BooleanSetting
+        extends Setting
+    {
+        private boolean dft = false;
+        public BooleanSetting(String key, boolean dft) {
+            super(key);
+            this.dft = dft;
+        }
+        public boolean getDefault() {
+            return this.dft;
+        }
+        protected boolean parse() {
+            RTProperties rtp = this.getProperties();
+            return (rtp != null)? rtp.getBoolean(this.getKey(), this.getDefault()) : this.getDefault();
+        }
+        protected void _load(RTConfigSnapshot snap) {
+            snap.longValues[this.getIndex()] = this.parse()? 1L : 0L;
+        }
+        protected void _loadDefault(RTConfigSnapshot snap) {
+            snap.longValues[this.getIndex()] = this.getDefault()? 1L : 0L;
+        }
+        public boolean get() {
+            return (RTConfigSnapshot.getSnapshot().longValues[this.getIndex()] != 0L);
+        }
+        public Object getValue() {
+            return new Boolean(this.get());
+        }
+    }
+
+    /**
+    *** <code>Enum</code> valued setting.
+    *** Subclasses may override <code>parse</code> to perform custom value parsing.
+    **/
+    public static class EnumSetting<E extends Enum<E>>
+        extends Setting
+    {
+        private Class<E> enumClass = null;
+        private E        dft       = null;
+        public EnumSetting(String key, Class<E> enumClass, E dft) {
+            super(key);
+            this.enumClass = enumClass;
+            this.dft       = dft;
+        }
+        public E getDefault() {
+            return this.dft;
+        }
+        protected E parse() {
+            String v = this.getString(null);
+            if (StringTools.isBlank(v)) {
+                return this.getDefault();
+            }
+            E list[] = this.enumClass.getEnumConstants();
+            for (int i = 0; i < list.length; i++) {
+                if (list[i].name().equalsIgnoreCase(v.trim())) {
+                    return list[i];
+                }
+            }
+            Print.logError("Invalid property value %s => %s", this.getKey(), v);
+            return this.getDefault();
+        }
+        protected void _load(RTConfigSnapshot snap) {
+            snap.objectValues[this.getIndex()] = this.parse();
+        }
+        protected void _loadDefault(RTConfigSnapshot snap) {
+            snap.objectValues[this.getIndex()] = this.getDefault();
+        }
+        @SuppressWarnings("unchecked")
+        public E get() {
+            return (E)RTConfigSnapshot.getSnapshot().objectValues[this.getIndex()];
+        }
+        public Object getValue() {
+            return this.get();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private long    generation      = 0L;
+    private long    longValues[]    = null;
+    private double  doubleValues[]  = null;
+    private Object  objectValues[]  = null;
+
+    /**
+    *** Constructor (builds the snapshot values for the specified settings)
+    *** @param generation  The configuration generation from which this snapshot is built
+    *** @param settings    The registered settings
+    **/
+    private RTConfigSnapshot(long generation, Setting settings[])
+    {
+        int size = settings.length;
+        this.generation   = generation;
+        this.longValues   = new long[size];
+        this.doubleValues = new double[size];
+        this.objectValues = new Object[size];
+        for (int i = 0; i < size; i++) {
+            try {
+                settings[i]._load(this);
+            } catch (Throwable th) {
+                Print.logException("Unable to load setting: " + settings[i].getKey(), th);
+                try {
+                    settings[i]._loadDefault(this);
+                } catch (Throwable dth) {
+                    // -- leave the zero/null value
+                }
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+}
@@ -99,6 +99,9 @@ public class RTKey
     public static final String HTTP_PROXY_PORT              = "http.proxy.port";
     public static final String URL_CONNECT_TIMEOUT          = "url.connect.timeout"; //milliseconds
     public static final String URL_READ_TIMEOUT             = "url.read.timeout"; //milliseconds
+    public static final String HTTP_CLIENT_MAX_PER_HOST     = "http.client.maxPerHost"; // Integer
+    public static final String HTTP_CLIENT_HOST_WAIT_MS     = "http.client.hostWaitMS"; // Long
+    public static final String ThreadPool_HTTPClient_       = "HTTPClient.ThreadPool.";             // prefix
     
     public static final String DISABLE_SNI_EXTENSION        = "ssl.disableSNIExtension"; // true|false (sets "jsse.enableSNIExtension=false")
     
@@ -157,6 +160,7 @@ public class RTKey
     public static final String DB_UTF8                      = "db.sql.utf8";                        // Boolean
     public static final String DB_TABLE_NAME_PREFIX         = "db.tableNamePrefix";                 // String (not used?)
     public static final String DB_TABLE_LOCKING             = "db.tableLocking";                    // Boolean
+    public static final String DB_TABLE_LOCKING_READS       = "db.tableLocking.reads";              // String (lock|auto|none|audit)
     public static final String DB_INCLUDE_LAST_UPDATE_ACCT  = "db.includeLastUpdateAccount";        // Boolean
     public static final String DB_INCLUDE_LAST_UPDATE_USER  = "db.includeLastUpdateUser";           // Boolean
     public static final String DB_SHOW_SQL                  = "db.showSQL";                         // Boolean
@@ -165,6 +169,10 @@ public class RTKey
     public static final String DB_INACTIVE_TIMEOUT          = "db.inactiveTimeout";                 // Long (sec)
     public static final String DB_MYSQL_TBLEXIST_SEL_COUNT  = "db.mysql.tableExistsSelectCount";    // Boolean
     public static final String DB_EMAIL_CONNECTION_ERRORS   = "db.emailConnectionErrors";           // Boolean
+    public static final String DB_PROFILE_SQL               = "db.profileSQL";                      // Boolean
+    public static final String DB_PROFILE_SLOW_MS           = "db.profileSQL.slowMS";               // Long (millis)
+    public static final String DB_PROFILE_MAX_SHAPES        = "db.profileSQL.maxShapes";            // Integer
+    public static final String DB_PROFILE_SLOW_COUNT        = "db.profileSQL.slowCount";            // Integer
 
     public static final String DB_TYPESIZE_                 = "db.typeSize.";                       // Integer
     public static final String DB_TYPEINT_                  = "db.typeInt.";                        // String (INT8|UINT8|INT16|UINT16|...)
@@ -178,6 +186,8 @@ public class RTKey
     public static final String OSTOOLS_MEMORY_TREND_WEIGHT  = "OSTools.memoryTrendWeight";          // Double (percent 0.0 .. 1.0)
     public static final String OSTOOLS_MEMORY_USAGE_WARN    = "OSTools.memoryUsageWarning";         // Double (percent 0.0 .. 1.0)
 
+    public static final String METRICS_ENABLE               = "Metrics.enable";                     // Boolean
+
     public static final String ThreadPool_CronTask_         = "Cron.ThreadPool.";                   // prefix
     public static final String ThreadPool_SendMail_         = "SendMail.ThreadPool.";               // prefix
     public static final String ThreadPool_EventRuleAction_  = "Rule.ThreadPool.EventRuleAction.";   // prefix
@@ -241,6 +251,8 @@ public class RTKey
         new Entry(HTTP_PROXY_PORT            , -1                               , "HTTP proxy port"),                           // APP
         new Entry(URL_CONNECT_TIMEOUT        , 60000L                           , "URL connection timeout (msec)"),             // APP
         new Entry(URL_READ_TIMEOUT           , 60000L                           , "URL read timeout (msec)"),                   // APP
+        new Entry(HTTP_CLIENT_MAX_PER_HOST   , 0                                , "HTTPClient max concurrent requests per host (0=unlimited)"), // APP
+        new Entry(HTTP_CLIENT_HOST_WAIT_MS   , 5000L                            , "HTTPClient max wait for a host request slot (msec)"), // APP
 
         new Entry("Java 7/8 SNI bug work-around"),
         new Entry(DISABLE_SNI_EXTENSION      , false                            , "Disable SNI Extension (Java bug work-around)"), // APP|WEB
@@ -308,6 +320,7 @@ public class RTKey
         new Entry(DB_UTF8                    , false                            , "Enable UTF8"),                               // APP|WEB
         new Entry(DB_TABLE_NAME_PREFIX       , ""                               , "Table name prefix"),                         // APP|WEB
         new Entry(DB_TABLE_LOCKING           , false                            , "Table locking enabled"),                     // APP|WEB
+        new Entry(DB_TABLE_LOCKING_READS     , "auto"                           , "Table locking on read paths"),               // APP|WEB
         new Entry(DB_INCLUDE_LAST_UPDATE_ACCT, false                            , "Include 'lastUpdateAccount'"),               // APP|WEB
         new Entry(DB_INCLUDE_LAST_UPDATE_USER, false                            , "Include 'lastUpdateUser'"),                  // APP|WEB
         new Entry(DB_SHOW_SQL                , false                            , "Show insert/update SQL"),                    // APP|WEB
@@ -316,12 +329,19 @@ public class RTKey
         new Entry(DB_INACTIVE_TIMEOUT        , (6L*3600L) /*6hrs*/              , "Inactive connection timeout"),               // APP|WEB
         new Entry(DB_MYSQL_TBLEXIST_SEL_COUNT, true                             , "MySQL tableExist use SELECT COUNT(*)"),      // APP|WEB
         new Entry(DB_EMAIL_CONNECTION_ERRORS , false                            , "EMail connection errors to sysadmin"),       // APP|WEB
+        new Entry(DB_PROFILE_SQL             , false                            , "Profile SQL statements"),                    // APP|WEB
+        new Entry(DB_PROFILE_SLOW_MS         , 500L                             , "Profile SQL slow statement threshold"),      // APP|WEB
+        new Entry(DB_PROFILE_MAX_SHAPES      , 1000                             , "Profile SQL maximum statement shapes"),      // APP|WEB
+        new Entry(DB_PROFILE_SLOW_COUNT      , 100                              , "Profile SQL slow statements retained"),      // APP|WEB
 
         new Entry("OSTools attributes"),
         new Entry(OSTOOLS_MEMORY_CHECK_ENABLE, false                            , "Enable memory checks"),                      // APP|WEB
         new Entry(OSTOOLS_MEMORY_TREND_WEIGHT, 0.15                             , "Memory Check Trend Weight"),                 // APP|WEB
         new Entry(OSTOOLS_MEMORY_USAGE_WARN  , 0.90                             , "Memory Usage Limit Warning"),                // APP|WEB
 
+        new Entry("Metrics attributes"),
+        new Entry(METRICS_ENABLE             , false                            , "Enable hot-path metrics collection"),        // APP|WEB
+
     };
 
     // ------------------------------------------------------------------------
@@ -138,6 +138,14 @@ public class ServerSocketThread
 
     public static final boolean     ACK_FROM_LISTEN_PORT                = true;
 
+    // ------------------------------------------------------------------------
+
+    /* session/packet handling timers (see Metrics) */
+    private static final Metrics.Timer SessionTimer = Metrics.getTimer("gts_dcs_session_seconds",
+        "DCS client session duration");
+    private static final Metrics.Timer PacketTimer  = Metrics.getTimer("gts_dcs_packet_seconds",
+        "DCS packet handling time");
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
@@ -2841,7 +2849,12 @@ public class ServerSocketThread
                 // Begin client session
 
                 /* "this.client" is non-null here */
-                this.handleClientSession(this.client);
+                long sessStartNS = SessionTimer.start();
+                try {
+                    this.handleClientSession(this.client);
+                } finally {
+                    SessionTimer.stop(sessStartNS);
+                }
 
                 // End client session
                 // ------------------------------------------------------------
@@ -2993,7 +3006,13 @@ public class ServerSocketThread
                         if ((line != null) && (clientHandler != null)) {
                             try {
                                 clientHandler.setSendResponse(true); // default to send response (ACK)
-                                byte response[] = clientHandler.getHandlePacket(line);
+                                long pktStartNS = PacketTimer.start();
+                                byte response[];
+                                try {
+                                    response = clientHandler.getHandlePacket(line);
+                                } finally {
+                                    PacketTimer.stop(pktStartNS);
+                                }
                                 if ((response != null) && (response.length > 0) && clientHandler.getSendResponse()) {
                                     if (clientSock.isTCP()) {
                                         // -- TCP: Send response over socket connection
@@ -8644,19 +8644,10 @@ public class StringTools
     // Number formatting
     // [may be useful: http://pws.prserv.net/ad/programs/Programs.html#PaddedDecimalFormat]
 
-    /* return a DecimalFormat for specified format String */
-    private static Map<String,DecimalFormat> formatMap = null;
-    private static DecimalFormat _getFormatter(String fmt)
+    /* return a (thread-safe) formatter for specified format String */
+    private static FixedDecimalFormat _getFormatter(String fmt)
     {
-        if (StringTools.isBlank(fmt)) { fmt = "0"; }
-        if (formatMap == null) { formatMap = new HashMap<String,DecimalFormat> (); }
-        DecimalFormat df = formatMap.get(fmt);
-        if (df == null) {
-            //df = new DecimalFormat(fmt); // use default locale
-            df = new DecimalFormat(fmt, new DecimalFormatSymbols(Locale.US));
-            formatMap.put(fmt, df);
-        }
-        return df;
+        return FixedDecimalFormat.getInstance(fmt); // blank format is "0"
     }
 
     /**
@@ -8705,6 +8696,46 @@ public class StringTools
         return s;
     }
 
+    /**
+    *** Appends the specified double value to the StringBuffer, formatted based on the 
+    *** specified format pattern.  Simple DecimalFormat patterns (ie. "0.000000") are
+    *** appended directly without creating an intermediate String.
+    *** @param val  The double value to format
+    *** @param fmt  The format pattern
+    *** @param sb   The StringBuffer to which the formatted value is appended
+    *** @return The StringBuffer
+    **/
+    public static StringBuffer format(double val, String fmt, StringBuffer sb)
+    {
+        if (sb == null) { sb = new StringBuffer(); }
+        if (Double.isNaN(val) || (fmt == null) || fmt.startsWith("%")) {
+            sb.append(StringTools.format(val, fmt, -1));
+        } else {
+            StringTools._getFormatter(fmt).format(val, sb);
+        }
+        return sb;
+    }
+
+    /**
+    *** Appends the specified double value to the StringBuilder, formatted based on the 
+    *** specified format pattern.  Simple DecimalFormat patterns (ie. "0.000000") are
+    *** appended directly without creating an intermediate String.
+    *** @param val  The double value to format
+    *** @param fmt  The format pattern
+    *** @param sb   The StringBuilder to which the formatted value is appended
+    *** @return The StringBuilder
+    **/
+    public static StringBuilder format(double val, String fmt, StringBuilder sb)
+    {
+        if (sb == null) { sb = new StringBuilder(); }
+        if (Double.isNaN(val) || (fmt == null) || fmt.startsWith("%")) {
+            sb.append(StringTools.format(val, fmt, -1));
+        } else {
+            StringTools._getFormatter(fmt).format(val, sb);
+        }
+        return sb;
+    }
+
     /**
     *** Format/Convert the specified BigInteger value to a String, based on the specified format pattern
     *** @param val  The BigInteger value to format
@@ -35,6 +35,9 @@
 //     -Support property override for "maximumPoolSize"/"maximumIdleSeconds"
 //      Property: ThreadPool.GROUP_NAME.maximumPoolSize=SIZE
 //      Property: ThreadPool.GROUP_NAME.maximumIdleSeconds=SECONDS
+//  2026/10/19
+//     -Added job wait-time/run-time/rejected metrics (see "GetThreadPoolState")
+//     -Added "run(job,maxWaitMS)" to wait for available queue space
 // ----------------------------------------------------------------------------
 package org.opengts.util;
 
@@ -149,6 +152,7 @@ public class ThreadPool
                     int    active   = tp.getActiveCount();
                     int    qSize    = tp.getQueueSize();
                     int    maxQSize = tp.getMaxQueueSize();
+                    long   jobCnt   = tp.getCompletedJobCount();
                     sb.append("  ");
                     sb.append("Name=").append(name).append(" ");
                     for (int s=18, n=name.length(); s>n; s--) {sb.append(" ");}
@@ -157,6 +161,14 @@ public class ThreadPool
                     sb.append("Active="      ).append(active  ).append("  ");
                     sb.append("MaxQueueSize=").append(maxQSize).append("  ");
                     sb.append("QueueSize="   ).append(qSize   ).append("  ");
+                    sb.append("Jobs="        ).append(jobCnt  ).append("  ");
+                    sb.append("Rejected="    ).append(tp.getRejectedJobCount()).append("  ");
+                    if (jobCnt > 0L) {
+                        sb.append("AvgWaitMS=").append(tp.getTotalWaitMS() / jobCnt).append("  ");
+                        sb.append("MaxWaitMS=").append(tp.getMaximumWaitMS()       ).append("  ");
+                        sb.append("AvgRunMS=" ).append(tp.getTotalRunMS()  / jobCnt).append("  ");
+                        sb.append("MaxRunMS=" ).append(tp.getMaximumRunMS()        ).append("  ");
+                    }
                     sb.append("\n");
                 }
             } else {
@@ -186,7 +198,7 @@ public class ThreadPool
     private int                         threadId        = 1;
 
     /* the list of yet-to-be-processed jobs */
-    private java.util.List<Runnable>    jobQueue        = null;
+    private java.util.List<QueuedJob>   jobQueue        = null;
 
     /* the maximum number of waiting jobs (ie. in "jobQueue") */
     private int                         maxQueueSize    = DFT_MAX_QUEUE_SIZE;
@@ -197,6 +209,14 @@ public class ThreadPool
     /* true to gracefully stop/remove threads from this pool */
     private int                         stopThreads     = STOP_NEVER;
 
+    /* job metrics (guarded by "jobQueue") */
+    private long                        jobCount        = 0L;
+    private long                        rejectCount     = 0L;
+    private long                        totalWaitMS     = 0L;
+    private long                        maxWaitMS       = 0L;
+    private long                        totalRunMS      = 0L;
+    private long                        maxRunMS        = 0L;
+
     /**
     *** Constuctor
     *** @param name The name of the thread pool
@@ -255,7 +275,7 @@ public class ThreadPool
         String groupName   = !StringTools.isBlank(name)? name.trim() : "ThreadPool";
         this.poolGroup     = new ThreadGroup(groupName);
         this.jobThreadPool = new Vector<ThreadJob>();
-        this.jobQueue      = new Vector<Runnable>();
+        this.jobQueue      = new Vector<QueuedJob>();
         this.stopThreads   = ThreadPool.globalStopThreadsNow? STOP_NOW : STOP_NEVER;
 
         /* set maxPoolSize/maxIdleSec */
@@ -500,6 +520,48 @@ public class ThreadPool
     *** @param job The job to add to the queue
     **/
     public boolean run(Runnable job)
+    {
+        return this._run(job, true, false);
+    }
+
+    /**
+    *** Adds a new job to the thread pool's queue, even if the queue is already at
+    *** its maximum size.  Intended for callers which must not block or drop the job,
+    *** such as a job queueing a follow-up job to its own thread pool.
+    *** @param job The job to add to the queue
+    *** @return True if the job was added, false if this ThreadPool is stopping
+    **/
+    public boolean runOverflow(Runnable job)
+    {
+        return this._run(job, false, true);
+    }
+
+    /**
+    *** Returns true if the current thread is one of the threads of this ThreadPool
+    *** @return True if the current thread is one of the threads of this ThreadPool
+    **/
+    public boolean isPoolThread()
+    {
+        Thread t = Thread.currentThread();
+        return (t instanceof ThreadJob) && (((ThreadJob)t).threadPool == this);
+    }
+
+    /**
+    *** Returns true if this ThreadPool has been requested to stop
+    *** @return True if this ThreadPool is stopping
+    **/
+    public boolean isStopping()
+    {
+        return (this.stopThreads != STOP_NEVER);
+    }
+
+    /**
+    *** Adds a new job to the thread pool's queue
+    *** @param job          The job to add to the queue
+    *** @param countReject  True to count the job as rejected if the queue is full
+    *** @param overflow     True to add the job even if the queue is full
+    **/
+    private boolean _run(Runnable job, boolean countReject, boolean overflow)
     {
         if (job == null) {
             // ignore null jobs
@@ -513,11 +575,11 @@ public class ThreadPool
             boolean addedJob = false;
             synchronized (this.jobThreadPool) { // <-- modification of threadPool is likely
                 synchronized (this.jobQueue) { // <-- modification of job queue mandatory
-                    if ((maxQueueSize <= 0) || (this.jobQueue.size() < maxQueueSize)) {
+                    if (overflow || (maxQueueSize <= 0) || (this.jobQueue.size() < maxQueueSize)) {
                         // -- It's possible that we may end up adding more threads than we need if this
                         // -  section executes multiple times before the newly added thread has a chance 
                         // -  to pull a job off the queue.
-                        this.jobQueue.add(job);
+                        this.jobQueue.add(new QueuedJob(job));
                         if ((this.waitingCount == 0) && (this.jobThreadPool.size() < this.maxPoolSize)) {
                             String    tn = StringTools.format(this.threadId++,"000").trim();
                             ThreadJob tj = new ThreadJob(this, (this.getName() + "_" + tn));
@@ -526,6 +588,9 @@ public class ThreadPool
                         }
                         this.jobQueue.notify(); // notify a waiting thread
                         addedJob = true;
+                    } else
+                    if (countReject) {
+                        this.rejectCount++;
                     }
                 }
             }
@@ -535,6 +600,51 @@ public class ThreadPool
         }
     }
 
+    /**
+    *** Adds a new job to the thread pool's queue.  If the queue is full, waits up
+    *** to the specified number of milliseconds for space to become available.
+    *** @param job        The job to add to the queue
+    *** @param maxWaitMS  The maximum number of milliseconds to wait for queue space
+    ***                   (0 to wait until space is available)
+    *** @return True if the job was added, false otherwise
+    **/
+    public boolean run(Runnable job, long maxWaitMS)
+    {
+        long timeoutMS = (maxWaitMS > 0L)? (DateTime.getCurrentTimeMillis() + maxWaitMS) : 0L;
+        while (true) {
+            if (job == null) {
+                return false;
+            } else
+            if (this.stopThreads != STOP_NEVER) {
+                // -- pool is stopping, do not wait
+                return this._run(job, true, false);
+            }
+            synchronized (this.jobQueue) {
+                int maxQSize = this.getMaxQueueSize();
+                if ((maxQSize <= 0) || (this.jobQueue.size() < maxQSize)) {
+                    // -- space available (may be taken before "run(job)" below)
+                } else {
+                    long waitMS = (timeoutMS > 0L)? (timeoutMS - DateTime.getCurrentTimeMillis()) : 1000L;
+                    if (waitMS <= 0L) {
+                        this.rejectCount++;
+                        return false;
+                    }
+                    this.waitingForSpace++;
+                    try { this.jobQueue.wait(waitMS); } catch (InterruptedException ie) {}
+                    this.waitingForSpace--;
+                    continue;
+                }
+            }
+            if (this._run(job, false, false)) {
+                return true;
+            }
+            // -- queue filled before job could be added, try again
+        }
+    }
+
+    /* number of callers waiting for queue space */
+    private int waitingForSpace = 0;
+
     /**
     *** Gets the job queue size (jobs not yet processed)
     **/
@@ -549,6 +659,80 @@ public class ThreadPool
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Gets the number of completed jobs
+    **/
+    public long getCompletedJobCount()
+    {
+        synchronized (this.jobQueue) {
+            return this.jobCount;
+        }
+    }
+
+    /**
+    *** Gets the number of jobs rejected because the job queue was full
+    **/
+    public long getRejectedJobCount()
+    {
+        synchronized (this.jobQueue) {
+            return this.rejectCount;
+        }
+    }
+
+    /**
+    *** Gets the accumulated time (milliseconds) completed jobs have waited in the queue
+    **/
+    public long getTotalWaitMS()
+    {
+        synchronized (this.jobQueue) {
+            return this.totalWaitMS;
+        }
+    }
+
+    /**
+    *** Gets the maximum time (milliseconds) a completed job has waited in the queue
+    **/
+    public long getMaximumWaitMS()
+    {
+        synchronized (this.jobQueue) {
+            return this.maxWaitMS;
+        }
+    }
+
+    /**
+    *** Gets the accumulated run time (milliseconds) of completed jobs
+    **/
+    public long getTotalRunMS()
+    {
+        synchronized (this.jobQueue) {
+            return this.totalRunMS;
+        }
+    }
+
+    /**
+    *** Gets the maximum run time (milliseconds) of a completed job
+    **/
+    public long getMaximumRunMS()
+    {
+        synchronized (this.jobQueue) {
+            return this.maxRunMS;
+        }
+    }
+
+    /**
+    *** Records the wait/run time of a completed job (called while "jobQueue" is locked)
+    **/
+    private void _jobCompleted(long waitMS, long runMS)
+    {
+        this.jobCount++;
+        this.totalWaitMS += waitMS;
+        this.totalRunMS  += runMS;
+        if (waitMS > this.maxWaitMS) { this.maxWaitMS = waitMS; }
+        if (runMS  > this.maxRunMS ) { this.maxRunMS  = runMS;  }
+    }
+
+    // ------------------------------------------------------------------------
+
     /**
     *** Stops all threads in this pool once queued jobs are complete
     **/
@@ -588,6 +772,24 @@ public class ThreadPool
 
     // ------------------------------------------------------------------------
 
+    private static class QueuedJob
+    {
+        private Runnable    job         = null;
+        private long        queuedMS    = 0L;
+        public QueuedJob(Runnable job) {
+            this.job      = job;
+            this.queuedMS = DateTime.getCurrentTimeMillis();
+        }
+        public Runnable getJob() {
+            return this.job;
+        }
+        public long getQueuedTimeMS() {
+            return this.queuedMS;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
     private static class ThreadJob
         extends Thread
     {
@@ -618,6 +820,7 @@ public class ThreadPool
                 /* get next job */
                 // 'this.job' is always null here
                 boolean stop = false;
+                long waitMS = 0L;
                 synchronized (this.threadPool.jobQueue) {
                     //Print.logDebug("Thread checking for jobs: " + this.getName());
                     while (this.job == null) {
@@ -628,7 +831,13 @@ public class ThreadPool
                         } else
                         if (this.threadPool.jobQueue.size() > 0) { // this.jobQueue
                             // run next job
-                            this.job = this.threadPool.jobQueue.remove(0); // Runnable
+                            QueuedJob qj = this.threadPool.jobQueue.remove(0);
+                            this.job = qj.getJob(); // Runnable
+                            waitMS   = DateTime.getCurrentTimeMillis() - qj.getQueuedTimeMS();
+                            if (this.threadPool.waitingForSpace > 0) {
+                                // -- wake callers waiting for queue space
+                                this.threadPool.jobQueue.notifyAll();
+                            }
                         } else
                         if (this.threadPool.stopThreads == STOP_WAITING) {
                             // stop after all jobs have completed
@@ -655,11 +864,19 @@ public class ThreadPool
 
                 /* run job */
                 //Print.logDebug("Thread running: " + this.getName());
-                this.job.run();
-                synchronized (this.threadPool.jobQueue) {
-                    this.job = null;
+                long startMS = DateTime.getCurrentTimeMillis();
+                try {
+                    this.job.run();
+                } catch (Throwable th) {
+                    // -- do not allow a failed job to terminate this thread
+                    Print.logException("ThreadPool '" + this.threadPool.getName() + "' job failed", th);
+                } finally {
+                    this.lastUsedTimeMS = DateTime.getCurrentTimeMillis();
+                    synchronized (this.threadPool.jobQueue) {
+                        this.job = null;
+                        this.threadPool._jobCompleted(waitMS, this.lastUsedTimeMS - startMS);
+                    }
                 }
-                this.lastUsedTimeMS = DateTime.getCurrentTimeMillis();
 
             } // while (true)
 
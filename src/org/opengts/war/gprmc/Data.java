@@ -257,6 +257,32 @@
 //      gprmc.parm.heading=heading
 //      gprmc.parm.status=code
 //
+// Batch mode:
+//   Multiple buffered fixes, for one or more devices, may be sent in a single POST
+//   body.  The batch format is specified by the "batch" query parameter (csv|ndjson|bin),
+//   or by the request Content-Type (text/csv, application/x-ndjson, application/octet-stream).
+//   A "Content-Encoding: gzip" request body is supported.  Parameters specified in the
+//   URL query string (ie. "id=") apply to all records which do not specify them.
+//     csv    - The first line contains the parameter names (as configured above), each 
+//              remaining line contains the values for one fix (quoted values allowed):
+//                  id,date,lat,lon,speed,head
+//                  123456789012345,20070819225446,39.1234,-142.1234,45.4,90
+//     ndjson - Each line contains a JSON object of parameter names/values:
+//                  {"id":"123456789012345","date":"20070819225446","lat":39.1234,"lon":-142.1234}
+//     bin    - Fixed layout big-endian records:
+//                  uint8   mobileID length, followed by the mobileID (UTF-8)
+//                  uint32  fixtime (Epoch seconds)
+//                  int32   latitude  (degrees * 1000000)
+//                  int32   longitude (degrees * 1000000)
+//                  uint16  speed (km/h * 10)
+//                  uint16  heading (degrees * 10)
+//                  int16   altitude (meters)
+//                  uint16  status code (0 for the default location status code)
+//   Each Device is loaded once per batch and updated once after all of its fixes have
+//   been inserted.  The response contains one acknowledgement line per record, in the
+//   form "<record#>:<response>" (ie. "1:OK").  Records beyond "gprmc.batch.maxRecords"
+//   are not acknowledged and should be resent.
+//
 // ----------------------------------------------------------------------------
 // Change History:
 //  2007/08/09  Martin D. Flynn
@@ -394,6 +420,9 @@ public class Data
     /* check device auth/pin code */
     private static boolean  CHECK_AUTH_CODE                 = false;
 
+    /* maximum number of records processed per batch request */
+    private static int      BatchMaxRecords                 = 5000;
+
     /* Default time zone */
     private static TimeZone gmtTimeZone                     = DateTime.getGMTTimeZone();
    
@@ -454,6 +483,7 @@ public class Data
     // -- common parameter keys (lookups are case insensitive) */
     private static String PARM_COMMAND[]                    = { "co"   , "cmd", "command"            };  // Command
     private static String PARM_VERSION[]                    = { "ve"   , "ver", "version"            };  // Version
+    private static String PARM_BATCH[]                      = { "batch"                              };  // Batch format
     private static String PARM_MOBILE[]                     = { "id"   , "imei", "un", "mobileid", "appid" };  // MobileID
     private static String PARM_PHONE[]                      = { "phone", "phonenumber"               };  // PhoneNumber
     private static String PARM_ACCOUNT[]                    = { "acct" , "ac","account","a","accountid" };  // AccountID
@@ -524,6 +554,7 @@ public class Data
     public static final String  CONFIG_RESPONSE_OK          = DEVICE_CODE + ".response.ok";
     public static final String  CONFIG_RESPONSE_ERROR       = DEVICE_CODE + ".response.error";
     public static final String  CONFIG_RESPONSE_NOT_AUTH    = DEVICE_CODE + ".response.notAuth";
+    public static final String  CONFIG_BATCH_MAX_RECORDS    = DEVICE_CODE + ".batch.maxRecords";
 
     public static final String  CONFIG_PARM_MOBILE          = DEVICE_CODE + ".parm.mobile";
     public static final String  CONFIG_PARM_PHONE           = DEVICE_CODE + ".parm.phone";
@@ -610,6 +641,9 @@ public class Data
         // should already have been called by 'RTConfigContextListener'
         DBConfig.servletInit(null);
 
+        /* events are inserted by this servlet: enable duplicate event window */
+        EventDedupWindow.SetWebAppDefaultEnabled(true);
+
         /* log name */
         LOG_NAME = RTConfig.getString(CONFIG_LOG_NAME, LOG_NAME);
 
@@ -637,6 +671,7 @@ public class Data
         ESTIMATE_ODOMETER  = RTConfig.getBoolean(CONFIG_ESTIMATE_ODOMETER, ESTIMATE_ODOMETER);
         SIMEVENT_GEOZONES  = RTConfig.getBoolean(CONFIG_SIMEVENT_GEOZONES, SIMEVENT_GEOZONES);
         CHECK_AUTH_CODE    = RTConfig.getBoolean(CONFIG_CHECK_AUTH_CODE  , CHECK_AUTH_CODE);
+        BatchMaxRecords    = RTConfig.getInt(    CONFIG_BATCH_MAX_RECORDS, BatchMaxRecords);
         String dateFmt     = RTConfig.getString( CONFIG_DATE_FORMAT      , "YMD");
         if (dateFmt.equalsIgnoreCase("NONE")) {
             DateFormat = DATE_FORMAT_NONE;
@@ -720,6 +755,7 @@ public class Data
         Data.printHeaderLine("Simulate Geozones"      , SIMEVENT_GEOZONES+""  , CONFIG_SIMEVENT_GEOZONES);
         Data.printHeaderLine("Check Auth Code"        , CHECK_AUTH_CODE+""    , CONFIG_CHECK_AUTH_CODE);
         Data.printHeaderLine("Estimate Odometer"      , ESTIMATE_ODOMETER+""  , CONFIG_ESTIMATE_ODOMETER);
+        Data.printHeaderLine("Batch max records"      , BatchMaxRecords+""    , CONFIG_BATCH_MAX_RECORDS);
         Data.printHeaderLine("Date Format"            , GetDateFormatString() , CONFIG_DATE_FORMAT);
         Data.printHeaderLine("UniqueID prefix"        , UniqueIDPrefix        , CONFIG_UNIQUE_PREFIX);
         Data.printHeaderLine("MobileID parameter"     , PARM_MOBILE           , CONFIG_PARM_MOBILE);
@@ -944,6 +980,73 @@ public class Data
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Source of the parameter values for a single fix
+    **/
+    private interface FixFields
+    {
+        public String getString(String key[], String dft);
+        public boolean hasField(String key);
+    }
+
+    /**
+    *** Fix parameter values from the request URL/POST parameters
+    **/
+    private static class RequestFields
+        implements FixFields
+    {
+        private HttpServletRequest request = null;
+        public RequestFields(HttpServletRequest request) {
+            this.request = request;
+        }
+        public String getString(String key[], String dft) {
+            return AttributeTools.getRequestString(this.request, key, dft);
+        }
+        public boolean hasField(String key) {
+            return AttributeTools.hasRequestAttribute(this.request, key);
+        }
+    }
+
+    /**
+    *** Fix parameter values from a batch record (case-insensitive names), 
+    *** defaulting to the request URL parameters
+    **/
+    private static class RecordFields
+        implements FixFields
+    {
+        private Map<String,String> values = new HashMap<String,String>();
+        private FixFields          parent = null;
+        public RecordFields(FixFields parent) {
+            this.parent = parent;
+        }
+        public void put(String key, String val) {
+            // -- empty values defer to the request URL parameters
+            if ((key != null) && !StringTools.isBlank(val)) {
+                this.values.put(key.trim().toLowerCase(), val);
+            }
+        }
+        public String getString(String key[], String dft) {
+            if (key != null) {
+                for (String k : key) {
+                    String v = this.values.get(k.toLowerCase());
+                    if (v != null) {
+                        return v;
+                    }
+                }
+            }
+            return (this.parent != null)? this.parent.getString(key, dft) : dft;
+        }
+        public boolean hasField(String key) {
+            if (this.values.containsKey(key.toLowerCase())) {
+                return true;
+            } else {
+                return (this.parent != null) && this.parent.hasField(key);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
     private static Map<String,Object> PutField(Map<String,Object> flds, String fn, Object val)
     {
         if (flds == null) {
@@ -983,7 +1086,12 @@ public class Data
     public void doPost(HttpServletRequest request, HttpServletResponse response)
         throws ServletException, IOException
     {
-        this._doWork(true, request, response);
+        String batchFmt = Data.getBatchFormat(request);
+        if (batchFmt != null) {
+            this._doBatch(batchFmt, request, response);
+        } else {
+            this._doWork(true, request, response);
+        }
     }
 
     public void doGet(HttpServletRequest request, HttpServletResponse response)
@@ -1003,8 +1111,6 @@ public class Data
         String deviceID   = AttributeTools.getRequestString(request, PARM_DEVICE    , "");
         String password   = AttributeTools.getRequestString(request, PARM_PASSWORD  , "");  // not currently used
         String authCode   = AttributeTools.getRequestString(request, PARM_AUTH      , "");  
-        String driverID   = AttributeTools.getRequestString(request, PARM_DRIVER    , "");
-        String uniqueID   = null;
 
         /* URL */
         StringBuffer reqURL = request.getRequestURL();
@@ -1058,9 +1164,6 @@ public class Data
         }
 
         /* Device vars */
-        uniqueID  = device.getUniqueID();
-        accountID = device.getAccountID();
-        deviceID  = device.getDeviceID();
         Account account = device.getAccount();
         if (account == null) {
             Data.logError(null, "Account record not found!");
@@ -1068,58 +1171,90 @@ public class Data
             return;
         }
 
-        // ---------------------------------------------------------------------------------
-        // --- Parse data below --- 
+        /* parse/insert fix */
+        int fix = this._insertFix(device, new RequestFields(request), DateFormat);
+        if (fix == FIX_ERROR) {
+            this.plainTextResponse(response, RESPONSE_ERROR);
+            return;
+        } else
+        if (fix == FIX_IGNORED) {
+            this.plainTextResponse(response, RESPONSE_OK);
+            return;
+        }
+
+        /* save device changes */
+        this._updateDevice(device, AttributeTools.getRequestString(request, PARM_VERSION, null));
+
+        /* write success response */
+        this.plainTextResponse(response, RESPONSE_OK);
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static final int FIX_INSERTED   = 0;    // event inserted
+    private static final int FIX_IGNORED    = 1;    // no/invalid location, ignored
+    private static final int FIX_ERROR      = 2;    // invalid data
+
+    /**
+    *** Parses the fix fields and inserts the event(s) for the specified Device.
+    *** The Device record is not updated.
+    *** @return FIX_INSERTED, FIX_IGNORED, or FIX_ERROR
+    **/
+    private int _insertFix(Device device, FixFields ff, int dateFormat)
+    {
+        String uniqueID    = device.getUniqueID();
+        String accountID   = device.getAccountID();
+        String deviceID    = device.getDeviceID();
+        String driverID    = ff.getString(PARM_DRIVER, "");
+
 
         /* message */
-        String message     = AttributeTools.getRequestString(request, PARM_MESSAGE       , "");
-        String emailAddr   = AttributeTools.getRequestString(request, PARM_EMAIL         , "");
+        String message     = ff.getString(PARM_MESSAGE       , "");
+        String emailAddr   = ff.getString(PARM_EMAIL         , "");
 
         /* extract fields from URL arguments */
-        String _version    = AttributeTools.getRequestString(request, PARM_VERSION       , null);
-        String _statusStr  = AttributeTools.getRequestString(request, PARM_STATUS        , null);
-        String _address    = AttributeTools.getRequestString(request, PARM_ADDRESS       , null);
-        String _altitudeM  = AttributeTools.getRequestString(request, PARM_ALTITUDE      , null);
-        String _odometerKM = AttributeTools.getRequestString(request, PARM_ODOMETER_KM   , null);
-        String _odometerMI = AttributeTools.getRequestString(request, PARM_ODOMETER_MI   , null);
-        String _distanceKM = AttributeTools.getRequestString(request, PARM_DISTANCE_KM   , null);
-        String _distanceMI = AttributeTools.getRequestString(request, PARM_DISTANCE_MI   , null);
-        String _gprmcStr   = AttributeTools.getRequestString(request, PARM_GPRMC         , null);
-        String _dateStr    = AttributeTools.getRequestString(request, PARM_DATE          , null);
-        String _timeStr    = AttributeTools.getRequestString(request, PARM_TIME          , null);
-        String _latitude   = AttributeTools.getRequestString(request, PARM_LATITUDE      , null);
-        String _longitude  = AttributeTools.getRequestString(request, PARM_LONGITUDE     , null);
-        String _speedKPH   = AttributeTools.getRequestString(request, PARM_SPEED_KPH     , null);
-        String _speedMPH   = AttributeTools.getRequestString(request, PARM_SPEED_MPH     , null);
-        String _speedKNOTS = AttributeTools.getRequestString(request, PARM_SPEED_KNOTS   , null);
-        String _headingDeg = AttributeTools.getRequestString(request, PARM_HEADING       , null);
-        String _hdop       = AttributeTools.getRequestString(request, PARM_HDOP          , null);
-        String _horzAcc    = AttributeTools.getRequestString(request, PARM_HORZ_ACC      , null);
-        String _vertAcc    = AttributeTools.getRequestString(request, PARM_VERT_ACC      , null);
-        String _numSats    = AttributeTools.getRequestString(request, PARM_NUM_SATS      , null);
-        String _battLevel  = AttributeTools.getRequestString(request, PARM_BATT_LEVEL    , null);
-        String _battVolts  = AttributeTools.getRequestString(request, PARM_BATT_VOLTS    , null);
-        String _battTempC  = AttributeTools.getRequestString(request, PARM_BATT_TEMPC    , null);
-        String _tempC      = AttributeTools.getRequestString(request, PARM_TEMPERATURE   , null);
-        String _cellMCC    = AttributeTools.getRequestString(request, PARM_CELLID_MCC    , null);
-        String _cellMNC    = AttributeTools.getRequestString(request, PARM_CELLID_MNC    , null);
-        String _cellLAC    = AttributeTools.getRequestString(request, PARM_CELLID_LAC    , null);
-        String _cellCID    = AttributeTools.getRequestString(request, PARM_CELLID_CID    , null);
-        String _cellTAV    = AttributeTools.getRequestString(request, PARM_CELLID_TAV    , null);
-        String _cellRAT    = AttributeTools.getRequestString(request, PARM_CELLID_RAT    , null);
-        String _cellRXLEV  = AttributeTools.getRequestString(request, PARM_CELLID_RXLEV  , null);
-        String _cellARFCN  = AttributeTools.getRequestString(request, PARM_CELLID_ARFCN  , null);
+        String _statusStr  = ff.getString(PARM_STATUS        , null);
+        String _address    = ff.getString(PARM_ADDRESS       , null);
+        String _altitudeM  = ff.getString(PARM_ALTITUDE      , null);
+        String _odometerKM = ff.getString(PARM_ODOMETER_KM   , null);
+        String _odometerMI = ff.getString(PARM_ODOMETER_MI   , null);
+        String _distanceKM = ff.getString(PARM_DISTANCE_KM   , null);
+        String _distanceMI = ff.getString(PARM_DISTANCE_MI   , null);
+        String _gprmcStr   = ff.getString(PARM_GPRMC         , null);
+        String _dateStr    = ff.getString(PARM_DATE          , null);
+        String _timeStr    = ff.getString(PARM_TIME          , null);
+        String _latitude   = ff.getString(PARM_LATITUDE      , null);
+        String _longitude  = ff.getString(PARM_LONGITUDE     , null);
+        String _speedKPH   = ff.getString(PARM_SPEED_KPH     , null);
+        String _speedMPH   = ff.getString(PARM_SPEED_MPH     , null);
+        String _speedKNOTS = ff.getString(PARM_SPEED_KNOTS   , null);
+        String _headingDeg = ff.getString(PARM_HEADING       , null);
+        String _hdop       = ff.getString(PARM_HDOP          , null);
+        String _horzAcc    = ff.getString(PARM_HORZ_ACC      , null);
+        String _vertAcc    = ff.getString(PARM_VERT_ACC      , null);
+        String _numSats    = ff.getString(PARM_NUM_SATS      , null);
+        String _battLevel  = ff.getString(PARM_BATT_LEVEL    , null);
+        String _battVolts  = ff.getString(PARM_BATT_VOLTS    , null);
+        String _battTempC  = ff.getString(PARM_BATT_TEMPC    , null);
+        String _tempC      = ff.getString(PARM_TEMPERATURE   , null);
+        String _cellMCC    = ff.getString(PARM_CELLID_MCC    , null);
+        String _cellMNC    = ff.getString(PARM_CELLID_MNC    , null);
+        String _cellLAC    = ff.getString(PARM_CELLID_LAC    , null);
+        String _cellCID    = ff.getString(PARM_CELLID_CID    , null);
+        String _cellTAV    = ff.getString(PARM_CELLID_TAV    , null);
+        String _cellRAT    = ff.getString(PARM_CELLID_RAT    , null);
+        String _cellRXLEV  = ff.getString(PARM_CELLID_RXLEV  , null);
+        String _cellARFCN  = ff.getString(PARM_CELLID_ARFCN  , null);
         /* no location data specified? */
         if (StringTools.isBlank(_gprmcStr)  && 
             StringTools.isBlank(_statusStr) &&
             StringTools.isBlank(_latitude)  &&
             StringTools.isBlank(_longitude)   ) {
-            this.plainTextResponse(response, RESPONSE_OK);
-            return;
+            return FIX_IGNORED;
         }
 
         /* parse fields */
-        String version     = _version;
         String statusStr   = _statusStr;
         String address     = _address;
         double altitudeM   = StringTools.parseDouble(_altitudeM , 0.0);         // meters
@@ -1147,10 +1282,10 @@ public class Data
         // -- this specifically tries to identify the SourceForge "GpsTracker" format,
         // -  which uses distance units in Feet/Miles rather than Meters/Kilometers.
         // -  http://localhost:8080/gprmc/Data?latitude=40.1234&longitude=-142.1234&speed=23.4&direction=127&date=2014-10-10%2012:34:56&&locationmethod=aaa&distance=1234&username=smith&phonenumber=555-1212&sessionid=12345678&accuracy=200&extrainfo=1234&eventtype=android
-        boolean isUSUnits = AttributeTools.hasRequestAttribute(request,"usunits") ||
-            (AttributeTools.hasRequestAttribute(request,"sessionid") &&
-             AttributeTools.hasRequestAttribute(request,"extrainfo") &&
-             AttributeTools.hasRequestAttribute(request,"eventtype")   );
+        boolean isUSUnits = ff.hasField("usunits") ||
+            (ff.hasField("sessionid") &&
+             ff.hasField("extrainfo") &&
+             ff.hasField("eventtype")   );
         // -- odometer (miles ==> km)
         if ((odometerKM <= 0.0) && (odometerMI > 0.0)) {
             odometerKM = odometerMI * GeoPoint.KILOMETERS_PER_MILE;
@@ -1247,8 +1382,7 @@ public class Data
             } else {
                 Data.logError(null, "Missing/Invalid $GPRMC: " + gprmcStr);
                 Data.logError(null, "(is '"+CONFIG_PARM_GPRMC+"' properly configured in 'webapp.conf'?)");
-                this.plainTextResponse(response, RESPONSE_ERROR);
-                return;
+                return FIX_ERROR;
             }
             boolean ignoreChecksum = (gprmcStr.indexOf("*") >= 0)?  // ignore checksum if not present
                 false : // found, do not ignore
@@ -1266,7 +1400,7 @@ public class Data
                 Data.logWarn("Invalid latitude/longitude");
             }
         } else {
-            fixtime    = this._parseFixtime(dateStr, timeStr, DateFormat);
+            fixtime    = this._parseFixtime(dateStr, timeStr, dateFormat);
             if ((latitude == INVALID_LATLON) || (longitude == INVALID_LATLON)) {
                 Data.logError(null, "Missing/Invalid latitude/longitude");
                 Data.logError(null, "(is '"+CONFIG_PARM_LATITUDE+"'/'"+CONFIG_PARM_LONGITUDE+"' properly configured in 'webapp.conf'?)");
@@ -1313,6 +1447,7 @@ public class Data
 
         /* debug info */
         //if (RTConfig.isDebugMode()) {
+        String version     = ff.getString(PARM_VERSION, null);
         if (!StringTools.isBlank(version)) {
             Data.logInfo("Version  : " + version);
         }
@@ -1369,8 +1504,7 @@ public class Data
         if (!isValidGPS && (statusCode == StatusCodes.STATUS_LOCATION)) {
             // -- ignore invalid GPS fixes that have a simple 'STATUS_LOCATION' status code
             Data.logWarn("Ignoring event with invalid latitude/longitude");
-            this.plainTextResponse(response, RESPONSE_OK); // "");
-            return;
+            return FIX_IGNORED;
         }
 
         /* event count */
@@ -1498,9 +1632,15 @@ public class Data
             }
         }
 
-        /* update device version */
+        return FIX_INSERTED;
 
-        /* save device changes */
+    }
+
+    /**
+    *** Saves the changed Device fields (and code version)
+    **/
+    private void _updateDevice(Device device, String version)
+    {
         try {
             // -- TODO: check "this.device" vs "this.dataXPort"
             if (!StringTools.isBlank(version)) {
@@ -1514,12 +1654,256 @@ public class Data
             Print.logException("Unable to update Device: " + 
                 device.getAccountID() + "/" + device.getDeviceID(), dbe);
         }
+    }
 
-        /* write success response */
-        this.plainTextResponse(response, RESPONSE_OK);
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // batch mode
+
+    private static final String BATCH_CSV       = "csv";
+    private static final String BATCH_NDJSON    = "ndjson";
+    private static final String BATCH_BINARY    = "bin";
+
+    /**
+    *** Gets the batch format of the specified POST request (null if not a batch request)
+    **/
+    private static String getBatchFormat(HttpServletRequest request)
+    {
+
+        /* explicit "batch=" query parameter */
+        String fmt = StringTools.trim(AttributeTools.getRequestString(request, PARM_BATCH, null)).toLowerCase();
+        if (!StringTools.isBlank(fmt)) {
+            if (fmt.equals(BATCH_CSV)) {
+                return BATCH_CSV;
+            } else
+            if (fmt.equals(BATCH_NDJSON) || fmt.equals("json")) {
+                return BATCH_NDJSON;
+            } else
+            if (fmt.equals(BATCH_BINARY) || fmt.equals("binary")) {
+                return BATCH_BINARY;
+            } else {
+                Data.logWarn("Unsupported batch format: " + fmt);
+                return null;
+            }
+        }
+
+        /* content-type */
+        String ct = StringTools.trim(request.getContentType()).toLowerCase();
+        int p = ct.indexOf(";");
+        if (p >= 0) { ct = ct.substring(0,p).trim(); }
+        if (ct.equals("text/csv")) {
+            return BATCH_CSV;
+        } else
+        if (ct.equals("application/x-ndjson") || ct.equals("application/ndjson")) {
+            return BATCH_NDJSON;
+        } else
+        if (ct.equals("application/octet-stream")) {
+            return BATCH_BINARY;
+        } else {
+            return null;
+        }
+
+    }
+
+    /* first configured parameter key (null if none) */
+    private static String _firstKey(String key[])
+    {
+        return !ListTools.isEmpty(key)? key[0] : null;
+    }
+
+    /**
+    *** Reads the batch records from the request body.  Records which could not be 
+    *** parsed are returned as null entries.
+    **/
+    private java.util.List<RecordFields> _readBatch(String fmt, InputStream in, FixFields reqFlds)
+        throws IOException
+    {
+        java.util.List<RecordFields> recs = new ArrayList<RecordFields>();
+        if (fmt.equals(BATCH_BINARY)) {
+            DataInputStream din = new DataInputStream(new BufferedInputStream(in));
+            while (recs.size() < BatchMaxRecords) {
+                int idLen = din.read();
+                if (idLen < 0) {
+                    break; // EOF
+                }
+                try {
+                    byte id[] = new byte[idLen];
+                    din.readFully(id);
+                    long   fixtime = (long)din.readInt() & 0xFFFFFFFFL;
+                    double lat     = (double)din.readInt() / 1000000.0;
+                    double lon     = (double)din.readInt() / 1000000.0;
+                    double speed   = (double)din.readUnsignedShort() / 10.0;
+                    double heading = (double)din.readUnsignedShort() / 10.0;
+                    int    alt     = (int)din.readShort();
+                    int    code    = din.readUnsignedShort();
+                    RecordFields rf = new RecordFields(reqFlds);
+                    rf.put(_firstKey(PARM_MOBILE)   , StringTools.toStringValue(id));
+                    rf.put(_firstKey(PARM_DATE)     , String.valueOf(fixtime));
+                    rf.put(_firstKey(PARM_LATITUDE) , String.valueOf(lat));
+                    rf.put(_firstKey(PARM_LONGITUDE), String.valueOf(lon));
+                    rf.put(_firstKey(PARM_SPEED_KPH), String.valueOf(speed));
+                    rf.put(_firstKey(PARM_HEADING)  , String.valueOf(heading));
+                    rf.put(_firstKey(PARM_ALTITUDE) , String.valueOf(alt));
+                    if (code != 0) {
+                        rf.put(_firstKey(PARM_STATUS), String.valueOf(code));
+                    }
+                    recs.add(rf);
+                } catch (EOFException eof) {
+                    Data.logWarn("Truncated binary batch record ignored");
+                    break;
+                }
+            }
+        } else {
+            BufferedReader br = new BufferedReader(new InputStreamReader(in, StringTools.CharEncoding_UTF_8));
+            String hdr[] = null;
+            for (String line; (recs.size() < BatchMaxRecords) && ((line = br.readLine()) != null);) {
+                line = line.trim();
+                if (line.equals("")) {
+                    continue;
+                }
+                if (fmt.equals(BATCH_CSV)) {
+                    String val[] = StringTools.parseArray(line);
+                    if (hdr == null) {
+                        hdr = val; // header line
+                        continue;
+                    }
+                    RecordFields rf = new RecordFields(reqFlds);
+                    for (int i = 0; (i < hdr.length) && (i < val.length); i++) {
+                        if (!StringTools.isBlank(val[i])) {
+                            rf.put(hdr[i], val[i]);
+                        }
+                    }
+                    recs.add(rf);
+                } else {
+                    try {
+                        JSON._Object obj = JSON.parse_Object(line);
+                        RecordFields rf = new RecordFields(reqFlds);
+                        for (String key : obj.getKeyNames()) {
+                            rf.put(key, obj.getStringForName(key, null));
+                        }
+                        recs.add(rf);
+                    } catch (JSON.JSONParsingException jpe) {
+                        Data.logWarn("Invalid batch JSON record: " + jpe.getMessage());
+                        recs.add(null);
+                    }
+                }
+            }
+        }
+        return recs;
+    }
+
+    /**
+    *** Handles a batch POST request
+    **/
+    private void _doBatch(String fmt, HttpServletRequest request, HttpServletResponse response)
+        throws ServletException, IOException
+    {
+        String ipAddr = request.getRemoteAddr();
+        String encode = StringTools.trim(request.getHeader("Content-Encoding"));
+        Data.logInfo("[" + ipAddr + "] POST(batch:"+fmt+"): " + request.getRequestURL() + 
+            " " + StringTools.blankDefault(request.getQueryString(),"(n/a)"));
+
+        /* read records */
+        FixFields reqFlds = new RequestFields(request);
+        java.util.List<RecordFields> recs;
+        try {
+            InputStream in = request.getInputStream();
+            if (encode.equalsIgnoreCase("gzip") || encode.equalsIgnoreCase("x-gzip")) {
+                in = new java.util.zip.GZIPInputStream(in);
+            }
+            recs = this._readBatch(fmt, in, reqFlds);
+        } catch (IOException ioe) {
+            Data.logError(null, "Unable to read batch: " + ioe);
+            this.plainTextResponse(response, RESPONSE_ERROR);
+            return;
+        }
+        int dateFmt = fmt.equals(BATCH_BINARY)? DATE_FORMAT_EPOCH : DateFormat;
+
+        /* insert records, loading each device once */
+        Map<String,String>        idCache   = new HashMap<String,String>(); // identification ==> "account/device"
+        Map<String,Device>        devCache  = new HashMap<String,Device>(); // "account/device" ==> Device
+        Map<String,Device>        updDevice = new LinkedHashMap<String,Device>();
+        Map<String,String>        updVers   = new HashMap<String,String>();
+        StringBuffer              ack       = new StringBuffer();
+        int                       okCount   = 0;
+        for (int n = 0; n < recs.size(); n++) {
+            RecordFields rf = recs.get(n);
+            String rtn;
+            if (rf == null) {
+                rtn = RESPONSE_ERROR;
+            } else {
+                String phoneID   = rf.getString(PARM_PHONE  , null);
+                String mobileID  = rf.getString(PARM_MOBILE , phoneID);
+                String accountID = rf.getString(PARM_ACCOUNT, null);
+                String deviceID  = rf.getString(PARM_DEVICE , "");
+                String authCode  = rf.getString(PARM_AUTH   , "");
+                String idKey     = mobileID + "|" + accountID + "|" + deviceID + "|" + authCode;
+                Device device;
+                if (idCache.containsKey(idKey)) {
+                    String devKey = idCache.get(idKey);
+                    device = (devKey != null)? devCache.get(devKey) : null;
+                } else {
+                    device = this.loadDevice(ipAddr, mobileID, accountID, deviceID, authCode);
+                    if ((device != null) && (device.getAccount() == null)) {
+                        Data.logError(null, "Account record not found!");
+                        device = null;
+                    }
+                    String devKey = null;
+                    if (device != null) {
+                        // -- different identifications may resolve to the same device
+                        devKey = device.getAccountID() + "/" + device.getDeviceID();
+                        if (devCache.containsKey(devKey)) {
+                            device = devCache.get(devKey);
+                        } else {
+                            devCache.put(devKey, device);
+                        }
+                    }
+                    idCache.put(idKey, devKey);
+                }
+                if (device == null) {
+                    rtn = RESPONSE_NOT_AUTH;
+                } else {
+                    int fix;
+                    try {
+                        fix = this._insertFix(device, rf, dateFmt);
+                    } catch (Throwable th) {
+                        Data.logException(null, "Batch record #" + (n+1), th);
+                        fix = FIX_ERROR;
+                    }
+                    if (fix == FIX_ERROR) {
+                        rtn = RESPONSE_ERROR;
+                    } else {
+                        rtn = RESPONSE_OK;
+                        okCount++;
+                        if (fix == FIX_INSERTED) {
+                            String updKey = device.getAccountID() + "/" + device.getDeviceID();
+                            updDevice.put(updKey, device);
+                            String version = rf.getString(PARM_VERSION, null);
+                            if (!StringTools.isBlank(version)) {
+                                updVers.put(updKey, version);
+                            }
+                        }
+                    }
+                }
+            }
+            ack.append(n+1).append(":").append(rtn).append("\n");
+        }
+
+        /* save device changes (once per device) */
+        for (String updKey : updDevice.keySet()) {
+            this._updateDevice(updDevice.get(updKey), updVers.get(updKey));
+        }
+        Data.logInfo("Batch: records=" + recs.size() + " ok=" + okCount + " devices=" + updDevice.size());
+
+        /* acknowledgements */
+        CommonServlet.setResponseContentType(response, HTMLTools.MIME_PLAIN());
+        PrintWriter out = response.getWriter();
+        out.print(ack.toString());
 
     }
 
+    // ------------------------------------------------------------------------
+
     private long _parseFixtime(String dateStr, String timeStr, int dateFmt)
     {
         // Examples:
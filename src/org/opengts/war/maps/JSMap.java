@@ -294,6 +294,7 @@ public class JSMap
         JavaScriptTools.writeJSVar(out, "ROUTE_SNAP_TO_ROAD"    , rtp.getBoolean(PROP_map_routeLine_snapToRoad,false)); // Google V2 only
         JavaScriptTools.writeJSVar(out, "REPLAY_INTERVAL"       , this.getReplayInterval());
         JavaScriptTools.writeJSVar(out, "REPLAY_SINGLE"         , this.getReplaySinglePushpin());
+        JavaScriptTools.writeJSVar(out, "DELTA_FULL_INTERVAL"   , rtp.getInt(PROP_map_deltaUpdate_full,10));
 
         /* address title */
         String adrTitles[] = reqState.getAddressTitles();
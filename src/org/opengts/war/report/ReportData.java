@@ -1826,8 +1826,7 @@ public abstract class ReportData
     public int writeReport(String format, OutputProvider out)
         throws ReportException
     {
-        String fmt = StringTools.blankDefault(format, this.getPreferredFormat());
-        return this.getReportLayout().writeReport(fmt, this, out, 0);
+        return this.writeReport(format, out, 0);
     }
 
     /**
@@ -1837,7 +1836,18 @@ public abstract class ReportData
         throws ReportException
     {
         String fmt = StringTools.blankDefault(format, this.getPreferredFormat());
-        return this.getReportLayout().writeReport(fmt, this, out, indentLevel);
+        if (!Metrics.IsEnabled()) {
+            return this.getReportLayout().writeReport(fmt, this, out, indentLevel);
+        }
+        Metrics.Timer timer = Metrics.getTimer(
+            "gts_report_write_seconds{type=\"" + Metrics.escapeLabel(this.getReportType()) + "\"}",
+            "Report generation time by report type");
+        long startNS = timer.start();
+        try {
+            return this.getReportLayout().writeReport(fmt, this, out, indentLevel);
+        } finally {
+            timer.stop(startNS);
+        }
     }
 
     // ------------------------------------------------------------------------
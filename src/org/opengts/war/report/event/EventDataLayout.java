@@ -469,9 +469,30 @@ public class EventDataLayout
         return fmt;
     }
 
+    /* precompiled formats for format alias "0".."9" */
+    private static final FixedDecimalFormat DECIMAL_FORMAT[] = {
+        FixedDecimalFormat.getInstance("0"          ),
+        FixedDecimalFormat.getInstance("0.0"        ),
+        FixedDecimalFormat.getInstance("0.00"       ),
+        FixedDecimalFormat.getInstance("0.000"      ),
+        FixedDecimalFormat.getInstance("0.0000"     ),
+        FixedDecimalFormat.getInstance("0.00000"    ),
+        FixedDecimalFormat.getInstance("0.000000"   ),
+        FixedDecimalFormat.getInstance("0.0000000"  ),
+        FixedDecimalFormat.getInstance("0.00000000" ),
+        FixedDecimalFormat.getInstance("0.000000000"),
+    };
+
     /* format double value */
     protected static String formatDouble(double value, String arg, String dftFmt)
     {
+        if (!StringTools.isBlank(arg) && !Double.isNaN(value)) {
+            int dp = arg.charAt(0) - '0';
+            if ((dp >= 0) && (dp < DECIMAL_FORMAT.length)) {
+                // -- format alias, "arg" represents number of decimal points
+                return DECIMAL_FORMAT[dp].format(value);
+            }
+        }
         String fmt = EventDataLayout.getArgFormatString(arg, dftFmt);
         return StringTools.format(value, fmt);
     }
@@ -21,6 +21,8 @@
 //     -Initial release
 //  2012/04/16  Martin D. Flynn
 //     -Added "SummarizeByDay" option
+//  2026/10/19
+//     -Use DeviceDailySummary rollup records for whole days, when enabled
 // ----------------------------------------------------------------------------
 package org.opengts.war.report.field;
 
@@ -165,6 +167,9 @@ public class EventCountReport
                 long   endTime = this.getTimeEnd();
                 TimeZone    tz = this.getTimeZone();
 
+                /* daily rollup records */
+                Map<Long,DeviceDailySummary> ddsMap = this.getDailySummaryRecords(device, startTime, endTime, tz);
+
                 /* summarize type? */
                 if (this.summarizeByDay) {
 
@@ -176,7 +181,7 @@ public class EventCountReport
                         long dayEnd = dayDT.getDayEnd(tz); // 23:59:59
                         if (dayEnd > endTime) { dayEnd = endTime; } // will exit on next iteration
                         // get counts
-                        long rcdCount = this.countEventData(device, dayStart, dayEnd);
+                        long rcdCount = this.countEventData(device, dayStart, dayEnd, tz, ddsMap);
                         // create report record
                         FieldData fd = new FieldData();
                         fd.setDevice(device);
@@ -191,7 +196,7 @@ public class EventCountReport
                 } else {
 
                     /* count total events for date-range */
-                    long rcdCount = this.countEventData(device, startTime, endTime);
+                    long rcdCount = this.countEventData(device, startTime, endTime, tz, ddsMap);
                     FieldData fd = new FieldData();
                     fd.setDevice(device);
                     fd.setString(FieldLayout.DATA_DEVICE_ID, devID);
@@ -215,6 +220,83 @@ public class EventCountReport
         
     }
 
+    /**
+    *** Gets the DeviceDailySummary rollup records which may be used for counting events
+    *** within the specified date range.  Returns null if rollup records may not be used.
+    **/
+    private Map<Long,DeviceDailySummary> getDailySummaryRecords(Device device, long startTime, long endTime, TimeZone tz)
+    {
+
+        /* rollup records enabled? */
+        if (!DeviceDailySummary.IsUseInReports()) {
+            return null;
+        } else
+        if (!StringTools.isBlank(this.getRuleSelector()) || !StringTools.isBlank(this.getWhereSelector())) {
+            // -- rollup records do not support additional selection criteria
+            return null;
+        } else
+        if ((startTime < 0L) || (endTime < startTime)) {
+            return null;
+        }
+
+        /* read rollup records */
+        try {
+            long startDay = new DateTime(startTime,tz).getDayNumber(tz);
+            long endDay   = new DateTime(endTime  ,tz).getDayNumber(tz);
+            return DeviceDailySummary.getSummaryRecords(device, startDay, endDay);
+        } catch (DBException dbe) {
+            Print.logException("Unable to read DeviceDailySummary records", dbe);
+            return null;
+        }
+
+    }
+
+    /**
+    *** Returns the count of EventData records within the specified date range.  Usable 
+    *** rollup records are used for whole days, EventData records are counted otherwise.
+    **/
+    private long countEventData(Device device, long startTime, long endTime, TimeZone tz,
+        Map<Long,DeviceDailySummary> ddsMap)
+    {
+
+        /* no rollup records */
+        if (ListTools.isEmpty(ddsMap)) {
+            return this.countEventData(device, startTime, endTime);
+        }
+
+        /* count by day */
+        int     statusCodes[] = this.getStatusCodes();
+        boolean validGPS      = this.getValidGPSRequired();
+        long    rcdCount      = 0L;
+        long    countStart    = -1L; // pending EventData count start
+        for (long dayStart = startTime; dayStart <= endTime;) {
+            DateTime dayDT  = new DateTime(dayStart,tz);
+            long     dayEnd = Math.min(dayDT.getDayEnd(tz), endTime);
+            boolean  whole  = (dayStart == dayDT.getDayStart(tz)) && (dayEnd == dayDT.getDayEnd(tz));
+            DeviceDailySummary dds = ddsMap.get(new Long(dayDT.getDayNumber(tz)));
+            long     ddsCnt = (whole && (dds != null) && dds.isUsable(tz))? 
+                dds.getSummary().getEventCount(statusCodes, validGPS) : -1L;
+            if (ddsCnt >= 0L) {
+                if (countStart >= 0L) {
+                    rcdCount  += this.countEventData(device, countStart, dayStart - 1L);
+                    countStart = -1L;
+                }
+                rcdCount += ddsCnt;
+            } else
+            if (countStart < 0L) {
+                countStart = dayStart;
+            }
+            dayStart = dayEnd + 1L;
+        }
+        if (countStart >= 0L) {
+            rcdCount += this.countEventData(device, countStart, endTime);
+        }
+        return rcdCount;
+
+    }
+
+    // ------------------------------------------------------------------------
+
     /**
     *** Creates and returns an iterator for the row data displayed in the total rows of this report.
     *** @return The total row data iterator
@@ -565,12 +565,27 @@ public class FieldLayout
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
     
+    /* precompiled formats for 'arg' decimal points "0".."9" */
+    private static final FixedDecimalFormat DECIMAL_FORMAT[] = {
+        FixedDecimalFormat.getInstance("#0"          ),
+        FixedDecimalFormat.getInstance("#0.0"        ),
+        FixedDecimalFormat.getInstance("#0.00"       ),
+        FixedDecimalFormat.getInstance("#0.000"      ),
+        FixedDecimalFormat.getInstance("#0.0000"     ),
+        FixedDecimalFormat.getInstance("#0.00000"    ),
+        FixedDecimalFormat.getInstance("#0.000000"   ),
+        FixedDecimalFormat.getInstance("#0.0000000"  ),
+        FixedDecimalFormat.getInstance("#0.00000000" ),
+        FixedDecimalFormat.getInstance("#0.000000000"),
+    };
+
     /* format double value */
     protected static String formatDouble(double value, String arg, String dftArg)
     {
 
         /* get format */
         String fmt = dftArg;
+        FixedDecimalFormat fdf = null;
         if ((arg == null) || (arg.length() <= 0)) { // StringTools.isBlank(arg)
             // -- use default format
             fmt = dftArg;
@@ -581,17 +596,10 @@ public class FieldLayout
         } else
         if (Character.isDigit(arg.charAt(0))) {
             // -- 'arg' contains desired nuber of decimal points
-            switch (arg.charAt(0)) {
-                case '0': fmt = "#0"          ; break;
-                case '1': fmt = "#0.0"        ; break;
-                case '2': fmt = "#0.00"       ; break;
-                case '3': fmt = "#0.000"      ; break;
-                case '4': fmt = "#0.0000"     ; break;
-                case '5': fmt = "#0.00000"    ; break;
-                case '6': fmt = "#0.000000"   ; break;
-                case '7': fmt = "#0.0000000"  ; break;
-                case '8': fmt = "#0.00000000" ; break;
-                case '9': fmt = "#0.000000000"; break;
+            int dp = arg.charAt(0) - '0';
+            if ((dp >= 0) && (dp < DECIMAL_FORMAT.length)) {
+                fdf = DECIMAL_FORMAT[dp];
+                fmt = fdf.getPattern();
             }
         } else {
             // -- 'arg' not recognized, use default? or use 'arg' as-is?
@@ -604,6 +612,9 @@ public class FieldLayout
         } else
         if (fmt.equalsIgnoreCase("pct") || fmt.equalsIgnoreCase("percent")) {
             return Math.round(value*100.0) + "%";
+        } else
+        if ((fdf != null) && !Double.isNaN(value)) {
+            return fdf.format(value);
         } else {
             return StringTools.format(value, fmt);
         }
@@ -132,6 +132,13 @@ public interface MapProvider
     public static final String  PROP_map_view[]                 = new String[] { "map.view"                                          };  // String  (road|satellite|hybrid)
     public static final String  PROP_map_minProximity[]         = new String[] { "map.minProximity" /*meters*/                       };  // double  (mim meters between events)
     public static final String  PROP_map_includeGeozones[]      = new String[] { "map.includeGeozones"    , "includeGeozones"        };  // boolean (include traversed Geozones)
+    public static final String  PROP_map_simplify[]             = new String[] { "map.simplify"                                      };  // boolean (server-side route simplification/clustering)
+    public static final String  PROP_map_simplify_progressive[] = new String[] { "map.simplify.progressive"                          };  // boolean (coarse response first, then refined)
+    public static final String  PROP_map_simplify_minPoints[]   = new String[] { "map.simplify.minPoints"                            };  // int     (min points before simplifying)
+    public static final String  PROP_map_simplify_tolerance[]   = new String[] { "map.simplify.tolerancePixels"                      };  // double  (simplification tolerance pixels)
+    public static final String  PROP_map_cluster_pixels[]       = new String[] { "map.cluster.pixels"                                };  // double  (fleet cluster grid size pixels, 0=none)
+    public static final String  PROP_map_deltaUpdate[]          = new String[] { "map.deltaUpdate"                                   };  // boolean (auto-update sends only changed devices)
+    public static final String  PROP_map_deltaUpdate_full[]     = new String[] { "map.deltaUpdate.fullInterval"                      };  // int     (auto-updates between full updates)
     public static final String  PROP_pushpin_zoom[]             = new String[] { "pushpin.zoom"                                      };  // dbl/int (default zoom with points)
     public static final String  PROP_default_zoom[]             = new String[] { "default.zoom"                                      };  // dbl/int (default zoom without points)
     public static final String  PROP_default_latitude[]         = new String[] { "default.lat"            , "default.latitude"       };  // double  (default latitude)
@@ -1056,11 +1056,49 @@ public abstract class MapProviderAdapter
         /* precheck (ie. adjust RequestProperties) */
         this.writeMapUpdate_precheck(reqState);
 
+        /* delta update? (auto-update only) */
+        boolean deltaOK = this.getProperties().getBoolean(MapProvider.PROP_map_deltaUpdate,true) &&
+            !EventUtil.IsXMLMapDataFormat(mapDataFormat);
+        HttpServletRequest request = reqState.getHttpServletRequest();
+        long sinceMS = (deltaOK && (request != null))? 
+            StringTools.parseLong(AttributeTools.getRequestString(request,PARM_DELTA_SINCE,""),-1L) : -1L;
+        OrderedMap<String,Long> changedDevs = null;
+        if (sinceMS > 0L) {
+            try {
+                changedDevs = reqState.getMapDevicesChangedSince(sinceMS); // null if not supported
+            } catch (DBException dbe) {
+                Print.logException("Error reading changed Devices", dbe);
+                changedDevs = null; // full update
+            }
+            if ((changedDevs != null) && changedDevs.isEmpty()) {
+                // -- nothing has changed since the client watermark
+                this.writeMapUpdate_notModified(out, indentLevel, isTopLevelTag, reqState, sinceMS);
+                return;
+            }
+        }
+
         /* extract records */
         EventDataProvider evdata[] = null;
+        boolean appendDelta = false;
         try {
             // -- This returns an array of EventData records based on the request attributes
-            evdata = reqState.getMapEvents(-1L); // does not return null
+            if ((changedDevs != null) && reqState.isFleet()) {
+                // -- fleet: changed devices only
+                evdata = reqState.getMapEvents(-1L, changedDevs.keySet()); // does not return null
+            } else
+            if (changedDevs != null) {
+                // -- device: events created since the client watermark only (appended by the client)
+                evdata = reqState.getMapEventsCreatedSince(sinceMS);
+                if (evdata != null) {
+                    appendDelta = true;
+                } else {
+                    // -- too many new events, send a full update
+                    changedDevs = null;
+                    evdata = reqState.getMapEvents(-1L); // does not return null
+                }
+            } else {
+                evdata = reqState.getMapEvents(-1L); // does not return null
+            }
             //Print.logInfo("Found Event count: " + evdata.length);
         } catch (DBException dbe) {
             Print.logException("Error reading Events", dbe);
@@ -1159,11 +1197,37 @@ public abstract class MapProviderAdapter
             }
         }
 
+        /* delta update state */
+        MapDelta delta = null;
+        if (deltaOK) {
+            long watermark = MapDelta.GetWatermark(evdata, sinceMS);
+            if (changedDevs != null) {
+                for (Long cm : changedDevs.values()) {
+                    if ((cm != null) && (cm.longValue() > watermark)) { watermark = cm.longValue(); }
+                }
+                OrderedSet<String> devIDs = null;
+                try {
+                    devIDs = reqState.getMapDeviceIDs();
+                } catch (DBException dbe) {
+                    Print.logException("Error reading map Devices", dbe);
+                    devIDs = null; // do not remove any client devices
+                }
+                delta = appendDelta?
+                    MapDelta.Append(sinceMS, watermark, devIDs, reqState.getEventLimit()) :
+                    MapDelta.Partial(sinceMS, watermark, devIDs);
+            } else {
+                delta = MapDelta.Full(watermark);
+            }
+        }
+
         /* return events */
         try {
             EventUtil evUtil = EventUtil.getInstance();
             // -- map data format: XML, JSON
             int mdf = EventUtil.IsXMLMapDataFormat(mapDataFormat)? EventUtil.MAPDATA_XML : EventUtil.MAPDATA_JSON;
+            // -- route simplification/fleet clustering (fleet routes and delta updates are not reduced)
+            MapDataReducer mdr = ((isFleet && fleetRoute) || ((delta != null) && delta.isPartial()))? null : 
+                this.getMapDataReducer(reqState, evdata, isFleet, mdf);
             // -- debug/testing
             /*
             RTConfig.setDebugMode(true);
@@ -1190,7 +1254,8 @@ public abstract class MapProviderAdapter
                 isFleet, fleetRoute, selID,
                 tmz,
                 acct, user,
-                latest, lastBatt, lastSig, proximityM);
+                latest, lastBatt, lastSig, proximityM,
+                mdr, delta);
         } catch (IOException ioe) {
             Print.logException("Error writing events", ioe);
             out.println("\nError writing Events"); // output is Mime type plain
@@ -1198,6 +1263,102 @@ public abstract class MapProviderAdapter
 
     }
 
+    /**
+    *** Writes a "not modified" delta map update (JSON only) to the specified output stream.
+    *** @param out            The output stream
+    *** @param indentLevel    The indent level
+    *** @param isTopLevelTag  True if top-level tag
+    *** @param reqState       The current session state
+    *** @param sinceMS        The watermark specified by the client
+    *** @throws IOException
+    **/
+    protected void writeMapUpdate_notModified(
+        PrintWriter out, int indentLevel,
+        boolean isTopLevelTag,
+        RequestProperties reqState,
+        long sinceMS)
+        throws IOException
+    {
+        EventUtil.getInstance().writeMapEvents(
+            EventUtil.MAPDATA_JSON, indentLevel, out,
+            reqState.isSoapRequest(), isTopLevelTag,
+            reqState.getPrivateLabel(),
+            EventData.EMPTY_ARRAY, false/*inclZones*/,
+            null/*iconSel*/, null/*iconMap*/,
+            reqState.isFleet(), false/*fleetRoute*/, null/*selID*/,
+            reqState.getTimeZone(),
+            reqState.getCurrentAccount(), reqState.getCurrentUser(),
+            null/*latest*/, 0.0/*lastBatt*/, 0.0/*lastSig*/, 0.0/*proximityM*/,
+            null/*MapDataReducer*/, MapDelta.NotModified(sinceMS));
+    }
+
+    // ------------------------------------------------------------------------
+
+    public  static final String PARM_LEVEL_OF_DETAIL        = "lod";
+    public  static final String PARM_DELTA_SINCE            = "since";
+    public  static final String PARM_ZOOM                   = "zoom";
+
+    public  static final int    DFT_SIMPLIFY_MIN_POINTS     = 500;
+
+    /**
+    *** Gets the MapDataReducer used to simplify/cluster the specified events, or
+    *** null if the events should be sent to the client unchanged.
+    *** @param reqState  The RequestProperties state from the current session
+    *** @param evdata    The events to display on the map
+    *** @param isFleet   True for a fleet map
+    *** @param mdf       The map data format (EventUtil.MAPDATA_JSON, EventUtil.MAPDATA_XML)
+    *** @return The MapDataReducer, or null if simplification is not enabled
+    **/
+    protected MapDataReducer getMapDataReducer(RequestProperties reqState,
+        EventDataProvider evdata[], boolean isFleet, int mdf)
+    {
+        RTProperties mapRTP = this.getProperties(); // not null
+
+        /* enabled? */
+        if (!mapRTP.getBoolean(MapProvider.PROP_map_simplify,false)) {
+            return null;
+        } else
+        if (mdf != EventUtil.MAPDATA_JSON) {
+            // -- XML map data does not support clusters/actions
+            return null;
+        } else
+        if (ListTools.size(evdata) < mapRTP.getInt(MapProvider.PROP_map_simplify_minPoints,DFT_SIMPLIFY_MIN_POINTS)) {
+            return null;
+        }
+
+        /* level-of-detail */
+        HttpServletRequest request = reqState.getHttpServletRequest();
+        String lodStr = (request != null)? AttributeTools.getRequestString(request,PARM_LEVEL_OF_DETAIL,"") : "";
+        int level;
+        if (!StringTools.isBlank(lodStr)) {
+            level = StringTools.parseInt(lodStr, MapDataReducer.LOD_FINE);
+        } else
+        if (mapRTP.getBoolean(MapProvider.PROP_map_simplify_progressive,false)) {
+            level = MapDataReducer.LOD_COARSE;
+        } else {
+            level = MapDataReducer.LOD_FINE;
+        }
+        if (level <= MapDataReducer.LOD_FULL) {
+            return null;
+        }
+
+        /* viewport */
+        double zoom = (request != null)? StringTools.parseDouble(AttributeTools.getRequestString(request,PARM_ZOOM,""),-1.0) : -1.0;
+        MapDimension dim = this.getDimension();
+        int W = (dim.getWidth()  > 0)? dim.getWidth()  : MapProvider.MAP_WIDTH;  // "fillFrame" is -1
+        int H = (dim.getHeight() > 0)? dim.getHeight() : MapProvider.MAP_HEIGHT;
+
+        /* reduce */
+        double tolPx   = mapRTP.getDouble(MapProvider.PROP_map_simplify_tolerance, MapDataReducer.DFT_TOLERANCE_PIXELS);
+        double clustPx = mapRTP.getDouble(MapProvider.PROP_map_cluster_pixels    , MapDataReducer.DFT_CLUSTER_PIXELS);
+        if (isFleet && (clustPx <= 0.0)) {
+            // -- fleet clustering disabled, nothing to reduce (and nothing to refine)
+            return null;
+        }
+        return new MapDataReducer(evdata, isFleet, level, zoom, W, H, tolPx, clustPx);
+
+    }
+
     // ------------------------------------------------------------------------
 
     /**
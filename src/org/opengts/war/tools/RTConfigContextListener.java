@@ -311,6 +311,9 @@ public class RTConfigContextListener
         /* clear server context properties */
         //RTConfig.clearServletContextProperties(null);
 
+        /* stop EventBus tailing */
+        EventBusTailer.stopTailing();
+
         /* close all open DBConnections */
         DBConnection.closeAllConnections();
 
@@ -2007,6 +2007,14 @@ public class RequestProperties
     /* return array of events based on requested parameters */
     public EventData[] getMapEvents(long perDevLimit)
         throws DBException
+    {
+        return this.getMapEvents(perDevLimit, null);
+    }
+
+    /* return array of events based on requested parameters */
+    // -- if specified, fleet events are returned only for the DeviceIDs in "devIDFilter"
+    public EventData[] getMapEvents(long perDevLimit, Set<String> devIDFilter)
+        throws DBException
     {
         PrivateLabel privLabel = this.getPrivateLabel();
         // -- this assumes that the number of returned records is reasonable and fits in memory
@@ -2050,6 +2058,11 @@ public class RequestProperties
             for (int i = 0; i < devIDList.size(); i++) { // apply limit?
                 String deviceID = devIDList.get(i);
 
+                // -- omit unchanged devices (delta update)
+                if ((devIDFilter != null) && !devIDFilter.contains(deviceID)) {
+                    continue;
+                }
+
                 // -- omit unauthorized devices
                 if ((user != null) && !user.isAuthorizedDevice(deviceID)) {
                     continue;
@@ -2199,6 +2212,127 @@ public class RequestProperties
 
     // ------------------------------------------------------------------------
 
+    /* return the selected device events created after "sinceMS" (device map delta update) */
+    // -- events are filtered by the selected date range and status codes, and are returned
+    // -- in ascending timestamp order.  Returns null if the event limit was reached (in
+    // -- which case the client should be sent a full update).
+    public EventData[] getMapEventsCreatedSince(long sinceMS)
+        throws DBException
+    {
+
+        /* selected device */
+        Device device = this.getSelectedDevice();
+        if (device == null) {
+            return EventData.EMPTY_ARRAY;
+        }
+
+        /* events created after "sinceMS" */
+        long limitCnt = this.getEventLimit();
+        EventData ed[] = EventData.getEventsByCreationMillis(
+            device.getAccountID(), device.getDeviceID(),
+            sinceMS + 1L, -1L,
+            limitCnt);
+        if ((limitCnt > 0L) && (ed.length >= limitCnt)) {
+            return null;
+        }
+
+        /* filter */
+        long startTime = this.getEventDateFromSec();
+        long endTime   = this.getEventDateToSec();
+        java.util.List<EventData> evList = new Vector<EventData>();
+        for (EventData ev : ed) {
+            long ts = ev.getTimestamp();
+            if ((startTime > 0L) && (ts < startTime)) {
+                continue;
+            } else
+            if ((endTime > 0L) && (ts > endTime)) {
+                continue;
+            } else
+            if (!ListTools.isEmpty(this.statusCodes) && !ListTools.contains(this.statusCodes,ev.getStatusCode())) {
+                continue;
+            } else
+            if (!ev.isValidGeoPoint()) {
+                continue;
+            }
+            ev.setDevice(device);
+            evList.add(ev);
+        }
+        Collections.sort(evList, EventData.getTimestampComparator());
+        return evList.toArray(new EventData[evList.size()]);
+
+    }
+
+    /* return the DeviceIDs in the current map selection (fleet group, or selected device) */
+    public OrderedSet<String> getMapDeviceIDs()
+        throws DBException
+    {
+        OrderedSet<String> devIDs = new OrderedSet<String>();
+        if (this.isFleet()) {
+            User user = this.getCurrentUser();
+            OrderedSet<String> devIDList = this._getDeviceIDsForSelectedGroup(true/*fleet*/,false/*inclActv*/);
+            if (devIDList != null) {
+                for (String deviceID : devIDList) {
+                    if ((user == null) || user.isAuthorizedDevice(deviceID)) {
+                        devIDs.add(deviceID);
+                    }
+                }
+            }
+        } else {
+            String deviceID = this.getSelectedDeviceID();
+            if (!StringTools.isBlank(deviceID)) {
+                devIDs.add(deviceID);
+            }
+        }
+        return devIDs;
+    }
+
+    /* return the DeviceIDs in the current map selection which have events created after "sinceMS" */
+    // -- the returned map values are the latest known event creation time for each device.
+    // -- returns null if event creation times are not supported.
+    public OrderedMap<String,Long> getMapDevicesChangedSince(long sinceMS)
+        throws DBException
+    {
+
+        /* account */
+        Account account = this.getCurrentAccount();
+        if (account == null) {
+            return null;
+        }
+        String accountID = account.getAccountID();
+        User   user      = this.getCurrentUser();
+
+        /* Device "lastEventCreateMillis" (single query for all devices) */
+        OrderedMap<String,Long> changed = Device.getDevicesChangedSince(accountID, user, sinceMS);
+        if (changed != null) {
+            if (!changed.isEmpty()) {
+                // -- retain only the devices in the current selection
+                OrderedSet<String> devIDs = this.getMapDeviceIDs();
+                for (String deviceID : new Vector<String>(changed.keySet())) {
+                    if (!devIDs.contains(deviceID)) {
+                        changed.remove(deviceID);
+                    }
+                }
+            }
+            return changed;
+        }
+
+        /* EventData "creationMillis" (one "pushkey" index lookup per device) */
+        if (!EventData.getFactory().hasField(EventData.FLD_creationMillis)) {
+            return null;
+        }
+        changed = new OrderedMap<String,Long>();
+        for (String deviceID : this.getMapDeviceIDs()) {
+            EventData ed[] = EventData.getEventsByCreationMillis(accountID, deviceID, sinceMS + 1L, -1L, 1L);
+            if (!ListTools.isEmpty(ed)) {
+                changed.put(deviceID, new Long(ed[0].getCreationMillis()));
+            }
+        }
+        return changed;
+
+    }
+
+    // ------------------------------------------------------------------------
+
     /* return array of events based on requested parameters */
     public Collection<Device> getMapEventsByDevice(long perDevLimit)
         throws DBException
@@ -0,0 +1,383 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Server-Sent-Events ("text/event-stream") feed of new positions for the
+//  devices authorized to the logged-in user.
+// Examples:
+//  var es = new EventSource("./Live");
+//  var es = new EventSource("./Live?group=trucks");
+//  es.addEventListener("position", function(e) { var p = JSON.parse(e.data); ... });
+//  es.addEventListener("reset"   , function(e) { ...full map refresh... });
+// ----------------------------------------------------------------------------
+// Notes:
+//  - The logged-in session (from the "Track" servlet) is required.
+//  - Positions are coalesced per device: if a device reports faster than the
+//    flush interval, only its latest position is sent.  If the connection falls
+//    behind by more than "LiveFeed.maxPending" devices, pending positions are
+//    discarded and a "reset" event is sent (the client should then perform a
+//    full map refresh).
+//  - Each connection holds a request thread for its lifetime (limited by
+//    "LiveFeed.maxConnectionSec", after which the client reconnects).
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.war.track;
+
+import java.lang.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.io.*;
+
+import javax.servlet.*;
+import javax.servlet.http.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+import org.opengts.db.*;
+import org.opengts.db.tables.*;
+
+import org.opengts.war.tools.*;
+
+public class LiveFeed
+    extends HttpServlet
+{
+
+    // ------------------------------------------------------------------------
+
+    /* Properties */
+    private static final String  PROP_LiveFeed_flushIntervalMS      = "LiveFeed.flushIntervalMS";
+    private static final String  PROP_LiveFeed_heartbeatSec         = "LiveFeed.heartbeatSec";
+    private static final String  PROP_LiveFeed_maxConnectionSec     = "LiveFeed.maxConnectionSec";
+    private static final String  PROP_LiveFeed_maxPending           = "LiveFeed.maxPending";
+    private static final String  PROP_LiveFeed_maxConnections       = "LiveFeed.maxConnections";
+
+    /* content type */
+    private static final String  CONTENT_TYPE_EVENT_STREAM          = "text/event-stream";
+
+    /* event names */
+    public  static final String  EVENT_POSITION                     = "position";
+    public  static final String  EVENT_RESET                        = "reset";
+
+    /* client reconnect delay */
+    private static final long    RETRY_MS                           = 5000L;
+
+    // ------------------------------------------------------------------------
+
+    private static long          FLUSH_INTERVAL_MS                  = 1000L;
+    private static long          HEARTBEAT_MS                       = 15000L;
+    private static long          MAX_CONNECTION_MS                  = 1800000L;
+    private static int           MAX_PENDING                        = 10000;
+    private static int           MAX_CONNECTIONS                    = 200;
+
+    private static AtomicInteger connectionCount                    = new AtomicInteger(0);
+
+    /* static initializer */
+    static {
+
+        /* initialize DBFactories */
+        // should already have been called by 'RTConfigContextListener'
+        DBConfig.servletInit(null);
+
+        /* properties */
+        FLUSH_INTERVAL_MS = Math.max(RTConfig.getLong(PROP_LiveFeed_flushIntervalMS,FLUSH_INTERVAL_MS),0L);
+        HEARTBEAT_MS      = Math.max(RTConfig.getLong(PROP_LiveFeed_heartbeatSec,HEARTBEAT_MS/1000L),1L) * 1000L;
+        MAX_CONNECTION_MS = Math.max(RTConfig.getLong(PROP_LiveFeed_maxConnectionSec,MAX_CONNECTION_MS/1000L),0L) * 1000L;
+        MAX_PENDING       = Math.max(RTConfig.getInt(PROP_LiveFeed_maxPending,MAX_PENDING),1);
+        MAX_CONNECTIONS   = Math.max(RTConfig.getInt(PROP_LiveFeed_maxConnections,MAX_CONNECTIONS),0);
+
+    };
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Per-connection subscriber.  Positions are coalesced per device until
+    *** drained by the connection thread.
+    **/
+    private static class Subscriber
+        implements EventBus.Listener
+    {
+        private LinkedHashMap<String,EventBus.Position> pending = new LinkedHashMap<String,EventBus.Position>();
+        private Set<String> deviceIDs   = null;
+        private int         maxPending  = 0;
+        private boolean     overflow    = false;
+        private boolean     closed      = false;
+        public Subscriber(Set<String> deviceIDs, int maxPending) {
+            this.deviceIDs  = deviceIDs; // may be null (all account devices)
+            this.maxPending = maxPending;
+        }
+        public void positionAvailable(EventBus.Position pos) {
+            String devID = pos.getDeviceID();
+            if ((this.deviceIDs != null) && !this.deviceIDs.contains(devID)) {
+                return; // not in requested group
+            }
+            synchronized (this) {
+                if (this.closed || this.overflow) {
+                    // -- closed, or waiting for the connection to send "reset"
+                } else
+                if (this.pending.remove(devID) != null) {
+                    // -- coalesce: keep latest only (moved to end of list)
+                    this.pending.put(devID, pos);
+                } else
+                if (this.pending.size() >= this.maxPending) {
+                    // -- connection has fallen behind
+                    this.pending.clear();
+                    this.overflow = true;
+                    this.notifyAll();
+                } else {
+                    this.pending.put(devID, pos);
+                    this.notifyAll();
+                }
+            }
+        }
+        /* wait up to "timeoutMS" for pending positions */
+        public synchronized void waitForPending(long timeoutMS) {
+            long nowMS = System.currentTimeMillis();
+            long endMS = nowMS + timeoutMS;
+            while (!this.closed && !this.overflow && this.pending.isEmpty() && (endMS > nowMS)) {
+                try {
+                    this.wait(endMS - nowMS);
+                } catch (InterruptedException ie) {
+                    this.closed = true;
+                    break;
+                }
+                nowMS = System.currentTimeMillis();
+            }
+        }
+        /* remove/return pending positions (null if overflowed) */
+        public synchronized Collection<EventBus.Position> drain() {
+            if (this.overflow) {
+                this.overflow = false;
+                return null;
+            } else
+            if (this.pending.isEmpty()) {
+                return Collections.<EventBus.Position>emptyList();
+            } else {
+                Collection<EventBus.Position> list = new ArrayList<EventBus.Position>(this.pending.values());
+                this.pending.clear();
+                return list;
+            }
+        }
+        public synchronized boolean isClosed() {
+            return this.closed;
+        }
+        public synchronized void close() {
+            this.closed = true;
+            this.pending.clear();
+            this.notifyAll();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /* GET request */
+    public void doGet(HttpServletRequest request, HttpServletResponse response)
+        throws ServletException, IOException
+    {
+        this._doWork(request, response);
+    }
+
+    /* POST request */
+    public void doPost(HttpServletRequest request, HttpServletResponse response)
+        throws ServletException, IOException
+    {
+        this._doWork(request, response);
+    }
+
+    // ------------------------------------------------------------------------
+
+    private void _doWork(HttpServletRequest request, HttpServletResponse response)
+        throws ServletException, IOException
+    {
+
+        /* logged-in account/user */
+        String acctID  = (String)AttributeTools.getSessionAttribute(request, Constants.PARM_ACCOUNT, "");   // session only
+        String userID  = (String)AttributeTools.getSessionAttribute(request, Constants.PARM_USER   , "");   // session only
+        String groupID = AttributeTools.getRequestString(request, Constants.PARM_GROUP, "");
+        if (StringTools.isBlank(acctID)) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Not logged in");
+            return;
+        }
+
+        /* account/user/group */
+        User        user      = null;
+        Set<String> deviceIDs = null;
+        try {
+            Account account = Account.getAccount(acctID);
+            if ((account == null) || !account.isActive() || account.isExpired() || account.isSuspended()) {
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid account");
+                return;
+            }
+            if (!StringTools.isBlank(userID)) {
+                user = User.getUser(account, userID); // null if "admin" with no User record
+                if ((user != null) && (!user.isActive() || user.isExpired() || user.isSuspended())) {
+                    response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid user");
+                    return;
+                }
+            }
+            if (!StringTools.isBlank(groupID) && !groupID.equalsIgnoreCase(DeviceGroup.DEVICE_GROUP_ALL)) {
+                deviceIDs = new HashSet<String>(DeviceGroup.getDeviceIDsForGroup(acctID, groupID, user, false));
+            }
+        } catch (DBException dbe) {
+            Print.logError("LiveFeed account/user/group error: " + dbe);
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Unable to read account");
+            return;
+        }
+
+        /* connection limit */
+        if (connectionCount.incrementAndGet() > MAX_CONNECTIONS) {
+            connectionCount.decrementAndGet();
+            Print.logWarn("LiveFeed maximum connections exceeded: " + MAX_CONNECTIONS);
+            response.setIntHeader("Retry-After", (int)(RETRY_MS / 1000L));
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many connections");
+            return;
+        }
+
+        /* stream */
+        EventBus   bus = EventBus.getInstance();
+        Subscriber sub = new Subscriber(deviceIDs, MAX_PENDING);
+        try {
+            bus.subscribe(acctID, sub);
+            this._stream(response, acctID, user, sub);
+        } finally {
+            sub.close();
+            bus.unsubscribe(acctID, sub);
+            connectionCount.decrementAndGet();
+        }
+
+    }
+
+    /* write positions until the connection is closed or expires */
+    private void _stream(HttpServletResponse response, String acctID, User user, Subscriber sub)
+        throws IOException
+    {
+
+        /* headers */
+        response.setContentType(CONTENT_TYPE_EVENT_STREAM + "; charset=" + StringTools.CharEncoding_UTF_8);
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("X-Accel-Buffering", "no"); // disable proxy buffering
+        PrintWriter out = response.getWriter();
+        out.write("retry: " + RETRY_MS + "\n\n");
+        out.flush();
+
+        /* device authorization cache (this connection only) */
+        Map<String,Boolean> authMap = new HashMap<String,Boolean>();
+
+        /* loop */
+        long startMS     = System.currentTimeMillis();
+        long lastWriteMS = startMS;
+        long lastFlushMS = 0L;
+        for (;;) {
+
+            /* connection expired? */
+            long nowMS = System.currentTimeMillis();
+            if ((MAX_CONNECTION_MS > 0L) && ((nowMS - startMS) >= MAX_CONNECTION_MS)) {
+                break; // client will reconnect
+            }
+
+            /* wait for positions, or heartbeat */
+            sub.waitForPending(Math.max(HEARTBEAT_MS - (nowMS - lastWriteMS), 1L));
+            if (sub.isClosed()) {
+                break;
+            }
+
+            /* minimum flush interval (allows further coalescing) */
+            long nextFlushMS = lastFlushMS + FLUSH_INTERVAL_MS;
+            nowMS = System.currentTimeMillis();
+            if (nextFlushMS > nowMS) {
+                try {
+                    Thread.sleep(nextFlushMS - nowMS);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+            }
+
+            /* write pending positions */
+            Collection<EventBus.Position> posList = sub.drain();
+            if (posList == null) {
+                out.write("event: " + EVENT_RESET + "\ndata: {}\n\n");
+            } else
+            if (!posList.isEmpty()) {
+                for (EventBus.Position pos : posList) {
+                    if (LiveFeed.isAuthorized(authMap, user, pos.getDeviceID())) {
+                        LiveFeed.writeEvent(out, EVENT_POSITION, LiveFeed.getPositionJSON(pos));
+                    }
+                }
+            } else {
+                out.write(": \n\n"); // heartbeat comment
+            }
+            out.flush();
+            if (out.checkError()) {
+                break; // client disconnected
+            }
+            lastFlushMS = lastWriteMS = System.currentTimeMillis();
+
+        }
+
+    }
+
+    /* return true if the device is authorized for the user (cached) */
+    private static boolean isAuthorized(Map<String,Boolean> authMap, User user, String devID)
+    {
+        if (user == null) {
+            return true; // "admin" user
+        }
+        Boolean auth = authMap.get(devID);
+        if (auth == null) {
+            try {
+                auth = user.isAuthorizedDevice(devID)? Boolean.TRUE : Boolean.FALSE;
+            } catch (DBException dbe) {
+                Print.logError("LiveFeed device authorization error: " + dbe);
+                return false; // retry next time
+            }
+            authMap.put(devID, auth);
+        }
+        return auth.booleanValue();
+    }
+
+    /* return the JSON representation of the specified position */
+    private static JSON._Object getPositionJSON(EventBus.Position pos)
+    {
+        JSON._Object obj = new JSON._Object();
+        obj.addKeyValue("device"   , pos.getDeviceID());
+        obj.addKeyValue("timestamp", pos.getTimestamp());
+        obj.addKeyValue("status"   , pos.getStatusCode());
+        obj.addKeyValue("latitude" , pos.getLatitude());
+        obj.addKeyValue("longitude", pos.getLongitude());
+        obj.addKeyValue("speedKPH" , pos.getSpeedKPH());
+        obj.addKeyValue("heading"  , pos.getHeading());
+        obj.addKeyValue("altitude" , pos.getAltitude());
+        obj.addKeyValue("address"  , pos.getAddress());
+        obj.addKeyValue("created"  , (pos.getCreationMillis() > 0L)? pos.getCreationMillis() : (pos.getCreationTime() * 1000L));
+        return obj;
+    }
+
+    /* write a single SSE event */
+    private static void writeEvent(PrintWriter out, String event, JSON._Object data)
+    {
+        out.write("event: " + event + "\n");
+        for (String line : StringTools.split(data.toString(false),'\n')) {
+            out.write("data: " + line + "\n");
+        }
+        out.write("\n");
+    }
+
+}
@@ -0,0 +1,126 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Exports the web-application Metrics in the Prometheus text format.
+// Examples:
+//  curl http://localhost:8080/track/Metrics
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Requests are only accepted from the IP addresses listed in the property
+//    "MetricsExport.allowAddress" (default "127.0.0.1").
+//  - Counters and timers are only collected when "Metrics.enable" is true.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.war.track;
+
+import java.lang.*;
+import java.util.*;
+import java.io.*;
+
+import javax.servlet.*;
+import javax.servlet.http.*;
+
+import org.opengts.util.*;
+import org.opengts.db.*;
+
+public class MetricsExport
+    extends HttpServlet
+{
+
+    // ------------------------------------------------------------------------
+
+    /* Properties */
+    private static final String  PROP_MetricsExport_allowAddress    = "MetricsExport.allowAddress";
+
+    /* default allowed addresses */
+    private static final String  DEFAULT_ALLOW_ADDRESS              = "127.0.0.1";
+
+    // ------------------------------------------------------------------------
+
+    private static IPTools.IPAddressList AllowAddressList           = null;
+
+    /* static initializer */
+    static {
+
+        /* initialize DBFactories */
+        // should already have been called by 'RTConfigContextListener'
+        DBConfig.servletInit(null);
+
+        /* properties */
+        AllowAddressList = new IPTools.IPAddressList(
+            RTConfig.getString(PROP_MetricsExport_allowAddress,DEFAULT_ALLOW_ADDRESS));
+
+    };
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns true if the specified remote address may read the metrics
+    **/
+    protected static boolean isAllowedAddress(String ipAddr)
+    {
+        if (StringTools.isBlank(ipAddr)) {
+            return false;
+        } else
+        if (ipAddr.equals("0:0:0:0:0:0:0:1") || ipAddr.equals("::1")) {
+            // -- IPv6 loopback
+            return AllowAddressList.isMatch("127.0.0.1");
+        } else {
+            return AllowAddressList.isMatch(ipAddr);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /* GET request */
+    public void doGet(HttpServletRequest request, HttpServletResponse response)
+        throws ServletException, IOException
+    {
+        this._doWork(request, response);
+    }
+
+    // ------------------------------------------------------------------------
+
+    private void _doWork(HttpServletRequest request, HttpServletResponse response)
+        throws ServletException, IOException
+    {
+
+        /* check remote address */
+        String ipAddr = request.getRemoteAddr();
+        if (!MetricsExport.isAllowedAddress(ipAddr)) {
+            Print.logWarn("Metrics request from unauthorized address: " + ipAddr);
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Forbidden");
+            return;
+        }
+
+        /* write metrics */
+        response.setContentType(Metrics.CONTENT_TYPE + "; charset=" + StringTools.CharEncoding_UTF_8);
+        response.setCharacterEncoding(StringTools.CharEncoding_UTF_8);
+        response.setHeader("Cache-Control", "no-cache");
+        PrintWriter out = response.getWriter();
+        out.write(Metrics.toPrometheusString());
+        out.flush();
+
+    }
+
+}
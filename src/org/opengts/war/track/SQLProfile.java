@@ -0,0 +1,118 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Displays the web-application SQL profile report (see SQLProfiler).
+// Examples:
+//  curl http://localhost:8080/track/SQLProfile
+//  curl http://localhost:8080/track/SQLProfile?sort=count&top=50
+//  curl http://localhost:8080/track/SQLProfile?reset=true
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Requests are only accepted from the addresses allowed by MetricsExport
+//    ("MetricsExport.allowAddress", default "127.0.0.1").
+//  - Statements are only profiled when "db.profileSQL" is true.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.war.track;
+
+import java.lang.*;
+import java.util.*;
+import java.io.*;
+
+import javax.servlet.*;
+import javax.servlet.http.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+import org.opengts.db.*;
+
+import org.opengts.war.tools.*;
+
+public class SQLProfile
+    extends HttpServlet
+{
+
+    // ------------------------------------------------------------------------
+
+    /* request parameters */
+    private static final String  PARM_SORT                          = "sort";
+    private static final String  PARM_TOP                           = "top";
+    private static final String  PARM_RESET                         = "reset";
+
+    // ------------------------------------------------------------------------
+
+    /* static initializer */
+    static {
+
+        /* initialize DBFactories */
+        // should already have been called by 'RTConfigContextListener'
+        DBConfig.servletInit(null);
+
+    };
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /* GET request */
+    public void doGet(HttpServletRequest request, HttpServletResponse response)
+        throws ServletException, IOException
+    {
+        this._doWork(request, response);
+    }
+
+    // ------------------------------------------------------------------------
+
+    private void _doWork(HttpServletRequest request, HttpServletResponse response)
+        throws ServletException, IOException
+    {
+
+        /* check remote address */
+        String ipAddr = request.getRemoteAddr();
+        if (!MetricsExport.isAllowedAddress(ipAddr)) {
+            Print.logWarn("SQL profile request from unauthorized address: " + ipAddr);
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Forbidden");
+            return;
+        }
+
+        /* parameters */
+        String  sortBy = AttributeTools.getRequestString(request, PARM_SORT, SQLProfiler.SORT_TIME);
+        int     topN   = StringTools.parseInt(AttributeTools.getRequestString(request,PARM_TOP,""), SQLProfiler.DEFAULT_TOP_COUNT);
+        boolean reset  = StringTools.parseBoolean(AttributeTools.getRequestString(request,PARM_RESET,""), false);
+
+        /* report */
+        StringBuffer sb = SQLProfiler.writeReport(null, sortBy, topN);
+        if (reset) {
+            SQLProfiler.reset();
+            sb.append("\n(SQL profile statistics have been reset)\n");
+        }
+
+        /* write */
+        response.setContentType(HTMLTools.MIME_PLAIN() + "; charset=" + StringTools.CharEncoding_UTF_8);
+        response.setCharacterEncoding(StringTools.CharEncoding_UTF_8);
+        response.setHeader("Cache-Control", "no-cache");
+        PrintWriter out = response.getWriter();
+        out.write(sb.toString());
+        out.flush();
+
+    }
+
+}
@@ -533,7 +533,7 @@ public class Track
             AttributeTools.setSessionAttribute(request, CommonServlet.HOST_PROPERTIES, null); // clear
         } else {
             // -- get specified host properties from ID
-            hostProps = Resource.getPrivateLabelPropertiesForHost(hostPropID, null); // may return null
+            hostProps = TrackSessionCache.getPrivateLabelPropertiesForHost(hostPropID, null); // may return null
             if (hostProps != null) {
                 hostProps.setString(CommonServlet.HOST_PROPERTIES_ID, hostPropID);
             }
@@ -542,7 +542,7 @@ public class Track
         // -- if no explicit host properties, try resources
         if (hostProps == null) {
             //Print.logInfo("Looking up host properties by host/url: " + requestHostName + ", " + requestUrlPath);
-            hostProps = Resource.getPrivateLabelPropertiesForHost(requestHostName, requestUrlPath);
+            hostProps = TrackSessionCache.getPrivateLabelPropertiesForHost(requestHostName, requestUrlPath);
         }
         // -- found?
         //if (hostProps != null) { Print.logInfo("Found host/url host properties"); }
@@ -1328,7 +1328,7 @@ public class Track
         Account account = null;
         try {
 
-            account = Account.getAccount(accountID);
+            account = TrackSessionCache.getAccount(request, accountID, !isPost);
             if (account == null) {
                 // -- accountID not found
                 Print.logInfo("Account does not exist: " + accountID);
@@ -1464,7 +1464,7 @@ public class Track
 
             /* lookup specified UserID */
             boolean loginOK = true;
-            user = User.getUser(account, userID);
+            user = TrackSessionCache.getUser(request, account, userID, !isPost);
             if (user != null) {
                 // -- we found a valid user
                 //Print.logInfo("Found User: " + userID);
@@ -1650,7 +1650,7 @@ public class Track
             //}
             // -- check for account resource lafID
             if (acctLafProps == null) {
-                acctLafProps = Resource.getPrivateLabelPropertiesForHost("-"+accountID, null);
+                acctLafProps = TrackSessionCache.getPrivateLabelPropertiesForHost("-"+accountID, null);
             }
             // -- set Account LAF props if found
             if (acctLafProps != null) {
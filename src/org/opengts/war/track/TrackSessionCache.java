@@ -0,0 +1,356 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2017, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Session cache for the logged-in Account/User, and per-host cache for the
+//  Resource host properties used by the "Track" servlet.
+// ----------------------------------------------------------------------------
+// Notes:
+//  - Session cached Account/User records are revalidated at most every
+//    "track.sessionCache.revalidateSec" seconds by reading only the record
+//    "lastUpdateTime", and are reloaded if changed, or if older than
+//    "track.sessionCache.maxAgeSec".  Cached User AccessLevels and authorized
+//    device groups are discarded on each revalidation.
+//  - POST requests (ie. admin page edits) bypass and discard the session cache,
+//    so that a partially modified record instance is never cached.
+//  - Host properties (Resource "privatelabel.properties:...") are revalidated at
+//    most every "track.hostCache.revalidateSec" seconds against the Resource
+//    table "lastUpdateTime" and record count (a deleted Resource does not change
+//    the "lastUpdateTime"), and the entire host cache is discarded if changed.
+//    Host entries are also reloaded if older than "track.sessionCache.maxAgeSec".
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.war.track;
+
+import java.lang.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import javax.servlet.*;
+import javax.servlet.http.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+import org.opengts.db.*;
+import org.opengts.db.tables.*;
+
+import org.opengts.war.tools.*;
+
+public class TrackSessionCache
+{
+
+    // ------------------------------------------------------------------------
+
+    private static final String SESSION_ENTITIES            = "$entityCache";
+
+    private static final int    MAX_HOST_ENTRIES            = 500;
+
+    // ------------------------------------------------------------------------
+
+    /* revalidation interval (0 if session caching is disabled) */
+    private static long getSessionRevalidateMS()
+    {
+        return Math.max(RTConfig.getLong(DBConfig.PROP_track_sessionCache_revalidateSec,10L),0L) * 1000L;
+    }
+
+    /* maximum age */
+    private static long getSessionMaxAgeMS()
+    {
+        return Math.max(RTConfig.getLong(DBConfig.PROP_track_sessionCache_maxAgeSec,300L),0L) * 1000L;
+    }
+
+    /* host cache revalidation interval (0 if host caching is disabled) */
+    private static long getHostRevalidateMS()
+    {
+        return Math.max(RTConfig.getLong(DBConfig.PROP_track_hostCache_revalidateSec,60L),0L) * 1000L;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // Session Account/User cache
+
+    /**
+    *** Session cached Account/User
+    **/
+    private static class SessionEntities
+    {
+        private String  accountID       = null;
+        private Account account         = null;
+        private long    acctLoadMS      = 0L;
+        private long    acctCheckMS     = 0L;
+        private String  userID          = null;
+        private User    user            = null;
+        private boolean userLoaded      = false;
+        private long    userLoadMS      = 0L;
+        private long    userCheckMS     = 0L;
+        public SessionEntities() {
+            super();
+        }
+        public void setAccount(String acctID, Account acct, long nowMS) {
+            this.accountID   = acctID;
+            this.account     = acct;
+            this.acctLoadMS  = nowMS;
+            this.acctCheckMS = nowMS;
+            this.clearUser();
+        }
+        public void setUser(String userID, User user, long nowMS) {
+            this.userID      = userID;
+            this.user        = user;
+            this.userLoaded  = true;
+            this.userLoadMS  = nowMS;
+            this.userCheckMS = nowMS;
+        }
+        public void clearUser() {
+            this.userID      = null;
+            this.user        = null;
+            this.userLoaded  = false;
+        }
+    }
+
+    /* get the session cache (null if no session) */
+    private static SessionEntities _getSessionEntities(HttpServletRequest request, boolean create)
+    {
+        HttpSession sess = AttributeTools.getSession(request);
+        if (sess == null) {
+            return null;
+        }
+        synchronized (sess) {
+            Object se = AttributeTools.getSessionAttribute(sess, SESSION_ENTITIES, null);
+            if (se instanceof SessionEntities) {
+                return (SessionEntities)se;
+            } else
+            if (create) {
+                SessionEntities newSE = new SessionEntities();
+                AttributeTools.setSessionAttribute(sess, SESSION_ENTITIES, newSE);
+                return newSE;
+            } else {
+                return null;
+            }
+        }
+    }
+
+    /**
+    *** Discards the session cached Account/User
+    *** @param request  The HttpServletRequest
+    **/
+    public static void clearSessionCache(HttpServletRequest request)
+    {
+        HttpSession sess = AttributeTools.getSession(request);
+        if (sess != null) {
+            AttributeTools.setSessionAttribute(sess, SESSION_ENTITIES, null);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the specified Account, from the session cache if valid
+    *** @param request   The HttpServletRequest
+    *** @param accountID The Account ID
+    *** @param useCache  False to bypass (and discard) the session cache
+    *** @return The Account, or null if the Account does not exist
+    *** @throws DBException If a database error occurs
+    **/
+    public static Account getAccount(HttpServletRequest request, String accountID, boolean useCache)
+        throws DBException
+    {
+        long revalMS = getSessionRevalidateMS();
+        if (!useCache || (revalMS <= 0L) || StringTools.isBlank(accountID)) {
+            TrackSessionCache.clearSessionCache(request);
+            return Account.getAccount(accountID);
+        }
+        SessionEntities se = _getSessionEntities(request, true);
+        if (se == null) {
+            return Account.getAccount(accountID);
+        }
+        synchronized (se) {
+            long nowMS = System.currentTimeMillis();
+            if ((se.account != null) && accountID.equals(se.accountID) &&
+                ((nowMS - se.acctLoadMS) < getSessionMaxAgeMS())) {
+                if ((nowMS - se.acctCheckMS) < revalMS) {
+                    return se.account;
+                }
+                long updTime = new Account.Key(accountID).getLastUpdateTime();
+                if (updTime == se.account.getLastUpdateTime()) {
+                    se.acctCheckMS = nowMS;
+                    return se.account;
+                }
+            }
+            Account account = Account.getAccount(accountID);
+            se.setAccount(accountID, account, nowMS);
+            return account;
+        }
+    }
+
+    /**
+    *** Gets the specified User, from the session cache if valid.  The Account must
+    *** have been obtained from "getAccount" to be cached.
+    *** @param request   The HttpServletRequest
+    *** @param account   The Account
+    *** @param userID    The User ID
+    *** @param useCache  False to bypass the session cache
+    *** @return The User, or null if the User does not exist
+    *** @throws DBException If a database error occurs
+    **/
+    public static User getUser(HttpServletRequest request, Account account, String userID, boolean useCache)
+        throws DBException
+    {
+        long revalMS = getSessionRevalidateMS();
+        SessionEntities se = (useCache && (revalMS > 0L) && (userID != null))?
+            _getSessionEntities(request, false) : null;
+        if (se == null) {
+            return User.getUser(account, userID);
+        }
+        synchronized (se) {
+            if ((account == null) || (account != se.account)) {
+                // -- not the session cached Account
+                return User.getUser(account, userID);
+            }
+            long nowMS = System.currentTimeMillis();
+            if (se.userLoaded && userID.equals(se.userID) &&
+                ((nowMS - se.userLoadMS) < getSessionMaxAgeMS())) {
+                if ((nowMS - se.userCheckMS) < revalMS) {
+                    return se.user;
+                }
+                long updTime = new User.Key(account.getAccountID(), userID).getLastUpdateTime();
+                if ((se.user == null)? (updTime < 0L) : (updTime == se.user.getLastUpdateTime())) {
+                    se.userCheckMS = nowMS;
+                    if (se.user != null) {
+                        // -- AccessLevels/device groups are not versioned by "lastUpdateTime"
+                        se.user.clearCachedAuthorization();
+                    }
+                    return se.user;
+                }
+            }
+            User user = User.getUser(account, userID);
+            if (user != null) {
+                user.setAccessLevelCacheEnabled(true);
+            }
+            se.setUser(userID, user, nowMS);
+            return user;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // Host Resource cache
+
+    /**
+    *** Per-host cache entry
+    **/
+    private static class HostEntry
+    {
+        private RTProperties hostProps   = null;
+        private boolean      propsLoaded = false;
+        private long         loadMS      = 0L;
+    }
+
+    private static ConcurrentHashMap<String,HostEntry> hostCache = new ConcurrentHashMap<String,HostEntry>();
+    private static long    hostCacheCheckMS = 0L;
+    private static long    hostCacheStamp   = -1L;
+    private static long    hostCacheCount   = -1L;
+    private static boolean hostCacheError   = false;
+
+    /* revalidate the host cache, return false if host caching is disabled */
+    private static boolean _revalidateHostCache()
+    {
+        long revalMS = getHostRevalidateMS();
+        if (revalMS <= 0L) {
+            return false;
+        }
+        synchronized (hostCache) {
+            long nowMS = System.currentTimeMillis();
+            if ((nowMS - hostCacheCheckMS) >= revalMS) {
+                hostCacheCheckMS = nowMS;
+                long updTime = -1L;
+                long count   = -1L;
+                try {
+                    updTime = DBRecord.getLastUpdateTime(Resource.getFactory());
+                    count   = DBRecord.getRecordCount(Resource.getFactory());
+                    hostCacheError = false;
+                } catch (DBException dbe) {
+                    if (!hostCacheError) {
+                        // -- log once (until the Resource table is readable again)
+                        Print.logError("Unable to read Resource update time/count: " + dbe);
+                        hostCacheError = true;
+                    }
+                }
+                if ((updTime < 0L) || (updTime != hostCacheStamp) || (count != hostCacheCount)) {
+                    hostCache.clear();
+                    hostCacheStamp = updTime;
+                    hostCacheCount = count;
+                }
+            }
+            if (hostCache.size() > MAX_HOST_ENTRIES) {
+                hostCache.clear();
+            }
+        }
+        return true;
+    }
+
+    /* get/create the host cache entry */
+    private static HostEntry _getHostEntry(String key)
+    {
+        HostEntry he = hostCache.get(key);
+        if (he == null) {
+            HostEntry newHE = new HostEntry();
+            he = hostCache.putIfAbsent(key, newHE);
+            if (he == null) { he = newHE; }
+        }
+        return he;
+    }
+
+    /**
+    *** Clears the per-host Resource cache
+    **/
+    public static void clearHostCache()
+    {
+        hostCache.clear();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the Resource host properties for the specified host name and URL path
+    *** (cached per host/path, including "not found" results)
+    *** @param hostName  The host name (or host properties ID)
+    *** @param urlPath   The URL path (may be null)
+    *** @return A copy of the host properties, or null if not found
+    **/
+    public static RTProperties getPrivateLabelPropertiesForHost(String hostName, String urlPath)
+    {
+        if (StringTools.isBlank(hostName) || !_revalidateHostCache()) {
+            return Resource.getPrivateLabelPropertiesForHost(hostName, urlPath);
+        }
+        HostEntry he = _getHostEntry(hostName + "|" + StringTools.trim(urlPath));
+        synchronized (he) {
+            long nowMS = System.currentTimeMillis();
+            if (!he.propsLoaded || ((nowMS - he.loadMS) >= getSessionMaxAgeMS())) {
+                he.hostProps   = Resource.getPrivateLabelPropertiesForHost(hostName, urlPath);
+                he.propsLoaded = true;
+                he.loadMS      = nowMS;
+            }
+            // -- return a copy, the caller may modify the returned properties
+            return (he.hostProps != null)? new RTProperties(he.hostProps) : null;
+        }
+    }
+
+}
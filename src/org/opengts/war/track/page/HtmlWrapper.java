@@ -295,10 +295,16 @@ public class HtmlWrapper
             // -- parse request
             JSON jsonReq = null;
             try {
-                byte jsonBytes[] = FileTools.readStream(request.getInputStream());
-                String jsonStr = StringTools.toStringValue(jsonBytes).trim();
-                Print.logInfo("JSON request:\n" + jsonStr);
-                jsonReq = new JSON(jsonStr);
+                // -- always parsed by JsonReader (the logged request is parsed from the String)
+                if (Print.isDebugLoggingLevel()) {
+                    byte jsonBytes[] = FileTools.readStream(request.getInputStream());
+                    String jsonStr = StringTools.toStringValue(jsonBytes).trim();
+                    Print.logDebug("JSON request:\n" + jsonStr);
+                    jsonReq = new JSON(new JsonReader(jsonStr));
+                } else {
+                    // -- parse directly from the request stream
+                    jsonReq = new JSON(request.getInputStream());
+                }
             } catch (Throwable th) { // JSON.JSONParseException, etc
                 Print.logException("JSON request exception", th);
             }
@@ -309,9 +315,11 @@ public class HtmlWrapper
                 //CommonServlet.setResponseContentType(response, HTMLTools.MIME_JSON());
                 CommonServlet.setResponseContentType(response, HTMLTools.MIME_PLAIN());
                 PrintWriter out = response.getWriter();
-                String jsonRespStr = (jsonResp != null)? jsonResp.toString() : "";
-                Print.logInfo("JSON response:\n" + jsonRespStr);
-                out.println(jsonRespStr);
+                if (Print.isDebugLoggingLevel()) {
+                    Print.logDebug("JSON response:\n" + jsonResp.toString());
+                }
+                new JsonWriter(out, true).value(jsonResp);
+                out.println();
                 out.close();
             } else {
                 // we assume that the JSON request handler had other intentions
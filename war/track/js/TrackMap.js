@@ -283,7 +283,7 @@ function trackMapClickedReplay(showInfoBox)
 };
 
 /* this is executed when "Update Map" is clicked */
-function trackMapUpdateMap(limit, limitType, recenterMode, replay) 
+function trackMapUpdateMap(limit, limitType, recenterMode, replay, delta) 
 {
     var limitFirst = false;
     //try { document.getElementById(ID_CENTER_LAST_POINT_FORM).centerLastPoint.checked = false; } catch (e) {}
@@ -303,6 +303,10 @@ function trackMapUpdateMap(limit, limitType, recenterMode, replay)
     if (limitType != "") {
         url += "&" + PARM_LIMIT_TYPE + "=" + limitType;
     }
+    if (delta && (typeof jsmDeltaSinceArg == "function")) {
+        // -- auto-update: request only the changes since the last update
+        url += jsmDeltaSinceArg();
+    }
     mapProviderUpdateMap(url, recenterMode, replay);
     // "Replay" button ID is ID_MAP_REPLAY_BTN
 };
@@ -362,7 +366,7 @@ function _timerAutoUpdateMap()
     if (--AutoIntervalCount <= 0) {
         _resetCalandarDates();
         var limit = ((MapUpdateOnLoad == "last") && !IS_FLEET)? 1 : trackMapEventLimit();
-        trackMapUpdateMap(limit, "last", jsmRecenterZoomMode(AutoUpdateRecenterMode), 0);
+        trackMapUpdateMap(limit, "last", jsmRecenterZoomMode(AutoUpdateRecenterMode), 0, true);
         if ((AutoMaxCount > 0) && (++AutoUpdateMapCount >= AutoMaxCount)) {
             // we've reached the maximum number of allowed updates.
             stopAutoUpdateMapTimer();
@@ -153,6 +153,14 @@ var ATTR_signal                 = "signal";
 /* partial data */
 var jsvPartialData              = false;
 
+/* last map points URL (see "refine" action) */
+var jsvLastMapURL               = null;
+
+/* delta map updates (see "Delta") */
+var jsvDeltaJMapData            = null; // last complete JMapData
+var jsvDeltaWatermark           = 0;    // last event creation time (millis)
+var jsvDeltaCount               = 0;    // delta updates since last full update
+
 /* jsmap image base dir */
 var jsvImageBaseDir             = ".";
 
@@ -847,6 +855,13 @@ function jsmParseAJAXPoints_JSON(jsonText, recenterMode, replay) // tmz
         alert("JMapData not found in JSON response");
         return 0;
     }
+
+    /* delta update: merge with prior update */
+    JMapData = jsmMergeDeltaJSON(JMapData);
+    if (JMapData == null) {
+        // -- not modified, leave current map as-is
+        return 0;
+    }
     var isFleet = JMapData.isFleet;  // ATTR_isFleet
 
     /* time */
@@ -1147,7 +1162,7 @@ function jsmParseAJAXPoints_JSON(jsonText, recenterMode, replay) // tmz
     var Actions = (JMapData.Actions != null)? JMapData.Actions : [];  // JSON_Actions
     for (var ai = 0; ai < Actions.length; ai++) {
         var act = Actions[ai];
-        var cmd = strDefault(act.cmd,"");  // JSON_cmd  ("autoupdate", "alert", "gotourl", "zoompp", "showpp")
+        var cmd = strDefault(act.cmd,"");  // JSON_cmd  ("autoupdate", "alert", "gotourl", "zoompp", "showpp", "refine")
         var arg = strDefault(act.arg,"");  // JSON_arg
         if (cmd == "autoupdate") {
             try {
@@ -1186,6 +1201,13 @@ function jsmParseAJAXPoints_JSON(jsonText, recenterMode, replay) // tmz
                 var zoom = -1; // TODO:
                 jsmSetCenter(lat, lon, zoom);
             }
+        } else
+        if (cmd == "refine") {
+            // -- server sent simplified points, request the refined level-of-detail (do not recenter)
+            if (!replay && (jsvLastMapURL != null)) {
+                var refineURL = jsvLastMapURL + ((jsvLastMapURL.indexOf("?") >= 0)? "&" : "?") + "lod=" + arg;
+                setTimeout(function() { jsmLoadPoints(refineURL, RECENTER_NONE, 0); }, 10);
+            }
         }
     }
 
@@ -1194,6 +1216,127 @@ function jsmParseAJAXPoints_JSON(jsonText, recenterMode, replay) // tmz
 
 };
 
+/**
+*** Returns the delta update request argument ("&since=WATERMARK"), or blank if
+*** a full update should be requested.
+**/
+function jsmDeltaSinceArg()
+{
+    if ((jsvDeltaJMapData == null) || (jsvDeltaWatermark <= 0)) {
+        return "";
+    }
+    var fullInterval = (typeof DELTA_FULL_INTERVAL != "undefined")? DELTA_FULL_INTERVAL : 10;
+    if ((fullInterval > 0) && (++jsvDeltaCount >= fullInterval)) {
+        // -- periodic full update (picks up any changes missed by the delta updates)
+        jsvDeltaCount = 0;
+        return "";
+    }
+    return "&since=" + jsvDeltaWatermark;
+};
+
+/**
+*** Merges a delta update into the last complete JMapData.
+*** Returns the merged JMapData, or null if the map has not been modified.
+**/
+function jsmMergeDeltaJSON(JMapData)
+{
+    var Delta = JMapData.Delta; // JSON_Delta
+    if (Delta == null) {
+        // -- delta updates not enabled
+        jsvDeltaJMapData  = null;
+        jsvDeltaWatermark = 0;
+        return JMapData;
+    }
+
+    /* not modified */
+    var type = strDefault(Delta.type,"full"); // DELTA_full, DELTA_partial, DELTA_notModified
+    if (type == "notModified") {
+        return null;
+    }
+    jsvDeltaWatermark = (Delta.watermark != null)? Delta.watermark : 0; // JSON_watermark
+
+    /* full update */
+    if ((type != "partial") || (jsvDeltaJMapData == null)) {
+        // -- reduced (simplified/clustered) map data cannot be merged
+        jsvDeltaJMapData = (JMapData.Reduce == null)? JMapData : null; // JSON_Reduce
+        return JMapData;
+    }
+
+    /* partial update: header values */
+    var base = jsvDeltaJMapData;
+    base.Time      = JMapData.Time;      // JSON_Time
+    base.LastEvent = JMapData.LastEvent; // JSON_LastEvent
+    base.Actions   = JMapData.Actions;   // JSON_Actions
+    base.Delta     = Delta;
+
+    /* partial update: shapes (union) */
+    if (JMapData.Shapes != null) {
+        var shapes = (base.Shapes != null)? base.Shapes : [];
+        var shapeKeys = {};
+        for (var i = 0; i < shapes.length; i++) {
+            shapeKeys[JSON.stringify(shapes[i])] = true;
+        }
+        for (var i = 0; i < JMapData.Shapes.length; i++) {
+            var key = JSON.stringify(JMapData.Shapes[i]);
+            if (!shapeKeys[key]) {
+                shapes.push(JMapData.Shapes[i]);
+                shapeKeys[key] = true;
+            }
+        }
+        base.Shapes = shapes;
+    }
+
+    /* partial update: replace (or append to) changed device datasets, remove tombstoned devices */
+    var current = null; // all devices in the current selection
+    if (Delta.Devices != null) { // JSON_Devices
+        current = {};
+        for (var d = 0; d < Delta.Devices.length; d++) {
+            current[Delta.Devices[d]] = true;
+        }
+    }
+    var changed = {};
+    var newDS = (JMapData.DataSets != null)? JMapData.DataSets : [];
+    for (var n = 0; n < newDS.length; n++) {
+        if (newDS[n].type != "poi") {
+            changed[newDS[n].id] = newDS[n];
+        }
+    }
+    var dsList = [];
+    var oldDS = (base.DataSets != null)? base.DataSets : [];
+    for (var o = 0; o < oldDS.length; o++) {
+        var ds = oldDS[o];
+        if (ds.type == "poi") {
+            dsList.push(ds);
+        } else
+        if ((changed[ds.id] != null) && Delta.append) { // JSON_append
+            // -- append the new points to the current dataset (retaining at most "limit" points)
+            var pts = ((ds.Points != null)? ds.Points : []).concat(changed[ds.id].Points);
+            var limit = (Delta.limit != null)? Delta.limit : 0; // JSON_limit
+            if ((limit > 0) && (pts.length > limit)) {
+                pts = pts.slice(pts.length - limit);
+            }
+            changed[ds.id].Points = pts;
+            dsList.push(changed[ds.id]);
+            delete changed[ds.id];
+        } else
+        if (changed[ds.id] != null) {
+            dsList.push(changed[ds.id]);
+            delete changed[ds.id];
+        } else
+        if ((current == null) || current[ds.id]) {
+            dsList.push(ds);
+        } else {
+            // -- device no longer in selection
+        }
+    }
+    for (var id in changed) {
+        dsList.push(changed[id]);
+    }
+    base.DataSets = dsList;
+    return base;
+
+};
+
 /**
 *** Parse the specified XML
 **/
@@ -1591,6 +1734,7 @@ function jsmLoadPoints(mapURL, recenterMode, replay)
     try {
         var req = jsmGetXMLHttpRequest();
         if (req) {
+            if (mapURL.indexOf("lod=") < 0) { jsvLastMapURL = mapURL; }
             req.open("GET", mapURL, true);
             //req.setRequestHeader("CACHE-CONTROL", "NO-CACHE");
             //req.setRequestHeader("PRAGMA", "NO-CACHE");